@@ -0,0 +1,102 @@
+package fiap.tds.benchmarks;
+
+import fiap.tds.infrastructure.DatabaseConfig;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * H2 em memória (modo Oracle) usado pelos benchmarks no lugar do banco da FIAP, com o esquema das migrações da API.
+ * Aponta o DatabaseConfig para ele via system properties, então os repositórios rodam sem alteração.
+ */
+public final class BancoEmbarcado {
+
+    public static final String URL = "jdbc:h2:mem:benchmark;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    private static final String[] TIPOS = {"enchente", "alagamento", "deslizamento", "incendio", "vendaval"};
+    private static final String[] STATUS = {"novo", "verificado", "em_andamento", "resolvido", "falso_positivo"};
+    private static final int LOTE = 10_000;
+    private static final String[] BAIRROS = {"Centro", "Mooca", "Pinheiros", "Itaquera", "Santana", "Butantã"};
+
+    private BancoEmbarcado() {
+    }
+
+    /**
+     * Recria o esquema (mesmas migrações do Flyway que a API roda na subida) e popula reportes e usuários.
+     */
+    public static void iniciar(int reportes, int usuarios) throws SQLException {
+        System.setProperty("db.url", URL);
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            popularUsuarios(conn, usuarios);
+            popularReportes(conn, reportes);
+        }
+    }
+
+    private static void popularUsuarios(Connection conn, int quantidade) throws SQLException {
+        String sql = "INSERT INTO ER_USUARIOS (NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, ROLE, CREATED_AT) VALUES (?, ?, ?, ?, ?, ?)";
+        // O banco acabou de ser recriado, então o usuário i recebe o ID i
+        String sqlAlertas = "INSERT INTO ER_USUARIO_ALERTAS (ID_USUARIO, TIPO_ALERTA) VALUES (?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement alertas = conn.prepareStatement(sqlAlertas)) {
+            for (int i = 1; i <= quantidade; i++) {
+                stmt.setString(1, "Usuário " + i);
+                stmt.setString(2, "usuario" + i + "@echoreport.com.br");
+                stmt.setString(3, "$2a$12$abcdefghijklmnopqrstuuL3c8bGq2u4rV3o1nq3J5wFz7K6Yc2Oe");
+                stmt.setString(4, BAIRROS[i % BAIRROS.length]);
+                stmt.setString(5, "user");
+                stmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now().minusDays(i % 365)));
+                stmt.addBatch();
+                for (String tipo : new String[]{TIPOS[i % TIPOS.length], TIPOS[(i + 2) % TIPOS.length]}) {
+                    alertas.setInt(1, i);
+                    alertas.setString(2, tipo);
+                    alertas.addBatch();
+                }
+                if (i % LOTE == 0) {
+                    stmt.executeBatch();
+                    alertas.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            alertas.executeBatch();
+        }
+    }
+
+    private static void popularReportes(Connection conn, int quantidade) throws SQLException {
+        String sql = "INSERT INTO ER_REPORTES (REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES, UPDATED_AT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= quantidade; i++) {
+                LocalDateTime criado = LocalDateTime.now().minusMinutes(i);
+                stmt.setString(1, "Morador " + i);
+                stmt.setString(2, TIPOS[i % TIPOS.length]);
+                stmt.setString(3, "Água subindo rápido na rua, carros ilhados perto do número " + i + ".");
+                stmt.setString(4, "Rua " + i + ", " + BAIRROS[i % BAIRROS.length] + ", São Paulo - SP");
+                stmt.setString(5, i % 3 == 0 ? "/uploads/report-images/" + i + ".jpg" : null);
+                stmt.setInt(6, i);
+                stmt.setTimestamp(7, Timestamp.valueOf(criado));
+                stmt.setString(8, STATUS[i % STATUS.length]);
+                stmt.setString(9, i % 2 == 0 ? "alto" : "médio");
+                stmt.setString(10, null);
+                stmt.setTimestamp(11, Timestamp.valueOf(criado));
+                stmt.addBatch();
+                if (i % LOTE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package fiap.tds.benchmarks;
+
+import fiap.tds.utils.PasswordUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash e verificação de senha (BCrypt, custo 12), no caminho de registro e login.
+ * Cada operação leva centenas de milissegundos por definição, então poucas iterações bastam.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordUtilBenchmark {
+
+    private final PasswordUtil passwordUtil = new PasswordUtil();
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        hash = passwordUtil.hashPassword("senhaForte123");
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return passwordUtil.hashPassword("senhaForte123");
+    }
+
+    @Benchmark
+    public boolean checkPassword() {
+        return passwordUtil.checkPassword("senhaForte123", hash);
+    }
+}
@@ -0,0 +1,73 @@
+package fiap.tds.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.entities.Reporte;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON das listas devolvidas por GET /reportes e GET /abrigos,
+ * com o ObjectMapper configurado como o do Quarkus (datas ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"20", "500"})
+    int itens;
+
+    private ObjectMapper mapper;
+    private List<Reporte> reportes;
+    private List<Abrigo> abrigos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        reportes = new ArrayList<>();
+        abrigos = new ArrayList<>();
+        for (int i = 1; i <= itens; i++) {
+            LocalDateTime criado = LocalDateTime.now().minusMinutes(i);
+            reportes.add(new Reporte(i, "Morador " + i, "enchente",
+                    "Água subindo rápido na rua, carros ilhados perto do número " + i + ".",
+                    "Rua " + i + ", Mooca, São Paulo - SP", "/uploads/report-images/" + i + ".jpg",
+                    i, criado, "novo", "alto", null));
+
+            Abrigo abrigo = new Abrigo();
+            abrigo.setId(i);
+            abrigo.setName("Abrigo " + i);
+            abrigo.setAddress("Av. Paulista, " + i);
+            abrigo.setNeighborhood("Bela Vista");
+            abrigo.setCityState("São Paulo - SP");
+            abrigo.setCapacityStatus("disponível");
+            abrigo.setServicesOffered(new String[]{"alimentação", "banho", "dormitório", "atendimento médico"});
+            abrigo.setTargetAudience("famílias");
+            abrigo.setOperatingHours("24h");
+            abrigo.setUpdatedAt(criado);
+            abrigos.add(abrigo);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarReportes() throws Exception {
+        return mapper.writeValueAsBytes(reportes);
+    }
+
+    @Benchmark
+    public byte[] serializarAbrigos() throws Exception {
+        return mapper.writeValueAsBytes(abrigos);
+    }
+}
@@ -0,0 +1,50 @@
+package fiap.tds.infrastructure;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de chave de API, executado em toda requisição: chave válida (segue) e inválida (aborta com 401).
+ * O contexto da requisição é um proxy que só responde ao header X-API-Key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MyApiKeyBenchmark {
+
+    private MyApiKey filtro;
+    private ContainerRequestContext comChaveValida;
+    private ContainerRequestContext comChaveInvalida;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        filtro = new MyApiKey();
+        filtro.apiKey = "1234";
+        filtro.apiKeyMobile = "123456";
+        comChaveValida = requisicao("123456");
+        comChaveInvalida = requisicao("chave-errada");
+    }
+
+    @Benchmark
+    public void chaveValida() throws Exception {
+        filtro.filter(comChaveValida);
+    }
+
+    @Benchmark
+    public void chaveInvalida() throws Exception {
+        filtro.filter(comChaveInvalida);
+    }
+
+    private static ContainerRequestContext requisicao(String chave) {
+        return (ContainerRequestContext) Proxy.newProxyInstance(
+                ContainerRequestContext.class.getClassLoader(),
+                new Class<?>[]{ContainerRequestContext.class},
+                (proxy, metodo, args) -> "getHeaderString".equals(metodo.getName()) && "X-API-Key".equals(args[0]) ? chave : null);
+    }
+}
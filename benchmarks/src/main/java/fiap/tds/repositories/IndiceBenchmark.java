@@ -0,0 +1,66 @@
+package fiap.tds.repositories;
+
+import fiap.tds.benchmarks.BancoEmbarcado;
+import fiap.tds.infrastructure.DatabaseConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas quentes dos repositórios com 1 milhão de reportes e 1 milhão de usuários,
+ * com os índices da migração V2 e sem eles (removidos depois do migrate), para comparar os tempos.
+ * Precisa de heap grande por causa do H2 em memória: o fork já sobe com -Xmx6g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class IndiceBenchmark {
+
+    private static final int LINHAS = 1_000_000;
+    private static final String[] INDICES_USADOS = {"IX_USUARIOS_EMAIL", "IX_REPORTES_CREATED_AT", "IX_REPORTES_STATUS_CREATED_AT"};
+
+    @Param({"true", "false"})
+    boolean comIndices;
+
+    private final ReporteRepository reporteRepository = new ReporteRepository();
+    private final UsuarioRepository usuarioRepository = new UsuarioRepository();
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+        BancoEmbarcado.iniciar(LINHAS, LINHAS);
+        if (!comIndices) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                for (String indice : INDICES_USADOS) {
+                    stmt.execute("DROP INDEX " + indice);
+                }
+            }
+        }
+    }
+
+    // Login: WHERE EMAIL = ? (índice único IX_USUARIOS_EMAIL)
+    @Benchmark
+    public Object buscarPorEmail() {
+        return usuarioRepository.buscarPorEmail("usuario" + (aleatorio.nextInt(LINHAS) + 1) + "@echoreport.com.br");
+    }
+
+    // Tela inicial: ORDER BY CREATED_AT DESC FETCH FIRST 20 (IX_REPORTES_CREATED_AT)
+    @Benchmark
+    public Object buscarRecentes() {
+        return reporteRepository.buscarRecentes(20);
+    }
+
+    // Moderação: WHERE STATUS = ? ORDER BY CREATED_AT DESC FETCH FIRST 50 (IX_REPORTES_STATUS_CREATED_AT)
+    @Benchmark
+    public Object buscarPorStatus() {
+        return reporteRepository.buscarPorStatus("novo", 50);
+    }
+}
@@ -0,0 +1,77 @@
+package fiap.tds.repositories;
+
+import fiap.tds.benchmarks.BancoEmbarcado;
+import fiap.tds.infrastructure.DatabaseConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de linhas (ResultSet -> entidade) nos repositórios de reportes e usuários.
+ * Fica no mesmo pacote dos repositórios para chamar os mapear() package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+    @Param({"100", "1000"})
+    int linhas;
+
+    private Connection conn;
+    private PreparedStatement reportes;
+    private PreparedStatement usuarios;
+
+    private final ReporteRepository reporteRepository = new ReporteRepository();
+    private final UsuarioRepository usuarioRepository = new UsuarioRepository();
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+        BancoEmbarcado.iniciar(linhas, linhas);
+        conn = DatabaseConfig.getConnection();
+        reportes = conn.prepareStatement("SELECT ID, REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES, UPDATED_AT, INCIDENT_ID, LATITUDE, LONGITUDE FROM ER_REPORTES");
+        usuarios = conn.prepareStatement("SELECT ID_USUARIO, NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, ROLE, CREATED_AT FROM ER_USUARIOS");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public void mapearReportes(Blackhole bh) throws SQLException {
+        try (ResultSet rs = reportes.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(ReporteRepository.mapear(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapearUsuarios(Blackhole bh) throws SQLException {
+        try (ResultSet rs = usuarios.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(UsuarioRepository.mapear(rs, true));
+            }
+        }
+    }
+
+    // Caminho completo do repositório: abre conexão, consulta e mapeia
+    @Benchmark
+    public Object buscarTodosReportes() {
+        return reporteRepository.buscarTodos();
+    }
+
+    @Benchmark
+    public Object listarTodosUsuarios() {
+        return usuarioRepository.listarTodos();
+    }
+}
@@ -0,0 +1,74 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Alerta;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /alertas/ativos na skip list do AlertasAtivosService, comparado com o que a listagem fazia antes:
+ * ordenar o histórico inteiro pela publicação (em memória aqui, no lugar do ORDER BY do banco) e só então filtrar.
+ * São sempre 200 alertas ativos; o que muda é o tamanho do histórico (-p historico=...).
+ * O índice é montado direto, sem banco: só atualizar() e listar() do AlertasAtivosService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertasAtivosBenchmark {
+
+    private static final int ATIVOS = 200;
+
+    @Param({"10000", "1000000"})
+    int historico;
+
+    private AlertasAtivosService indice;
+    private List<Alerta> todos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        indice = new AlertasAtivosService();
+        todos = new ArrayList<>(historico);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        LocalDateTime agora = LocalDateTime.now();
+        for (int i = 1; i <= historico; i++) {
+            Alerta alerta = new Alerta();
+            alerta.setId(i);
+            alerta.setTitle("Alerta " + i);
+            alerta.setStatus("publicado");
+            boolean ativo = i > historico - ATIVOS; // Os mais novos
+            alerta.setPublishedAt(ativo ? agora.minusMinutes(aleatorio.nextInt(4_000)) : agora.minusDays(3 + aleatorio.nextInt(3_650)));
+            alerta.setExpiresAt(alerta.getPublishedAt().plusHours(72));
+            alerta.setUpdatedAt(alerta.getPublishedAt());
+            alerta.setActive(ativo);
+            indice.atualizar(alerta);
+            todos.add(alerta);
+        }
+    }
+
+    @Benchmark
+    public List<Alerta> listarAtivos() {
+        return indice.listar(100);
+    }
+
+    // Sem índice: ordena tudo pela publicação e filtra os ativos
+    @Benchmark
+    public List<Alerta> ordenarHistorico() {
+        List<Alerta> ordenados = new ArrayList<>(todos);
+        ordenados.sort(Comparator.comparing(Alerta::getPublishedAt).reversed());
+        List<Alerta> ativos = new ArrayList<>();
+        for (Alerta alerta : ordenados) {
+            if (alerta.isActive() && ativos.size() < 100) {
+                ativos.add(alerta);
+            }
+        }
+        return ativos;
+    }
+}
@@ -0,0 +1,91 @@
+package fiap.tds.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contagem de um reporte na detecção de picos (chamada em todo POST /reportes), com 4 threads registrando ao mesmo
+ * tempo em 4.500 regiões e tipos. A meta é aguentar 10 mil reportes/s com folga, ou seja, bem acima de 10 ops/ms.
+ * Comparada com a janela deslizante comum: uma fila de instantes por região, protegida por um lock.
+ * O detector é montado direto, sem banco nem AlertaService: só observar() do DeteccaoPicosService, com o mínimo
+ * de reportes alto o bastante para nunca gerar alerta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DeteccaoPicosBenchmark {
+
+    private static final String[] TIPOS = {"enchente", "alagamento", "deslizamento", "incendio", "vendaval"};
+    private static final int REPORTES = 1 << 16;
+    private static final long JANELA_SEGUNDOS = 15 * 60;
+
+    private DeteccaoPicosService detector;
+    private double[] latitudes;
+    private double[] longitudes;
+    private String[] tipos;
+    private final Map<String, ArrayDeque<Long>> filas = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        detector = new DeteccaoPicosService();
+        detector.regiaoGraus = 0.02;
+        detector.baldeMinutos = 5;
+        detector.baldesRecentes = 3;
+        detector.suavizacao = 0.02;
+        detector.desvios = 4;
+        detector.minimoReportes = Integer.MAX_VALUE;
+        detector.intervaloAlertasMinutos = 60;
+        latitudes = new double[REPORTES];
+        longitudes = new double[REPORTES];
+        tipos = new String[REPORTES];
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        // Grande São Paulo: 900 células de 0,02 grau, cinco tipos
+        for (int i = 0; i < REPORTES; i++) {
+            latitudes[i] = -23.8 + aleatorio.nextDouble() * 0.6;
+            longitudes[i] = -46.9 + aleatorio.nextDouble() * 0.6;
+            tipos[i] = TIPOS[aleatorio.nextInt(TIPOS.length)];
+        }
+    }
+
+    // As filas só crescem durante a medição (todos os instantes caem na mesma janela); recomeça a cada iteração
+    @Setup(Level.Iteration)
+    public void limparFilas() {
+        filas.clear();
+    }
+
+    @State(Scope.Thread)
+    public static class Posicao {
+        int proximo = (int) Thread.currentThread().threadId() * 7919;
+    }
+
+    @Benchmark
+    public DeteccaoPicosService.Pico observar(Posicao posicao) {
+        int i = posicao.proximo++ & (REPORTES - 1);
+        return detector.observar(latitudes[i], longitudes[i], tipos[i], System.currentTimeMillis() / 1000 / 300);
+    }
+
+    // Sem anel: guarda o instante de cada reporte da região e descarta os que saíram da janela, sob um lock
+    @Benchmark
+    public int filaComLock(Posicao posicao) {
+        int i = posicao.proximo++ & (REPORTES - 1);
+        String regiao = (int) Math.floor(latitudes[i] / 0.02) + "|" + (int) Math.floor(longitudes[i] / 0.02) + "|" + tipos[i];
+        long agora = System.currentTimeMillis() / 1000;
+        synchronized (filas) {
+            ArrayDeque<Long> fila = filas.computeIfAbsent(regiao, r -> new ArrayDeque<>());
+            fila.addLast(agora);
+            while (fila.peekFirst() < agora - JANELA_SEGUNDOS) {
+                fila.pollFirst();
+            }
+            return fila.size();
+        }
+    }
+}
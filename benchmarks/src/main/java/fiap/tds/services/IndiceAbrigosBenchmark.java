@@ -0,0 +1,90 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Abrigo;
+import fiap.tds.utils.TextoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de abrigos (GET /abrigos/busca) no índice em memória, comparada com a varredura da lista inteira
+ * que os clientes faziam depois de baixar todos os abrigos.
+ * O índice é montado direto, sem banco: só adicionar() e buscar() do IndiceAbrigosService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndiceAbrigosBenchmark {
+
+    private static final String[] BAIRROS = {"Centro", "Mooca", "Pinheiros", "Itaquera", "Santana", "Butantã",
+            "Lapa", "Ipiranga", "Penha", "Tatuapé", "Vila Mariana", "Jabaquara", "Perus", "Grajaú", "Brasilândia"};
+    private static final String[] CIDADES = {"São Paulo - SP", "Guarulhos - SP", "Osasco - SP", "Santo André - SP"};
+    private static final String[] CAPACIDADES = {"disponível", "quase lotado", "lotado"};
+    private static final String[] SERVICOS = {"alimentação", "banho", "dormitório", "atendimento médico", "roupas", "pet"};
+    private static final String[] PUBLICOS = {"famílias", "adultos", "idosos", "mulheres e crianças"};
+
+    @Param({"50000"})
+    int abrigos;
+
+    private IndiceAbrigosService indice;
+    private List<Abrigo> lista;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        indice = new IndiceAbrigosService();
+        lista = new ArrayList<>(abrigos);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 1; i <= abrigos; i++) {
+            Abrigo abrigo = new Abrigo();
+            abrigo.setId(i);
+            abrigo.setName("Abrigo " + i);
+            abrigo.setNeighborhood(sortear(BAIRROS, aleatorio));
+            abrigo.setCityState(sortear(CIDADES, aleatorio));
+            abrigo.setCapacityStatus(sortear(CAPACIDADES, aleatorio));
+            abrigo.setServicesOffered(new String[]{sortear(SERVICOS, aleatorio), sortear(SERVICOS, aleatorio)});
+            abrigo.setTargetAudience(sortear(PUBLICOS, aleatorio));
+            indice.adicionar(abrigo);
+            lista.add(abrigo);
+        }
+    }
+
+    // "Abrigos abertos na Mooca que aceitam pets": três filtros, resultado pequeno
+    @Benchmark
+    public List<Abrigo> buscarBairroServicoCapacidade() {
+        return indice.buscar("mooca", null, "Disponível", List.of("pet"), null, 100);
+    }
+
+    // Um filtro só, resultado grande cortado pelo limite
+    @Benchmark
+    public List<Abrigo> buscarPorCidade() {
+        return indice.buscar(null, "São Paulo - SP", null, null, null, 100);
+    }
+
+    // A mesma pergunta do primeiro benchmark, varrendo a lista com o mesmo critério de comparação
+    @Benchmark
+    public List<Abrigo> varrerLista() {
+        List<Abrigo> encontrados = new ArrayList<>();
+        for (Abrigo abrigo : lista) {
+            if ("mooca".equals(TextoUtil.normalizar(abrigo.getNeighborhood()))
+                    && "disponivel".equals(TextoUtil.normalizar(abrigo.getCapacityStatus()))
+                    && Arrays.stream(abrigo.getServicesOffered()).anyMatch(s -> "pet".equals(TextoUtil.normalizar(s)))) {
+                encontrados.add(abrigo);
+                if (encontrados.size() == 100) {
+                    break;
+                }
+            }
+        }
+        return encontrados;
+    }
+
+    private static String sortear(String[] opcoes, SplittableRandom aleatorio) {
+        return opcoes[aleatorio.nextInt(opcoes.length)];
+    }
+}
@@ -0,0 +1,97 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Reporte;
+import fiap.tds.utils.MinHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa de agrupamento do POST /reportes: procurar o incidente de um reporte novo no índice LSH, comparada
+ * com calcular a similaridade contra todos os reportes da janela. A janela tem reportes de 2 mil incidentes,
+ * cada um reportado várias vezes com textos e números de rua um pouco diferentes, como numa enchente.
+ * O índice é montado direto, sem banco: só assinar(), adicionar() e buscarIncidente() do IndiceIncidentesService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndiceIncidentesBenchmark {
+
+    private static final String[] TIPOS = {"enchente", "alagamento", "deslizamento", "incendio", "vendaval"};
+    private static final String[] BAIRROS = {"Centro", "Mooca", "Pinheiros", "Itaquera", "Santana", "Butantã",
+            "Lapa", "Ipiranga", "Penha", "Tatuapé", "Vila Mariana", "Jabaquara", "Perus", "Grajaú", "Brasilândia"};
+    private static final String[] FRASES = {"água subindo rápido na %s, carros ilhados", "%s completamente alagada, ninguém passa",
+            "moradores da %s pedindo ajuda, água na altura do joelho", "córrego transbordou perto da %s"};
+
+    @Param({"20000"})
+    int reportes;
+
+    private IndiceIncidentesService indice;
+    private List<IndiceIncidentesService.Assinatura> assinaturas;
+    private List<Reporte> novos;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        indice = new IndiceIncidentesService();
+        indice.janelaHoras = 6;
+        indice.similaridadeDescricao = 0.5;
+        indice.similaridadeLocal = 0.5;
+        assinaturas = new ArrayList<>(reportes);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 1; i <= reportes; i++) {
+            Reporte reporte = reporte(aleatorio);
+            IndiceIncidentesService.Assinatura assinatura = indice.assinar(reporte);
+            Integer incidente = indice.buscarIncidente(assinatura);
+            indice.adicionar(assinatura, incidente != null ? incidente : i);
+            assinaturas.add(assinatura);
+        }
+        novos = new ArrayList<>(1024);
+        for (int i = 0; i < 1024; i++) {
+            novos.add(reporte(aleatorio));
+        }
+    }
+
+    // Um dos 2 mil incidentes (tipo, bairro e rua), descrito com uma das frases e um número de rua próximo
+    private static Reporte reporte(SplittableRandom aleatorio) {
+        int incidente = aleatorio.nextInt(2_000);
+        String rua = "rua " + (incidente * 7 % 900 + 1);
+        Reporte reporte = new Reporte();
+        reporte.setEventType(TIPOS[incidente % TIPOS.length]);
+        reporte.setDescription(String.format(FRASES[aleatorio.nextInt(FRASES.length)], rua));
+        reporte.setLocation(rua + ", " + (100 + aleatorio.nextInt(20)) + ", " + BAIRROS[incidente % BAIRROS.length] + ", São Paulo - SP");
+        reporte.setCreatedAt(LocalDateTime.now().minusMinutes(aleatorio.nextInt(60)));
+        return reporte;
+    }
+
+    @Benchmark
+    public Integer buscarNoIndice() {
+        Reporte reporte = novos.get(proximo++ & (novos.size() - 1));
+        return indice.buscarIncidente(indice.assinar(reporte));
+    }
+
+    // Sem LSH: assina igual e compara a descrição com a de todos os reportes da janela
+    @Benchmark
+    public double compararTodos() {
+        Reporte reporte = novos.get(proximo++ & (novos.size() - 1));
+        IndiceIncidentesService.Assinatura nova = indice.assinar(reporte);
+        double melhor = 0;
+        for (IndiceIncidentesService.Assinatura assinatura : assinaturas) {
+            melhor = Math.max(melhor, MinHash.similaridade(nova.descricao(), assinatura.descricao()));
+        }
+        return melhor;
+    }
+
+    // Só o cálculo da assinatura, o piso de custo das duas opções
+    @Benchmark
+    public IndiceIncidentesService.Assinatura assinar() {
+        return indice.assinar(novos.get(proximo++ & (novos.size() - 1)));
+    }
+}
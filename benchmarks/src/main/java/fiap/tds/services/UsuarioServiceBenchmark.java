@@ -0,0 +1,43 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.UsuarioRegistroDTO;
+import fiap.tds.exceptions.BadRequestException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de email feita no registro de usuários, medida pela API pública: a senha curta faz o registrar
+ * parar logo depois da validação do email, antes de ir ao banco. Os dois casos terminam em BadRequestException,
+ * então o custo da exceção entra igual em todos os parâmetros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsuarioServiceBenchmark {
+
+    @Param({"arthur.thomas@fiap.com.br", "email-invalido@", "nome.muito.longo.com.varios.pontos+tag@sub.dominio.exemplo.org"})
+    String email;
+
+    private UsuarioService service;
+    private UsuarioRegistroDTO registro;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        service = new UsuarioService();
+        registro = new UsuarioRegistroDTO("Arthur Thomas", email, "123", null, null, null);
+    }
+
+    @Benchmark
+    public String validarEmail() {
+        try {
+            service.registrar(registro);
+            return null;
+        } catch (BadRequestException e) {
+            return e.getMessage();
+        }
+    }
+}
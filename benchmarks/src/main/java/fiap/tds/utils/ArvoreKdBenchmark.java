@@ -0,0 +1,91 @@
+package fiap.tds.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca dos abrigos mais próximos (GET /abrigos/proximos) na árvore k-d, comparada com calcular a distância
+ * até todos os abrigos e ficar com os k menores. Os pontos ficam espalhados pela região metropolitana de São Paulo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArvoreKdBenchmark {
+
+    @Param({"100000"})
+    int abrigos;
+
+    @Param({"5"})
+    int k;
+
+    private int[] ids;
+    private double[] latitudes;
+    private double[] longitudes;
+    private ArvoreKd arvore;
+    private double[][] consultas;
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        ids = new int[abrigos];
+        latitudes = new double[abrigos];
+        longitudes = new double[abrigos];
+        for (int i = 0; i < abrigos; i++) {
+            ids[i] = i + 1;
+            latitudes[i] = -23.35 - aleatorio.nextDouble() * 0.45;
+            longitudes[i] = -46.35 - aleatorio.nextDouble() * 0.55;
+        }
+        arvore = ArvoreKd.construir(ids, latitudes, longitudes);
+        consultas = new double[1024][];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = new double[]{-23.35 - aleatorio.nextDouble() * 0.45, -46.35 - aleatorio.nextDouble() * 0.55};
+        }
+    }
+
+    @Benchmark
+    public List<ArvoreKd.Vizinho> buscarNaArvore() {
+        double[] ponto = consultas[proxima++ & (consultas.length - 1)];
+        return arvore.buscar(ponto[0], ponto[1], k, id -> true);
+    }
+
+    // Haversine contra todos os pontos, guardando os k menores por inserção ordenada
+    @Benchmark
+    public double[] varrerTodos() {
+        double[] ponto = consultas[proxima++ & (consultas.length - 1)];
+        double[] menores = new double[k];
+        Arrays.fill(menores, Double.POSITIVE_INFINITY);
+        double lat = Math.toRadians(ponto[0]);
+        double lon = Math.toRadians(ponto[1]);
+        for (int i = 0; i < abrigos; i++) {
+            double dLat = Math.toRadians(latitudes[i]) - lat;
+            double dLon = Math.toRadians(longitudes[i]) - lon;
+            double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                    + Math.cos(lat) * Math.cos(Math.toRadians(latitudes[i])) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+            double distancia = 2 * 6371.0088 * Math.asin(Math.sqrt(a));
+            if (distancia < menores[k - 1]) {
+                int j = k - 1;
+                while (j > 0 && menores[j - 1] > distancia) {
+                    menores[j] = menores[j - 1];
+                    j--;
+                }
+                menores[j] = distancia;
+            }
+        }
+        return menores;
+    }
+
+    // Custo da reconstrução feita a cada gravação de abrigo com coordenadas
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ArvoreKd construir() {
+        return ArvoreKd.construir(ids, latitudes, longitudes);
+    }
+}
@@ -0,0 +1,76 @@
+package fiap.tds.utils;
+
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação da imagem anexada a um reporte. O upload é um proxy de FileUpload apontando para um arquivo temporário,
+ * e as imagens vão para um diretório temporário, esvaziado a cada iteração e apagado no fim.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileUploadUtilBenchmark {
+
+    @Param({"50000", "2000000"})
+    int bytes;
+
+    private FileUploadUtil util;
+    private FileUpload upload;
+    private Path origem;
+    private Path destino;
+    private final List<String> gerados = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        destino = Files.createTempDirectory("benchmark-uploads");
+        util = new FileUploadUtil(destino);
+        util.imageBaseUrl = "/uploads/report-images";
+
+        origem = Files.createTempFile("benchmark-upload", ".jpg");
+        Files.write(origem, new byte[bytes]);
+        long tamanho = Files.size(origem);
+        upload = (FileUpload) Proxy.newProxyInstance(
+                FileUpload.class.getClassLoader(),
+                new Class<?>[]{FileUpload.class},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "fileName" -> "foto-enchente.jpg";
+                    case "size" -> tamanho;
+                    case "uploadedFile", "filePath" -> origem;
+                    case "contentType" -> "image/jpeg";
+                    default -> null;
+                });
+    }
+
+    @Benchmark
+    public String salvarImagem() throws IOException {
+        String url = util.salvarImagem(upload);
+        gerados.add(url.substring(url.lastIndexOf('/') + 1));
+        return url;
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpar() throws IOException {
+        for (String nome : gerados) {
+            Files.deleteIfExists(destino.resolve(nome));
+        }
+        gerados.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        Files.deleteIfExists(origem);
+        Files.deleteIfExists(destino);
+    }
+}
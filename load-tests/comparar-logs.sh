@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Mede o efeito da configuração de logs na vazão de GET /reportes:
+#   sincrono: console síncrono em texto, DEBUG em fiap.tds, RESTEasy, Jackson e Vert.x HTTP (configuração anterior)
+#   assincrono: console assíncrono em JSON com fila limitada e INFO (configuração atual)
+#
+# Uso (na raiz do projeto, depois de ./mvnw package):
+#   ./load-tests/comparar-logs.sh [CLIENTES] [SEGUNDOS]
+# Exemplo: ./load-tests/comparar-logs.sh 200 30
+# Por padrão usa o perfil local (H2 embarcado); PERFIL=prod mede contra o Oracle configurado.
+
+set -euo pipefail
+
+CLIENTES="${1:-200}"
+SEGUNDOS="${2:-30}"
+JAR="target/quarkus-app/quarkus-run.jar"
+BASE_URL="http://localhost:8080"
+PERFIL="${PERFIL:-local}"
+
+if [[ ! -f "${JAR}" ]]; then
+  echo "Jar não encontrado em ${JAR}. Rode ./mvnw package antes." >&2
+  exit 1
+fi
+
+SINCRONO=(
+  -Dquarkus.log.console.async=false
+  -Dquarkus.log.console.json=false
+  '-Dquarkus.log.category."fiap.tds".level=DEBUG'
+  '-Dquarkus.log.category."io.quarkus.vertx.http".level=DEBUG'
+  '-Dquarkus.log.category."org.jboss.resteasy.reactive".level=DEBUG'
+  '-Dquarkus.log.category."com.fasterxml.jackson".level=DEBUG'
+)
+ASSINCRONO=(
+  -Dquarkus.log.console.async=true
+  -Dquarkus.log.console.json=true
+  '-Dquarkus.log.category."fiap.tds".level=INFO'
+)
+
+for modo in sincrono assincrono; do
+  echo
+  echo "=== logs ${modo} ==="
+  if [[ "${modo}" == "sincrono" ]]; then opcoes=("${SINCRONO[@]}"); else opcoes=("${ASSINCRONO[@]}"); fi
+
+  # A saída vai para arquivo, como em produção; o custo medido é o de formatar e gravar
+  java -Dquarkus.profile="${PERFIL}" "${opcoes[@]}" -jar "${JAR}" > "target/logs-${modo}.log" 2>&1 &
+  pid=$!
+  trap 'kill ${pid} 2>/dev/null || true' EXIT
+
+  until curl -s -o /dev/null -H "X-API-Key: ${API_KEY:-1234}" "${BASE_URL}/reportes"; do sleep 1; done
+
+  java load-tests/src/main/java/fiap/tds/carga/CargaConcorrente.java "${BASE_URL}" 50 10 /reportes > /dev/null
+  java load-tests/src/main/java/fiap/tds/carga/CargaConcorrente.java "${BASE_URL}" "${CLIENTES}" "${SEGUNDOS}" /reportes
+  echo "linhas de log: $(wc -l < "target/logs-${modo}.log")"
+
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+done
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Compara vazão e latência da API com os endpoints JDBC em virtual threads
+# e no pool de workers do Quarkus, para 100, 1000 e 5000 clientes simultâneos.
+#
+# Uso (na raiz do projeto, depois de ./mvnw package -Dquarkus.profile=local):
+#   ./load-tests/comparar-threads.sh [NIVEIS] [SEGUNDOS]
+# Exemplo: ./load-tests/comparar-threads.sh 100,1000,5000 30
+# Por padrão usa o perfil local (H2 embarcado); PERFIL=prod mede contra o Oracle configurado.
+
+set -euo pipefail
+
+NIVEIS="${1:-100,1000,5000}"
+SEGUNDOS="${2:-30}"
+JAR="target/quarkus-app/quarkus-run.jar"
+BASE_URL="http://localhost:8080"
+PERFIL="${PERFIL:-local}"
+
+if [[ ! -f "${JAR}" ]]; then
+  echo "Jar não encontrado em ${JAR}. Rode ./mvnw package antes." >&2
+  exit 1
+fi
+
+# Muitos clientes simultâneos precisam de muitos descritores de arquivo
+ulimit -n 65536 2>/dev/null || true
+
+for virtual in true false; do
+  if [[ "${virtual}" == "true" ]]; then modo="virtual threads"; else modo="pool de workers"; fi
+  echo
+  echo "=== ${modo} ==="
+
+  java -Dquarkus.profile="${PERFIL}" -Dquarkus.virtual-threads.enabled="${virtual}" -Dquarkus.log.level=WARN -jar "${JAR}" > "target/carga-${virtual}.log" 2>&1 &
+  pid=$!
+  trap 'kill ${pid} 2>/dev/null || true' EXIT
+
+  until curl -s -o /dev/null -H "X-API-Key: ${API_KEY:-1234}" "${BASE_URL}/alertas"; do sleep 1; done
+
+  # Aquecimento (JIT e pool de conexões) antes de medir
+  java load-tests/src/main/java/fiap/tds/carga/CargaConcorrente.java "${BASE_URL}" 50 10 > /dev/null
+  java load-tests/src/main/java/fiap/tds/carga/CargaConcorrente.java "${BASE_URL}" "${NIVEIS}" "${SEGUNDOS}"
+
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+done
@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Sobe a API no perfil local (H2 embarcado com massa sintética), roda a suíte de carga
+# e derruba a API. Sai com código != 0 se algum SLO for violado.
+#
+# Uso (na raiz do projeto): ./load-tests/rodar-suite.sh [DURACAO_SEGUNDOS] [-D<parâmetro>=<valor> ...]
+# Exemplo: ./load-tests/rodar-suite.sh 120 -Dcarga.mapa.clientes=2000 -Dslo.mapas.p99=500
+
+set -euo pipefail
+
+DURACAO="${1:-60}"
+shift || true
+BASE_URL="http://localhost:8080"
+JAR="target/quarkus-app/quarkus-run.jar"
+
+./mvnw -q package -DskipTests -Dquarkus.profile=local
+
+java -Dquarkus.profile=local -Dquarkus.log.level=WARN -jar "${JAR}" > target/carga-api.log 2>&1 &
+pid=$!
+trap 'kill ${pid} 2>/dev/null || true' EXIT
+
+until curl -s -o /dev/null -H "X-API-Key: ${API_KEY:-1234}" "${BASE_URL}/alertas"; do sleep 1; done
+
+mvn -q -f load-tests/pom.xml verify -Pcarga -Dcarga.url="${BASE_URL}" -Dcarga.duracao="${DURACAO}" "$@"
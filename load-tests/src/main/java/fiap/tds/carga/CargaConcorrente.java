@@ -0,0 +1,117 @@
+package fiap.tds.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de carga simples para a API: N clientes simultâneos (um por virtual thread)
+ * fazendo GETs em loop pelos endpoints informados durante um tempo fixo.
+ * Imprime vazão, latências (p50/p95/p99/máx) e erros para cada nível de concorrência.
+ *
+ * Roda direto com o JDK 21, sem build:
+ *   java load-tests/src/main/java/fiap/tds/carga/CargaConcorrente.java http://localhost:8080 100,1000,5000 30 /alertas,/abrigos,/mapas,/reportes
+ * A chave da API é lida de API_KEY (padrão: a chave de desenvolvimento).
+ */
+public class CargaConcorrente {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int[] niveis = Arrays.stream((args.length > 1 ? args[1] : "100,1000,5000").split(","))
+                .mapToInt(n -> Integer.parseInt(n.trim())).toArray();
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String[] endpoints = (args.length > 3 ? args[3] : "/alertas,/abrigos,/mapas,/reportes").split(",");
+        String apiKey = System.getenv().getOrDefault("API_KEY", "1234");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<HttpRequest> requisicoes = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            requisicoes.add(HttpRequest.newBuilder(URI.create(baseUrl + endpoint.trim()))
+                    .header("X-API-Key", apiKey)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build());
+        }
+
+        System.out.printf("%-9s %10s %10s %10s %10s %10s %8s%n", "clientes", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "erros");
+        for (int clientes : niveis) {
+            rodar(client, requisicoes, clientes, segundos);
+        }
+    }
+
+    private static void rodar(HttpClient client, List<HttpRequest> requisicoes, int clientes, int segundos) throws InterruptedException {
+        long[][] latencias = new long[clientes][];
+        int[] contagens = new int[clientes];
+        AtomicLong erros = new AtomicLong();
+        CountDownLatch fim = new CountDownLatch(clientes);
+        long inicio = System.nanoTime();
+        long prazo = inicio + Duration.ofSeconds(segundos).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                final int cliente = c;
+                executor.submit(() -> {
+                    long[] minhas = new long[1024];
+                    int n = 0;
+                    try {
+                        while (System.nanoTime() < prazo) {
+                            HttpRequest req = requisicoes.get((cliente + n) % requisicoes.size());
+                            long t0 = System.nanoTime();
+                            try {
+                                HttpResponse<Void> resp = client.send(req, HttpResponse.BodyHandlers.discarding());
+                                if (resp.statusCode() >= 400) {
+                                    erros.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                erros.incrementAndGet();
+                            }
+                            if (n == minhas.length) {
+                                minhas = Arrays.copyOf(minhas, n * 2);
+                            }
+                            minhas[n++] = System.nanoTime() - t0;
+                        }
+                    } finally {
+                        latencias[cliente] = minhas;
+                        contagens[cliente] = n;
+                        fim.countDown();
+                    }
+                });
+            }
+            fim.await();
+        }
+
+        double duracao = (System.nanoTime() - inicio) / 1e9;
+        int total = Arrays.stream(contagens).sum();
+        long[] todas = new long[total];
+        int pos = 0;
+        for (int c = 0; c < clientes; c++) {
+            System.arraycopy(latencias[c], 0, todas, pos, contagens[c]);
+            pos += contagens[c];
+        }
+        Arrays.sort(todas);
+        System.out.printf("%-9d %10.1f %10.1f %10.1f %10.1f %10.1f %8d%n", clientes, total / duracao,
+                percentil(todas, 50), percentil(todas, 95), percentil(todas, 99),
+                total > 0 ? todas[total - 1] / 1e6 : 0.0, erros.get());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0.0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+}
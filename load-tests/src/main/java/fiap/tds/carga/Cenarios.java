@@ -0,0 +1,142 @@
+package fiap.tds.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Os cenários do mix de um evento de enchente. Cada método é o loop de um cliente virtual,
+ * que roda até o prazo da suíte.
+ */
+public class Cenarios {
+
+    private final HttpClient client;
+    private final Metricas metricas;
+    private final String baseUrl;
+    private final String apiKey;
+    private final long prazoNanos;
+
+    public Cenarios(HttpClient client, Metricas metricas, String baseUrl, String apiKey, long prazoNanos) {
+        this.client = client;
+        this.metricas = metricas;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.prazoNanos = prazoNanos;
+    }
+
+    /**
+     * Tempestade de logins: todo mundo abre o app ao mesmo tempo quando sai o alerta.
+     * Usa os usuários gerados pelo perfil local (usuarioN@echoreport.com.br / echoreport123).
+     */
+    public void tempestadeLogin(int usuariosSemente) {
+        while (System.nanoTime() < prazoNanos) {
+            int usuario = 1 + ThreadLocalRandom.current().nextInt(usuariosSemente);
+            String corpo = "{\"email\":\"usuario" + usuario + "@echoreport.com.br\",\"password\":\"echoreport123\"}";
+            enviar("login", requisicao("/usuarios/login")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                    .build(), 0);
+        }
+    }
+
+    /**
+     * Rajadas de reportes com foto: cada cliente envia vários reportes seguidos e espera a próxima rajada.
+     */
+    public void rajadaReportes(int porRajada, long intervaloRajadaMs, byte[] imagem) {
+        String[] tipos = {"enchente", "alagamento", "deslizamento"};
+        while (System.nanoTime() < prazoNanos) {
+            long inicioRajada = System.nanoTime();
+            for (int i = 0; i < porRajada && System.nanoTime() < prazoNanos; i++) {
+                String fronteira = "----carga" + UUID.randomUUID();
+                byte[] corpo = multipart(fronteira, List.of(
+                        new String[]{"reporterName", "Carga " + Thread.currentThread().threadId()},
+                        new String[]{"eventType", tipos[ThreadLocalRandom.current().nextInt(tipos.length)]},
+                        new String[]{"description", "Reporte gerado pela suíte de carga: água subindo na rua."},
+                        new String[]{"location", "Rua " + ThreadLocalRandom.current().nextInt(5000) + ", Mooca, São Paulo - SP"}),
+                        imagem);
+                enviar("reportes", requisicao("/reportes")
+                        .header("Content-Type", "multipart/form-data; boundary=" + fronteira)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                        .build(), 0);
+            }
+            dormirAte(inicioRajada + TimeUnit.MILLISECONDS.toNanos(intervaloRajadaMs));
+        }
+    }
+
+    /**
+     * Polling do mapa: o app aberto atualiza áreas de risco, abrigos e alertas num intervalo fixo.
+     * Como o ritmo é conhecido, as latências entram com correção de omissão coordenada.
+     */
+    public void pollingMapa(long intervaloMs) {
+        long intervalo = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        // Espalha o primeiro polling para os clientes não dispararem todos no mesmo instante
+        dormirAte(System.nanoTime() + ThreadLocalRandom.current().nextLong(intervalo));
+        while (System.nanoTime() < prazoNanos) {
+            long inicio = System.nanoTime();
+            enviar("mapas", requisicao("/mapas").GET().build(), intervalo);
+            enviar("abrigos", requisicao("/abrigos").GET().build(), intervalo);
+            enviar("alertas", requisicao("/alertas").GET().build(), intervalo);
+            dormirAte(inicio + intervalo);
+        }
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .header("X-API-Key", apiKey)
+                .timeout(Duration.ofSeconds(60));
+    }
+
+    private void enviar(String endpoint, HttpRequest requisicao, long intervaloEsperadoNanos) {
+        long inicio = System.nanoTime();
+        boolean sucesso;
+        try {
+            HttpResponse<Void> resposta = client.send(requisicao, HttpResponse.BodyHandlers.discarding());
+            sucesso = resposta.statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            sucesso = false;
+        }
+        metricas.registrar(endpoint, System.nanoTime() - inicio, intervaloEsperadoNanos, sucesso);
+    }
+
+    private void dormirAte(long instanteNanos) {
+        long espera = Math.min(instanteNanos, prazoNanos) - System.nanoTime();
+        if (espera > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static byte[] multipart(String fronteira, List<String[]> campos, byte[] imagem) {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(imagem.length + 1024);
+        for (String[] campo : campos) {
+            escrever(corpo, "--" + fronteira + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + campo[0] + "\"\r\n"
+                    + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                    + campo[1] + "\r\n");
+        }
+        escrever(corpo, "--" + fronteira + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"foto.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n");
+        corpo.writeBytes(imagem);
+        escrever(corpo, "\r\n--" + fronteira + "--\r\n");
+        return corpo.toByteArray();
+    }
+
+    private static void escrever(ByteArrayOutputStream saida, String texto) {
+        saida.writeBytes(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package fiap.tds.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências por endpoint em histogramas HDR (microssegundos, 3 dígitos significativos, até 1 minuto).
+ * O Recorder aceita gravações concorrentes de milhares de virtual threads sem lock.
+ */
+public class Metricas {
+
+    private static final long MAXIMO_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Recorder> latencias = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requisicoes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> erros = new ConcurrentHashMap<>();
+
+    /**
+     * Registra uma resposta.
+     * @param endpoint Identificador curto do endpoint (o mesmo usado nas chaves de SLO).
+     * @param nanos Duração da requisição.
+     * @param intervaloEsperadoNanos Intervalo planejado entre requisições do cliente, ou 0 se ele não tem ritmo fixo.
+     *                               Corrige a omissão coordenada: se uma resposta lenta atrasou as seguintes,
+     *                               as amostras que deixaram de ser enviadas entram no histograma.
+     * @param sucesso false para status >= 400 ou falha de rede.
+     */
+    public void registrar(String endpoint, long nanos, long intervaloEsperadoNanos, boolean sucesso) {
+        Recorder recorder = latencias.computeIfAbsent(endpoint, k -> new Recorder(MAXIMO_US, 3));
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAXIMO_US);
+        if (intervaloEsperadoNanos > 0) {
+            recorder.recordValueWithExpectedInterval(micros, TimeUnit.NANOSECONDS.toMicros(intervaloEsperadoNanos));
+        } else {
+            recorder.recordValue(micros);
+        }
+        requisicoes.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        if (!sucesso) {
+            erros.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Fecha a medição e devolve um histograma por endpoint.
+     */
+    public Map<String, Histogram> consolidar() {
+        Map<String, Histogram> resultado = new ConcurrentHashMap<>();
+        latencias.forEach((endpoint, recorder) -> resultado.put(endpoint, recorder.getIntervalHistogram()));
+        return resultado;
+    }
+
+    // Requisições de fato enviadas (o histograma também conta as amostras corrigidas)
+    public long getRequisicoes(String endpoint) {
+        LongAdder contador = requisicoes.get(endpoint);
+        return contador != null ? contador.sum() : 0;
+    }
+
+    public long getErros(String endpoint) {
+        LongAdder contador = erros.get(endpoint);
+        return contador != null ? contador.sum() : 0;
+    }
+}
@@ -0,0 +1,60 @@
+package fiap.tds.carga;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Objetivos de latência e de erro lidos de slo.properties (sobrescrevíveis por -Dslo.&lt;chave&gt;).
+ * Chaves: &lt;endpoint&gt;.p50 / .p99 / .p999 em milissegundos e erros.max como fração (0.01 = 1%).
+ */
+public class Slo {
+
+    private final Properties limites = new Properties();
+
+    public Slo() throws IOException {
+        try (InputStream in = Slo.class.getResourceAsStream("/slo.properties")) {
+            if (in != null) {
+                limites.load(in);
+            }
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(chave -> chave.startsWith("slo."))
+                .forEach(chave -> limites.setProperty(chave.substring(4), System.getProperty(chave)));
+    }
+
+    /**
+     * Compara os resultados com os limites configurados.
+     * @return As violações encontradas, uma por linha; vazio se todos os SLOs foram cumpridos.
+     */
+    public List<String> verificar(Map<String, Histogram> histogramas, Metricas metricas) {
+        List<String> violacoes = new ArrayList<>();
+        double erroMaximo = Double.parseDouble(limites.getProperty("erros.max", "0.01"));
+
+        for (String endpoint : new TreeSet<>(histogramas.keySet())) {
+            Histogram histograma = histogramas.get(endpoint);
+            for (String percentil : List.of("p50", "p99", "p999")) {
+                String limite = limites.getProperty(endpoint + "." + percentil);
+                if (limite == null) {
+                    continue;
+                }
+                double medidoMs = histograma.getValueAtPercentile(SuiteCarga.percentil(percentil)) / 1000.0;
+                if (medidoMs > Double.parseDouble(limite)) {
+                    violacoes.add(String.format("%s %s = %.1f ms (limite %s ms)", endpoint, percentil, medidoMs, limite));
+                }
+            }
+            long total = metricas.getRequisicoes(endpoint);
+            double taxaErro = total > 0 ? (double) metricas.getErros(endpoint) / total : 0;
+            if (taxaErro > erroMaximo) {
+                violacoes.add(String.format("%s erros = %.2f%% (limite %.2f%%)", endpoint, taxaErro * 100, erroMaximo * 100));
+            }
+        }
+        return violacoes;
+    }
+}
@@ -0,0 +1,116 @@
+package fiap.tds.carga;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Suíte de carga do mix de um evento de enchente: tempestade de logins, rajadas de reportes com foto
+ * e polling do mapa, todos ao mesmo tempo contra a API no perfil local.
+ * Imprime p50/p99/p999 por endpoint, grava os histogramas HDR em carga.saida e falha se algum SLO for violado.
+ *
+ * Parâmetros (system properties, com os padrões):
+ *   carga.url=http://localhost:8080  carga.duracao=60 (s)  carga.api-key=1234
+ *   carga.login.clientes=50  carga.login.usuarios-semente=10000
+ *   carga.reportes.clientes=20  carga.reportes.por-rajada=5  carga.reportes.intervalo-rajada-ms=10000  carga.reportes.imagem-kb=300
+ *   carga.mapa.clientes=500  carga.mapa.intervalo-ms=5000
+ */
+public class SuiteCarga {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("carga.url", "http://localhost:8080");
+        int duracao = Integer.getInteger("carga.duracao", 60);
+        String apiKey = System.getProperty("carga.api-key", "1234");
+        Path saida = Path.of(System.getProperty("carga.saida", "target/carga"));
+
+        int clientesLogin = Integer.getInteger("carga.login.clientes", 50);
+        int usuariosSemente = Integer.getInteger("carga.login.usuarios-semente", 10_000);
+        int clientesReportes = Integer.getInteger("carga.reportes.clientes", 20);
+        int porRajada = Integer.getInteger("carga.reportes.por-rajada", 5);
+        long intervaloRajada = Long.getLong("carga.reportes.intervalo-rajada-ms", 10_000);
+        int imagemKb = Integer.getInteger("carga.reportes.imagem-kb", 300);
+        int clientesMapa = Integer.getInteger("carga.mapa.clientes", 500);
+        long intervaloMapa = Long.getLong("carga.mapa.intervalo-ms", 5_000);
+
+        byte[] imagem = new byte[imagemKb * 1024];
+        ThreadLocalRandom.current().nextBytes(imagem);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Metricas metricas = new Metricas();
+        Cenarios cenarios = new Cenarios(client, metricas, baseUrl, apiKey,
+                System.nanoTime() + Duration.ofSeconds(duracao).toNanos());
+
+        System.out.printf("Carga em %s por %d s: %d logins, %d reportes (rajadas de %d), %d mapas%n",
+                baseUrl, duracao, clientesLogin, clientesReportes, porRajada, clientesMapa);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientesLogin; i++) {
+                executor.submit(() -> cenarios.tempestadeLogin(usuariosSemente));
+            }
+            for (int i = 0; i < clientesReportes; i++) {
+                executor.submit(() -> cenarios.rajadaReportes(porRajada, intervaloRajada, imagem));
+            }
+            for (int i = 0; i < clientesMapa; i++) {
+                executor.submit(() -> cenarios.pollingMapa(intervaloMapa));
+            }
+        }
+
+        Map<String, Histogram> histogramas = metricas.consolidar();
+        imprimir(histogramas, metricas, duracao);
+        gravar(histogramas, saida);
+
+        List<String> violacoes = new Slo().verificar(histogramas, metricas);
+        if (!violacoes.isEmpty()) {
+            violacoes.forEach(v -> System.out.println("SLO VIOLADO: " + v));
+            // Exceção (e não System.exit) para o exec-maven-plugin marcar o build como falho
+            throw new IllegalStateException(violacoes.size() + " SLO(s) violado(s).");
+        }
+        System.out.println("Todos os SLOs cumpridos.");
+    }
+
+    static double percentil(String nome) {
+        return switch (nome) {
+            case "p50" -> 50.0;
+            case "p99" -> 99.0;
+            case "p999" -> 99.9;
+            default -> throw new IllegalArgumentException("Percentil desconhecido: " + nome);
+        };
+    }
+
+    private static void imprimir(Map<String, Histogram> histogramas, Metricas metricas, int duracao) {
+        System.out.printf("%n%-10s %9s %9s %10s %10s %10s %10s %7s%n",
+                "endpoint", "reqs", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "erros");
+        for (String endpoint : new TreeSet<>(histogramas.keySet())) {
+            Histogram h = histogramas.get(endpoint);
+            long reqs = metricas.getRequisicoes(endpoint);
+            System.out.printf("%-10s %9d %9.1f %10.1f %10.1f %10.1f %10.1f %7d%n", endpoint, reqs, (double) reqs / duracao,
+                    h.getValueAtPercentile(50.0) / 1000.0, h.getValueAtPercentile(99.0) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0, metricas.getErros(endpoint));
+        }
+    }
+
+    // Um .hgrm por endpoint (em ms), para comparar execuções ou plotar no HdrHistogram Plotter
+    private static void gravar(Map<String, Histogram> histogramas, Path saida) throws IOException {
+        Files.createDirectories(saida);
+        for (Map.Entry<String, Histogram> entrada : histogramas.entrySet()) {
+            try (PrintStream arquivo = new PrintStream(Files.newOutputStream(saida.resolve(entrada.getKey() + ".hgrm")))) {
+                entrada.getValue().outputPercentileDistribution(arquivo, 1000.0);
+            }
+        }
+        System.out.println("\nHistogramas gravados em " + saida.toAbsolutePath());
+    }
+}
@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Compara a latência da tela inicial: quatro chamadas sequenciais (como o app fazia)
+# contra a chamada única agregada em /inicio.
+#
+# Uso: ./scripts/latencia-inicio.sh [URL_BASE] [ITERACOES]
+# A chave da API é lida de API_KEY (padrão: a chave de desenvolvimento do application.properties).
+
+set -euo pipefail
+
+BASE_URL="${1:-http://localhost:8080}"
+ITERACOES="${2:-20}"
+API_KEY="${API_KEY:-1234}"
+
+tempo() {
+  curl -s -o /dev/null -H "X-API-Key: ${API_KEY}" -w '%{time_total}' "${BASE_URL}$1"
+}
+
+soma_sequencial=0
+soma_agregado=0
+
+for ((i = 1; i <= ITERACOES; i++)); do
+  sequencial=0
+  for endpoint in /alertas /mapas /abrigos /reportes; do
+    sequencial=$(echo "${sequencial} + $(tempo "${endpoint}")" | bc -l)
+  done
+  agregado=$(tempo "/inicio")
+
+  soma_sequencial=$(echo "${soma_sequencial} + ${sequencial}" | bc -l)
+  soma_agregado=$(echo "${soma_agregado} + ${agregado}" | bc -l)
+  printf '%3d  sequencial: %6.1f ms  /inicio: %6.1f ms\n' "${i}" \
+    "$(echo "${sequencial} * 1000" | bc -l)" "$(echo "${agregado} * 1000" | bc -l)"
+done
+
+printf '\nMédia sequencial: %.1f ms\n' "$(echo "${soma_sequencial} * 1000 / ${ITERACOES}" | bc -l)"
+printf 'Média /inicio:    %.1f ms\n' "$(echo "${soma_agregado} * 1000 / ${ITERACOES}" | bc -l)"
@@ -0,0 +1,66 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice único de ER_USUARIOS.EMAIL para o login (WHERE EMAIL = ?, um e-mail por conta). Bancos criados à mão podem
+ * já ter uma constraint UNIQUE ou um índice em EMAIL, e o Oracle recusa um segundo índice na mesma coluna (ORA-01408);
+ * por isso a migração confere o que existe antes de criar. Fica em Java porque o H2 não roda bloco PL/SQL.
+ */
+public class V2_1__IndiceUnicoEmail extends BaseJavaMigration {
+
+    private static final Logger logger = Logger.getLogger(V2_1__IndiceUnicoEmail.class);
+
+    private static final String TABELA = "ER_USUARIOS";
+    private static final String COLUNA = "EMAIL";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conn = context.getConnection();
+        Boolean unico = indiceExistente(conn);
+        if (unico == null) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE UNIQUE INDEX IX_USUARIOS_EMAIL ON " + TABELA + " (" + COLUNA + ")");
+            }
+            logger.info("Índice único IX_USUARIOS_EMAIL criado.");
+        } else if (unico) {
+            logger.info("ER_USUARIOS.EMAIL já tem índice único (constraint existente); IX_USUARIOS_EMAIL não foi criado.");
+        } else {
+            logger.warn("ER_USUARIOS.EMAIL já tem um índice não único; o login usa esse índice, mas o banco não impede e-mails repetidos.");
+        }
+    }
+
+    // Índice só com a coluna EMAIL: null se não houver, senão se ele é único
+    private static Boolean indiceExistente(Connection conn) throws SQLException {
+        Map<String, List<String>> colunas = new HashMap<>();
+        Map<String, Boolean> unicos = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, conn.getSchema(), TABELA, false, true)) {
+            while (rs.next()) {
+                String indice = rs.getString("INDEX_NAME");
+                if (indice == null) {
+                    continue; // Linha de estatística da tabela (Oracle)
+                }
+                colunas.computeIfAbsent(indice, i -> new ArrayList<>()).add(rs.getString("COLUMN_NAME"));
+                unicos.put(indice, !rs.getBoolean("NON_UNIQUE"));
+            }
+        }
+        Boolean encontrado = null;
+        for (Map.Entry<String, List<String>> indice : colunas.entrySet()) {
+            if (indice.getValue().size() == 1 && COLUNA.equalsIgnoreCase(indice.getValue().get(0))) {
+                encontrado = Boolean.TRUE.equals(encontrado) || unicos.get(indice.getKey());
+            }
+        }
+        return encontrado;
+    }
+}
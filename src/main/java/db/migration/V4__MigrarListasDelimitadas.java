@@ -0,0 +1,78 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Copia SUBSCRIBED_ALERTS (separado por ",") e SERVICES_OFFERED (separado por ";") para as tabelas
+ * filhas criadas na V3. Fica em Java porque quebrar texto delimitado em linhas não tem SQL comum
+ * ao Oracle e ao H2. Roda na transação do Flyway: se falhar, nada é copiado e a V5 não remove as colunas.
+ * As colunas filhas têm a largura das de origem; um valor que ainda assim não caiba (banco criado à mão com
+ * colunas maiores) interrompe a migração em vez de ser descartado, já que a V5 apaga a origem.
+ */
+public class V4__MigrarListasDelimitadas extends BaseJavaMigration {
+
+    private static final Logger logger = Logger.getLogger(V4__MigrarListasDelimitadas.class);
+
+    private static final int LOTE = 1_000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conn = context.getConnection();
+        copiar(conn, "SELECT ID_USUARIO, SUBSCRIBED_ALERTS FROM ER_USUARIOS WHERE SUBSCRIBED_ALERTS IS NOT NULL", ",",
+                "INSERT INTO ER_USUARIO_ALERTAS (ID_USUARIO, TIPO_ALERTA) VALUES (?, ?)", 500);
+        copiar(conn, "SELECT ID, SERVICES_OFFERED FROM ER_ABRIGOS WHERE SERVICES_OFFERED IS NOT NULL", ";",
+                "INSERT INTO ER_ABRIGO_SERVICOS (ID_ABRIGO, SERVICO) VALUES (?, ?)", 1000);
+    }
+
+    private static void copiar(Connection conn, String consulta, String delimitador, String insercao, int tamanhoMaximo) throws SQLException {
+        int linhas = 0;
+        int pendentes = 0;
+        try (PreparedStatement select = conn.prepareStatement(consulta);
+             PreparedStatement insert = conn.prepareStatement(insercao)) {
+            select.setFetchSize(LOTE);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    for (String valor : separar(rs.getString(2), delimitador)) {
+                        if (valor.length() > tamanhoMaximo) {
+                            throw new SQLException("Valor com mais de " + tamanhoMaximo + " caracteres (ID " + id + ") não cabe em: "
+                                    + insercao + ". Encurte o valor na origem e rode a migração de novo.");
+                        }
+                        insert.setInt(1, id);
+                        insert.setString(2, valor);
+                        insert.addBatch();
+                        linhas++;
+                        if (++pendentes == LOTE) {
+                            insert.executeBatch();
+                            pendentes = 0;
+                        }
+                    }
+                }
+            }
+            if (pendentes > 0) {
+                insert.executeBatch();
+            }
+        }
+        logger.infof("%s linhas copiadas: %s", linhas, insercao);
+    }
+
+    // Mesmo tratamento da gravação pelos repositórios: sem espaços nas pontas, sem vazios e sem repetidos
+    private static Set<String> separar(String texto, String delimitador) {
+        Set<String> valores = new LinkedHashSet<>();
+        for (String valor : texto.split(delimitador)) {
+            if (!valor.isBlank()) {
+                valores.add(valor.trim());
+            }
+        }
+        return valores;
+    }
+}
@@ -1,16 +1,29 @@
 package fiap.tds.controllers;
 
+import fiap.tds.dtos.AbrigoProximoDTO;
+import fiap.tds.dtos.OcupacaoAbrigoDTO;
 import fiap.tds.entities.Abrigo;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
+import fiap.tds.infrastructure.SomenteAdmin;
 import fiap.tds.services.AbrigoService;
+import fiap.tds.services.OcupacaoBroadcastService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 import jakarta.annotation.security.PermitAll;
 
 import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Path("/abrigos")
 @Produces(MediaType.APPLICATION_JSON)
@@ -18,101 +31,225 @@ import java.util.List;
 public class AbrigoResource {
 
     private static final Logger logger = Logger.getLogger(AbrigoResource.class);
-    private final AbrigoService abrigoService = new AbrigoService();
+
+    @Inject
+    AbrigoService abrigoService;
+
+    @Inject
+    OcupacaoBroadcastService ocupacaoBroadcast;
+
+    @GET
+    @PermitAll
+    public Uni<Response> listar(@QueryParam("servico") String servico) {
+        logger.debug("Requisição para listar todos os abrigos...");
+        Uni<List<Abrigo>> abrigos = servico == null || servico.isBlank()
+                ? abrigoService.listarTodosReativo()
+                : abrigoService.listarPorServicoReativo(servico);
+        return RespostaReativa.listagem(abrigos, logger, "abrigos");
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @PermitAll
+    @Path("/busca")
+    public Response buscar(@QueryParam("neighborhood") String neighborhood,
+                           @QueryParam("cityState") String cityState,
+                           @QueryParam("capacityStatus") String capacityStatus,
+                           @QueryParam("servicesOffered") List<String> servicesOffered,
+                           @QueryParam("targetAudience") String targetAudience,
+                           @QueryParam("limite") @DefaultValue("100") int limite) {
+        logger.debugf("Requisição de busca de abrigos: bairro=%s, cidade=%s, capacidade=%s, serviços=%s, público=%s",
+                neighborhood, cityState, capacityStatus, servicesOffered, targetAudience);
+        try {
+            List<Abrigo> abrigos = abrigoService.buscar(neighborhood, cityState, capacityStatus, servicesOffered, targetAudience, limite);
+            logger.debugf("Total de abrigos encontrados na busca: %s", abrigos.size());
+            return Response.ok(abrigos).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos na busca de abrigos: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro na busca de abrigos: %s", e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao buscar abrigos.").build();
+        }
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @PermitAll
+    @Path("/proximos")
+    public Response buscarProximos(@QueryParam("latitude") Double latitude,
+                                   @QueryParam("longitude") Double longitude,
+                                   @QueryParam("k") @DefaultValue("5") int k,
+                                   @QueryParam("comVaga") @DefaultValue("false") boolean comVaga) {
+        logger.debugf("Requisição de abrigos próximos: latitude=%s, longitude=%s, k=%s, comVaga=%s", latitude, longitude, k, comVaga);
+        try {
+            List<AbrigoProximoDTO> proximos = abrigoService.buscarProximos(latitude, longitude, k, comVaga);
+            logger.debugf("Total de abrigos próximos encontrados: %s", proximos.size());
+            return Response.ok(proximos).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos na busca de abrigos próximos: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro na busca de abrigos próximos: %s", e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao buscar abrigos próximos.").build();
+        }
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @SomenteAdmin
+    @Path("/geocodificacao")
+    public Response geocodificarPendentes() {
+        logger.debug("Requisição para geocodificar abrigos sem coordenadas...");
+        try {
+            Map<String, Integer> resultado = abrigoService.geocodificarPendentes();
+            logger.infof("Geocodificação de abrigos concluída: %s", resultado);
+            return Response.ok(resultado).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao geocodificar abrigos: %s", e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao geocodificar os abrigos.").build();
+        }
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/{id}/entradas")
+    public Response registrarEntradas(@PathParam("id") int id, @QueryParam("quantidade") @DefaultValue("1") int quantidade) {
+        logger.debugf("Requisição de entrada de %s pessoa(s) no abrigo ID: %s", quantidade, id);
+        return movimentar(id, () -> abrigoService.registrarEntradas(id, quantidade));
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/{id}/saidas")
+    public Response registrarSaidas(@PathParam("id") int id, @QueryParam("quantidade") @DefaultValue("1") int quantidade) {
+        logger.debugf("Requisição de saída de %s pessoa(s) do abrigo ID: %s", quantidade, id);
+        return movimentar(id, () -> abrigoService.registrarSaidas(id, quantidade));
+    }
 
     @GET
+    @RunOnVirtualThread
+    @PermitAll
+    @Path("/{id}/ocupacao")
+    public Response consultarOcupacao(@PathParam("id") int id) {
+        logger.debugf("Requisição da lotação do abrigo ID: %s", id);
+        return movimentar(id, () -> abrigoService.consultarOcupacao(id));
+    }
+
+    @GET // Sem @RunOnVirtualThread: o fluxo SSE é reativo e não bloqueia
     @PermitAll
-    public Response listar() {
-        logger.info("Requisição para listar todos os abrigos...");
+    @Path("/ocupacao/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<OcupacaoAbrigoDTO> streamOcupacao(@QueryParam("ids") List<Integer> ids) { // Push da lotação, sem polling
+        logger.infof("Novo cliente no fluxo de lotação. Conectados: %s", ocupacaoBroadcast.getClientesConectados() + 1);
+        Multi<OcupacaoAbrigoDTO> eventos = ocupacaoBroadcast.assinar();
+        if (ids == null || ids.isEmpty()) {
+            return eventos;
+        }
+        // Com ids, só chegam as mudanças dos abrigos acompanhados pelo cliente
+        Set<Integer> acompanhados = new HashSet<>(ids);
+        return eventos.select().where(evento -> acompanhados.contains(evento.getIdAbrigo()));
+    }
+
+    private Response movimentar(int id, Supplier<OcupacaoAbrigoDTO> operacao) {
         try {
-            List<Abrigo> listaDeAbrigos = abrigoService.listarTodos();
-            logger.info("Total de abrigos encontrados: " + listaDeAbrigos.size());
-            return Response.ok(listaDeAbrigos).build();
+            return Response.ok(operacao.get()).build();
+        } catch (NotFoundException e) {
+            logger.warnf("Abrigo com ID %s não encontrado: %s", id, e.getMessage());
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para a lotação do abrigo ID %s: %s", id, e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao listar abrigos: " + e.getMessage(), e);
-            return Response.serverError().entity("Ocorreu um erro ao buscar a lista de abrigos.").build();
+            logger.errorf(e, "Erro na lotação do abrigo ID %s: %s", id, e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao processar a lotação do abrigo.").build();
         }
     }
 
     @POST
+    @RunOnVirtualThread
     public Response adicionar(Abrigo abrigo) {
-        logger.info("Requisição para adicionar novo abrigo: " + (abrigo != null ? abrigo.getName() : "null"));
+        logger.debugf("Requisição para adicionar novo abrigo: %s", abrigo != null ? abrigo.getName() : "null");
         try {
             abrigoService.registrar(abrigo);
             assert abrigo != null;
-            logger.info("Abrigo adicionado com sucesso. ID: " + abrigo.getId());
+            logger.infof("Abrigo adicionado com sucesso. ID: %s", abrigo.getId());
             return Response.status(Response.Status.CREATED).entity(abrigo).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para adicionar abrigo: " + e.getMessage());
+            logger.warnf("Dados inválidos para adicionar abrigo: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao adicionar abrigo: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao adicionar abrigo: %s", e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar adicionar o abrigo.").build();
         }
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response buscarPorId(@PathParam("id") int id) {
-        logger.info("Requisição para buscar abrigo com ID: " + id);
+        logger.debugf("Requisição para buscar abrigo com ID: %s", id);
         try {
             Abrigo abrigo = abrigoService.buscarPorId(id);
-            logger.info("Abrigo encontrado: " + abrigo.getName());
+            logger.debugf("Abrigo encontrado: %s", abrigo.getName());
             return Response.ok(abrigo).build();
         } catch (NotFoundException e) {
-            logger.warn("Abrigo com ID " + id + " não encontrado: " + e.getMessage());
+            logger.warnf("Abrigo com ID %s não encontrado: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para busca: " + e.getMessage());
+            logger.warnf("ID inválido para busca: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao buscar abrigo por ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao buscar abrigo por ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao buscar o abrigo.").build();
         }
     }
 
     @PUT
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response atualizar(@PathParam("id") int id, Abrigo abrigo) {
-        logger.info("Requisição para atualizar abrigo com ID: " + id);
+        logger.debugf("Requisição para atualizar abrigo com ID: %s", id);
         if (abrigo == null) {
-            logger.warn("Tentativa de atualização com dados nulos para o abrigo ID: " + id);
+            logger.warnf("Tentativa de atualização com dados nulos para o abrigo ID: %s", id);
             return Response.status(Response.Status.BAD_REQUEST).entity("Dados do abrigo não podem ser nulos.").build();
         }
         try {
             abrigoService.atualizar(id, abrigo);
-            logger.info("Abrigo com ID " + id + " atualizado com sucesso.");
+            logger.infof("Abrigo com ID %s atualizado com sucesso.", id);
             return Response.ok(abrigo).build();
         } catch (NotFoundException e) {
-            logger.warn("Abrigo com ID " + id + " não encontrado para atualização: " + e.getMessage());
+            logger.warnf("Abrigo com ID %s não encontrado para atualização: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para atualização do abrigo ID " + id + ": " + e.getMessage());
+            logger.warnf("Dados inválidos para atualização do abrigo ID %s: %s", id, e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao atualizar abrigo ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao atualizar abrigo ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar atualizar o abrigo.").build();
         }
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response remover(@PathParam("id") int id) {
-        logger.info("Requisição para remover abrigo com ID: " + id);
+        logger.debugf("Requisição para remover abrigo com ID: %s", id);
         try {
             abrigoService.deletar(id);
-            logger.info("Abrigo com ID " + id + " removido com sucesso.");
+            logger.infof("Abrigo com ID %s removido com sucesso.", id);
             return Response.ok().entity("Abrigo com ID " + id + " removido com sucesso.").build();
         } catch (NotFoundException e) {
-            logger.warn("Abrigo com ID " + id + " não encontrado para remoção: " + e.getMessage());
+            logger.warnf("Abrigo com ID %s não encontrado para remoção: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para remoção: " + e.getMessage());
+            logger.warnf("ID inválido para remoção: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao remover abrigo ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao remover abrigo ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar remover o abrigo.").build();
         }
     }
@@ -1,15 +1,26 @@
 package fiap.tds.controllers;
 
+import fiap.tds.dtos.AlertaEventoDTO;
 import fiap.tds.entities.Alerta;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
+import fiap.tds.infrastructure.SomenteAdmin;
+import fiap.tds.services.AlertaBroadcastService;
 import fiap.tds.services.AlertaService;
+import fiap.tds.services.DistribuicaoAlertaService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.roaringbitmap.RoaringBitmap;
 
 import java.util.List;
+import java.util.Map;
 
 @Path("/alertas")
 @Produces(MediaType.APPLICATION_JSON)
@@ -17,99 +28,194 @@ import java.util.List;
 public class AlertaResource {
 
     private static final Logger logger = Logger.getLogger(AlertaResource.class);
-    private final AlertaService alertaService = new AlertaService();
+
+    @Inject
+    AlertaService alertaService;
+
+    @Inject
+    AlertaBroadcastService broadcastService;
+
+    @Inject
+    DistribuicaoAlertaService distribuicaoService;
 
     @GET
-    public Response listar() {
-        logger.info("Requisição para listar todos os alertas...");
-        try {
-            List<Alerta> listaDeAlertas = alertaService.listarTodos();
-            logger.info("Total de alertas encontrados: " + listaDeAlertas.size());
-            return Response.ok(listaDeAlertas).build();
-        } catch (Exception e) {
-            logger.error("Erro ao listar alertas: " + e.getMessage(), e);
-            return Response.serverError().entity("Ocorreu um erro ao buscar a lista de alertas.").build();
+    public Uni<Response> listar() {
+        logger.debug("Requisição para listar todos os alertas...");
+        return RespostaReativa.listagem(alertaService.listarTodosReativo(), logger, "alertas");
+    }
+
+    @GET // Sem @RunOnVirtualThread: o fluxo SSE é reativo e não bloqueia
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<AlertaEventoDTO> stream(@QueryParam("usuarioId") Integer usuarioId) { // Push de alertas novos/alterados, sem polling
+        logger.infof("Novo cliente no fluxo de alertas. Conectados: %s", broadcastService.getClientesConectados() + 1);
+        Multi<AlertaEventoDTO> eventos = broadcastService.assinar();
+        if (usuarioId == null) {
+            return eventos;
         }
+        // Com usuarioId, só chegam os alertas que casam com as inscrições do usuário (remoções sempre passam)
+        return eventos.select().where(evento -> AlertaEventoDTO.REMOVIDO.equals(evento.getTipo())
+                || distribuicaoService.isDestinatario(evento.getAlerta(), usuarioId));
     }
 
     @POST
+    @RunOnVirtualThread
     public Response adicionar(Alerta alerta) {
-        logger.info("Requisição para adicionar novo alerta: " + (alerta != null ? alerta.getTitle() : "null"));
+        logger.debugf("Requisição para adicionar novo alerta: %s", alerta != null ? alerta.getTitle() : "null");
         try {
             alertaService.registrar(alerta); // Chama alertaService.registrar()
-            logger.info("Alerta adicionado com sucesso. ID: " + alerta.getId());
+            logger.infof("Alerta adicionado com sucesso. ID: %s", alerta.getId());
             return Response.status(Response.Status.CREATED).entity(alerta).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para adicionar alerta: " + e.getMessage());
+            logger.warnf("Dados inválidos para adicionar alerta: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao adicionar alerta: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao adicionar alerta: %s", e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar adicionar o alerta.").build();
         }
     }
 
+    @GET // Sem @RunOnVirtualThread: responde da memória (AlertasAtivosService), sem ir ao banco
+    @Path("/ativos")
+    public Response listarAtivos(@QueryParam("limite") @DefaultValue("100") int limite) {
+        logger.debug("Requisição para listar os alertas ativos...");
+        try {
+            List<Alerta> ativos = alertaService.listarAtivos(limite);
+            logger.debugf("Total de alertas ativos devolvidos: %s", ativos.size());
+            return Response.ok(ativos).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Limite inválido para listar alertas ativos: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao listar alertas ativos: %s", e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao buscar os alertas ativos.").build();
+        }
+    }
+
     @GET
+    @RunOnVirtualThread
+    @SomenteAdmin
+    @Path("/rascunhos")
+    public Response listarRascunhos() { // Rascunhos gerados pela detecção de picos de reportes, aguardando revisão
+        logger.debug("Requisição para listar os rascunhos de alertas...");
+        try {
+            List<Alerta> rascunhos = alertaService.listarRascunhos();
+            return Response.ok(rascunhos).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao listar rascunhos de alertas: %s", e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao buscar os rascunhos de alertas.").build();
+        }
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @SomenteAdmin
+    @Path("/{id}/publicacao")
+    public Response publicar(@PathParam("id") int id) {
+        logger.debugf("Requisição para publicar o rascunho de alerta com ID: %s", id);
+        try {
+            Alerta alerta = alertaService.publicar(id);
+            logger.infof("Rascunho de alerta com ID %s publicado.", id);
+            return Response.ok(alerta).build();
+        } catch (NotFoundException e) {
+            logger.warnf("Alerta com ID %s não encontrado para publicação: %s", id, e.getMessage());
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Não foi possível publicar o alerta ID %s: %s", id, e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao publicar alerta ID %s: %s", id, e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao tentar publicar o alerta.").build();
+        }
+    }
+
+    @GET
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response buscarPorId(@PathParam("id") int id) {
-        logger.info("Requisição para buscar alerta com ID: " + id);
+        logger.debugf("Requisição para buscar alerta com ID: %s", id);
         try {
             Alerta alerta = alertaService.buscarPorId(id);
-            logger.info("Alerta encontrado: " + alerta.getTitle());
+            logger.debugf("Alerta encontrado: %s", alerta.getTitle());
             return Response.ok(alerta).build();
         } catch (NotFoundException e) {
-            logger.warn("Alerta com ID " + id + " não encontrado: " + e.getMessage());
+            logger.warnf("Alerta com ID %s não encontrado: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para busca de alerta: " + e.getMessage());
+            logger.warnf("ID inválido para busca de alerta: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao buscar alerta por ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao buscar alerta por ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao buscar o alerta.").build();
         }
     }
 
+    @GET
+    @RunOnVirtualThread
+    @Path("/{id}/destinatarios")
+    public Response buscarDestinatarios(@PathParam("id") int id, @QueryParam("limite") @DefaultValue("100") int limite) {
+        logger.debugf("Requisição para resolver destinatários do alerta com ID: %s", id);
+        try {
+            RoaringBitmap destinatarios = alertaService.buscarDestinatarios(id);
+            int[] amostra = destinatarios.limit(Math.max(0, limite)).toArray(); // A lista completa pode ter milhões de IDs
+            return Response.ok(Map.of("alertaId", id, "total", destinatarios.getLongCardinality(), "usuarios", amostra)).build();
+        } catch (NotFoundException e) {
+            logger.warnf("Alerta com ID %s não encontrado: %s", id, e.getMessage());
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (BadRequestException e) {
+            logger.warnf("ID inválido para resolver destinatários: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao resolver destinatários do alerta ID %s: %s", id, e.getMessage());
+            return Response.serverError().entity("Ocorreu um erro ao resolver os destinatários do alerta.").build();
+        }
+    }
+
     @PUT
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response atualizar(@PathParam("id") int id, Alerta alerta) {
-        logger.info("Requisição para atualizar alerta com ID: " + id);
+        logger.debugf("Requisição para atualizar alerta com ID: %s", id);
         if (alerta == null) {
-            logger.warn("Tentativa de atualização com dados nulos para o alerta ID: " + id);
+            logger.warnf("Tentativa de atualização com dados nulos para o alerta ID: %s", id);
             return Response.status(Response.Status.BAD_REQUEST).entity("Dados do alerta não podem ser nulos.").build();
         }
         try {
             alertaService.atualizar(id, alerta); // Chama alertaService.atualizar()
-            logger.info("Alerta com ID " + id + " atualizado com sucesso.");
+            logger.infof("Alerta com ID %s atualizado com sucesso.", id);
             return Response.ok(alerta).build(); // Retornando o objeto atualizado
         } catch (NotFoundException e) {
-            logger.warn("Alerta com ID " + id + " não encontrado para atualização: " + e.getMessage());
+            logger.warnf("Alerta com ID %s não encontrado para atualização: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para atualização do alerta ID " + id + ": " + e.getMessage());
+            logger.warnf("Dados inválidos para atualização do alerta ID %s: %s", id, e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao atualizar alerta ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao atualizar alerta ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar atualizar o alerta.").build();
         }
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response remover(@PathParam("id") int id) {
-        logger.info("Requisição para remover alerta com ID: " + id);
+        logger.debugf("Requisição para remover alerta com ID: %s", id);
         try {
             alertaService.deletar(id); // Chama alertaService.deletar()
-            logger.info("Alerta com ID " + id + " removido com sucesso.");
+            logger.infof("Alerta com ID %s removido com sucesso.", id);
             return Response.ok().entity("Alerta com ID " + id + " removido com sucesso.").build();
         } catch (NotFoundException e) {
-            logger.warn("Alerta com ID " + id + " não encontrado para remoção: " + e.getMessage());
+            logger.warnf("Alerta com ID %s não encontrado para remoção: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para remoção de alerta: " + e.getMessage());
+            logger.warnf("ID inválido para remoção de alerta: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao remover alerta ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao remover alerta ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar remover o alerta.").build();
         }
     }
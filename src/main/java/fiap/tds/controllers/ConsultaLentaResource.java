@@ -0,0 +1,39 @@
+package fiap.tds.controllers;
+
+import fiap.tds.infrastructure.MonitorSql;
+import fiap.tds.infrastructure.SomenteAdmin;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+
+@Path("/consultas-lentas")
+@SomenteAdmin
+@RunOnVirtualThread
+@Produces(MediaType.APPLICATION_JSON)
+public class ConsultaLentaResource {
+
+    private static final Logger logger = Logger.getLogger(ConsultaLentaResource.class);
+
+    @Inject
+    MonitorSql monitorSql;
+
+    @GET
+    public Response relatorio(@QueryParam("top") @DefaultValue("20") int top) {
+        if (top <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "O parâmetro 'top' deve ser positivo.")).build();
+        }
+        return Response.ok(monitorSql.relatorio(top)).build();
+    }
+
+    @DELETE
+    public Response limpar() {
+        monitorSql.limpar();
+        logger.info("Estatísticas de consultas lentas zeradas.");
+        return Response.noContent().build();
+    }
+}
@@ -0,0 +1,48 @@
+package fiap.tds.controllers;
+
+import fiap.tds.dtos.InicioDTO;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.services.InicioService;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Path("/inicio")
+@RunOnVirtualThread
+@Produces(MediaType.APPLICATION_JSON)
+public class InicioResource {
+
+    private static final Logger logger = Logger.getLogger(InicioResource.class);
+
+    @Inject
+    InicioService inicioService;
+
+    @GET
+    public Response carregar(@QueryParam("reportes") @DefaultValue("20") int limiteReportes) {
+        logger.debugf("Requisição para carregar a tela inicial (reportes: %s)", limiteReportes);
+        try {
+            InicioDTO inicio = inicioService.carregar(limiteReportes);
+            if (!inicio.getFalhas().isEmpty()) {
+                logger.warnf("Tela inicial montada parcialmente. Fatias com falha: %s", inicio.getFalhas());
+            }
+            // Tempo de cada fatia fica visível no DevTools do navegador/app, sem poluir o corpo
+            String serverTiming = inicio.getTemposMs().entrySet().stream()
+                    .map(tempo -> tempo.getKey() + ";dur=" + tempo.getValue())
+                    .collect(Collectors.joining(", "));
+            return Response.ok(inicio).header("Server-Timing", serverTiming).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para a tela inicial: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao carregar a tela inicial: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao carregar a tela inicial.")).build();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package fiap.tds.controllers;
+
+import fiap.tds.infrastructure.SomenteAdmin;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+
+/**
+ * Consulta e altera o nível de log de uma categoria com a aplicação no ar, sem redeploy.
+ * Ex.: PUT /logs/fiap.tds.repositories?nivel=DEBUG para investigar e PUT /logs/fiap.tds.repositories?nivel=INFO para voltar.
+ * Níveis abaixo de DEBUG exigem quarkus.log.min-level no build.
+ */
+@Path("/logs")
+@SomenteAdmin
+@RunOnVirtualThread
+@Produces(MediaType.APPLICATION_JSON)
+public class LogResource {
+
+    private static final Logger logger = Logger.getLogger(LogResource.class);
+
+    @GET
+    @Path("/{categoria}")
+    public Response consultar(@PathParam("categoria") String categoria) {
+        return Response.ok(Map.of("categoria", categoria, "nivel", nivelEfetivo(categoria))).build();
+    }
+
+    @PUT
+    @Path("/{categoria}")
+    public Response alterar(@PathParam("categoria") String categoria, @QueryParam("nivel") String nivel) {
+        if (nivel == null || nivel.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "Informe o parâmetro 'nivel'.")).build();
+        }
+        java.util.logging.Level novoNivel;
+        try {
+            novoNivel = org.jboss.logmanager.Level.parse(nivel.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "Nível inválido: " + nivel)).build();
+        }
+        java.util.logging.Logger.getLogger(categoria).setLevel(novoNivel);
+        logger.infof("Nível de log da categoria %s alterado para %s.", categoria, novoNivel.getName());
+        return Response.ok(Map.of("categoria", categoria, "nivel", nivelEfetivo(categoria))).build();
+    }
+
+    // Sem nível próprio, a categoria herda o da mais próxima acima (fiap.tds.repositories -> fiap.tds -> raiz)
+    private static String nivelEfetivo(String categoria) {
+        java.util.logging.Logger atual = java.util.logging.Logger.getLogger(categoria);
+        while (atual.getLevel() == null && atual.getParent() != null) {
+            atual = atual.getParent();
+        }
+        return atual.getLevel() != null ? atual.getLevel().getName() : "INFO";
+    }
+}
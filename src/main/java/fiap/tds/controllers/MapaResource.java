@@ -4,12 +4,14 @@ import fiap.tds.entities.Mapa;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 import fiap.tds.services.MapaService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.logging.Logger;
 
-import java.util.List;
 
 @Path("/mapas")
 @Produces(MediaType.APPLICATION_JSON)
@@ -17,99 +19,98 @@ import java.util.List;
 public class MapaResource {
 
     private static final Logger logger = Logger.getLogger(MapaResource.class);
-    private final MapaService mapaService = new MapaService();
+
+    @Inject
+    MapaService mapaService;
 
     @GET
-    public Response listar() { // Lista todas as áreas de risco
-        logger.info("Requisição para listar todas as áreas de risco (mapas)...");
-        try {
-            List<Mapa> listaDeAreasDeRisco = mapaService.listarTodos();
-            logger.info("Total de áreas de risco encontradas: " + listaDeAreasDeRisco.size());
-            return Response.ok(listaDeAreasDeRisco).build();
-        } catch (Exception e) {
-            logger.error("Erro ao listar áreas de risco: " + e.getMessage(), e);
-            return Response.serverError().entity("Ocorreu um erro ao buscar a lista de áreas de risco.").build();
-        }
+    public Uni<Response> listar() {
+        logger.debug("Requisição para listar todas as áreas de risco (mapas)...");
+        return RespostaReativa.listagem(mapaService.listarTodosReativo(), logger, "áreas de risco");
     }
 
     @POST
+    @RunOnVirtualThread
     public Response adicionar(Mapa areaDeRisco) { // Adiciona uma nova área de risco
-        logger.info("Requisição para adicionar nova área de risco: " + (areaDeRisco != null ? areaDeRisco.getTitle() : "null"));
+        logger.debugf("Requisição para adicionar nova área de risco: %s", areaDeRisco != null ? areaDeRisco.getTitle() : "null");
         try {
             mapaService.registrar(areaDeRisco);
-            logger.info("Área de risco adicionada com sucesso. ID: " + areaDeRisco.getId());
+            logger.infof("Área de risco adicionada com sucesso. ID: %s", areaDeRisco.getId());
             return Response.status(Response.Status.CREATED).entity(areaDeRisco).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para adicionar área de risco: " + e.getMessage());
+            logger.warnf("Dados inválidos para adicionar área de risco: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao adicionar área de risco: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao adicionar área de risco: %s", e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar adicionar a área de risco.").build();
         }
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response buscarPorId(@PathParam("id") int id) { // Busca uma área de risco específica pelo ID
-        logger.info("Requisição para buscar área de risco com ID: " + id);
+        logger.debugf("Requisição para buscar área de risco com ID: %s", id);
         try {
             Mapa areaDeRisco = mapaService.buscarPorId(id);
-            logger.info("Área de risco encontrada: " + areaDeRisco.getTitle());
+            logger.debugf("Área de risco encontrada: %s", areaDeRisco.getTitle());
             return Response.ok(areaDeRisco).build();
         } catch (NotFoundException e) {
-            logger.warn("Área de risco com ID " + id + " não encontrada: " + e.getMessage());
+            logger.warnf("Área de risco com ID %s não encontrada: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para busca de área de risco: " + e.getMessage());
+            logger.warnf("ID inválido para busca de área de risco: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao buscar área de risco por ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao buscar área de risco por ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao buscar a área de risco.").build();
         }
     }
 
     @PUT
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response atualizar(@PathParam("id") int id, Mapa areaDeRisco) { // Atualiza uma área de risco
-        logger.info("Requisição para atualizar área de risco com ID: " + id);
+        logger.debugf("Requisição para atualizar área de risco com ID: %s", id);
         if (areaDeRisco == null) {
-            logger.warn("Tentativa de atualização com dados nulos para a área de risco ID: " + id);
+            logger.warnf("Tentativa de atualização com dados nulos para a área de risco ID: %s", id);
             return Response.status(Response.Status.BAD_REQUEST).entity("Dados da área de risco não podem ser nulos.").build();
         }
         try {
             mapaService.atualizar(id, areaDeRisco);
-            logger.info("Área de risco com ID " + id + " atualizada com sucesso.");
+            logger.infof("Área de risco com ID %s atualizada com sucesso.", id);
             return Response.ok(areaDeRisco).build();
         } catch (NotFoundException e) {
-            logger.warn("Área de risco com ID " + id + " não encontrada para atualização: " + e.getMessage());
+            logger.warnf("Área de risco com ID %s não encontrada para atualização: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para atualização da área de risco ID " + id + ": " + e.getMessage());
+            logger.warnf("Dados inválidos para atualização da área de risco ID %s: %s", id, e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao atualizar área de risco ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao atualizar área de risco ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar atualizar a área de risco.").build();
         }
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     public Response remover(@PathParam("id") int id) { // Remove uma área de risco
-        logger.info("Requisição para remover área de risco com ID: " + id);
+        logger.debugf("Requisição para remover área de risco com ID: %s", id);
         try {
             mapaService.deletar(id);
-            logger.info("Área de risco com ID " + id + " removida com sucesso.");
+            logger.infof("Área de risco com ID %s removida com sucesso.", id);
             return Response.ok().entity("Área de risco com ID " + id + " removida com sucesso.").build();
         } catch (NotFoundException e) {
-            logger.warn("Área de risco com ID " + id + " não encontrada para remoção: " + e.getMessage());
+            logger.warnf("Área de risco com ID %s não encontrada para remoção: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (BadRequestException e) {
-            logger.warn("ID inválido para remoção de área de risco: " + e.getMessage());
+            logger.warnf("ID inválido para remoção de área de risco: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao remover área de risco ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao remover área de risco ID %s: %s", id, e.getMessage());
             return Response.serverError().entity("Ocorreu um erro ao tentar remover a área de risco.").build();
         }
     }
@@ -1,12 +1,19 @@
 package fiap.tds.controllers;
 
+import fiap.tds.dtos.BuscaReportesDTO;
+import fiap.tds.dtos.EstatisticasReportesDTO;
+import fiap.tds.dtos.IncidenteDTO;
 import fiap.tds.dtos.ReporteComImagemDTO;
 import fiap.tds.dtos.StatusUpdateRequestDTO;
+import fiap.tds.dtos.TileMapaCalorDTO;
 import fiap.tds.entities.Reporte;
 import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.exceptions.ConflictException;
 import fiap.tds.exceptions.NotFoundException;
+import fiap.tds.infrastructure.SomenteAdmin;
 import fiap.tds.services.ReporteService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -17,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 @Path("/reportes")
+@RunOnVirtualThread // JDBC bloqueante: cada requisição espera o Oracle numa virtual thread, não num worker
 @Produces(MediaType.APPLICATION_JSON)
 public class ReporteResource {
 
@@ -28,39 +36,226 @@ public class ReporteResource {
     @POST
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     public Response adicionar(@BeanParam ReporteComImagemDTO reporteDTO) {
-        logger.info("Requisição para adicionar novo reporte via DTO...");
+        logger.debug("Requisição para adicionar novo reporte via DTO...");
         try {
             if (reporteDTO == null) {
                 throw new BadRequestException("Dados do formulário (DTO) não podem ser nulos.");
             }
             Reporte reportePersistido = reporteService.registrar(reporteDTO);
-            logger.info("Reporte adicionado com sucesso. ID: " + reportePersistido.getId());
+            logger.infof("Reporte adicionado com sucesso. ID: %s", reportePersistido.getId());
             return Response.status(Response.Status.CREATED).entity(reportePersistido).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para adicionar reporte: " + e.getMessage());
+            logger.warnf("Dados inválidos para adicionar reporte: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro crítico ao adicionar reporte: " + e.getMessage(), e);
+            logger.errorf(e, "Erro crítico ao adicionar reporte: %s", e.getMessage());
             return Response.serverError().entity(Map.of("error", "Ocorreu um erro inesperado ao tentar adicionar o reporte.")).build();
         }
     }
 
     @GET
-    public Response listar() {
-        logger.info("Requisição para listar todos os reportes...");
+    public Response listar(@QueryParam("status") String status, @QueryParam("limite") @DefaultValue("100") int limite) {
+        logger.debug("Requisição para listar todos os reportes...");
         try {
-            List<Reporte> listaDeReportes = reporteService.listarTodos();
+            // Com status, só a fila daquele status (ex.: ?status=novo para moderação), do mais novo para o mais antigo
+            List<Reporte> listaDeReportes = status == null ? reporteService.listarTodos() : reporteService.listarPorStatus(status, limite);
             return Response.ok(listaDeReportes).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para listar reportes: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro ao listar reportes: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao listar reportes: %s", e.getMessage());
             return Response.serverError().entity(Map.of("error", "Erro ao listar reportes.")).build();
         }
     }
 
+    @GET
+    @Path("/busca")
+    public Response buscar(@QueryParam("q") String texto,
+                           @QueryParam("status") String status,
+                           @QueryParam("eventType") String eventType,
+                           @QueryParam("severity") String severity,
+                           @QueryParam("desde") String desde,
+                           @QueryParam("ate") String ate,
+                           @QueryParam("pagina") @DefaultValue("1") int pagina,
+                           @QueryParam("tamanho") @DefaultValue("20") int tamanho) {
+        logger.debugf("Requisição de busca de reportes: q=%s, status=%s, tipo=%s, severidade=%s, desde=%s, ate=%s, página=%s",
+                texto, status, eventType, severity, desde, ate, pagina);
+        try {
+            BuscaReportesDTO resultado = reporteService.buscar(texto, status, eventType, severity, desde, ate, pagina, tamanho);
+            logger.debugf("Total de reportes encontrados na busca: %s", resultado.getTotal());
+            return Response.ok(resultado).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos na busca de reportes: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro na busca de reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao buscar reportes.")).build();
+        }
+    }
+
+    @POST
+    @SomenteAdmin
+    @Path("/busca/reconstrucao")
+    public Response reconstruirIndice() {
+        logger.info("Requisição para reconstruir o índice de busca dos reportes...");
+        try {
+            reporteService.reconstruirIndice();
+            return Response.accepted(Map.of("message", "Reconstrução do índice de busca iniciada.")).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Reconstrução do índice de reportes recusada: %s", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao reconstruir o índice de reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao reconstruir o índice de busca.")).build();
+        }
+    }
+
+    @GET
+    @Path("/estatisticas")
+    public Response estatisticas(@QueryParam("horas") @DefaultValue("24") int horas) {
+        logger.debugf("Requisição de estatísticas dos reportes das últimas %s horas", horas);
+        try {
+            EstatisticasReportesDTO estatisticas = reporteService.estatisticas(horas);
+            return Response.ok(estatisticas).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para as estatísticas de reportes: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao calcular as estatísticas de reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao calcular as estatísticas de reportes.")).build();
+        }
+    }
+
+    @POST
+    @SomenteAdmin
+    @Path("/estatisticas/reconstrucao")
+    public Response reconstruirEstatisticas() {
+        logger.info("Requisição para reconstruir as estatísticas dos reportes...");
+        try {
+            int grupos = reporteService.reconstruirEstatisticas();
+            return Response.ok(Map.of("grupos", grupos)).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Reconstrução das estatísticas de reportes recusada: %s", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao reconstruir as estatísticas de reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao reconstruir as estatísticas.")).build();
+        }
+    }
+
+    @POST
+    @SomenteAdmin
+    @Path("/arquivamento")
+    public Response arquivar() {
+        logger.info("Requisição para arquivar os reportes antigos...");
+        try {
+            int arquivados = reporteService.arquivar();
+            return Response.ok(Map.of("arquivados", arquivados)).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Arquivamento de reportes recusado: %s", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao arquivar os reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao arquivar os reportes.")).build();
+        }
+    }
+
+    @GET
+    @Path("/mapa-calor/{z}/{x}/{y}")
+    public Response mapaCalor(@PathParam("z") int z, @PathParam("x") int x, @PathParam("y") int y,
+                              @QueryParam("horas") @DefaultValue("24") int horas) {
+        logger.debugf("Requisição do tile %s/%s/%s do mapa de calor (últimas %s horas)", z, x, y, horas);
+        try {
+            TileMapaCalorDTO tile = reporteService.mapaCalor(z, x, y, horas);
+            return Response.ok(tile).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para o mapa de calor: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao montar o tile %s/%s/%s do mapa de calor: %s", z, x, y, e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao montar o mapa de calor.")).build();
+        }
+    }
+
+    @POST
+    @SomenteAdmin
+    @Path("/geocodificacao")
+    public Response geocodificarPendentes() {
+        logger.info("Requisição para geocodificar os reportes sem coordenadas...");
+        try {
+            Map<String, Integer> resultado = reporteService.geocodificarPendentes();
+            logger.infof("Geocodificação de reportes concluída: %s", resultado);
+            return Response.ok(resultado).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao geocodificar reportes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao geocodificar reportes.")).build();
+        }
+    }
+
+    @GET
+    @Path("/incidentes")
+    public Response listarIncidentes(@QueryParam("status") String status,
+                                     @QueryParam("horas") @DefaultValue("24") int horas,
+                                     @QueryParam("limite") @DefaultValue("100") int limite) {
+        logger.debugf("Requisição para listar incidentes: status=%s, horas=%s, limite=%s", status, horas, limite);
+        try {
+            List<IncidenteDTO> incidentes = reporteService.listarIncidentes(status, horas, limite);
+            return Response.ok(incidentes).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Parâmetros inválidos para listar incidentes: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao listar incidentes: %s", e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao listar incidentes.")).build();
+        }
+    }
+
+    @GET
+    @Path("/incidentes/{id}")
+    public Response listarReportesDoIncidente(@PathParam("id") int id) {
+        logger.debugf("Requisição para listar os reportes do incidente ID: %s", id);
+        try {
+            List<Reporte> reportes = reporteService.listarReportesDoIncidente(id);
+            return Response.ok(reportes).build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", e.getMessage())).build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao listar os reportes do incidente ID %s: %s", id, e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao listar os reportes do incidente.")).build();
+        }
+    }
+
+    @PATCH
+    @Path("/incidentes/{id}/status")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response atualizarStatusDoIncidente(@PathParam("id") int id, StatusUpdateRequestDTO statusUpdateRequest) {
+        logger.debugf("Requisição para atualizar status do incidente ID: %s", id);
+        try {
+            if (statusUpdateRequest == null || statusUpdateRequest.getStatus() == null || statusUpdateRequest.getStatus().trim().isEmpty()) {
+                throw new BadRequestException("O novo status não pode ser nulo ou vazio.");
+            }
+            List<Reporte> reportes = reporteService.atualizarStatusDoIncidente(id, statusUpdateRequest.getStatus());
+            logger.infof("Status dos %s reportes do incidente ID %s atualizado para %s", reportes.size(), id, statusUpdateRequest.getStatus());
+            return Response.ok(reportes).build();
+        } catch (NotFoundException e) {
+            logger.warnf("Incidente ID %s não encontrado para atualização de status: %s", id, e.getMessage());
+            return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", e.getMessage())).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Dados inválidos para atualizar status do incidente ID %s: %s", id, e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro crítico ao atualizar status do incidente ID %s: %s", id, e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Ocorreu um erro inesperado ao tentar atualizar o status do incidente.")).build();
+        }
+    }
+
     @GET
     @Path("/{id}")
     public Response buscarPorId(@PathParam("id") int id) {
-        logger.info("Requisição para buscar reporte com ID: " + id);
+        logger.debugf("Requisição para buscar reporte com ID: %s", id);
         try {
             Reporte reporte = reporteService.buscarPorId(id);
             return Response.ok(reporte).build();
@@ -69,7 +264,7 @@ public class ReporteResource {
         } catch (BadRequestException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro ao buscar reporte por ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao buscar reporte por ID %s: %s", id, e.getMessage());
             return Response.serverError().entity(Map.of("error", "Erro ao buscar reporte.")).build();
         }
     }
@@ -78,7 +273,7 @@ public class ReporteResource {
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     public Response atualizar(@PathParam("id") int id, Reporte reporteParaAtualizar) {
-        logger.info("Requisição para atualizar reporte com ID: " + id);
+        logger.debugf("Requisição para atualizar reporte com ID: %s", id);
         try {
             Reporte reporteAtualizado = reporteService.atualizar(id, reporteParaAtualizar);
             return Response.ok(reporteAtualizado).build();
@@ -86,8 +281,10 @@ public class ReporteResource {
             return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", e.getMessage())).build();
         } catch (BadRequestException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro ao atualizar reporte ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao atualizar reporte ID %s: %s", id, e.getMessage());
             return Response.serverError().entity(Map.of("error", "Erro ao atualizar reporte.")).build();
         }
     }
@@ -95,7 +292,7 @@ public class ReporteResource {
     @DELETE
     @Path("/{id}")
     public Response remover(@PathParam("id") int id) {
-        logger.info("Requisição para remover reporte com ID: " + id);
+        logger.debugf("Requisição para remover reporte com ID: %s", id);
         try {
             reporteService.deletar(id);
             return Response.ok(Map.of("message", "Reporte com ID " + id + " removido com sucesso.")).build();
@@ -104,7 +301,7 @@ public class ReporteResource {
         } catch (BadRequestException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro ao remover reporte ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao remover reporte ID %s: %s", id, e.getMessage());
             return Response.serverError().entity(Map.of("error", "Erro ao remover reporte.")).build();
         }
     }
@@ -117,22 +314,25 @@ public class ReporteResource {
             @PathParam("id") int id,
             StatusUpdateRequestDTO statusUpdateRequest) {
 
-        logger.info("Requisição para atualizar status do reporte ID: " + id + " para: " + statusUpdateRequest.getStatus());
+        logger.debugf("Requisição para atualizar status do reporte ID: %s para: %s", id, statusUpdateRequest.getStatus());
         try {
             if (statusUpdateRequest == null || statusUpdateRequest.getStatus() == null || statusUpdateRequest.getStatus().trim().isEmpty()) {
                 throw new BadRequestException("O novo status não pode ser nulo ou vazio.");
             }
             Reporte reporteAtualizado = reporteService.atualizarStatusDoReporte(id, statusUpdateRequest.getStatus());
-            logger.info("Status do reporte ID " + id + " atualizado com sucesso para " + reporteAtualizado.getStatus());
+            logger.infof("Status do reporte ID %s atualizado com sucesso para %s", id, reporteAtualizado.getStatus());
             return Response.ok(reporteAtualizado).build();
         } catch (NotFoundException e) {
-            logger.warn("Reporte ID " + id + " não encontrado para atualização de status: " + e.getMessage());
+            logger.warnf("Reporte ID %s não encontrado para atualização de status: %s", id, e.getMessage());
             return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", e.getMessage())).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para atualizar status do reporte ID " + id + ": " + e.getMessage());
+            logger.warnf("Dados inválidos para atualizar status do reporte ID %s: %s", id, e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (ConflictException e) {
+            logger.warnf("Reporte ID %s arquivado, status não alterado: %s", id, e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(Map.of("error", e.getMessage())).build();
         } catch (Exception e) {
-            logger.error("Erro crítico ao atualizar status do reporte ID " + id + ": " + e.getMessage(), e);
+            logger.errorf(e, "Erro crítico ao atualizar status do reporte ID %s: %s", id, e.getMessage());
             return Response.serverError().entity(Map.of("error", "Ocorreu um erro inesperado ao tentar atualizar o status do reporte.")).build();
         }
     }
@@ -0,0 +1,38 @@
+package fiap.tds.controllers;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Resposta das listagens reativas (GET /alertas, /abrigos e /mapas). Esses endpoints devolvem Uni e não levam
+ * @RunOnVirtualThread: respondem na thread de I/O e a consulta JDBC roda no pool limitado do LeituraReativaRepository.
+ * Com o pool saturado a leitura é recusada na hora (503) em vez de enfileirar requisições esperando o banco.
+ */
+final class RespostaReativa {
+
+    private RespostaReativa() {
+    }
+
+    /**
+     * @param descricao O que está sendo listado, no plural (ex.: "alertas"), para os logs e a mensagem de erro.
+     */
+    static Uni<Response> listagem(Uni<? extends List<?>> leitura, Logger logger, String descricao) {
+        return leitura
+                .map(lista -> {
+                    logger.debugf("Listagem de %s: %s itens.", descricao, lista.size());
+                    return Response.ok(lista).build();
+                })
+                .onFailure(RejectedExecutionException.class).recoverWithItem(e -> {
+                    logger.warn("Pool de leitura saturado; requisição recusada.");
+                    return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Servidor ocupado. Tente novamente em instantes.").build();
+                })
+                .onFailure().recoverWithItem(e -> {
+                    logger.errorf(e, "Erro ao listar %s: %s", descricao, e.getMessage());
+                    return Response.serverError().entity("Ocorreu um erro ao buscar a lista de " + descricao + ".").build();
+                });
+    }
+}
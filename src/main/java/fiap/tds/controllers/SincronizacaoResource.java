@@ -0,0 +1,40 @@
+package fiap.tds.controllers;
+
+import fiap.tds.dtos.SincronizacaoDTO;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.services.SincronizacaoService;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+
+@Path("/sync")
+@RunOnVirtualThread
+@Produces(MediaType.APPLICATION_JSON)
+public class SincronizacaoResource {
+
+    private static final Logger logger = Logger.getLogger(SincronizacaoResource.class);
+
+    @Inject
+    SincronizacaoService sincronizacaoService;
+
+    @GET
+    public Response sincronizar(@QueryParam("desde") Long desde) {
+        logger.debugf("Requisição de sincronização incremental desde: %s", desde);
+        try {
+            SincronizacaoDTO pacote = sincronizacaoService.sincronizar(desde);
+            return Response.ok(pacote).build();
+        } catch (BadRequestException e) {
+            logger.warnf("Watermark inválido para sincronização: %s", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+        } catch (Exception e) {
+            logger.errorf(e, "Erro ao sincronizar desde %s: %s", desde, e.getMessage());
+            return Response.serverError().entity(Map.of("error", "Erro ao montar a sincronização.")).build();
+        }
+    }
+}
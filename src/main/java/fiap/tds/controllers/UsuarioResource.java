@@ -7,6 +7,7 @@ import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 import fiap.tds.services.UsuarioService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -16,6 +17,7 @@ import org.jboss.logging.Logger;
 import java.util.List;
 
 @Path("/usuarios")
+@RunOnVirtualThread
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class UsuarioResource {
@@ -28,16 +30,16 @@ public class UsuarioResource {
     @POST
     @Path("/registrar")
     public Response registrar(UsuarioRegistroDTO registroDTO) {
-        logger.info("Requisição para registrar novo usuário: " + (registroDTO != null ? registroDTO.getEmail() : "DTO nulo"));
+        logger.debugf("Requisição para registrar novo usuário: %s", registroDTO != null ? registroDTO.getEmail() : "DTO nulo");
         try {
             Usuario usuarioRegistrado = usuarioService.registrar(registroDTO); // O serviço agora recebe o DTO
-            logger.info("Usuário registrado com sucesso. ID: " + usuarioRegistrado.getUserId());
+            logger.infof("Usuário registrado com sucesso. ID: %s", usuarioRegistrado.getUserId());
             return Response.status(Response.Status.CREATED).entity(usuarioRegistrado).build();
         } catch (BadRequestException e) {
-            logger.warn("Dados inválidos para registro: " + e.getMessage());
+            logger.warnf("Dados inválidos para registro: %s", e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao registrar usuário: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao registrar usuário: %s", e.getMessage());
             return Response.serverError().entity("Erro ao tentar registrar usuário.").build();
         }
     }
@@ -45,28 +47,30 @@ public class UsuarioResource {
     @POST
     @Path("/login")
     public Response login(UsuarioLoginDTO loginDTO) {
-        logger.info("Tentativa de login para: " + (loginDTO != null ? loginDTO.getEmail() : "DTO nulo"));
+        logger.debugf("Tentativa de login para: %s", loginDTO != null ? loginDTO.getEmail() : "DTO nulo");
         try {
             Usuario usuario = usuarioService.login(loginDTO); // Serviço agora recebe o DTO
-            logger.info("Login bem-sucedido para: " + usuario.getEmail());
+            logger.infof("Login bem-sucedido para: %s", usuario.getEmail());
             return Response.ok(usuario).build();
         } catch (BadRequestException | NotFoundException e) { // NotFoundException também pode ser lançada pelo serviço de login
-            logger.warn("Falha no login para " + (loginDTO != null ? loginDTO.getEmail() : "DTO nulo") + ": " + e.getMessage());
+            logger.warnf("Falha no login para %s: %s", loginDTO != null ? loginDTO.getEmail() : "DTO nulo", e.getMessage());
             return Response.status(Response.Status.UNAUTHORIZED).entity("Email ou senha inválidos.").build();
         } catch (Exception e) {
-            logger.error("Erro no processo de login: " + e.getMessage(), e);
+            logger.errorf(e, "Erro no processo de login: %s", e.getMessage());
             return Response.serverError().entity("Erro no processo de login.").build();
         }
     }
 
     @GET
-    public Response listar() {
-        logger.info("Listando todos os usuários...");
+    public Response listar(@QueryParam("alerta") String alerta) {
+        logger.debug("Listando todos os usuários...");
         try {
-            List<Usuario> lista = usuarioService.listarTodos();
+            List<Usuario> lista = alerta == null || alerta.isBlank()
+                    ? usuarioService.listarTodos()
+                    : usuarioService.listarInscritos(alerta);
             return Response.ok(lista).build();
         } catch (Exception e) {
-            logger.error("Erro ao listar usuários: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao listar usuários: %s", e.getMessage());
             return Response.serverError().entity("Erro ao buscar usuários.").build();
         }
     }
@@ -74,7 +78,7 @@ public class UsuarioResource {
     @GET
     @Path("/{id}")
     public Response buscarPorId(@PathParam("id") int id) { // ID como int
-        logger.info("Buscando usuário com ID " + id);
+        logger.debugf("Buscando usuário com ID %s", id);
         try {
             Usuario usuario = usuarioService.buscarPorId(id);
             return Response.ok(usuario).build();
@@ -84,7 +88,7 @@ public class UsuarioResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao buscar usuário por ID: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao buscar usuário por ID: %s", e.getMessage());
             return Response.serverError().entity("Erro ao buscar usuário.").build();
         }
     }
@@ -92,7 +96,7 @@ public class UsuarioResource {
     @PUT
     @Path("/{id}")
     public Response atualizar(@PathParam("id") int id, Usuario usuario) { // ID como int
-        logger.info("Atualizando usuário com ID " + id);
+        logger.infof("Atualizando usuário com ID %s", id);
         try {
             Usuario usuarioAtualizado = usuarioService.atualizar(id, usuario);
             return Response.ok(usuarioAtualizado).build();
@@ -101,7 +105,7 @@ public class UsuarioResource {
         } catch (BadRequestException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
-            logger.error("Erro ao atualizar usuário: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao atualizar usuário: %s", e.getMessage());
             return Response.serverError().entity("Erro ao atualizar usuário.").build();
         }
     }
@@ -109,7 +113,7 @@ public class UsuarioResource {
     @DELETE
     @Path("/{id}")
     public Response remover(@PathParam("id") int id) { // ID como int
-        logger.info("Removendo usuário com ID " + id);
+        logger.infof("Removendo usuário com ID %s", id);
         try {
             usuarioService.deletar(id);
             return Response.ok("Usuário removido com sucesso.").build();
@@ -119,7 +123,7 @@ public class UsuarioResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
         catch (Exception e) {
-            logger.error("Erro ao remover usuário: " + e.getMessage(), e);
+            logger.errorf(e, "Erro ao remover usuário: %s", e.getMessage());
             return Response.serverError().entity("Erro ao remover usuário.").build();
         }
     }
@@ -0,0 +1,34 @@
+package fiap.tds.dtos;
+
+import fiap.tds.entities.Abrigo;
+
+public class AbrigoProximoDTO {
+    private Abrigo abrigo;
+    private double distanciaKm; // Em linha reta, sobre a superfície da Terra
+
+    // Construtor vazio
+    public AbrigoProximoDTO() {
+    }
+
+    public AbrigoProximoDTO(Abrigo abrigo, double distanciaKm) {
+        this.abrigo = abrigo;
+        this.distanciaKm = distanciaKm;
+    }
+
+    // Getters e Setters
+    public Abrigo getAbrigo() {
+        return abrigo;
+    }
+
+    public void setAbrigo(Abrigo abrigo) {
+        this.abrigo = abrigo;
+    }
+
+    public double getDistanciaKm() {
+        return distanciaKm;
+    }
+
+    public void setDistanciaKm(double distanciaKm) {
+        this.distanciaKm = distanciaKm;
+    }
+}
@@ -0,0 +1,39 @@
+package fiap.tds.dtos;
+
+import fiap.tds.entities.Alerta;
+
+public class AlertaEventoDTO {
+    public static final String CRIADO = "criado";
+    public static final String ATUALIZADO = "atualizado";
+    public static final String REMOVIDO = "removido";
+
+    private String tipo; // "criado", "atualizado" ou "removido"
+    private Alerta alerta; // Em remoções, apenas o ID vem preenchido
+
+    // Construtor vazio
+    public AlertaEventoDTO() {
+    }
+
+    // Construtor
+    public AlertaEventoDTO(String tipo, Alerta alerta) {
+        this.tipo = tipo;
+        this.alerta = alerta;
+    }
+
+    // Getters e Setters
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public Alerta getAlerta() {
+        return alerta;
+    }
+
+    public void setAlerta(Alerta alerta) {
+        this.alerta = alerta;
+    }
+}
@@ -0,0 +1,57 @@
+package fiap.tds.dtos;
+
+import fiap.tds.entities.Reporte;
+
+import java.util.List;
+
+public class BuscaReportesDTO {
+    private long total; // Reportes que casam com a busca, em todas as páginas
+    private int pagina;
+    private int tamanho;
+    private List<Reporte> reportes; // Do mais relevante para o menos relevante
+
+    // Construtor vazio
+    public BuscaReportesDTO() {
+    }
+
+    // Construtor
+    public BuscaReportesDTO(long total, int pagina, int tamanho, List<Reporte> reportes) {
+        this.total = total;
+        this.pagina = pagina;
+        this.tamanho = tamanho;
+        this.reportes = reportes;
+    }
+
+    // Getters e Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPagina() {
+        return pagina;
+    }
+
+    public void setPagina(int pagina) {
+        this.pagina = pagina;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(int tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public List<Reporte> getReportes() {
+        return reportes;
+    }
+
+    public void setReportes(List<Reporte> reportes) {
+        this.reportes = reportes;
+    }
+}
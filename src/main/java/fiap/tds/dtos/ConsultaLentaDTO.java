@@ -0,0 +1,84 @@
+package fiap.tds.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConsultaLentaDTO {
+    private String sql;
+    private long execucoes;
+    private long lentas; // Execuções acima do limite (sql.lenta.limite-ms)
+    private double mediaMs;
+    private double maximoMs;
+    private double totalMs;
+    private String parametros; // Tipos dos parâmetros da última execução lenta; os valores nunca são guardados
+    private String plano; // Plano de execução capturado na primeira execução lenta
+
+    // Construtor vazio
+    public ConsultaLentaDTO() {
+    }
+
+    // Getters e Setters
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public long getExecucoes() {
+        return execucoes;
+    }
+
+    public void setExecucoes(long execucoes) {
+        this.execucoes = execucoes;
+    }
+
+    public long getLentas() {
+        return lentas;
+    }
+
+    public void setLentas(long lentas) {
+        this.lentas = lentas;
+    }
+
+    public double getMediaMs() {
+        return mediaMs;
+    }
+
+    public void setMediaMs(double mediaMs) {
+        this.mediaMs = mediaMs;
+    }
+
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    public void setMaximoMs(double maximoMs) {
+        this.maximoMs = maximoMs;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(double totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public String getParametros() {
+        return parametros;
+    }
+
+    public void setParametros(String parametros) {
+        this.parametros = parametros;
+    }
+
+    public String getPlano() {
+        return plano;
+    }
+
+    public void setPlano(String plano) {
+        this.plano = plano;
+    }
+}
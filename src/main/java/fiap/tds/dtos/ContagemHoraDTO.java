@@ -0,0 +1,66 @@
+package fiap.tds.dtos;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class ContagemHoraDTO {
+    private LocalDateTime hora; // Início da hora
+    private long total;
+    private Map<String, Long> porStatus;
+    private Map<String, Long> porSeveridade;
+    private Map<String, Long> porTipo;
+
+    // Construtor vazio
+    public ContagemHoraDTO() {
+    }
+
+    // Construtor
+    public ContagemHoraDTO(LocalDateTime hora, long total, Map<String, Long> porStatus, Map<String, Long> porSeveridade, Map<String, Long> porTipo) {
+        this.hora = hora;
+        this.total = total;
+        this.porStatus = porStatus;
+        this.porSeveridade = porSeveridade;
+        this.porTipo = porTipo;
+    }
+
+    // Getters e Setters
+    public LocalDateTime getHora() {
+        return hora;
+    }
+
+    public void setHora(LocalDateTime hora) {
+        this.hora = hora;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getPorStatus() {
+        return porStatus;
+    }
+
+    public void setPorStatus(Map<String, Long> porStatus) {
+        this.porStatus = porStatus;
+    }
+
+    public Map<String, Long> getPorSeveridade() {
+        return porSeveridade;
+    }
+
+    public void setPorSeveridade(Map<String, Long> porSeveridade) {
+        this.porSeveridade = porSeveridade;
+    }
+
+    public Map<String, Long> getPorTipo() {
+        return porTipo;
+    }
+
+    public void setPorTipo(Map<String, Long> porTipo) {
+        this.porTipo = porTipo;
+    }
+}
@@ -0,0 +1,88 @@
+package fiap.tds.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class EstatisticasReportesDTO {
+    private LocalDateTime desde;
+    private LocalDateTime ate;
+    private long total; // Reportes criados no período
+    private Map<String, Long> porStatus;
+    private Map<String, Long> porSeveridade;
+    private Map<String, Long> porTipo;
+    private List<ContagemHoraDTO> porHora; // Só as horas com reportes, em ordem
+
+    // Construtor vazio
+    public EstatisticasReportesDTO() {
+    }
+
+    // Construtor
+    public EstatisticasReportesDTO(LocalDateTime desde, LocalDateTime ate, long total, Map<String, Long> porStatus,
+                                   Map<String, Long> porSeveridade, Map<String, Long> porTipo, List<ContagemHoraDTO> porHora) {
+        this.desde = desde;
+        this.ate = ate;
+        this.total = total;
+        this.porStatus = porStatus;
+        this.porSeveridade = porSeveridade;
+        this.porTipo = porTipo;
+        this.porHora = porHora;
+    }
+
+    // Getters e Setters
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getAte() {
+        return ate;
+    }
+
+    public void setAte(LocalDateTime ate) {
+        this.ate = ate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getPorStatus() {
+        return porStatus;
+    }
+
+    public void setPorStatus(Map<String, Long> porStatus) {
+        this.porStatus = porStatus;
+    }
+
+    public Map<String, Long> getPorSeveridade() {
+        return porSeveridade;
+    }
+
+    public void setPorSeveridade(Map<String, Long> porSeveridade) {
+        this.porSeveridade = porSeveridade;
+    }
+
+    public Map<String, Long> getPorTipo() {
+        return porTipo;
+    }
+
+    public void setPorTipo(Map<String, Long> porTipo) {
+        this.porTipo = porTipo;
+    }
+
+    public List<ContagemHoraDTO> getPorHora() {
+        return porHora;
+    }
+
+    public void setPorHora(List<ContagemHoraDTO> porHora) {
+        this.porHora = porHora;
+    }
+}
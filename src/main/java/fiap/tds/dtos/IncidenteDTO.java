@@ -0,0 +1,57 @@
+package fiap.tds.dtos;
+
+import fiap.tds.entities.Reporte;
+
+import java.time.LocalDateTime;
+
+public class IncidenteDTO {
+    private int idIncidente;
+    private int quantidade; // Reportes agrupados no incidente
+    private LocalDateTime ultimoReporte;
+    private Reporte primeiroReporte; // Reporte que abriu o incidente, para a triagem ler o que aconteceu
+
+    // Construtor vazio
+    public IncidenteDTO() {
+    }
+
+    // Construtor
+    public IncidenteDTO(int idIncidente, int quantidade, LocalDateTime ultimoReporte, Reporte primeiroReporte) {
+        this.idIncidente = idIncidente;
+        this.quantidade = quantidade;
+        this.ultimoReporte = ultimoReporte;
+        this.primeiroReporte = primeiroReporte;
+    }
+
+    // Getters e Setters
+    public int getIdIncidente() {
+        return idIncidente;
+    }
+
+    public void setIdIncidente(int idIncidente) {
+        this.idIncidente = idIncidente;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public LocalDateTime getUltimoReporte() {
+        return ultimoReporte;
+    }
+
+    public void setUltimoReporte(LocalDateTime ultimoReporte) {
+        this.ultimoReporte = ultimoReporte;
+    }
+
+    public Reporte getPrimeiroReporte() {
+        return primeiroReporte;
+    }
+
+    public void setPrimeiroReporte(Reporte primeiroReporte) {
+        this.primeiroReporte = primeiroReporte;
+    }
+}
@@ -0,0 +1,74 @@
+package fiap.tds.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.entities.Alerta;
+import fiap.tds.entities.Mapa;
+import fiap.tds.entities.Reporte;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class InicioDTO {
+    private List<Alerta> alertas;
+    private List<Mapa> mapas;
+    private List<Abrigo> abrigos;
+    private List<Reporte> reportes;
+    private List<String> falhas = new ArrayList<>(); // Fatias que não puderam ser carregadas (a tela mostra o resto)
+
+    @JsonIgnore
+    private final Map<String, Long> temposMs = new LinkedHashMap<>(); // Vai no header Server-Timing, não no corpo
+
+    // Construtor vazio
+    public InicioDTO() {
+    }
+
+    // Getters e Setters
+    public List<Alerta> getAlertas() {
+        return alertas;
+    }
+
+    public void setAlertas(List<Alerta> alertas) {
+        this.alertas = alertas;
+    }
+
+    public List<Mapa> getMapas() {
+        return mapas;
+    }
+
+    public void setMapas(List<Mapa> mapas) {
+        this.mapas = mapas;
+    }
+
+    public List<Abrigo> getAbrigos() {
+        return abrigos;
+    }
+
+    public void setAbrigos(List<Abrigo> abrigos) {
+        this.abrigos = abrigos;
+    }
+
+    public List<Reporte> getReportes() {
+        return reportes;
+    }
+
+    public void setReportes(List<Reporte> reportes) {
+        this.reportes = reportes;
+    }
+
+    public List<String> getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(List<String> falhas) {
+        this.falhas = falhas;
+    }
+
+    public Map<String, Long> getTemposMs() {
+        return temposMs;
+    }
+}
@@ -0,0 +1,53 @@
+package fiap.tds.dtos;
+
+public class OcupacaoAbrigoDTO {
+    private int idAbrigo;
+    private int ocupacao; // Pessoas abrigadas
+    private Integer capacidade; // Nula quando o abrigo não informou
+    private String capacityStatus;
+
+    // Construtor vazio
+    public OcupacaoAbrigoDTO() {
+    }
+
+    // Construtor
+    public OcupacaoAbrigoDTO(int idAbrigo, int ocupacao, Integer capacidade, String capacityStatus) {
+        this.idAbrigo = idAbrigo;
+        this.ocupacao = ocupacao;
+        this.capacidade = capacidade;
+        this.capacityStatus = capacityStatus;
+    }
+
+    // Getters e Setters
+    public int getIdAbrigo() {
+        return idAbrigo;
+    }
+
+    public void setIdAbrigo(int idAbrigo) {
+        this.idAbrigo = idAbrigo;
+    }
+
+    public int getOcupacao() {
+        return ocupacao;
+    }
+
+    public void setOcupacao(int ocupacao) {
+        this.ocupacao = ocupacao;
+    }
+
+    public Integer getCapacidade() {
+        return capacidade;
+    }
+
+    public void setCapacidade(Integer capacidade) {
+        this.capacidade = capacidade;
+    }
+
+    public String getCapacityStatus() {
+        return capacityStatus;
+    }
+
+    public void setCapacityStatus(String capacityStatus) {
+        this.capacityStatus = capacityStatus;
+    }
+}
@@ -31,6 +31,14 @@ public class ReporteComImagemDTO {
     @PartType(MediaType.TEXT_PLAIN)
     public Integer userId;
 
+    @RestForm("latitude") // Opcional: posição do aparelho; sem ela, o endereço é geocodificado
+    @PartType(MediaType.TEXT_PLAIN)
+    public Double latitude;
+
+    @RestForm("longitude")
+    @PartType(MediaType.TEXT_PLAIN)
+    public Double longitude;
+
     // Construtor vazio
     public ReporteComImagemDTO() {
     }
@@ -84,4 +92,20 @@ public class ReporteComImagemDTO {
     public void setUserId(Integer userId) {
         this.userId = userId;
     }
-}
\ No newline at end of file
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
@@ -0,0 +1,108 @@
+package fiap.tds.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.entities.Alerta;
+import fiap.tds.entities.Mapa;
+import fiap.tds.entities.Reporte;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY) // Listas vazias não vão no JSON, para o payload de reconexão ficar mínimo
+public class SincronizacaoDTO {
+    private long watermark; // Epoch millis a ser enviado como "desde" na próxima sincronização
+    private boolean completo; // true quando é um snapshot completo (primeira sincronização)
+    private List<Alerta> alertas;
+    private List<Abrigo> abrigos;
+    private List<Mapa> mapas;
+    private List<Reporte> reportes;
+    private List<Integer> alertasRemovidos;
+    private List<Integer> abrigosRemovidos;
+    private List<Integer> mapasRemovidos;
+    private List<Integer> reportesRemovidos;
+
+    // Construtor vazio
+    public SincronizacaoDTO() {
+    }
+
+    // Getters e Setters
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(long watermark) {
+        this.watermark = watermark;
+    }
+
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    public void setCompleto(boolean completo) {
+        this.completo = completo;
+    }
+
+    public List<Alerta> getAlertas() {
+        return alertas;
+    }
+
+    public void setAlertas(List<Alerta> alertas) {
+        this.alertas = alertas;
+    }
+
+    public List<Abrigo> getAbrigos() {
+        return abrigos;
+    }
+
+    public void setAbrigos(List<Abrigo> abrigos) {
+        this.abrigos = abrigos;
+    }
+
+    public List<Mapa> getMapas() {
+        return mapas;
+    }
+
+    public void setMapas(List<Mapa> mapas) {
+        this.mapas = mapas;
+    }
+
+    public List<Reporte> getReportes() {
+        return reportes;
+    }
+
+    public void setReportes(List<Reporte> reportes) {
+        this.reportes = reportes;
+    }
+
+    public List<Integer> getAlertasRemovidos() {
+        return alertasRemovidos;
+    }
+
+    public void setAlertasRemovidos(List<Integer> alertasRemovidos) {
+        this.alertasRemovidos = alertasRemovidos;
+    }
+
+    public List<Integer> getAbrigosRemovidos() {
+        return abrigosRemovidos;
+    }
+
+    public void setAbrigosRemovidos(List<Integer> abrigosRemovidos) {
+        this.abrigosRemovidos = abrigosRemovidos;
+    }
+
+    public List<Integer> getMapasRemovidos() {
+        return mapasRemovidos;
+    }
+
+    public void setMapasRemovidos(List<Integer> mapasRemovidos) {
+        this.mapasRemovidos = mapasRemovidos;
+    }
+
+    public List<Integer> getReportesRemovidos() {
+        return reportesRemovidos;
+    }
+
+    public void setReportesRemovidos(List<Integer> reportesRemovidos) {
+        this.reportesRemovidos = reportesRemovidos;
+    }
+}
@@ -0,0 +1,95 @@
+package fiap.tds.dtos;
+
+import java.util.List;
+
+public class TileMapaCalorDTO {
+    private int z;
+    private int x;
+    private int y;
+    private int horas; // Período contado, até a hora atual
+    private int tamanho; // Células por lado do tile
+    private long total;
+    private int maximo; // Maior contagem de uma célula, para a escala de cores
+    private List<int[]> celulas; // [coluna, linha, quantidade], só as células com reportes
+
+    // Construtor vazio
+    public TileMapaCalorDTO() {
+    }
+
+    // Construtor
+    public TileMapaCalorDTO(int z, int x, int y, int horas, int tamanho, long total, int maximo, List<int[]> celulas) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+        this.horas = horas;
+        this.tamanho = tamanho;
+        this.total = total;
+        this.maximo = maximo;
+        this.celulas = celulas;
+    }
+
+    // Getters e Setters
+    public int getZ() {
+        return z;
+    }
+
+    public void setZ(int z) {
+        this.z = z;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public int getHoras() {
+        return horas;
+    }
+
+    public void setHoras(int horas) {
+        this.horas = horas;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(int tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    public void setMaximo(int maximo) {
+        this.maximo = maximo;
+    }
+
+    public List<int[]> getCelulas() {
+        return celulas;
+    }
+
+    public void setCelulas(List<int[]> celulas) {
+        this.celulas = celulas;
+    }
+}
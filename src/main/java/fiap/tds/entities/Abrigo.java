@@ -1,7 +1,13 @@
 package fiap.tds.entities;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 
 public class Abrigo {
+    // Situações de capacidade derivadas da lotação, quando o abrigo informa a capacidade
+    public static final String DISPONIVEL = "disponível";
+    public static final String QUASE_LOTADO = "quase lotado"; // 90% das vagas ocupadas
+    public static final String LOTADO = "lotado";
+
     private int id;
     private String name;
     private String imageUrl;
@@ -17,6 +23,11 @@ public class Abrigo {
     private String operatingHours;
     private String observations;
     private String googleMapsUrl;
+    private Double latitude; // Nulo enquanto o abrigo não foi geocodificado
+    private Double longitude;
+    private Integer capacity; // Vagas totais; nulo quando o abrigo não informou
+    private int occupancy; // Pessoas abrigadas, atualizada pelas entradas e saídas
+    private LocalDateTime updatedAt; // Última gravação, usada na sincronização incremental
 
     // Construtor vazio
     public Abrigo() {
@@ -166,4 +177,54 @@ public class Abrigo {
         this.googleMapsUrl = googleMapsUrl;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    /**
+     * Situação de capacidade para uma lotação; a mesma regra é aplicada em SQL por AbrigoRepository.somarOcupacoes.
+     */
+    public static String situacao(int occupancy, int capacity) {
+        if (occupancy >= capacity) {
+            return LOTADO;
+        }
+        return occupancy * 10L >= capacity * 9L ? QUASE_LOTADO : DISPONIVEL;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getOccupancy() {
+        return occupancy;
+    }
+
+    public void setOccupancy(int occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
 }
\ No newline at end of file
@@ -9,6 +9,12 @@ public class Alerta {
     private String source; // Fonte do alerta (Defesa Civil, Comunidade, etc.)
     private String description;
     private LocalDateTime publishedAt;
+    private String eventType; // Tipo de evento do alerta (enchente, deslizamento...), usado para achar os inscritos
+    private String location; // Região afetada, comparada com a localização preferida dos usuários
+    private LocalDateTime updatedAt; // Última gravação, usada na sincronização incremental
+    private String status; // 'publicado' ou 'rascunho' (gerado automaticamente, ainda não visível ao público)
+    private LocalDateTime expiresAt; // Fim da validade; depois disso o alerta é retirado dos ativos
+    private boolean active = true; // Falso depois de expirado; controlado pela API, não pelo cliente
 
     // Construtor vazio
     public Alerta() {
@@ -74,4 +80,52 @@ public class Alerta {
         this.publishedAt = publishedAt;
     }
 
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
 }
\ No newline at end of file
@@ -14,6 +14,11 @@ public class    Reporte {
     private String status; // (ex: "novo", "verificado", "falso_positivo")
     private String severity; // (ex: "baixo", "médio", "alto")
     private String adminNotes; // Notas do administrador sobre o reporte, pode ser nulo ou vazio
+    private LocalDateTime updatedAt; // Última gravação, usada na sincronização incremental
+    private Integer incidentId; // ID do primeiro reporte do mesmo incidente (o próprio ID se não houver duplicatas)
+    private Double latitude; // Nula se o app não mandou e o endereço não foi geocodificado
+    private Double longitude;
+    private boolean archived; // Lido de ER_REPORTES_ARQUIVO: só consulta, não aceita edição
 
     // Construtor vazio
     public Reporte() {
@@ -122,6 +127,44 @@ public class    Reporte {
     public void setAdminNotes(String adminNotes) {
         this.adminNotes = adminNotes;
     }
-}
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getIncidentId() {
+        return incidentId;
+    }
+
+    public void setIncidentId(Integer incidentId) {
+        this.incidentId = incidentId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
 
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+}
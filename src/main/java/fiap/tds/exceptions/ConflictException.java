@@ -0,0 +1,7 @@
+package fiap.tds.exceptions;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package fiap.tds.infrastructure;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+
+// Roda depois do MyApiKey: a chave já é válida, aqui só se exige que seja a do painel
+@Provider
+@SomenteAdmin
+@Priority(Priorities.AUTHORIZATION)
+public class AdminApiKey implements ContainerRequestFilter {
+
+    @ConfigProperty(name = "api.key")
+    String apiKey;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (!apiKey.equals(requestContext.getHeaderString("X-API-Key"))) {
+            requestContext.abortWith(
+                    Response.status(Response.Status.FORBIDDEN)
+                            .entity("Endpoint restrito ao painel administrativo")
+                            .build()
+            );
+        }
+    }
+}
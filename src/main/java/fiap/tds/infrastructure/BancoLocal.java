@@ -0,0 +1,278 @@
+package fiap.tds.infrastructure;
+
+import fiap.tds.entities.Abrigo;
+import fiap.tds.utils.PasswordUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Popula o banco embarcado (H2 em modo Oracle) dos perfis local e test com dados sintéticos em volume,
+ * para testes de carga e de escala. O esquema já foi criado pelas migrações do Flyway (db/migration) na subida.
+ * Não faz nada no perfil padrão, que usa o Oracle.
+ */
+@ApplicationScoped
+public class BancoLocal {
+
+    private static final Logger logger = Logger.getLogger(BancoLocal.class);
+
+    private static final int LOTE = 5_000;
+    private static final int PROGRESSO = 100_000;
+    private static final String SENHA_PADRAO = "echoreport123"; // Senha de todos os usuários gerados (o usuário 1 é admin)
+
+    private static final String[] TIPOS = {"enchente", "alagamento", "deslizamento", "incendio", "vendaval", "granizo"};
+    private static final String[] SEVERIDADES = {"alto", "médio", "baixo", "informativo"};
+    private static final String[] BAIRROS = {"Centro", "Mooca", "Pinheiros", "Itaquera", "Santana", "Butantã",
+            "Lapa", "Ipiranga", "Penha", "Tatuapé", "Vila Mariana", "Jabaquara", "Perus", "Grajaú", "Brasilândia"};
+    private static final String[] SERVICOS = {"alimentação", "banho", "dormitório", "atendimento médico", "roupas", "pet"};
+    private static final String[] STATUS_REPORTE = {"novo", "verificado", "em_andamento", "resolvido", "falso_positivo"};
+
+    @ConfigProperty(name = "banco.local.habilitado", defaultValue = "false")
+    boolean habilitado;
+
+    @ConfigProperty(name = "banco.local.seed.usuarios", defaultValue = "0")
+    int usuarios;
+
+    @ConfigProperty(name = "banco.local.seed.alertas", defaultValue = "0")
+    int alertas;
+
+    @ConfigProperty(name = "banco.local.seed.abrigos", defaultValue = "0")
+    int abrigos;
+
+    @ConfigProperty(name = "banco.local.seed.reportes", defaultValue = "0")
+    int reportes;
+
+    @ConfigProperty(name = "banco.local.seed.mapas", defaultValue = "0")
+    int mapas;
+
+    private String hashSenhaPadrao;
+
+    // Depois do DatabaseConfig (que liga o pool) e antes dos índices em memória, que leem o banco na subida
+    void iniciar(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE + 1) StartupEvent event) {
+        if (!habilitado) {
+            return;
+        }
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            SplittableRandom aleatorio = new SplittableRandom(42); // Semente fixa: a mesma massa a cada execução
+            popular(conn, "ER_USUARIOS", usuarios, aleatorio, this::gerarUsuarios);
+            popular(conn, "ER_ALERTAS", alertas, aleatorio, this::gerarAlertas);
+            popular(conn, "ER_ABRIGOS", abrigos, aleatorio, this::gerarAbrigos);
+            popular(conn, "ER_RISK_AREAS", mapas, aleatorio, this::gerarMapas);
+            popular(conn, "ER_REPORTES", reportes, aleatorio, this::gerarReportes);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Não foi possível preparar o banco local.", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Gerador {
+        void gerar(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException;
+    }
+
+    // Só gera o que falta para chegar à quantidade pedida, então reiniciar a aplicação não duplica a massa
+    private void popular(Connection conn, String tabela, int desejado, SplittableRandom aleatorio, Gerador gerador) throws SQLException {
+        if (desejado <= 0) {
+            return;
+        }
+        int existentes;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tabela)) {
+            rs.next();
+            existentes = rs.getInt(1);
+        }
+        if (existentes >= desejado) {
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int feito = existentes; feito < desejado; feito += LOTE) {
+                gerador.gerar(conn, feito + 1, Math.min(LOTE, desejado - feito), aleatorio);
+                conn.commit();
+                if ((feito + LOTE) / PROGRESSO > feito / PROGRESSO) {
+                    logger.infof("%s: %s de %s linhas geradas.", tabela, Math.min(feito + LOTE, desejado), desejado);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        logger.infof("%s: %s linhas geradas em %s ms.", tabela, desejado - existentes, System.currentTimeMillis() - inicio);
+    }
+
+    private void gerarUsuarios(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException {
+        if (hashSenhaPadrao == null) {
+            hashSenhaPadrao = new PasswordUtil().hashPassword(SENHA_PADRAO);
+        }
+        String sql = "INSERT INTO ER_USUARIOS (NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, ROLE, CREATED_AT) VALUES (?, ?, ?, ?, ?, ?)";
+        String[][] alertas = new String[quantidade][];
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"ID_USUARIO"})) {
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                stmt.setString(1, "Usuário " + i);
+                stmt.setString(2, "usuario" + i + "@echoreport.com.br");
+                stmt.setString(3, hashSenhaPadrao); // Mesmo hash para todos: BCrypt por linha levaria horas
+                stmt.setString(4, aleatorio.nextInt(5) == 0 ? null : sortear(BAIRROS, aleatorio));
+                stmt.setString(5, i == 1 ? "admin" : "user");
+                stmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now().minusMinutes(aleatorio.nextInt(525_600))));
+                stmt.addBatch();
+                alertas[i - inicio] = sortearDois(TIPOS, aleatorio);
+            }
+            stmt.executeBatch();
+            gerarFilhos(conn, stmt, "INSERT INTO ER_USUARIO_ALERTAS (ID_USUARIO, TIPO_ALERTA) VALUES (?, ?)", alertas);
+        }
+    }
+
+    private void gerarAlertas(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException {
+        String sql = "INSERT INTO ER_ALERTAS (TITLE, SEVERITY, SOURCE, DESCRIPTION, PUBLISHED_AT, EVENT_TYPE, LOCATION, UPDATED_AT, EXPIRES_AT, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                String tipo = sortear(TIPOS, aleatorio);
+                String bairro = sortear(BAIRROS, aleatorio);
+                LocalDateTime publicadoEm = LocalDateTime.now().minusMinutes(aleatorio.nextInt(43_200));
+                Timestamp publicado = Timestamp.valueOf(publicadoEm);
+                stmt.setString(1, "Alerta de " + tipo + " em " + bairro);
+                stmt.setString(2, sortear(SEVERIDADES, aleatorio));
+                stmt.setString(3, "Defesa Civil");
+                stmt.setString(4, "Risco de " + tipo + " na região de " + bairro + ". Evite áreas de encosta e margens de córregos.");
+                stmt.setTimestamp(5, publicado);
+                stmt.setString(6, tipo);
+                stmt.setString(7, bairro);
+                stmt.setTimestamp(8, publicado);
+                stmt.setTimestamp(9, Timestamp.valueOf(publicadoEm.plusHours(72))); // Só os das últimas 72 horas seguem ativos
+                stmt.setInt(10, publicadoEm.plusHours(72).isAfter(LocalDateTime.now()) ? 1 : 0);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void gerarAbrigos(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException {
+        String sql = "INSERT INTO ER_ABRIGOS (NAME, ADDRESS, NEIGHBORHOOD, CITY_STATE, ZIP_CODE, CONTACT_PHONE, CAPACITY_STATUS, TARGET_AUDIENCE, OPERATING_HOURS, LATITUDE, LONGITUDE, CAPACITY, OCCUPANCY, UPDATED_AT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String[][] servicos = new String[quantidade][];
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"ID"})) {
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                stmt.setString(1, "Abrigo " + i);
+                stmt.setString(2, "Rua " + i + ", " + (1 + aleatorio.nextInt(2000)));
+                stmt.setString(3, sortear(BAIRROS, aleatorio));
+                stmt.setString(4, "São Paulo - SP");
+                stmt.setString(5, String.format("0%04d-%03d", aleatorio.nextInt(10_000), aleatorio.nextInt(1_000)));
+                stmt.setString(6, String.format("(11) 9%04d-%04d", aleatorio.nextInt(10_000), aleatorio.nextInt(10_000)));
+                int capacidade = 50 + aleatorio.nextInt(251);
+                int ocupacao = aleatorio.nextInt(3) == 0 ? capacidade : aleatorio.nextInt(capacidade);
+                stmt.setString(7, Abrigo.situacao(ocupacao, capacidade));
+                stmt.setString(8, "famílias");
+                stmt.setString(9, "24h");
+                stmt.setDouble(10, -23.35 - aleatorio.nextDouble() * 0.45);
+                stmt.setDouble(11, -46.35 - aleatorio.nextDouble() * 0.55);
+                stmt.setInt(12, capacidade);
+                stmt.setInt(13, ocupacao);
+                stmt.setTimestamp(14, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.addBatch();
+                servicos[i - inicio] = sortearDois(SERVICOS, aleatorio);
+            }
+            stmt.executeBatch();
+            gerarFilhos(conn, stmt, "INSERT INTO ER_ABRIGO_SERVICOS (ID_ABRIGO, SERVICO) VALUES (?, ?)", servicos);
+        }
+    }
+
+    // Linhas das tabelas filhas, usando os IDs que o lote anterior acabou de gerar (na ordem de inserção)
+    private void gerarFilhos(Connection conn, PreparedStatement lotePai, String sql, String[][] valores) throws SQLException {
+        try (ResultSet ids = lotePai.getGeneratedKeys();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < valores.length && ids.next(); i++) {
+                for (String valor : valores[i]) {
+                    stmt.setInt(1, ids.getInt(1));
+                    stmt.setString(2, valor);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void gerarMapas(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException {
+        String sql = "INSERT INTO ER_RISK_AREAS (LATITUDE, LONGITUDE, RADIUS, RISK_LEVEL, TITLE, DESCRIPTION, REASON, LAST_UPDATED_TIMESTAMP) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                String tipo = sortear(TIPOS, aleatorio);
+                // Região metropolitana de São Paulo
+                stmt.setDouble(1, -23.35 - aleatorio.nextDouble() * 0.45);
+                stmt.setDouble(2, -46.35 - aleatorio.nextDouble() * 0.55);
+                stmt.setInt(3, 100 + aleatorio.nextInt(2_000));
+                stmt.setString(4, sortear(SEVERIDADES, aleatorio));
+                stmt.setString(5, "Área de risco de " + tipo + " #" + i);
+                stmt.setString(6, "Histórico recorrente de " + tipo + ".");
+                stmt.setString(7, tipo);
+                stmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void gerarReportes(Connection conn, int inicio, int quantidade, SplittableRandom aleatorio) throws SQLException {
+        long ultimoId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(ID), 0) FROM ER_REPORTES")) {
+            rs.next();
+            ultimoId = rs.getLong(1);
+        }
+        String sql = "INSERT INTO ER_REPORTES (REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, UPDATED_AT, LATITUDE, LONGITUDE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                String tipo = sortear(TIPOS, aleatorio);
+                String bairro = sortear(BAIRROS, aleatorio);
+                Timestamp criado = Timestamp.valueOf(LocalDateTime.now().minusSeconds(aleatorio.nextInt(31_536_000)));
+                stmt.setString(1, "Morador " + i);
+                stmt.setString(2, tipo);
+                stmt.setString(3, "Situação de " + tipo + " na rua " + aleatorio.nextInt(5_000) + ", moradores pedem apoio.");
+                stmt.setString(4, "Rua " + aleatorio.nextInt(5_000) + ", " + bairro + ", São Paulo - SP");
+                stmt.setString(5, aleatorio.nextInt(4) == 0 ? "/uploads/report-images/exemplo.jpg" : null);
+                if (usuarios > 0) {
+                    stmt.setInt(6, 1 + aleatorio.nextInt(usuarios));
+                } else {
+                    stmt.setNull(6, Types.INTEGER);
+                }
+                stmt.setTimestamp(7, criado);
+                stmt.setString(8, sortear(STATUS_REPORTE, aleatorio));
+                stmt.setString(9, sortear(SEVERIDADES, aleatorio));
+                stmt.setTimestamp(10, criado);
+                stmt.setDouble(11, -23.35 - aleatorio.nextDouble() * 0.45);
+                stmt.setDouble(12, -46.35 - aleatorio.nextDouble() * 0.55);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        // Massa sintética sem agrupamento: cada reporte gerado é o seu próprio incidente
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE ER_REPORTES SET INCIDENT_ID = ID WHERE ID > ? AND INCIDENT_ID IS NULL")) {
+            stmt.setLong(1, ultimoId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String sortear(String[] opcoes, SplittableRandom aleatorio) {
+        return opcoes[aleatorio.nextInt(opcoes.length)];
+    }
+
+    // Dois valores distintos (a chave primária das tabelas filhas não aceita repetidos)
+    private static String[] sortearDois(String[] opcoes, SplittableRandom aleatorio) {
+        int primeiro = aleatorio.nextInt(opcoes.length);
+        int segundo = (primeiro + 1 + aleatorio.nextInt(opcoes.length - 1)) % opcoes.length;
+        return new String[]{opcoes[primeiro], opcoes[segundo]};
+    }
+}
@@ -1,18 +1,55 @@
 package fiap.tds.infrastructure;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
+@ApplicationScoped
 public class DatabaseConfig {
-    /* Credenciais do banco de dados Oracle */
+    // Pool do Quarkus (Agroal): limita as conexões abertas no Oracle mesmo com milhares de virtual threads
+    private static volatile DataSource dataSource;
+
+    // Espera por uma conexão livre: sobe antes das consultas quando o pool satura
+    private static final Timer aquisicao = Timer.builder("echoreport.banco.conexao.aquisicao")
+            .description("Tempo para obter uma conexão do pool")
+            .register(Metrics.globalRegistry);
 
-    public static final String URL ="jdbc:oracle:thin:@oracle.fiap.com.br:1521:ORCL";
-    public static final String USER = "RM561061";
-    public static final String PASSWORD = "081204";
+    // Roda antes dos demais observers de StartupEvent, que já consultam o banco
+    void iniciar(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event, DataSource pool) {
+        dataSource = pool;
+    }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        // Cada PreparedStatement passa pelo monitor de consultas lentas (desligado fora do Quarkus)
+        return MonitorSql.instrumentar(conectar());
     }
-}
 
+    // Conexão sem instrumentação: usada pelo próprio MonitorSql para capturar planos de execução
+    static Connection conectar() throws SQLException {
+        DataSource pool = dataSource;
+        if (pool != null) {
+            long inicio = System.nanoTime();
+            try {
+                return pool.getConnection();
+            } finally {
+                aquisicao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+        // Fora do Quarkus (benchmarks, ferramentas) o banco vem das system properties db.url, db.user e db.password
+        String url = System.getProperty("db.url");
+        if (url == null) {
+            throw new SQLException("Nenhum banco configurado: defina quarkus.datasource.* ou a system property db.url.");
+        }
+        return DriverManager.getConnection(url, System.getProperty("db.user"), System.getProperty("db.password"));
+    }
+}
@@ -0,0 +1,34 @@
+package fiap.tds.infrastructure;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Configuração dos meters expostos em /q/metrics (Prometheus).
+ * Timers HTTP (http.server.requests, por URI template) e os da aplicação (echoreport.*) publicam
+ * buckets de histograma, para que os percentis sejam calculados no Prometheus agregando instâncias.
+ */
+@Singleton
+public class MetricasConfig {
+
+    @Produces
+    @Singleton
+    public MeterFilter histogramas() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String nome = id.getName();
+                if (nome.startsWith("http.server.requests") || nome.startsWith("echoreport.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
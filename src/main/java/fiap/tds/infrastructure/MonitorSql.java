@@ -0,0 +1,256 @@
+package fiap.tds.infrastructure;
+
+import fiap.tds.dtos.ConsultaLentaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Camada de instrumentação JDBC: as conexões entregues pelo DatabaseConfig passam por aqui e cada
+ * PreparedStatement é cronometrado. Execuções acima de sql.lenta.limite-ms são logadas com os
+ * parâmetros redigidos (só posição e tipo, nunca o valor) e, na primeira vez, o plano de execução
+ * da consulta é capturado em segundo plano (EXPLAIN PLAN + DBMS_XPLAN no Oracle, EXPLAIN no H2).
+ * O relatório das consultas lentas fica em GET /consultas-lentas.
+ */
+@ApplicationScoped
+public class MonitorSql {
+    private static final Logger logger = Logger.getLogger(MonitorSql.class);
+
+    // Fora do Quarkus (benchmarks, ferramentas) fica nulo e as conexões não são instrumentadas
+    private static volatile MonitorSql ativo;
+
+    @ConfigProperty(name = "sql.lenta.habilitado", defaultValue = "true")
+    boolean habilitado;
+
+    @ConfigProperty(name = "sql.lenta.limite-ms", defaultValue = "200")
+    long limiteMs;
+
+    private final Map<String, Estatistica> estatisticas = new ConcurrentHashMap<>();
+    // Uma captura de plano por vez, fora da thread da requisição
+    private final ExecutorService capturaDePlanos = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("plano-sql").factory());
+    private final Counter contadorLentas = Counter.builder("echoreport.sql.lentas")
+            .description("Execuções de SQL acima do limite de consulta lenta")
+            .register(Metrics.globalRegistry);
+    private long limiteNanos;
+
+    // Mesmo momento do DatabaseConfig: antes de qualquer observer que consulte o banco
+    void iniciar(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event) {
+        if (habilitado) {
+            limiteNanos = TimeUnit.MILLISECONDS.toNanos(limiteMs);
+            ativo = this;
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        ativo = null;
+        capturaDePlanos.shutdownNow();
+    }
+
+    /**
+     * Envolve a conexão para cronometrar os PreparedStatements criados nela.
+     * @return A própria conexão, se o monitor estiver desligado.
+     */
+    static Connection instrumentar(Connection conexao) {
+        MonitorSql monitor = ativo;
+        if (monitor == null) {
+            return conexao;
+        }
+        return (Connection) Proxy.newProxyInstance(MonitorSql.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexao, metodo, args);
+                    if (resultado instanceof PreparedStatement stmt && metodo.getName().equals("prepareStatement")) {
+                        return monitor.instrumentar(stmt, (String) args[0]);
+                    }
+                    return resultado;
+                });
+    }
+
+    private PreparedStatement instrumentar(PreparedStatement stmt, String sql) {
+        Map<Integer, String> tipos = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(MonitorSql.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, metodo, args) -> {
+                    String nome = metodo.getName();
+                    if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer posicao) {
+                        tipos.put(posicao, nome.equals("setNull") || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+                    } else if (nome.equals("clearParameters")) {
+                        tipos.clear();
+                    } else if (nome.startsWith("execute") && (args == null || args.length == 0)) {
+                        long inicio = System.nanoTime();
+                        try {
+                            return invocar(stmt, metodo, args);
+                        } finally {
+                            registrar(sql, System.nanoTime() - inicio, tipos);
+                        }
+                    }
+                    return invocar(stmt, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void registrar(String sql, long nanos, Map<Integer, String> tipos) {
+        Estatistica estatistica = estatisticas.computeIfAbsent(sql, k -> new Estatistica());
+        estatistica.execucoes.increment();
+        estatistica.totalNanos.add(nanos);
+        estatistica.maximoNanos.accumulateAndGet(nanos, Math::max);
+        if (nanos < limiteNanos) {
+            return;
+        }
+
+        String parametros = redigir(tipos);
+        estatistica.lentas.increment();
+        estatistica.parametros = parametros;
+        contadorLentas.increment();
+        logger.warnf("Consulta lenta (%d ms): %s parâmetros=%s", TimeUnit.NANOSECONDS.toMillis(nanos), sql, parametros);
+
+        if (estatistica.planoSolicitado.compareAndSet(false, true)) {
+            int quantidadeParametros = tipos.size();
+            capturaDePlanos.execute(() -> {
+                estatistica.plano = capturarPlano(sql, quantidadeParametros);
+                logger.warnf("Plano de execução da consulta lenta %s:%n%s", sql, estatistica.plano);
+            });
+        }
+    }
+
+    // Só a posição e o tipo de cada parâmetro: e-mails, senhas e textos dos reportes não vão para o log
+    private static String redigir(Map<Integer, String> tipos) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        tipos.forEach((posicao, tipo) -> joiner.add(posicao + ":" + tipo));
+        return joiner.toString();
+    }
+
+    private static String capturarPlano(String sql, int parametros) {
+        try (Connection conn = DatabaseConfig.conectar()) {
+            String banco = conn.getMetaData().getDatabaseProductName().toLowerCase();
+            return banco.contains("oracle") ? planoOracle(conn, sql) : planoH2(conn, sql, parametros);
+        } catch (SQLException e) {
+            return "Plano indisponível: " + e.getMessage();
+        }
+    }
+
+    // EXPLAIN PLAN não executa nem faz bind: os "?" viram binds nomeados e os valores não são necessários
+    private static String planoOracle(Connection conn, String sql) throws SQLException {
+        String id = "ER" + Integer.toHexString(sql.hashCode());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + id + "' FOR " + comBindsNomeados(sql));
+            try (ResultSet rs = stmt.executeQuery("SELECT PLAN_TABLE_OUTPUT FROM TABLE(DBMS_XPLAN.DISPLAY('PLAN_TABLE', '" + id + "', 'TYPICAL'))")) {
+                return juntarLinhas(rs);
+            }
+        }
+    }
+
+    private static String planoH2(Connection conn, String sql, int parametros) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= parametros; i++) {
+                stmt.setObject(i, null);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return juntarLinhas(rs);
+            }
+        }
+    }
+
+    private static String comBindsNomeados(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
+        boolean emTexto = false;
+        int bind = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                emTexto = !emTexto;
+            }
+            if (c == '?' && !emTexto) {
+                sb.append(":b").append(++bind);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String juntarLinhas(ResultSet rs) throws SQLException {
+        StringJoiner plano = new StringJoiner("\n");
+        while (rs.next()) {
+            plano.add(rs.getString(1));
+        }
+        return plano.toString();
+    }
+
+    /**
+     * As consultas que já passaram do limite, da maior execução para a menor.
+     * @param top Quantidade máxima de consultas no relatório.
+     */
+    public List<ConsultaLentaDTO> relatorio(int top) {
+        return estatisticas.entrySet().stream()
+                .filter(e -> e.getValue().lentas.sum() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Estatistica> e) -> e.getValue().maximoNanos.get()).reversed())
+                .limit(top)
+                .map(e -> e.getValue().paraDTO(e.getKey()))
+                .toList();
+    }
+
+    /**
+     * Zera as estatísticas e os planos capturados (ex.: depois de criar um índice).
+     */
+    public void limpar() {
+        estatisticas.clear();
+    }
+
+    private static final class Estatistica {
+        final LongAdder execucoes = new LongAdder();
+        final LongAdder lentas = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maximoNanos = new AtomicLong();
+        final AtomicBoolean planoSolicitado = new AtomicBoolean();
+        volatile String parametros;
+        volatile String plano;
+
+        ConsultaLentaDTO paraDTO(String sql) {
+            long total = execucoes.sum();
+            ConsultaLentaDTO dto = new ConsultaLentaDTO();
+            dto.setSql(sql);
+            dto.setExecucoes(total);
+            dto.setLentas(lentas.sum());
+            dto.setTotalMs(totalNanos.sum() / 1_000_000.0);
+            dto.setMediaMs(total > 0 ? totalNanos.sum() / 1_000_000.0 / total : 0);
+            dto.setMaximoMs(maximoNanos.get() / 1_000_000.0);
+            dto.setParametros(parametros);
+            dto.setPlano(plano);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package fiap.tds.infrastructure;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+
+@ApplicationScoped
+public class RastreamentoConfig {
+    // Repositórios e utilitários não são beans CDI: recebem o Tracer do Quarkus por aqui, como o DataSource no DatabaseConfig.
+    // Fora do Quarkus (benchmarks, ferramentas) fica o no-op, sem custo
+    private static volatile Tracer tracer = OpenTelemetry.noop().getTracer("echoreport");
+
+    void iniciar(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event, Tracer quarkusTracer) {
+        tracer = quarkusTracer;
+    }
+
+    public static Tracer getTracer() {
+        return tracer;
+    }
+}
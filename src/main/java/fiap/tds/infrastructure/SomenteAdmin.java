@@ -0,0 +1,17 @@
+package fiap.tds.infrastructure;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca endpoints administrativos: só aceitam a chave do painel (api.key), não a do app (api.key.mobile).
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SomenteAdmin {
+}
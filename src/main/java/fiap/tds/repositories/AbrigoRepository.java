@@ -2,17 +2,20 @@ package fiap.tds.repositories;
 
 import fiap.tds.entities.Abrigo;
 import fiap.tds.infrastructure.DatabaseConfig;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.jboss.logging.Logger;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class AbrigoRepository {
-    private static final Logger logger = LogManager.getLogger(AbrigoRepository.class);
+    private static final Logger logger = Logger.getLogger(AbrigoRepository.class);
     private static final String TABLE_NAME = "ER_ABRIGOS";
-    private static final String SERVICES_DELIMITER = ";"; // Delimitador para servicesOffered
+    // Serviços oferecidos: uma linha por serviço, com índice por serviço para filtrar em SQL
+    private static final TabelaFilha SERVICOS = new TabelaFilha("abrigo", "ER_ABRIGO_SERVICOS", "ID_ABRIGO", "SERVICO");
+    private static final String COLUMNS = "id, name, image_url, address, neighborhood, city_state, zip_code, contact_phone, contact_email, capacity_status, target_audience, operating_hours, observations, Maps_url, latitude, longitude, capacity, occupancy, updated_at";
 
     /**
      * Registra um novo abrigo no banco de dados.
@@ -20,46 +23,53 @@ public class AbrigoRepository {
      */
     public void registrar(Abrigo abrigo) {
         var sql = "INSERT INTO " + TABLE_NAME +
-                " (name, image_url, address, neighborhood, city_state, zip_code, contact_phone, contact_email, capacity_status, services_offered, target_audience, operating_hours, observations, Maps_url) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                " (name, image_url, address, neighborhood, city_state, zip_code, contact_phone, contact_email, capacity_status, target_audience, operating_hours, observations, Maps_url, latitude, longitude, capacity, occupancy, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setString(1, abrigo.getName());
-            stmt.setString(2, abrigo.getImageUrl());
-            stmt.setString(3, abrigo.getAddress());
-            stmt.setString(4, abrigo.getNeighborhood());
-            stmt.setString(5, abrigo.getCityState());
-            stmt.setString(6, abrigo.getZipCode());
-            stmt.setString(7, abrigo.getContactPhone());
-            stmt.setString(8, abrigo.getContactEmail());
-            stmt.setString(9, abrigo.getCapacityStatus());
-            // Converte o array de serviços para uma string delimitada
-            if (abrigo.getServicesOffered() != null && abrigo.getServicesOffered().length > 0) {
-                stmt.setString(10, String.join(SERVICES_DELIMITER, abrigo.getServicesOffered()));
-            } else {
-                stmt.setNull(10, Types.VARCHAR);
-            }
-            stmt.setString(11, abrigo.getTargetAudience());
-            stmt.setString(12, abrigo.getOperatingHours());
-            stmt.setString(13, abrigo.getObservations());
-            stmt.setString(14, abrigo.getGoogleMapsUrl());
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Abrigo e serviços na mesma transação
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            int res = stmt.executeUpdate();
-            if (res > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        abrigo.setId(generatedKeys.getInt(1));
-                        logger.info("✅ Abrigo registrado com sucesso! ID gerado: " + abrigo.getId());
-                    } else {
-                        logger.error("❌ Falha ao registrar Abrigo, nenhum ID obtido.");
-                        throw new SQLException("Falha ao criar abrigo, nenhum ID obtido.");
+                stmt.setString(1, abrigo.getName());
+                stmt.setString(2, abrigo.getImageUrl());
+                stmt.setString(3, abrigo.getAddress());
+                stmt.setString(4, abrigo.getNeighborhood());
+                stmt.setString(5, abrigo.getCityState());
+                stmt.setString(6, abrigo.getZipCode());
+                stmt.setString(7, abrigo.getContactPhone());
+                stmt.setString(8, abrigo.getContactEmail());
+                stmt.setString(9, abrigo.getCapacityStatus());
+                stmt.setString(10, abrigo.getTargetAudience());
+                stmt.setString(11, abrigo.getOperatingHours());
+                stmt.setString(12, abrigo.getObservations());
+                stmt.setString(13, abrigo.getGoogleMapsUrl());
+                setCoordenada(stmt, 14, abrigo.getLatitude());
+                setCoordenada(stmt, 15, abrigo.getLongitude());
+                setCapacidade(stmt, 16, abrigo.getCapacity());
+                stmt.setInt(17, abrigo.getOccupancy());
+                stmt.setTimestamp(18, Timestamp.valueOf(abrigo.getUpdatedAt() != null ? abrigo.getUpdatedAt() : LocalDateTime.now()));
+
+                int res = MetricasRepositorio.executar("abrigo", "registrar", stmt);
+                if (res > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            abrigo.setId(generatedKeys.getInt(1));
+                        } else {
+                            logger.error("❌ Falha ao registrar Abrigo, nenhum ID obtido.");
+                            throw new SQLException("Falha ao criar abrigo, nenhum ID obtido.");
+                        }
                     }
+                    SERVICOS.gravar(conn, "registrarServicos", abrigo.getId(), abrigo.getServicesOffered());
+                    logger.infof("✅ Abrigo registrado com sucesso! ID gerado: %s", abrigo.getId());
                 }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("❌ Erro ao registrar Abrigo", e);
+            throw new RuntimeException("Erro de banco de dados ao registrar abrigo.", e);
         }
     }
 
@@ -68,80 +78,80 @@ public class AbrigoRepository {
      */
     public List<Abrigo> buscarTodos() {
         List<Abrigo> lista = new ArrayList<>();
-        var sql = "SELECT id, name, image_url, address, neighborhood, city_state, zip_code, contact_phone, contact_email, capacity_status, services_offered, target_audience, operating_hours, observations, Maps_url FROM " + TABLE_NAME;
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME;
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                Abrigo abrigo = new Abrigo();
-                abrigo.setId(rs.getInt("id"));
-                abrigo.setName(rs.getString("name"));
-                abrigo.setImageUrl(rs.getString("image_url"));
-                abrigo.setAddress(rs.getString("address"));
-                abrigo.setNeighborhood(rs.getString("neighborhood"));
-                abrigo.setCityState(rs.getString("city_state"));
-                abrigo.setZipCode(rs.getString("zip_code"));
-                abrigo.setContactPhone(rs.getString("contact_phone"));
-                abrigo.setContactEmail(rs.getString("contact_email"));
-                abrigo.setCapacityStatus(rs.getString("capacity_status"));
-                String servicesDb = rs.getString("services_offered");
-                if (servicesDb != null && !servicesDb.isEmpty()) {
-                    abrigo.setServicesOffered(servicesDb.split(SERVICES_DELIMITER));
-                } else {
-                    abrigo.setServicesOffered(new String[0]); // Array vazio se não houver serviços
-                }
-                abrigo.setTargetAudience(rs.getString("target_audience"));
-                abrigo.setOperatingHours(rs.getString("operating_hours"));
-                abrigo.setObservations(rs.getString("observations"));
-                abrigo.setGoogleMapsUrl(rs.getString("Maps_url"));
-                lista.add(abrigo);
-            }
+            lista = MetricasRepositorio.listar("abrigo", "buscarTodos", stmt, AbrigoRepository::mapear);
+            preencherServicos(lista, SERVICOS.carregar(conn, "buscarTodosServicos", null));
         } catch (SQLException e) {
             logger.error("❌ Erro ao buscar todos os Abrigos", e);
         }
         return lista;
     }
 
+    /**
+     * Busca os abrigos criados ou alterados depois de um instante (sincronização incremental).
+     * Diferente das demais buscas, propaga a falha: uma lista vazia aqui faria o cliente perder alterações.
+     */
+    public List<Abrigo> buscarAlteradosDesde(LocalDateTime desde) {
+        List<Abrigo> lista = new ArrayList<>();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE updated_at > ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            lista = MetricasRepositorio.listar("abrigo", "buscarAlteradosDesde", stmt, AbrigoRepository::mapear);
+            preencherServicos(lista, SERVICOS.carregar(conn, "buscarAlteradosDesdeServicos",
+                    "SELECT id FROM " + TABLE_NAME + " WHERE updated_at > ?", Timestamp.valueOf(desde)));
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Abrigos alterados desde %s", desde);
+            throw new RuntimeException("Erro de banco de dados ao buscar abrigos alterados.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os abrigos que oferecem um serviço, filtrando no banco pelo índice de ER_ABRIGO_SERVICOS.
+     * Propaga a falha, como buscarAlteradosDesde: o filtro vazio seria indistinguível de "nenhum abrigo".
+     */
+    public List<Abrigo> buscarPorServico(String servico) {
+        List<Abrigo> lista = new ArrayList<>();
+        String filtro = SERVICOS.idsComValor();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE id IN (" + filtro + ")";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, servico);
+            lista = MetricasRepositorio.listar("abrigo", "buscarPorServico", stmt, AbrigoRepository::mapear);
+            preencherServicos(lista, SERVICOS.carregar(conn, "buscarPorServicoServicos", filtro, servico));
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Abrigos com o serviço %s", servico);
+            throw new RuntimeException("Erro de banco de dados ao buscar abrigos por serviço.", e);
+        }
+        return lista;
+    }
+
     /**
      * Busca um abrigo específico pelo ID (int).
      */
     public Abrigo buscarPorId(int id) {
-        var sql = "SELECT id, name, image_url, address, neighborhood, city_state, zip_code, contact_phone, contact_email, capacity_status, services_offered, target_audience, operating_hours, observations, Maps_url FROM " + TABLE_NAME + " WHERE id = ?";
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE id = ?";
         Abrigo abrigo = null;
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                abrigo = new Abrigo();
-                abrigo.setId(rs.getInt("id"));
-                abrigo.setName(rs.getString("name"));
-                abrigo.setImageUrl(rs.getString("image_url"));
-                abrigo.setAddress(rs.getString("address"));
-                abrigo.setNeighborhood(rs.getString("neighborhood"));
-                abrigo.setCityState(rs.getString("city_state"));
-                abrigo.setZipCode(rs.getString("zip_code"));
-                abrigo.setContactPhone(rs.getString("contact_phone"));
-                abrigo.setContactEmail(rs.getString("contact_email"));
-                abrigo.setCapacityStatus(rs.getString("capacity_status"));
-                String servicesDb = rs.getString("services_offered");
-                if (servicesDb != null && !servicesDb.isEmpty()) {
-                    abrigo.setServicesOffered(servicesDb.split(SERVICES_DELIMITER));
-                } else {
-                    abrigo.setServicesOffered(new String[0]);
-                }
-                abrigo.setTargetAudience(rs.getString("target_audience"));
-                abrigo.setOperatingHours(rs.getString("operating_hours"));
-                abrigo.setObservations(rs.getString("observations"));
-                abrigo.setGoogleMapsUrl(rs.getString("Maps_url"));
+            abrigo = MetricasRepositorio.buscarUm("abrigo", "buscarPorId", stmt, AbrigoRepository::mapear);
+            if (abrigo != null) {
+                abrigo.setServicesOffered(SERVICOS.carregar(conn, "buscarPorIdServicos", id));
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar Abrigo por ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao buscar Abrigo por ID: %s", id);
         }
         return abrigo;
     }
@@ -150,39 +160,154 @@ public class AbrigoRepository {
      * Atualiza um abrigo existente no banco de dados.
      */
     public void atualizar(Abrigo abrigo) {
-        var sql = "UPDATE " + TABLE_NAME + " SET name = ?, image_url = ?, address = ?, neighborhood = ?, city_state = ?, zip_code = ?, contact_phone = ?, contact_email = ?, capacity_status = ?, services_offered = ?, target_audience = ?, operating_hours = ?, observations = ?, Maps_url = ? WHERE id = ?";
+        var sql = "UPDATE " + TABLE_NAME + " SET name = ?, image_url = ?, address = ?, neighborhood = ?, city_state = ?, zip_code = ?, contact_phone = ?, contact_email = ?, capacity_status = ?, target_audience = ?, operating_hours = ?, observations = ?, Maps_url = ?, latitude = ?, longitude = ?, capacity = ?, updated_at = ? WHERE id = ?"; // occupancy só muda por somarOcupacoes
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Abrigo e serviços na mesma transação
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setString(1, abrigo.getName());
+                stmt.setString(2, abrigo.getImageUrl());
+                stmt.setString(3, abrigo.getAddress());
+                stmt.setString(4, abrigo.getNeighborhood());
+                stmt.setString(5, abrigo.getCityState());
+                stmt.setString(6, abrigo.getZipCode());
+                stmt.setString(7, abrigo.getContactPhone());
+                stmt.setString(8, abrigo.getContactEmail());
+                stmt.setString(9, abrigo.getCapacityStatus());
+                stmt.setString(10, abrigo.getTargetAudience());
+                stmt.setString(11, abrigo.getOperatingHours());
+                stmt.setString(12, abrigo.getObservations());
+                stmt.setString(13, abrigo.getGoogleMapsUrl());
+                setCoordenada(stmt, 14, abrigo.getLatitude());
+                setCoordenada(stmt, 15, abrigo.getLongitude());
+                setCapacidade(stmt, 16, abrigo.getCapacity());
+                stmt.setTimestamp(17, Timestamp.valueOf(abrigo.getUpdatedAt() != null ? abrigo.getUpdatedAt() : LocalDateTime.now()));
+                stmt.setInt(18, abrigo.getId()); // Condição WHERE
+
+                int res = MetricasRepositorio.executar("abrigo", "atualizar", stmt);
+                if (res > 0) {
+                    SERVICOS.gravar(conn, "atualizarServicos", abrigo.getId(), abrigo.getServicesOffered());
+                    logger.infof("✅ Abrigo atualizado com sucesso! ID: %s", abrigo.getId());
+                } else {
+                    logger.warnf("⚠️ Abrigo com ID %s não encontrado para atualização.", abrigo.getId());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao atualizar Abrigo ID: %s", abrigo.getId());
+            throw new RuntimeException("Erro de banco de dados ao atualizar abrigo.", e);
+        }
+    }
+
+    /**
+     * Busca os abrigos ainda sem coordenadas (pendentes de geocodificação).
+     */
+    public List<Abrigo> buscarSemCoordenadas() {
+        List<Abrigo> lista = new ArrayList<>();
+        String filtro = "SELECT id FROM " + TABLE_NAME + " WHERE latitude IS NULL OR longitude IS NULL";
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE latitude IS NULL OR longitude IS NULL";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, abrigo.getName());
-            stmt.setString(2, abrigo.getImageUrl());
-            stmt.setString(3, abrigo.getAddress());
-            stmt.setString(4, abrigo.getNeighborhood());
-            stmt.setString(5, abrigo.getCityState());
-            stmt.setString(6, abrigo.getZipCode());
-            stmt.setString(7, abrigo.getContactPhone());
-            stmt.setString(8, abrigo.getContactEmail());
-            stmt.setString(9, abrigo.getCapacityStatus());
-            if (abrigo.getServicesOffered() != null && abrigo.getServicesOffered().length > 0) {
-                stmt.setString(10, String.join(SERVICES_DELIMITER, abrigo.getServicesOffered()));
-            } else {
-                stmt.setNull(10, Types.VARCHAR);
-            }
-            stmt.setString(11, abrigo.getTargetAudience());
-            stmt.setString(12, abrigo.getOperatingHours());
-            stmt.setString(13, abrigo.getObservations());
-            stmt.setString(14, abrigo.getGoogleMapsUrl());
-            stmt.setInt(15, abrigo.getId()); // Condição WHERE
+            lista = MetricasRepositorio.listar("abrigo", "buscarSemCoordenadas", stmt, AbrigoRepository::mapear);
+            preencherServicos(lista, SERVICOS.carregar(conn, "buscarSemCoordenadasServicos", filtro));
+        } catch (SQLException e) {
+            logger.error("❌ Erro ao buscar Abrigos sem coordenadas", e);
+            throw new RuntimeException("Erro de banco de dados ao buscar abrigos sem coordenadas.", e);
+        }
+        return lista;
+    }
 
-            int res = stmt.executeUpdate();
-            if (res > 0) {
-                logger.info("✅ Abrigo atualizado com sucesso! ID: " + abrigo.getId());
-            } else {
-                logger.warn("⚠️ Abrigo com ID " + abrigo.getId() + " não encontrado para atualização.");
+    /**
+     * Grava só as coordenadas de um abrigo (e a marca de alteração, para a sincronização levar a mudança).
+     * @return true se o abrigo existia.
+     */
+    public boolean atualizarCoordenadas(int id, double latitude, double longitude) {
+        var sql = "UPDATE " + TABLE_NAME + " SET latitude = ?, longitude = ?, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDouble(1, latitude);
+            stmt.setDouble(2, longitude);
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(4, id);
+            return MetricasRepositorio.executar("abrigo", "atualizarCoordenadas", stmt) > 0;
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao gravar coordenadas do Abrigo ID: %s", id);
+            throw new RuntimeException("Erro de banco de dados ao gravar coordenadas do abrigo.", e);
+        }
+    }
+
+    /**
+     * Aplica, num único lote, as entradas e saídas acumuladas de vários abrigos.
+     * Grava a variação (e não o valor absoluto) para que várias instâncias da API possam somar no mesmo abrigo;
+     * a lotação nunca fica negativa e, para abrigos com capacidade, a situação é recalculada com a regra de Abrigo.situacao.
+     * Propaga a falha, para o chamador devolver as variações à fila da próxima gravação.
+     * @param variacoes ID do abrigo -> pessoas que entraram (positivo) ou saíram (negativo).
+     */
+    public void somarOcupacoes(Map<Integer, Integer> variacoes) {
+        var novaOcupacao = "GREATEST(occupancy + ?, 0)";
+        var sql = "UPDATE " + TABLE_NAME + " SET occupancy = " + novaOcupacao + ", capacity_status = CASE" +
+                " WHEN capacity IS NULL THEN capacity_status" +
+                " WHEN " + novaOcupacao + " >= capacity THEN ?" +
+                " WHEN " + novaOcupacao + " * 10 >= capacity * 9 THEN ?" +
+                " ELSE ? END, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+                for (Map.Entry<Integer, Integer> variacao : variacoes.entrySet()) {
+                    stmt.setInt(1, variacao.getValue());
+                    stmt.setInt(2, variacao.getValue());
+                    stmt.setString(3, Abrigo.LOTADO);
+                    stmt.setInt(4, variacao.getValue());
+                    stmt.setString(5, Abrigo.QUASE_LOTADO);
+                    stmt.setString(6, Abrigo.DISPONIVEL);
+                    stmt.setTimestamp(7, agora);
+                    stmt.setInt(8, variacao.getKey());
+                    stmt.addBatch();
+                }
+                MetricasRepositorio.executarLote("abrigo", "somarOcupacoes", stmt);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar Abrigo ID: " + abrigo.getId(), e);
+            logger.errorf(e, "❌ Erro ao gravar a lotação de %s abrigos", variacoes.size());
+            throw new RuntimeException("Erro de banco de dados ao gravar a lotação dos abrigos.", e);
+        }
+    }
+
+    /**
+     * Lê só a lotação, a capacidade e a situação de todos os abrigos, para cada instância da API enxergar
+     * o que as outras somaram. Os demais campos do abrigo ficam vazios.
+     * Propaga a falha, como somarOcupacoes.
+     */
+    public List<Abrigo> buscarOcupacoes() {
+        var sql = "SELECT id, capacity, occupancy, capacity_status FROM " + TABLE_NAME;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            return MetricasRepositorio.listar("abrigo", "buscarOcupacoes", stmt, rs -> {
+                Abrigo abrigo = new Abrigo();
+                abrigo.setId(rs.getInt("id"));
+                int capacity = rs.getInt("capacity");
+                abrigo.setCapacity(rs.wasNull() ? null : capacity);
+                abrigo.setOccupancy(rs.getInt("occupancy"));
+                abrigo.setCapacityStatus(rs.getString("capacity_status"));
+                return abrigo;
+            });
+        } catch (SQLException e) {
+            logger.error("❌ Erro ao ler a lotação dos Abrigos", e);
+            throw new RuntimeException("Erro de banco de dados ao ler a lotação dos abrigos.", e);
         }
     }
 
@@ -192,19 +317,89 @@ public class AbrigoRepository {
     public void deletar(int id) {
         var sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            int res = stmt.executeUpdate();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            int res;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                res = MetricasRepositorio.executar("abrigo", "deletar", stmt);
+                // Na mesma transação: sem o registro, a sincronização nunca avisaria os clientes da exclusão
+                if (res > 0) {
+                    ExclusaoRepository.registrar(conn, ExclusaoRepository.ABRIGOS, id);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (res > 0) {
-                logger.info("✅ Abrigo deletado com sucesso! ID: " + id);
+                logger.infof("✅ Abrigo deletado com sucesso! ID: %s", id);
             } else {
-                logger.warn("⚠️ Abrigo com ID " + id + " não encontrado para exclusão.");
+                logger.warnf("⚠️ Abrigo com ID %s não encontrado para exclusão.", id);
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao deletar Abrigo ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao deletar Abrigo ID: %s", id);
+            throw new RuntimeException("Erro de banco de dados ao deletar abrigo.", e);
+        }
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em um Abrigo.
+     */
+    static Abrigo mapear(ResultSet rs) throws SQLException {
+        Abrigo abrigo = new Abrigo();
+        abrigo.setId(rs.getInt("id"));
+        abrigo.setName(rs.getString("name"));
+        abrigo.setImageUrl(rs.getString("image_url"));
+        abrigo.setAddress(rs.getString("address"));
+        abrigo.setNeighborhood(rs.getString("neighborhood"));
+        abrigo.setCityState(rs.getString("city_state"));
+        abrigo.setZipCode(rs.getString("zip_code"));
+        abrigo.setContactPhone(rs.getString("contact_phone"));
+        abrigo.setContactEmail(rs.getString("contact_email"));
+        abrigo.setCapacityStatus(rs.getString("capacity_status"));
+        abrigo.setServicesOffered(new String[0]); // Preenchido pelo chamador a partir de ER_ABRIGO_SERVICOS
+        abrigo.setTargetAudience(rs.getString("target_audience"));
+        abrigo.setOperatingHours(rs.getString("operating_hours"));
+        abrigo.setObservations(rs.getString("observations"));
+        abrigo.setGoogleMapsUrl(rs.getString("Maps_url"));
+        double latitude = rs.getDouble("latitude");
+        abrigo.setLatitude(rs.wasNull() ? null : latitude);
+        double longitude = rs.getDouble("longitude");
+        abrigo.setLongitude(rs.wasNull() ? null : longitude);
+        int capacity = rs.getInt("capacity");
+        abrigo.setCapacity(rs.wasNull() ? null : capacity);
+        abrigo.setOccupancy(rs.getInt("occupancy"));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            abrigo.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        return abrigo;
+    }
+
+    private static void setCoordenada(PreparedStatement stmt, int posicao, Double valor) throws SQLException {
+        if (valor != null) {
+            stmt.setDouble(posicao, valor);
+        } else {
+            stmt.setNull(posicao, Types.NUMERIC);
+        }
+    }
+
+    private static void setCapacidade(PreparedStatement stmt, int posicao, Integer valor) throws SQLException {
+        if (valor != null) {
+            stmt.setInt(posicao, valor);
+        } else {
+            stmt.setNull(posicao, Types.INTEGER);
+        }
+    }
+
+    private static void preencherServicos(List<Abrigo> abrigos, Map<Integer, String[]> servicos) {
+        for (Abrigo abrigo : abrigos) {
+            String[] oferecidos = servicos.get(abrigo.getId());
+            if (oferecidos != null) {
+                abrigo.setServicesOffered(oferecidos);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,7 @@ package fiap.tds.repositories;
 
 import fiap.tds.entities.Alerta;
 import fiap.tds.infrastructure.DatabaseConfig;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.jboss.logging.Logger;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -11,18 +10,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class AlertaRepository {
-    private static final Logger logger = LogManager.getLogger(AlertaRepository.class);
+    private static final Logger logger = Logger.getLogger(AlertaRepository.class);
     // Nome da tabela no banco de dados
     private static final String TABLE_NAME = "ER_ALERTAS";
+    private static final String COLUMNS = "id, title, severity, source, description, published_at, event_type, location, updated_at, status, expires_at, active";
+    public static final String PUBLICADO = "publicado";
+    public static final String RASCUNHO = "rascunho";
 
     /**
      * Registra um novo alerta no banco de dados.
      * O ID é gerado pelo banco de dados (autoincremento).
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public void registrar(Alerta alerta) {
         var sql = "INSERT INTO " + TABLE_NAME +
-                " (title, severity, source, description, published_at) " +
-                "VALUES (?, ?, ?, ?, ?)";
+                " (title, severity, source, description, published_at, event_type, location, updated_at, status, expires_at, active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -36,13 +39,18 @@ public class AlertaRepository {
             } else {
                 stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now())); // Default para agora se nulo
             }
+            stmt.setString(6, alerta.getEventType());
+            stmt.setString(7, alerta.getLocation());
+            stmt.setTimestamp(8, Timestamp.valueOf(alerta.getUpdatedAt() != null ? alerta.getUpdatedAt() : LocalDateTime.now()));
+            stmt.setString(9, alerta.getStatus() != null ? alerta.getStatus() : PUBLICADO);
+            setExpiracao(stmt, 10, alerta);
 
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("alerta", "registrar", stmt);
             if (res > 0) {
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         alerta.setId(generatedKeys.getInt(1));
-                        logger.info("✅ Alerta registrado com sucesso! ID gerado: " + alerta.getId());
+                        logger.infof("✅ Alerta registrado com sucesso! ID gerado: %s", alerta.getId());
                     } else {
                         logger.error("❌ Falha ao registrar Alerta, nenhum ID obtido.");
                         throw new SQLException("Falha ao criar alerta, nenhum ID obtido.");
@@ -51,35 +59,124 @@ public class AlertaRepository {
             }
         } catch (SQLException e) {
             logger.error("❌ Erro ao registrar Alerta", e);
+            throw new RuntimeException("Erro de banco de dados ao registrar alerta.", e);
         }
     }
 
     /**
-     * Busca todos os alertas registrados no banco de dados.
+     * Busca todos os alertas publicados (rascunhos ficam de fora).
      */
     public List<Alerta> buscarTodos() {
         List<Alerta> lista = new ArrayList<>();
-        var sql = "SELECT id, title, severity, source, description, published_at FROM " + TABLE_NAME + " ORDER BY published_at DESC"; // Ordena pelos mais recentes
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE status = '" + PUBLICADO + "' ORDER BY published_at DESC"; // Ordena pelos mais recentes
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Alerta alerta = new Alerta();
-                alerta.setId(rs.getInt("id"));
-                alerta.setTitle(rs.getString("title"));
-                alerta.setSeverity(rs.getString("severity"));
-                alerta.setSource(rs.getString("source"));
-                alerta.setDescription(rs.getString("description"));
-                Timestamp ts = rs.getTimestamp("published_at");
-                if (ts != null) {
-                    alerta.setPublishedAt(ts.toLocalDateTime());
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            lista = MetricasRepositorio.listar("alerta", "buscarTodos", stmt, AlertaRepository::mapear);
+        } catch (SQLException e) {
+            logger.error("❌ Erro ao buscar todos os Alertas", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os alertas publicados e ainda ativos (não retirados pela expiração), para montar o índice de ativos.
+     */
+    public List<Alerta> buscarAtivos() {
+        List<Alerta> lista = new ArrayList<>();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE active = 1 AND status = '" + PUBLICADO + "' ORDER BY published_at DESC";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            lista = MetricasRepositorio.listar("alerta", "buscarAtivos", stmt, AlertaRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar os Alertas ativos: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar os alertas ativos.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Retira os alertas cuja validade terminou: marca active = 0 (com nova marca de alteração) e registra a
+     * saída em ER_EXCLUSOES, tudo na mesma transação. As linhas ficam travadas (FOR UPDATE) até o commit,
+     * então duas instâncias da API rodando a expiração ao mesmo tempo não retiram o mesmo alerta duas vezes.
+     * Só alertas publicados expiram: um rascunho nunca chegou aos clientes, e a publicação renova a validade.
+     *
+     * @param agora Instante de referência: vence quem tem expires_at até ele.
+     * @return Os IDs retirados.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Integer> retirarExpirados(LocalDateTime agora) {
+        var selecao = "SELECT id FROM " + TABLE_NAME + " WHERE active = 1 AND expires_at <= ? AND status = '" + PUBLICADO + "' FOR UPDATE";
+        var retirada = "UPDATE " + TABLE_NAME + " SET active = 0, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Retirada e registro das exclusões na mesma transação
+            try {
+                List<Integer> ids;
+                try (PreparedStatement stmt = conn.prepareStatement(selecao)) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(agora));
+                    ids = MetricasRepositorio.listar("alerta", "buscarExpirados", stmt, rs -> rs.getInt("id"));
+                }
+                if (!ids.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(retirada)) {
+                        for (int id : ids) {
+                            stmt.setTimestamp(1, Timestamp.valueOf(agora));
+                            stmt.setInt(2, id);
+                            stmt.addBatch();
+                        }
+                        MetricasRepositorio.executarLote("alerta", "retirarExpirados", stmt);
+                    }
+                    ExclusaoRepository.registrarLote(conn, ExclusaoRepository.ALERTAS, ids);
                 }
-                lista.add(alerta);
+                conn.commit();
+                return ids;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar todos os Alertas", e);
+            logger.errorf(e, "❌ Erro ao retirar Alertas expirados: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao retirar os alertas expirados.", e);
+        }
+    }
+
+    /**
+     * Busca os rascunhos ainda não publicados, dos mais recentes para os mais antigos.
+     */
+    public List<Alerta> buscarRascunhos() {
+        List<Alerta> lista = new ArrayList<>();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE status = '" + RASCUNHO + "' ORDER BY published_at DESC";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            lista = MetricasRepositorio.listar("alerta", "buscarRascunhos", stmt, AlertaRepository::mapear);
+        } catch (SQLException e) {
+            logger.error("❌ Erro ao buscar os rascunhos de Alertas", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os alertas publicados criados ou alterados depois de um instante (sincronização incremental).
+     * Um rascunho entra quando é publicado, pois a publicação atualiza updated_at.
+     * Diferente das demais buscas, propaga a falha: uma lista vazia aqui faria o cliente perder alterações.
+     */
+    public List<Alerta> buscarAlteradosDesde(LocalDateTime desde) {
+        List<Alerta> lista = new ArrayList<>();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE updated_at > ? AND status = '" + PUBLICADO + "'";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            lista = MetricasRepositorio.listar("alerta", "buscarAlteradosDesde", stmt, AlertaRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Alertas alterados desde %s", desde);
+            throw new RuntimeException("Erro de banco de dados ao buscar alertas alterados.", e);
         }
         return lista;
     }
@@ -88,39 +185,28 @@ public class AlertaRepository {
      * Busca um alerta específico pelo ID (int).
      */
     public Alerta buscarPorId(int id) {
-        var sql = "SELECT id, title, severity, source, description, published_at FROM " + TABLE_NAME + " WHERE id = ?";
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE id = ?";
         Alerta alerta = null;
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                alerta = new Alerta();
-                alerta.setId(rs.getInt("id"));
-                alerta.setTitle(rs.getString("title"));
-                alerta.setSeverity(rs.getString("severity"));
-                alerta.setSource(rs.getString("source"));
-                alerta.setDescription(rs.getString("description"));
-                Timestamp ts = rs.getTimestamp("published_at");
-                if (ts != null) {
-                    alerta.setPublishedAt(ts.toLocalDateTime());
-                }
-            }
+            alerta = MetricasRepositorio.buscarUm("alerta", "buscarPorId", stmt, AlertaRepository::mapear);
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar Alerta por ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao buscar Alerta por ID: %s", id);
         }
         return alerta;
     }
 
     /**
      * Atualiza um alerta existente no banco de dados.
+     * @return false se o alerta não existe mais (nenhuma linha alterada).
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
-    public void atualizar(Alerta alerta) {
+    public boolean atualizar(Alerta alerta) {
         var sql = "UPDATE " + TABLE_NAME +
-                " SET title = ?, severity = ?, source = ?, description = ?, published_at = ? " +
+                " SET title = ?, severity = ?, source = ?, description = ?, published_at = ?, event_type = ?, location = ?, updated_at = ?, status = ?, expires_at = ?, active = ? " +
                 "WHERE id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -135,38 +221,96 @@ public class AlertaRepository {
             } else {
                 stmt.setNull(5, Types.TIMESTAMP);
             }
-            stmt.setInt(6, alerta.getId()); // Condição WHERE
+            stmt.setString(6, alerta.getEventType());
+            stmt.setString(7, alerta.getLocation());
+            stmt.setTimestamp(8, Timestamp.valueOf(alerta.getUpdatedAt() != null ? alerta.getUpdatedAt() : LocalDateTime.now()));
+            stmt.setString(9, alerta.getStatus() != null ? alerta.getStatus() : PUBLICADO);
+            setExpiracao(stmt, 10, alerta);
+            stmt.setInt(12, alerta.getId()); // Condição WHERE
 
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("alerta", "atualizar", stmt);
             if (res > 0) {
-                logger.info("✅ Alerta atualizado com sucesso! ID: " + alerta.getId());
+                logger.infof("✅ Alerta atualizado com sucesso! ID: %s", alerta.getId());
             } else {
-                logger.warn("⚠️ Alerta com ID " + alerta.getId() + " não encontrado para atualização.");
+                logger.warnf("⚠️ Alerta com ID %s não encontrado para atualização.", alerta.getId());
             }
+            return res > 0;
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar Alerta ID: " + alerta.getId(), e);
+            logger.errorf(e, "❌ Erro ao atualizar Alerta ID: %s", alerta.getId());
+            throw new RuntimeException("Erro de banco de dados ao atualizar alerta.", e);
         }
     }
 
     /**
      * Deleta um alerta do banco de dados pelo ID (int).
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public void deletar(int id) {
         var sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            int res = stmt.executeUpdate();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            int res;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                res = MetricasRepositorio.executar("alerta", "deletar", stmt);
+                // Na mesma transação: sem o registro, a sincronização nunca avisaria os clientes da exclusão
+                if (res > 0) {
+                    ExclusaoRepository.registrar(conn, ExclusaoRepository.ALERTAS, id);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (res > 0) {
-                logger.info("✅ Alerta deletado com sucesso! ID: " + id);
+                logger.infof("✅ Alerta deletado com sucesso! ID: %s", id);
             } else {
-                logger.warn("⚠️ Alerta com ID " + id + " não encontrado para exclusão.");
+                logger.warnf("⚠️ Alerta com ID %s não encontrado para exclusão.", id);
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao deletar Alerta ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao deletar Alerta ID: %s", id);
+            throw new RuntimeException("Erro de banco de dados ao deletar alerta.", e);
+        }
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em um Alerta.
+     */
+    static Alerta mapear(ResultSet rs) throws SQLException {
+        Alerta alerta = new Alerta();
+        alerta.setId(rs.getInt("id"));
+        alerta.setTitle(rs.getString("title"));
+        alerta.setSeverity(rs.getString("severity"));
+        alerta.setSource(rs.getString("source"));
+        alerta.setDescription(rs.getString("description"));
+        Timestamp ts = rs.getTimestamp("published_at");
+        if (ts != null) {
+            alerta.setPublishedAt(ts.toLocalDateTime());
+        }
+        alerta.setEventType(rs.getString("event_type"));
+        alerta.setLocation(rs.getString("location"));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            alerta.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        alerta.setStatus(rs.getString("status"));
+        Timestamp expiresAt = rs.getTimestamp("expires_at");
+        if (expiresAt != null) {
+            alerta.setExpiresAt(expiresAt.toLocalDateTime());
+        }
+        alerta.setActive(rs.getInt("active") == 1);
+        return alerta;
+    }
+
+    // expires_at e active, nas posições indice e indice + 1
+    private static void setExpiracao(PreparedStatement stmt, int indice, Alerta alerta) throws SQLException {
+        if (alerta.getExpiresAt() != null) {
+            stmt.setTimestamp(indice, Timestamp.valueOf(alerta.getExpiresAt()));
+        } else {
+            stmt.setNull(indice, Types.TIMESTAMP);
         }
+        stmt.setInt(indice + 1, alerta.isActive() ? 1 : 0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package fiap.tds.repositories;
+
+import fiap.tds.infrastructure.DatabaseConfig;
+import org.jboss.logging.Logger;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro de exclusões ("tombstones") usado pela sincronização incremental:
+ * sem ele, um cliente offline nunca saberia que um registro que tem em cache foi removido.
+ */
+public class ExclusaoRepository {
+    private static final Logger logger = Logger.getLogger(ExclusaoRepository.class);
+    private static final String TABLE_NAME = "ER_EXCLUSOES";
+
+    public static final String ALERTAS = "alertas";
+    public static final String ABRIGOS = "abrigos";
+    public static final String MAPAS = "mapas";
+    public static final String REPORTES = "reportes";
+
+    /**
+     * Grava a exclusão de um registro usando a conexão de quem fez o DELETE.
+     *
+     * @param conn A conexão já aberta pelo repositório da entidade.
+     * @param entidade O nome da entidade (ALERTAS, ABRIGOS, MAPAS ou REPORTES).
+     * @param id O ID do registro excluído.
+     * @throws SQLException Se ocorrer um erro de banco de dados.
+     */
+    static void registrar(Connection conn, String entidade, int id) throws SQLException {
+        String sql = "INSERT INTO " + TABLE_NAME + " (ENTIDADE, ENTIDADE_ID, EXCLUIDO_EM) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, entidade);
+            stmt.setInt(2, id);
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            MetricasRepositorio.executar("exclusao", "registrar", stmt);
+        }
+    }
+
+    /**
+     * Grava, num único lote, a exclusão de vários registros usando a conexão (e a transação) de quem os retirou.
+     *
+     * @param conn A conexão já aberta pelo repositório da entidade.
+     * @param entidade O nome da entidade (ALERTAS, ABRIGOS, MAPAS ou REPORTES).
+     * @param ids Os IDs dos registros excluídos.
+     * @throws SQLException Se ocorrer um erro de banco de dados.
+     */
+    static void registrarLote(Connection conn, String entidade, List<Integer> ids) throws SQLException {
+        String sql = "INSERT INTO " + TABLE_NAME + " (ENTIDADE, ENTIDADE_ID, EXCLUIDO_EM) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            for (int id : ids) {
+                stmt.setString(1, entidade);
+                stmt.setInt(2, id);
+                stmt.setTimestamp(3, agora);
+                stmt.addBatch();
+            }
+            MetricasRepositorio.executarLote("exclusao", "registrarLote", stmt);
+        }
+    }
+
+    /**
+     * Apaga os registros de exclusão anteriores a um instante, entidade por entidade (pelo índice de ENTIDADE e EXCLUIDO_EM).
+     *
+     * @param antesDe Instante (exclusivo) até o qual nenhum cliente ainda pode pedir exclusões.
+     * @return Quantidade de registros apagados.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public int removerAnteriores(LocalDateTime antesDe) {
+        String sql = "DELETE FROM " + TABLE_NAME + " WHERE ENTIDADE = ? AND EXCLUIDO_EM < ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (String entidade : List.of(ALERTAS, ABRIGOS, MAPAS, REPORTES)) {
+                stmt.setString(1, entidade);
+                stmt.setTimestamp(2, Timestamp.valueOf(antesDe));
+                stmt.addBatch();
+            }
+            return MetricasRepositorio.executarLote("exclusao", "removerAnteriores", stmt);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao apagar exclusões anteriores a %s", antesDe);
+            throw new RuntimeException("Erro de banco de dados ao apagar exclusões antigas.", e);
+        }
+    }
+
+    /**
+     * Busca os IDs excluídos de uma entidade a partir de um instante.
+     *
+     * @param entidade O nome da entidade.
+     * @param desde Instante (exclusivo) a partir do qual as exclusões interessam.
+     * @return Lista de IDs excluídos.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Integer> buscarIdsExcluidosDesde(String entidade, LocalDateTime desde) {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT ENTIDADE_ID FROM " + TABLE_NAME + " WHERE ENTIDADE = ? AND EXCLUIDO_EM > ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, entidade);
+            stmt.setTimestamp(2, Timestamp.valueOf(desde));
+            ids = MetricasRepositorio.listar("exclusao", "buscarIdsExcluidosDesde", stmt, rs -> rs.getInt("ENTIDADE_ID"));
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar exclusões de %s", entidade);
+            throw new RuntimeException("Erro de banco de dados ao buscar exclusões.", e);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+package fiap.tds.repositories;
+
+import fiap.tds.entities.Abrigo;
+import fiap.tds.entities.Alerta;
+import fiap.tds.entities.Mapa;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.opentelemetry.context.Context;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Variante reativa (Uni) das leituras mais acessadas: alertas, áreas de risco e abrigos.
+ * O endpoint responde na thread de I/O e a consulta JDBC roda num pool próprio e limitado;
+ * quando a fila do pool enche, a leitura falha na hora com RejectedExecutionException
+ * (o resource devolve 503) em vez de acumular requisições esperando o banco.
+ */
+@ApplicationScoped
+public class LeituraReativaRepository {
+    private static final Logger logger = Logger.getLogger(LeituraReativaRepository.class);
+
+    private final AlertaRepository alertaRepository = new AlertaRepository();
+    private final MapaRepository mapaRepository = new MapaRepository();
+    private final AbrigoRepository abrigoRepository = new AbrigoRepository();
+
+    @ConfigProperty(name = "leitura.reativa.threads", defaultValue = "16")
+    int threads;
+
+    @ConfigProperty(name = "leitura.reativa.fila", defaultValue = "256")
+    int fila;
+
+    private ThreadPoolExecutor executor;
+    // Mesmo pool, levando o contexto do trace da thread de I/O para a thread JDBC
+    private ExecutorService executorRastreado;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "leitura-reativa-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        // Fila, threads ativas e rejeições do pool em /q/metrics (executor_* com name=leitura-reativa)
+        new ExecutorServiceMetrics(executor, "leitura-reativa", List.of()).bindTo(Metrics.globalRegistry);
+        executorRastreado = Context.taskWrapping(executor);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Busca todos os alertas sem bloquear a thread de I/O.
+     * @return Uni com a lista de alertas; falha com RejectedExecutionException se o pool estiver saturado.
+     */
+    public Uni<List<Alerta>> buscarAlertas() {
+        return ler("alertas", alertaRepository::buscarTodos);
+    }
+
+    /**
+     * Busca todas as áreas de risco sem bloquear a thread de I/O.
+     * @return Uni com a lista de áreas de risco; falha com RejectedExecutionException se o pool estiver saturado.
+     */
+    public Uni<List<Mapa>> buscarMapas() {
+        return ler("mapas", mapaRepository::buscarTodos);
+    }
+
+    /**
+     * Busca todos os abrigos sem bloquear a thread de I/O.
+     * @return Uni com a lista de abrigos; falha com RejectedExecutionException se o pool estiver saturado.
+     */
+    public Uni<List<Abrigo>> buscarAbrigos() {
+        return ler("abrigos", abrigoRepository::buscarTodos);
+    }
+
+    /**
+     * Busca os abrigos que oferecem um serviço sem bloquear a thread de I/O.
+     * @return Uni com a lista de abrigos; falha com RejectedExecutionException se o pool estiver saturado.
+     */
+    public Uni<List<Abrigo>> buscarAbrigosPorServico(String servico) {
+        return ler("abrigos por serviço", () -> abrigoRepository.buscarPorServico(servico));
+    }
+
+    private <T> Uni<T> ler(String consulta, Supplier<T> leitura) {
+        return Uni.createFrom().item(leitura)
+                .runSubscriptionOn(executorRastreado)
+                .onFailure().invoke(e -> logger.warnf("⚠️ Leitura reativa de %s falhou: %s", consulta, e.getMessage()));
+    }
+
+    /**
+     * Quantidade de leituras aguardando uma thread livre no pool.
+     */
+    public int getLeiturasNaFila() {
+        return executor.getQueue().size();
+    }
+}
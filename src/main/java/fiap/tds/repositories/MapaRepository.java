@@ -2,8 +2,7 @@ package fiap.tds.repositories;
 
 import fiap.tds.entities.Mapa;
 import fiap.tds.infrastructure.DatabaseConfig;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.jboss.logging.Logger;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -11,9 +10,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MapaRepository {
-    private static final Logger logger = LogManager.getLogger(MapaRepository.class);
+    private static final Logger logger = Logger.getLogger(MapaRepository.class);
 
     private static final String TABLE_NAME = "ER_RISK_AREAS";
+    private static final String COLUMNS = "id, latitude, longitude, radius, risk_level, title, description, reason, last_updated_timestamp";
 
     /**
      * Registra uma nova área de risco (Mapa) no banco de dados.
@@ -40,13 +40,13 @@ public class MapaRepository {
             }
 
 
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("mapa", "registrar", stmt);
             if (res > 0) {
                 // Recupera o ID gerado pelo banco
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         mapa.setId(generatedKeys.getInt(1));
-                        logger.info("✅ Área de Risco (Mapa) registrada com sucesso! ID gerado: " + mapa.getId());
+                        logger.infof("✅ Área de Risco (Mapa) registrada com sucesso! ID gerado: %s", mapa.getId());
                     } else {
                         logger.error("❌ Falha ao registrar Área de Risco (Mapa), nenhum ID obtido.");
                         throw new SQLException("Falha ao criar mapa, nenhum ID obtido.");
@@ -63,64 +63,53 @@ public class MapaRepository {
      */
     public List<Mapa> buscarTodos() {
         List<Mapa> lista = new ArrayList<>();
-        var sql = "SELECT id, latitude, longitude, radius, risk_level, title, description, reason, last_updated_timestamp FROM " + TABLE_NAME;
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME;
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Mapa mapa = new Mapa();
-                mapa.setId(rs.getInt("id")); // ID como int
-                mapa.setLatitude(rs.getDouble("latitude"));
-                mapa.setLongitude(rs.getDouble("longitude"));
-                mapa.setRadius(rs.getInt("radius"));
-                mapa.setRiskLevel(rs.getString("risk_level"));
-                mapa.setTitle(rs.getString("title"));
-                mapa.setDescription(rs.getString("description"));
-                mapa.setReason(rs.getString("reason"));
-                Timestamp ts = rs.getTimestamp("last_updated_timestamp");
-                if (ts != null) {
-                    mapa.setLastUpdatedTimestamp(ts.toLocalDateTime());
-                }
-                lista.add(mapa);
-            }
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            lista = MetricasRepositorio.listar("mapa", "buscarTodos", stmt, MapaRepository::mapear);
         } catch (SQLException e) {
             logger.error("❌ Erro ao buscar todas as Áreas de Risco (Mapas)", e);
         }
         return lista;
     }
 
+    /**
+     * Busca as áreas de risco (Mapas) criadas ou alteradas depois de um instante (sincronização incremental).
+     * O MapaService já mantém last_updated_timestamp em toda gravação, então ela serve de marca d'água.
+     * Diferente das demais buscas, propaga a falha: uma lista vazia aqui faria o cliente perder alterações.
+     */
+    public List<Mapa> buscarAlteradosDesde(LocalDateTime desde) {
+        List<Mapa> lista = new ArrayList<>();
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE last_updated_timestamp > ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            lista = MetricasRepositorio.listar("mapa", "buscarAlteradosDesde", stmt, MapaRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Áreas de Risco (Mapas) alteradas desde %s", desde);
+            throw new RuntimeException("Erro de banco de dados ao buscar áreas de risco alteradas.", e);
+        }
+        return lista;
+    }
+
     /**
      * Busca uma área de risco (Mapa) específica pelo ID (int).
      */
     public Mapa buscarPorId(int id) { // Parâmetro id como int
-        var sql = "SELECT id, latitude, longitude, radius, risk_level, title, description, reason, last_updated_timestamp FROM " + TABLE_NAME + " WHERE id = ?";
+        var sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE id = ?";
         Mapa mapa = null;
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id); // Usando setInt para o ID
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                mapa = new Mapa();
-                mapa.setId(rs.getInt("id"));
-                mapa.setLatitude(rs.getDouble("latitude"));
-                mapa.setLongitude(rs.getDouble("longitude"));
-                mapa.setRadius(rs.getInt("radius"));
-                mapa.setRiskLevel(rs.getString("risk_level"));
-                mapa.setTitle(rs.getString("title"));
-                mapa.setDescription(rs.getString("description"));
-                mapa.setReason(rs.getString("reason"));
-                Timestamp ts = rs.getTimestamp("last_updated_timestamp");
-                if (ts != null) {
-                    mapa.setLastUpdatedTimestamp(ts.toLocalDateTime());
-                }
-            }
+            mapa = MetricasRepositorio.buscarUm("mapa", "buscarPorId", stmt, MapaRepository::mapear);
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar Área de Risco (Mapa) por ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao buscar Área de Risco (Mapa) por ID: %s", id);
         }
         return mapa;
     }
@@ -149,14 +138,14 @@ public class MapaRepository {
             }
             stmt.setInt(9, mapa.getId()); // Condição WHERE com ID int
 
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("mapa", "atualizar", stmt);
             if (res > 0) {
-                logger.info("✅ Área de Risco (Mapa) atualizada com sucesso! ID: " + mapa.getId());
+                logger.infof("✅ Área de Risco (Mapa) atualizada com sucesso! ID: %s", mapa.getId());
             } else {
-                logger.warn("⚠️ Área de Risco (Mapa) com ID " + mapa.getId() + " não encontrada para atualização.");
+                logger.warnf("⚠️ Área de Risco (Mapa) com ID %s não encontrada para atualização.", mapa.getId());
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar Área de Risco (Mapa) ID: " + mapa.getId(), e);
+            logger.errorf(e, "❌ Erro ao atualizar Área de Risco (Mapa) ID: %s", mapa.getId());
         }
     }
 
@@ -166,19 +155,49 @@ public class MapaRepository {
     public void deletar(int id) { // Parâmetro id como int
         var sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id); // Usando setInt para o ID
-            int res = stmt.executeUpdate();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            int res;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id); // Usando setInt para o ID
+                res = MetricasRepositorio.executar("mapa", "deletar", stmt);
+                // Na mesma transação: sem o registro, a sincronização nunca avisaria os clientes da exclusão
+                if (res > 0) {
+                    ExclusaoRepository.registrar(conn, ExclusaoRepository.MAPAS, id);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (res > 0) {
-                logger.info("✅ Área de Risco (Mapa) deletada com sucesso! ID: " + id);
+                logger.infof("✅ Área de Risco (Mapa) deletada com sucesso! ID: %s", id);
             } else {
-                logger.warn("⚠️ Área de Risco (Mapa) com ID " + id + " não encontrada para exclusão.");
+                logger.warnf("⚠️ Área de Risco (Mapa) com ID %s não encontrada para exclusão.", id);
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao deletar Área de Risco (Mapa) ID: " + id, e);
+            logger.errorf(e, "❌ Erro ao deletar Área de Risco (Mapa) ID: %s", id);
         }
     }
+
+    /**
+     * Converte a linha atual do ResultSet em um Mapa.
+     */
+    static Mapa mapear(ResultSet rs) throws SQLException {
+        Mapa mapa = new Mapa();
+        mapa.setId(rs.getInt("id")); // ID como int
+        mapa.setLatitude(rs.getDouble("latitude"));
+        mapa.setLongitude(rs.getDouble("longitude"));
+        mapa.setRadius(rs.getInt("radius"));
+        mapa.setRiskLevel(rs.getString("risk_level"));
+        mapa.setTitle(rs.getString("title"));
+        mapa.setDescription(rs.getString("description"));
+        mapa.setReason(rs.getString("reason"));
+        Timestamp ts = rs.getTimestamp("last_updated_timestamp");
+        if (ts != null) {
+            mapa.setLastUpdatedTimestamp(ts.toLocalDateTime());
+        }
+        return mapa;
+    }
 }
\ No newline at end of file
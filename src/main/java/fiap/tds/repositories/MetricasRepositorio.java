@@ -0,0 +1,180 @@
+package fiap.tds.repositories;
+
+import fiap.tds.infrastructure.RastreamentoConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa as consultas dos repositórios medindo, separadamente, o tempo do banco e o da conversão das linhas.
+ * Métricas (tags repositorio/metodo/fase, todas de cardinalidade baixa):
+ *   echoreport.repositorio.tempo  fase=consulta (executeQuery), mapeamento (next + mapear), escrita (executeUpdate)
+ *   echoreport.repositorio.linhas linhas devolvidas por consulta
+ * O mapeamento inclui as idas ao banco que o driver faz para buscar os próximos lotes (fetch size).
+ * Cada chamada também abre um span CLIENT "repositorio.metodo" (filho do span do service), com o
+ * banco, a operação e as linhas; nele ficam os eventos "consulta" e "mapeamento" marcando as fases.
+ */
+final class MetricasRepositorio {
+
+    @FunctionalInterface
+    interface Mapeador<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    private static final AttributeKey<Long> LINHAS = AttributeKey.longKey("db.rows");
+
+    private static final Map<String, Timer> tempos = new ConcurrentHashMap<>();
+    private static final Map<String, DistributionSummary> linhas = new ConcurrentHashMap<>();
+
+    private MetricasRepositorio() {
+    }
+
+    /**
+     * Executa a consulta e converte todas as linhas.
+     */
+    static <T> List<T> listar(String repositorio, String metodo, PreparedStatement stmt, Mapeador<T> mapeador) throws SQLException {
+        Span span = iniciarSpan(repositorio, metodo, "SELECT", stmt);
+        long inicio = System.nanoTime();
+        try (Scope ignored = span.makeCurrent(); ResultSet rs = stmt.executeQuery()) {
+            long consultado = System.nanoTime();
+            tempo(repositorio, metodo, "consulta").record(consultado - inicio, TimeUnit.NANOSECONDS);
+            span.addEvent("consulta");
+
+            List<T> lista = new ArrayList<>();
+            while (rs.next()) {
+                lista.add(mapeador.mapear(rs));
+            }
+            tempo(repositorio, metodo, "mapeamento").record(System.nanoTime() - consultado, TimeUnit.NANOSECONDS);
+            span.addEvent("mapeamento");
+            linhas(repositorio, metodo).record(lista.size());
+            span.setAttribute(LINHAS, (long) lista.size());
+            return lista;
+        } catch (SQLException e) {
+            falhar(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Executa a consulta e converte só a primeira linha.
+     * @return A entidade, ou null se a consulta não trouxe linhas.
+     */
+    static <T> T buscarUm(String repositorio, String metodo, PreparedStatement stmt, Mapeador<T> mapeador) throws SQLException {
+        Span span = iniciarSpan(repositorio, metodo, "SELECT", stmt);
+        long inicio = System.nanoTime();
+        try (Scope ignored = span.makeCurrent(); ResultSet rs = stmt.executeQuery()) {
+            long consultado = System.nanoTime();
+            tempo(repositorio, metodo, "consulta").record(consultado - inicio, TimeUnit.NANOSECONDS);
+            span.addEvent("consulta");
+
+            T entidade = rs.next() ? mapeador.mapear(rs) : null;
+            tempo(repositorio, metodo, "mapeamento").record(System.nanoTime() - consultado, TimeUnit.NANOSECONDS);
+            span.addEvent("mapeamento");
+            linhas(repositorio, metodo).record(entidade != null ? 1 : 0);
+            span.setAttribute(LINHAS, entidade != null ? 1L : 0L);
+            return entidade;
+        } catch (SQLException e) {
+            falhar(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Executa um INSERT, UPDATE ou DELETE.
+     * @return A quantidade de linhas afetadas.
+     */
+    static int executar(String repositorio, String metodo, PreparedStatement stmt) throws SQLException {
+        Span span = iniciarSpan(repositorio, metodo, "UPDATE", stmt);
+        long inicio = System.nanoTime();
+        try (Scope ignored = span.makeCurrent()) {
+            int afetadas = stmt.executeUpdate();
+            span.setAttribute(LINHAS, (long) afetadas);
+            return afetadas;
+        } catch (SQLException e) {
+            falhar(span, e);
+            throw e;
+        } finally {
+            tempo(repositorio, metodo, "escrita").record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            span.end();
+        }
+    }
+
+    /**
+     * Executa o lote de comandos acumulado com addBatch, medido como uma única escrita.
+     * @return A quantidade total de linhas afetadas (comandos com contagem desconhecida não somam).
+     */
+    static int executarLote(String repositorio, String metodo, PreparedStatement stmt) throws SQLException {
+        Span span = iniciarSpan(repositorio, metodo, "UPDATE", stmt);
+        long inicio = System.nanoTime();
+        try (Scope ignored = span.makeCurrent()) {
+            int afetadas = 0;
+            for (int contagem : stmt.executeBatch()) {
+                afetadas += Math.max(contagem, 0);
+            }
+            span.setAttribute(LINHAS, (long) afetadas);
+            return afetadas;
+        } catch (SQLException e) {
+            falhar(span, e);
+            throw e;
+        } finally {
+            tempo(repositorio, metodo, "escrita").record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            span.end();
+        }
+    }
+
+    private static Span iniciarSpan(String repositorio, String metodo, String operacao, PreparedStatement stmt) {
+        Span span = RastreamentoConfig.getTracer().spanBuilder(repositorio + "." + metodo)
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+        if (span.isRecording()) {
+            // Só monta os atributos quando o trace foi amostrado
+            span.setAttribute("db.operation", operacao);
+            try {
+                span.setAttribute("db.system", stmt.getConnection().getMetaData().getDatabaseProductName().toLowerCase());
+            } catch (SQLException ignored) {
+                // Sem o metadado o span continua identificado pelo nome do repositório e do método
+            }
+        }
+        return span;
+    }
+
+    private static void falhar(Span span, SQLException e) {
+        span.recordException(e);
+        span.setStatus(StatusCode.ERROR, e.getMessage());
+    }
+
+    private static Timer tempo(String repositorio, String metodo, String fase) {
+        return tempos.computeIfAbsent(repositorio + "." + metodo + "." + fase, k -> Timer.builder("echoreport.repositorio.tempo")
+                .description("Tempo das operações dos repositórios, por fase")
+                .tag("repositorio", repositorio)
+                .tag("metodo", metodo)
+                .tag("fase", fase)
+                .register(Metrics.globalRegistry));
+    }
+
+    private static DistributionSummary linhas(String repositorio, String metodo) {
+        return linhas.computeIfAbsent(repositorio + "." + metodo, k -> DistributionSummary.builder("echoreport.repositorio.linhas")
+                .description("Linhas devolvidas por consulta")
+                .tag("repositorio", repositorio)
+                .tag("metodo", metodo)
+                .register(Metrics.globalRegistry));
+    }
+}
@@ -1,69 +1,109 @@
 package fiap.tds.repositories;
 
+import fiap.tds.dtos.IncidenteDTO;
 import fiap.tds.entities.Reporte;
 import fiap.tds.infrastructure.DatabaseConfig;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.jboss.logging.Logger;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ReporteRepository {
-    private static final Logger logger = LogManager.getLogger(ReporteRepository.class);
+    private static final Logger logger = Logger.getLogger(ReporteRepository.class);
     private static final String TABLE_NAME = "ER_REPORTES";
+    private static final String ARQUIVO = "ER_REPORTES_ARQUIVO"; // Reportes antigos e encerrados (ArquivamentoReportesService)
     private static final String ID_COLUMN_NAME_DB = "ID";
+    /**
+     * Quantidade de reportes criados numa hora com a mesma combinação de status, severidade e tipo.
+     */
+    public record ContagemHora(LocalDateTime hora, String status, String severity, String eventType, int quantidade) {
+    }
+
+    /**
+     * Posição, tipo e data de criação de um reporte geocodificado (para montar o mapa de calor e as linhas de base
+     * da detecção de picos sem mapear o reporte inteiro).
+     */
+    public record Ponto(double latitude, double longitude, String eventType, LocalDateTime criado) {
+    }
+
+    private static final String COLUMNS = "ID, REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES, UPDATED_AT, INCIDENT_ID, LATITUDE, LONGITUDE";
 
     /**
      * Registra um novo reporte no banco de dados.
+     * Sem incidente informado, o reporte abre um incidente novo (INCIDENT_ID = o próprio ID), na mesma transação.
      *
      * @param reporte O objeto Reporte a ser registrado.
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public void registrar(Reporte reporte) {
         String sql = "INSERT INTO " + TABLE_NAME +
-                " (REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                " (REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES, UPDATED_AT, INCIDENT_ID, LATITUDE, LONGITUDE) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         String[] columnNamesToReturn = new String[] { ID_COLUMN_NAME_DB };
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, columnNamesToReturn)) {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Reporte e abertura do incidente na mesma transação
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(sql, columnNamesToReturn)) {
 
-            stmt.setString(1, reporte.getReporterName());
-            stmt.setString(2, reporte.getEventType());
-            stmt.setString(3, reporte.getDescription());
-            stmt.setString(4, reporte.getLocation());
-            stmt.setString(5, reporte.getImageUrl());
+                    stmt.setString(1, reporte.getReporterName());
+                    stmt.setString(2, reporte.getEventType());
+                    stmt.setString(3, reporte.getDescription());
+                    stmt.setString(4, reporte.getLocation());
+                    stmt.setString(5, reporte.getImageUrl());
 
-            if (reporte.getUserId() != null) {
-                stmt.setInt(6, reporte.getUserId());
-            } else {
-                stmt.setNull(6, Types.INTEGER);
-            }
-
-            stmt.setTimestamp(7, Timestamp.valueOf(reporte.getCreatedAt() != null ? reporte.getCreatedAt() : LocalDateTime.now()));
-            stmt.setString(8, reporte.getStatus());
-            stmt.setString(9, reporte.getSeverity());
-            stmt.setString(10, reporte.getAdminNotes());
+                    if (reporte.getUserId() != null) {
+                        stmt.setInt(6, reporte.getUserId());
+                    } else {
+                        stmt.setNull(6, Types.INTEGER);
+                    }
 
+                    stmt.setTimestamp(7, Timestamp.valueOf(reporte.getCreatedAt() != null ? reporte.getCreatedAt() : LocalDateTime.now()));
+                    stmt.setString(8, reporte.getStatus());
+                    stmt.setString(9, reporte.getSeverity());
+                    stmt.setString(10, reporte.getAdminNotes());
+                    stmt.setTimestamp(11, Timestamp.valueOf(reporte.getUpdatedAt() != null ? reporte.getUpdatedAt() : LocalDateTime.now()));
+                    if (reporte.getIncidentId() != null) {
+                        stmt.setInt(12, reporte.getIncidentId());
+                    } else {
+                        stmt.setNull(12, Types.INTEGER);
+                    }
+                    setCoordenada(stmt, 13, reporte.getLatitude());
+                    setCoordenada(stmt, 14, reporte.getLongitude());
 
-            int res = stmt.executeUpdate();
-            if (res > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        reporte.setId(generatedKeys.getInt(1));
-                        logger.info("✅ Reporte registrado com sucesso! ID gerado: " + reporte.getId());
+                    int res = MetricasRepositorio.executar("reporte", "registrar", stmt);
+                    if (res > 0) {
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                reporte.setId(generatedKeys.getInt(1));
+                            } else {
+                                throw new SQLException("Falha ao criar reporte, nenhum ID obtido.");
+                            }
+                        }
                     } else {
-                        throw new SQLException("Falha ao criar reporte, nenhum ID obtido.");
+                        throw new SQLException("Falha ao registrar reporte, nenhuma linha afetada.");
                     }
                 }
-            } else {
-                throw new SQLException("Falha ao registrar reporte, nenhuma linha afetada.");
+                if (reporte.getIncidentId() == null) {
+                    try (PreparedStatement stmt = conn.prepareStatement("UPDATE " + TABLE_NAME + " SET INCIDENT_ID = ID WHERE ID = ?")) {
+                        stmt.setInt(1, reporte.getId());
+                        MetricasRepositorio.executar("reporte", "abrirIncidente", stmt);
+                    }
+                    reporte.setIncidentId(reporte.getId());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+            logger.infof("✅ Reporte registrado com sucesso! ID gerado: %s (incidente %s)", reporte.getId(), reporte.getIncidentId());
         } catch (SQLException e) {
-            logger.error("❌ Erro de SQL ao registrar Reporte: " + e.getMessage(), e);
+            logger.errorf(e, "❌ Erro de SQL ao registrar Reporte: %s", e.getMessage());
             throw new RuntimeException("Erro de banco de dados ao tentar registrar o reporte.", e);
         }
     }
@@ -76,89 +116,362 @@ public class ReporteRepository {
      */
     public List<Reporte> buscarTodos() {
         List<Reporte> lista = new ArrayList<>();
-        String sql = "SELECT ID, REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES FROM " +
+        String sql = "SELECT " + COLUMNS + " FROM " +
                 TABLE_NAME + " ORDER BY CREATED_AT DESC";
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Reporte reporte = new Reporte();
-                reporte.setId(rs.getInt("ID"));
-                reporte.setReporterName(rs.getString("REPORTER_NAME"));
-                reporte.setEventType(rs.getString("EVENT_TYPE"));
-                reporte.setDescription(rs.getString("DESCRIPTION"));
-                reporte.setLocation(rs.getString("LOCATION"));
-                reporte.setImageUrl(rs.getString("IMAGE_URL"));
-
-                int userIdDb = rs.getInt("ID_USUARIO");
-                if (rs.wasNull()) {
-                    reporte.setUserId(null);
-                } else {
-                    reporte.setUserId(userIdDb);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            lista = MetricasRepositorio.listar("reporte", "buscarTodos", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar todos os Reportes: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar todos os reportes.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os reportes mais recentes, limitando a quantidade de linhas no próprio banco.
+     *
+     * @param limite Quantidade máxima de reportes retornados.
+     * @return Uma lista de objetos Reporte, do mais novo para o mais antigo.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Reporte> buscarRecentes(int limite) {
+        List<Reporte> lista = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " ORDER BY CREATED_AT DESC FETCH FIRST ? ROWS ONLY";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, limite);
+            lista = MetricasRepositorio.listar("reporte", "buscarRecentes", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Reportes recentes: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar reportes recentes.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os reportes mais recentes com um status (fila de moderação), usando o índice (STATUS, CREATED_AT DESC).
+     *
+     * @param status O status dos reportes (ex.: "novo").
+     * @param limite Quantidade máxima de reportes retornados.
+     * @return Uma lista de objetos Reporte, do mais novo para o mais antigo.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Reporte> buscarPorStatus(String status, int limite) {
+        List<Reporte> lista = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE STATUS = ? ORDER BY CREATED_AT DESC FETCH FIRST ? ROWS ONLY";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status);
+            stmt.setInt(2, limite);
+            lista = MetricasRepositorio.listar("reporte", "buscarPorStatus", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Reportes com status %s: %s", status, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar reportes por status.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os reportes criados ou alterados depois de um instante (sincronização incremental).
+     *
+     * @param desde Instante (exclusivo) a partir do qual as alterações interessam.
+     * @return Uma lista de objetos Reporte.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Reporte> buscarAlteradosDesde(LocalDateTime desde) {
+        List<Reporte> lista = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE UPDATED_AT > ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            lista = MetricasRepositorio.listar("reporte", "buscarAlteradosDesde", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Reportes alterados desde %s: %s", desde, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar reportes alterados.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os reportes criados a partir de um instante, para carregar o índice de incidentes na subida.
+     *
+     * @param desde Instante (inclusivo) de criação.
+     * @return Uma lista de objetos Reporte, em ordem de criação.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Reporte> buscarCriadosDesde(LocalDateTime desde) {
+        List<Reporte> lista = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE CREATED_AT >= ? ORDER BY CREATED_AT";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            lista = MetricasRepositorio.listar("reporte", "buscarCriadosDesde", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Reportes criados desde %s: %s", desde, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar reportes criados.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os incidentes com reportes criados a partir de um instante, dos maiores (mais reportes) para os menores.
+     * Com status, só conta os reportes naquele status (ex.: "novo" para a fila de triagem).
+     *
+     * @param status Status dos reportes contados, ou null para todos.
+     * @param desde Instante (inclusivo) de criação dos reportes contados.
+     * @param limite Quantidade máxima de incidentes retornados.
+     * @return Uma lista de incidentes, cada um com a quantidade de reportes e o primeiro deles.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<IncidenteDTO> buscarIncidentes(String status, LocalDateTime desde, int limite) {
+        List<IncidenteDTO> lista = new ArrayList<>();
+        String sql = "SELECT g.QUANTIDADE, g.ULTIMO, r." + COLUMNS.replace(", ", ", r.") +
+                " FROM (SELECT INCIDENT_ID, COUNT(*) QUANTIDADE, MAX(CREATED_AT) ULTIMO, MIN(ID) PRIMEIRO FROM " + TABLE_NAME +
+                " WHERE CREATED_AT >= ?" + (status != null ? " AND STATUS = ?" : "") +
+                " GROUP BY INCIDENT_ID ORDER BY COUNT(*) DESC, MAX(CREATED_AT) DESC FETCH FIRST ? ROWS ONLY) g" +
+                " JOIN " + TABLE_NAME + " r ON r.ID = g.PRIMEIRO ORDER BY g.QUANTIDADE DESC, g.ULTIMO DESC";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            stmt.setTimestamp(i++, Timestamp.valueOf(desde));
+            if (status != null) {
+                stmt.setString(i++, status);
+            }
+            stmt.setInt(i, limite);
+            lista = MetricasRepositorio.listar("reporte", "buscarIncidentes", stmt, rs -> {
+                Reporte primeiro = mapear(rs);
+                Timestamp ultimo = rs.getTimestamp("ULTIMO");
+                return new IncidenteDTO(primeiro.getIncidentId() != null ? primeiro.getIncidentId() : primeiro.getId(),
+                        rs.getInt("QUANTIDADE"), ultimo != null ? ultimo.toLocalDateTime() : null, primeiro);
+            });
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar incidentes desde %s: %s", desde, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar incidentes.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os reportes de um incidente, do primeiro ao último, usando o índice (INCIDENT_ID, CREATED_AT).
+     *
+     * @param idIncidente O ID do incidente.
+     * @return Uma lista de objetos Reporte, vazia se o incidente não existe.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Reporte> buscarPorIncidente(int idIncidente) {
+        List<Reporte> lista = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE INCIDENT_ID = ? ORDER BY CREATED_AT";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, idIncidente);
+            lista = MetricasRepositorio.listar("reporte", "buscarPorIncidente", stmt, ReporteRepository::mapear);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao buscar Reportes do incidente %s: %s", idIncidente, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao buscar reportes do incidente.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Muda o status de todos os reportes de um incidente num único UPDATE (triagem por incidente).
+     *
+     * @param idIncidente O ID do incidente.
+     * @param status O novo status.
+     * @param alteradoEm Instante gravado em UPDATED_AT.
+     * @return A quantidade de reportes alterados.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public int atualizarStatusDoIncidente(int idIncidente, String status, LocalDateTime alteradoEm) {
+        String sql = "UPDATE " + TABLE_NAME + " SET STATUS = ?, UPDATED_AT = ? WHERE INCIDENT_ID = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status);
+            stmt.setTimestamp(2, Timestamp.valueOf(alteradoEm));
+            stmt.setInt(3, idIncidente);
+            int res = MetricasRepositorio.executar("reporte", "atualizarStatusDoIncidente", stmt);
+            logger.infof("✅ Status de %s reportes do incidente %s atualizado para %s.", res, idIncidente, status);
+            return res;
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao atualizar o status do incidente %s: %s", idIncidente, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao atualizar o status do incidente.", e);
+        }
+    }
+
+    /**
+     * Conta os reportes por hora de criação, status, severidade e tipo num único GROUP BY, entregando cada
+     * grupo assim que é lido (para montar as estatísticas do painel sem trazer os reportes).
+     * Soma a tabela quente e o arquivo: arquivar um reporte não muda as estatísticas.
+     *
+     * @param consumidor Recebe cada grupo.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void contarPorHora(Consumer<ContagemHora> consumidor) {
+        String sql = "SELECT TRUNC(CREATED_AT, 'HH24') HORA, STATUS, SEVERITY, EVENT_TYPE, COUNT(*) QUANTIDADE FROM (" +
+                "SELECT CREATED_AT, STATUS, SEVERITY, EVENT_TYPE FROM " + TABLE_NAME + " UNION ALL " +
+                "SELECT CREATED_AT, STATUS, SEVERITY, EVENT_TYPE FROM " + ARQUIVO + ") TODOS" +
+                " WHERE CREATED_AT IS NOT NULL GROUP BY TRUNC(CREATED_AT, 'HH24'), STATUS, SEVERITY, EVENT_TYPE";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(new ContagemHora(rs.getTimestamp("HORA").toLocalDateTime(), rs.getString("STATUS"),
+                            rs.getString("SEVERITY"), rs.getString("EVENT_TYPE"), rs.getInt("QUANTIDADE")));
+                }
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao contar os Reportes por hora: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao contar os reportes por hora.", e);
+        }
+    }
+
+    /**
+     * Percorre a posição dos reportes geocodificados criados a partir de um instante, linha a linha e em ordem de criação.
+     * Usado para montar o mapa de calor e as linhas de base da detecção de picos na subida.
+     *
+     * @param desde Instante (inclusivo) de criação.
+     * @param consumidor Recebe cada posição assim que a linha é lida.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void percorrerPontosDesde(LocalDateTime desde, Consumer<Ponto> consumidor) {
+        String sql = "SELECT LATITUDE, LONGITUDE, EVENT_TYPE, CREATED_AT FROM " + TABLE_NAME +
+                " WHERE CREATED_AT >= ? AND LATITUDE IS NOT NULL AND LONGITUDE IS NOT NULL ORDER BY CREATED_AT";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(desde));
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(new Ponto(rs.getDouble("LATITUDE"), rs.getDouble("LONGITUDE"), rs.getString("EVENT_TYPE"),
+                            rs.getTimestamp("CREATED_AT").toLocalDateTime()));
                 }
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao percorrer as posições dos Reportes desde %s: %s", desde, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao percorrer as posições dos reportes.", e);
+        }
+    }
 
-                Timestamp ts = rs.getTimestamp("CREATED_AT");
-                if (ts != null) {
-                    reporte.setCreatedAt(ts.toLocalDateTime());
+    /**
+     * Percorre os reportes ainda sem coordenadas, linha a linha e em ordem de ID.
+     *
+     * @param consumidor Recebe cada Reporte assim que a linha é lida.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void percorrerSemCoordenadas(Consumer<Reporte> consumidor) {
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE LATITUDE IS NULL OR LONGITUDE IS NULL ORDER BY ID";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapear(rs));
                 }
-                reporte.setStatus(rs.getString("STATUS"));
-                reporte.setSeverity(rs.getString("SEVERITY"));
-                reporte.setAdminNotes(rs.getString("ADMIN_NOTES"));
-                lista.add(reporte);
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar todos os Reportes: " + e.getMessage(), e);
-            throw new RuntimeException("Erro de banco de dados ao buscar todos os reportes.", e);
+            logger.errorf(e, "❌ Erro ao percorrer os Reportes sem coordenadas: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao percorrer os reportes sem coordenadas.", e);
         }
-        return lista;
     }
 
     /**
-     * Busca um reporte pelo ID no banco de dados.
+     * Grava, num único lote, as coordenadas de vários reportes (e a marca de alteração, para a sincronização levar a mudança).
+     *
+     * @param coordenadas ID do reporte -> [latitude, longitude].
+     * @return A quantidade de reportes alterados.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public int atualizarCoordenadas(Map<Integer, double[]> coordenadas) {
+        String sql = "UPDATE " + TABLE_NAME + " SET LATITUDE = ?, LONGITUDE = ?, UPDATED_AT = ? WHERE ID = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, double[]> entrada : coordenadas.entrySet()) {
+                stmt.setDouble(1, entrada.getValue()[0]);
+                stmt.setDouble(2, entrada.getValue()[1]);
+                stmt.setTimestamp(3, agora);
+                stmt.setInt(4, entrada.getKey());
+                stmt.addBatch();
+            }
+            return MetricasRepositorio.executarLote("reporte", "atualizarCoordenadas", stmt);
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao gravar coordenadas de %s Reportes: %s", coordenadas.size(), e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao gravar coordenadas dos reportes.", e);
+        }
+    }
+
+    /**
+     * Percorre todos os reportes, linha a linha e em ordem de ID, sem montar a lista inteira em memória.
+     * Usado para reconstruir o índice de busca textual.
+     *
+     * @param consumidor Recebe cada Reporte assim que a linha é lida.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void percorrer(Consumer<Reporte> consumidor) {
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " ORDER BY ID";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao percorrer os Reportes: %s", e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao percorrer os reportes.", e);
+        }
+    }
+
+    /**
+     * Busca um reporte pelo ID no banco de dados. Se ele não estiver em ER_REPORTES, procura no arquivo
+     * (o reporte volta marcado como arquivado).
      *
      * @param id O ID do reporte a ser buscado.
      * @return O objeto Reporte correspondente ao ID, ou null se não encontrado.
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public Reporte buscarPorId(int id) {
-        String sql = "SELECT ID, REPORTER_NAME, EVENT_TYPE, DESCRIPTION, LOCATION, IMAGE_URL, ID_USUARIO, CREATED_AT, STATUS, SEVERITY, ADMIN_NOTES FROM " +
+        String sql = "SELECT " + COLUMNS + " FROM " +
                 TABLE_NAME + " WHERE ID = ?";
+        String sqlArquivo = "SELECT " + COLUMNS + " FROM " + ARQUIVO + " WHERE ID = ?";
         Reporte reporte = null;
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                reporte = new Reporte();
-                reporte.setId(rs.getInt("ID"));
-                reporte.setReporterName(rs.getString("REPORTER_NAME"));
-                reporte.setEventType(rs.getString("EVENT_TYPE"));
-                reporte.setDescription(rs.getString("DESCRIPTION"));
-                reporte.setLocation(rs.getString("LOCATION"));
-                reporte.setImageUrl(rs.getString("IMAGE_URL"));
-
-                int userIdDb = rs.getInt("ID_USUARIO");
-                if (rs.wasNull()) {
-                    reporte.setUserId(null);
-                } else {
-                    reporte.setUserId(userIdDb);
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                reporte = MetricasRepositorio.buscarUm("reporte", "buscarPorId", stmt, ReporteRepository::mapear);
+            }
+            if (reporte == null) {
+                try (PreparedStatement stmt = conn.prepareStatement(sqlArquivo)) {
+                    stmt.setInt(1, id);
+                    reporte = MetricasRepositorio.buscarUm("reporte", "buscarArquivadoPorId", stmt, ReporteRepository::mapear);
                 }
-
-                Timestamp ts = rs.getTimestamp("CREATED_AT");
-                if (ts != null) {
-                    reporte.setCreatedAt(ts.toLocalDateTime());
+                if (reporte != null) {
+                    reporte.setArchived(true);
                 }
-                reporte.setStatus(rs.getString("STATUS"));
-                reporte.setSeverity(rs.getString("SEVERITY"));
-                reporte.setAdminNotes(rs.getString("ADMIN_NOTES"));
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar Reporte por ID: " + id + " Erro: " + e.getMessage(), e);
+            logger.errorf(e, "❌ Erro ao buscar Reporte por ID: %s Erro: %s", id, e.getMessage());
             throw new RuntimeException("Erro de banco de dados ao buscar reporte por ID.", e);
         }
         return reporte;
@@ -168,11 +481,12 @@ public class ReporteRepository {
      * Atualiza um reporte no banco de dados.
      *
      * @param reporte O objeto Reporte com os novos dados.
+     * @return false se nenhuma linha foi alterada (o reporte saiu de ER_REPORTES, arquivado ou excluído).
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
-    public void atualizar(Reporte reporte) {
+    public boolean atualizar(Reporte reporte) {
         String sql = "UPDATE " + TABLE_NAME +
-                " SET EVENT_TYPE = ?, DESCRIPTION = ?, LOCATION = ?, IMAGE_URL = ?, STATUS = ?, REPORTER_NAME = ?, SEVERITY = ?, ADMIN_NOTES = ? " +
+                " SET EVENT_TYPE = ?, DESCRIPTION = ?, LOCATION = ?, IMAGE_URL = ?, STATUS = ?, REPORTER_NAME = ?, SEVERITY = ?, ADMIN_NOTES = ?, UPDATED_AT = ?, LATITUDE = ?, LONGITUDE = ? " +
                 "WHERE ID = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -186,43 +500,181 @@ public class ReporteRepository {
             stmt.setString(6, reporte.getReporterName());
             stmt.setString(7, reporte.getSeverity());
             stmt.setString(8, reporte.getAdminNotes());
-            stmt.setInt(9, reporte.getId());
+            stmt.setTimestamp(9, Timestamp.valueOf(reporte.getUpdatedAt() != null ? reporte.getUpdatedAt() : LocalDateTime.now()));
+            setCoordenada(stmt, 10, reporte.getLatitude());
+            setCoordenada(stmt, 11, reporte.getLongitude());
+            stmt.setInt(12, reporte.getId());
 
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("reporte", "atualizar", stmt);
             if (res > 0) {
-                logger.info("✅ Reporte atualizado com sucesso! ID: " + reporte.getId());
+                logger.infof("✅ Reporte atualizado com sucesso! ID: %s", reporte.getId());
             } else {
-                logger.warn("⚠️ Reporte com ID " + reporte.getId() + " não encontrado para atualização ou nenhum dado alterado.");
+                logger.warnf("⚠️ Reporte com ID %s não encontrado para atualização ou nenhum dado alterado.", reporte.getId());
             }
+            return res > 0;
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar Reporte ID: " + reporte.getId() + " Erro: " + e.getMessage(), e);
+            logger.errorf(e, "❌ Erro ao atualizar Reporte ID: %s Erro: %s", reporte.getId(), e.getMessage());
             throw new RuntimeException("Erro de banco de dados ao atualizar reporte.", e);
         }
     }
 
     /**
-     * Deleta um reporte pelo ID no banco de dados.
+     * Deleta um reporte pelo ID no banco de dados (em ER_REPORTES ou, se já arquivado, no arquivo).
      *
      * @param id O ID do reporte a ser deletado.
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public void deletar(int id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE ID = ?";
+        String sqlArquivo = "DELETE FROM " + ARQUIVO + " WHERE ID = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            int res = stmt.executeUpdate();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            int res;
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    res = MetricasRepositorio.executar("reporte", "deletar", stmt);
+                }
+                if (res == 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sqlArquivo)) {
+                        stmt.setInt(1, id);
+                        res = MetricasRepositorio.executar("reporte", "deletarArquivado", stmt);
+                    }
+                }
+                // Na mesma transação: sem o registro, a sincronização nunca avisaria os clientes da exclusão
+                if (res > 0) {
+                    ExclusaoRepository.registrar(conn, ExclusaoRepository.REPORTES, id);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (res > 0) {
-                logger.info("✅ Reporte deletado com sucesso! ID: " + id);
+                logger.infof("✅ Reporte deletado com sucesso! ID: %s", id);
             } else {
-                logger.warn("⚠️ Reporte com ID " + id + " não encontrado para exclusão.");
+                logger.warnf("⚠️ Reporte com ID %s não encontrado para exclusão.", id);
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao deletar Reporte ID: " + id + " Erro: " + e.getMessage(), e);
+            logger.errorf(e, "❌ Erro ao deletar Reporte ID: %s Erro: %s", id, e.getMessage());
             throw new RuntimeException("Erro de banco de dados ao deletar reporte.", e);
         }
     }
+
+    /**
+     * Move para ER_REPORTES_ARQUIVO, numa única transação, um lote dos reportes mais antigos criados antes de um
+     * instante e com um dos status informados: cópia em lote (INSERT ... SELECT) e exclusão em lote da tabela quente.
+     * Não registra exclusão em ER_EXCLUSOES: o reporte continua existindo, só sai da tabela quente.
+     *
+     * @param status Status que podem ser arquivados (os encerrados).
+     * @param antesDe Instante (exclusivo) de criação.
+     * @param lote Quantidade máxima de reportes movidos.
+     * @return Os IDs arquivados; menos que o lote quando não há mais o que arquivar.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public List<Integer> arquivar(List<String> status, LocalDateTime antesDe, int lote) {
+        // FETCH FIRST não aceita FOR UPDATE na mesma consulta: o lote é escolhido na subconsulta e travado na de fora,
+        // para uma edição concorrente não se perder entre a cópia e a exclusão. O filtro se repete na de fora para valer
+        // depois do lock: um reporte reaberto enquanto esperávamos a trava fica de fora do lote
+        String filtro = "STATUS IN (" + String.join(", ", status.stream().map(s -> "?").toList()) + ") AND CREATED_AT < ?";
+        String selecao = "SELECT ID FROM " + TABLE_NAME + " WHERE ID IN (SELECT ID FROM " + TABLE_NAME + " WHERE " + filtro +
+                " ORDER BY CREATED_AT FETCH FIRST ? ROWS ONLY) AND " + filtro + " FOR UPDATE";
+        String copia = "INSERT INTO " + ARQUIVO + " (" + COLUMNS + ", ARCHIVED_AT) SELECT " + COLUMNS + ", ? FROM " + TABLE_NAME + " WHERE ID = ?";
+        String exclusao = "DELETE FROM " + TABLE_NAME + " WHERE ID = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Cópia e exclusão na mesma transação: o reporte nunca fica nas duas tabelas, nem em nenhuma
+            try {
+                List<Integer> ids;
+                try (PreparedStatement stmt = conn.prepareStatement(selecao)) {
+                    int posicao = 1;
+                    for (String s : status) {
+                        stmt.setString(posicao++, s);
+                    }
+                    stmt.setTimestamp(posicao++, Timestamp.valueOf(antesDe));
+                    stmt.setInt(posicao++, lote);
+                    for (String s : status) {
+                        stmt.setString(posicao++, s);
+                    }
+                    stmt.setTimestamp(posicao, Timestamp.valueOf(antesDe));
+                    ids = MetricasRepositorio.listar("reporte", "buscarArquivaveis", stmt, rs -> rs.getInt("ID"));
+                }
+                if (!ids.isEmpty()) {
+                    Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+                    try (PreparedStatement stmt = conn.prepareStatement(copia)) {
+                        for (int id : ids) {
+                            stmt.setTimestamp(1, agora);
+                            stmt.setInt(2, id);
+                            stmt.addBatch();
+                        }
+                        MetricasRepositorio.executarLote("reporte", "copiarParaArquivo", stmt);
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(exclusao)) {
+                        for (int id : ids) {
+                            stmt.setInt(1, id);
+                            stmt.addBatch();
+                        }
+                        MetricasRepositorio.executarLote("reporte", "arquivar", stmt);
+                    }
+                }
+                conn.commit();
+                return ids;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao arquivar Reportes criados antes de %s: %s", antesDe, e.getMessage());
+            throw new RuntimeException("Erro de banco de dados ao arquivar reportes.", e);
+        }
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em um Reporte.
+     */
+    static Reporte mapear(ResultSet rs) throws SQLException {
+        Reporte reporte = new Reporte();
+        reporte.setId(rs.getInt("ID"));
+        reporte.setReporterName(rs.getString("REPORTER_NAME"));
+        reporte.setEventType(rs.getString("EVENT_TYPE"));
+        reporte.setDescription(rs.getString("DESCRIPTION"));
+        reporte.setLocation(rs.getString("LOCATION"));
+        reporte.setImageUrl(rs.getString("IMAGE_URL"));
+
+        int userIdDb = rs.getInt("ID_USUARIO");
+        if (rs.wasNull()) {
+            reporte.setUserId(null);
+        } else {
+            reporte.setUserId(userIdDb);
+        }
+
+        Timestamp ts = rs.getTimestamp("CREATED_AT");
+        if (ts != null) {
+            reporte.setCreatedAt(ts.toLocalDateTime());
+        }
+        reporte.setStatus(rs.getString("STATUS"));
+        reporte.setSeverity(rs.getString("SEVERITY"));
+        reporte.setAdminNotes(rs.getString("ADMIN_NOTES"));
+        Timestamp updatedAt = rs.getTimestamp("UPDATED_AT");
+        if (updatedAt != null) {
+            reporte.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        int incidentIdDb = rs.getInt("INCIDENT_ID");
+        reporte.setIncidentId(rs.wasNull() ? null : incidentIdDb);
+        double latitude = rs.getDouble("LATITUDE");
+        reporte.setLatitude(rs.wasNull() ? null : latitude);
+        double longitude = rs.getDouble("LONGITUDE");
+        reporte.setLongitude(rs.wasNull() ? null : longitude);
+        return reporte;
+    }
+
+    private static void setCoordenada(PreparedStatement stmt, int posicao, Double valor) throws SQLException {
+        if (valor != null) {
+            stmt.setDouble(posicao, valor);
+        } else {
+            stmt.setNull(posicao, Types.NUMERIC);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package fiap.tds.repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lista de valores de uma entidade guardada numa tabela filha, uma linha por valor
+ * (alertas inscritos de um usuário, serviços de um abrigo), no lugar da antiga string delimitada.
+ * A chave primária (pai, valor) serve a leitura por entidade e o índice (valor, pai) responde
+ * "quem tem o valor X" sem varrer a tabela principal.
+ * Os métodos usam a conexão do repositório dono da entidade, para gravar na mesma transação.
+ */
+final class TabelaFilha {
+
+    private final String repositorio;
+    private final String tabela;
+    private final String colunaPai;
+    private final String colunaValor;
+
+    TabelaFilha(String repositorio, String tabela, String colunaPai, String colunaValor) {
+        this.repositorio = repositorio;
+        this.tabela = tabela;
+        this.colunaPai = colunaPai;
+        this.colunaValor = colunaValor;
+    }
+
+    /**
+     * Substitui os valores de uma entidade: apaga os antigos e insere os novos em lote.
+     * Valores em branco e repetidos são descartados.
+     */
+    void gravar(Connection conn, String metodo, int idPai, String[] valores) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + tabela + " WHERE " + colunaPai + " = ?")) {
+            stmt.setInt(1, idPai);
+            MetricasRepositorio.executar(repositorio, metodo, stmt);
+        }
+        Set<String> distintos = distintos(valores);
+        if (distintos.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + tabela + " (" + colunaPai + ", " + colunaValor + ") VALUES (?, ?)")) {
+            for (String valor : distintos) {
+                stmt.setInt(1, idPai);
+                stmt.setString(2, valor);
+                stmt.addBatch();
+            }
+            MetricasRepositorio.executarLote(repositorio, metodo, stmt);
+        }
+    }
+
+    /**
+     * Valores de uma única entidade.
+     */
+    String[] carregar(Connection conn, String metodo, int idPai) throws SQLException {
+        String sql = "SELECT " + colunaValor + " FROM " + tabela + " WHERE " + colunaPai + " = ? ORDER BY " + colunaValor;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, idPai);
+            return MetricasRepositorio.listar(repositorio, metodo, stmt, rs -> rs.getString(1)).toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Valores de várias entidades numa só consulta, para não fazer uma ida ao banco por linha da listagem.
+     *
+     * @param filtroPais SELECT dos IDs das entidades da listagem (ou null para todas).
+     * @param parametros Parâmetros do filtro, na ordem dos "?".
+     * @return ID da entidade -> valores; entidades sem valores não aparecem no mapa.
+     */
+    Map<Integer, String[]> carregar(Connection conn, String metodo, String filtroPais, Object... parametros) throws SQLException {
+        String sql = "SELECT " + colunaPai + ", " + colunaValor + " FROM " + tabela +
+                (filtroPais != null ? " WHERE " + colunaPai + " IN (" + filtroPais + ")" : "");
+        List<Map.Entry<Integer, String>> linhas;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                stmt.setObject(i + 1, parametros[i]);
+            }
+            linhas = MetricasRepositorio.listar(repositorio, metodo, stmt, rs -> Map.entry(rs.getInt(1), rs.getString(2)));
+        }
+        Map<Integer, List<String>> agrupados = new HashMap<>();
+        for (Map.Entry<Integer, String> linha : linhas) {
+            agrupados.computeIfAbsent(linha.getKey(), k -> new ArrayList<>(4)).add(linha.getValue());
+        }
+        Map<Integer, String[]> valores = new HashMap<>(agrupados.size() * 2);
+        agrupados.forEach((id, lista) -> valores.put(id, lista.stream().sorted().toArray(String[]::new)));
+        return valores;
+    }
+
+    /**
+     * Subconsulta dos IDs das entidades que têm o valor informado (um parâmetro), para usar em "id IN (...)".
+     */
+    String idsComValor() {
+        return "SELECT " + colunaPai + " FROM " + tabela + " WHERE " + colunaValor + " = ?";
+    }
+
+    /**
+     * Abre um cursor que percorre todos os valores em ordem de ID, para acompanhar uma leitura
+     * da tabela principal também ordenada por ID (merge), sem carregar tudo em memória.
+     */
+    Cursor percorrer(Connection conn, int fetchSize) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement("SELECT " + colunaPai + ", " + colunaValor + " FROM " + tabela + " ORDER BY " + colunaPai + ", " + colunaValor);
+        try {
+            stmt.setFetchSize(fetchSize);
+            return new Cursor(stmt, stmt.executeQuery());
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    static Set<String> distintos(String[] valores) {
+        Set<String> distintos = new LinkedHashSet<>();
+        if (valores != null) {
+            for (String valor : valores) {
+                if (valor != null && !valor.isBlank()) {
+                    distintos.add(valor.trim());
+                }
+            }
+        }
+        return distintos;
+    }
+
+    static final class Cursor implements AutoCloseable {
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private boolean temLinha;
+
+        private Cursor(PreparedStatement stmt, ResultSet rs) throws SQLException {
+            this.stmt = stmt;
+            this.rs = rs;
+            this.temLinha = rs.next();
+        }
+
+        /**
+         * Valores da entidade informada. Deve ser chamado com IDs crescentes;
+         * valores de IDs menores que ficaram para trás (entidade já excluída) são descartados.
+         */
+        String[] valoresDe(int idPai) throws SQLException {
+            while (temLinha && rs.getInt(1) < idPai) {
+                temLinha = rs.next();
+            }
+            List<String> valores = new ArrayList<>(4);
+            while (temLinha && rs.getInt(1) == idPai) {
+                valores.add(rs.getString(2));
+                temLinha = rs.next();
+            }
+            return valores.toArray(new String[0]);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (stmt; rs) {
+                // Fecha o ResultSet e depois o PreparedStatement
+            }
+        }
+    }
+}
@@ -2,18 +2,21 @@ package fiap.tds.repositories;
 
 import fiap.tds.entities.Usuario;
 import fiap.tds.infrastructure.DatabaseConfig;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.jboss.logging.Logger;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class UsuarioRepository {
-        private static final Logger logger = LogManager.getLogger(UsuarioRepository.class);
+        private static final Logger logger = Logger.getLogger(UsuarioRepository.class);
         private static final String TABLE_NAME = "ER_USUARIOS";
-        private static final String SUBSCRIBED_ALERTS_DELIMITER = ",";
+        // Alertas inscritos: uma linha por tipo, com índice por tipo para achar os inscritos em SQL
+        private static final TabelaFilha ALERTAS = new TabelaFilha("usuario", "ER_USUARIO_ALERTAS", "ID_USUARIO", "TIPO_ALERTA");
+        private static final String COLUMNS = "ID_USUARIO, NOME_COMPLETO, EMAIL, LOCATION_PREFERENCE, ROLE, CREATED_AT";
 
         /**
          * Registra um novo usuário no banco de dados.
@@ -23,45 +26,46 @@ public class UsuarioRepository {
          */
         public void registrar(Usuario usuario) {
             String sql = "INSERT INTO " + TABLE_NAME +
-                    " (NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, SUBSCRIBED_ALERTS, ROLE, CREATED_AT) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+                    " (NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, ROLE, CREATED_AT) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
 
 
             String[] columnNamesToReturn = new String[] { "ID_USUARIO" }; // Nome da PK na tabela ER_USUARIOS
 
-            try (Connection conn = DatabaseConfig.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql, columnNamesToReturn)) { // Ou Statement.RETURN_GENERATED_KEYS se columnNamesToReturn não funcionar
+            try (Connection conn = DatabaseConfig.getConnection()) {
+                conn.setAutoCommit(false); // Usuário e alertas inscritos na mesma transação
+                try (PreparedStatement stmt = conn.prepareStatement(sql, columnNamesToReturn)) { // Ou Statement.RETURN_GENERATED_KEYS se columnNamesToReturn não funcionar
 
-                stmt.setString(1, usuario.getNomeCompleto());
-                stmt.setString(2, usuario.getEmail().toLowerCase());
-                stmt.setString(3, usuario.getPasswordHash());
-                stmt.setString(4, usuario.getLocationPreference());
-
-                if (usuario.getSubscribedAlerts() != null && usuario.getSubscribedAlerts().length > 0) {
-                    stmt.setString(5, String.join(SUBSCRIBED_ALERTS_DELIMITER, usuario.getSubscribedAlerts()));
-                } else {
-                    stmt.setNull(5, Types.VARCHAR);
-                }
-                stmt.setString(6, usuario.getRole() != null ? usuario.getRole() : "user");
-                stmt.setTimestamp(7, Timestamp.valueOf(usuario.getCreatedAt() != null ? usuario.getCreatedAt() : LocalDateTime.now()));
+                    stmt.setString(1, usuario.getNomeCompleto());
+                    stmt.setString(2, usuario.getEmail().toLowerCase());
+                    stmt.setString(3, usuario.getPasswordHash());
+                    stmt.setString(4, usuario.getLocationPreference());
+                    stmt.setString(5, usuario.getRole() != null ? usuario.getRole() : "user");
+                    stmt.setTimestamp(6, Timestamp.valueOf(usuario.getCreatedAt() != null ? usuario.getCreatedAt() : LocalDateTime.now()));
 
-                int res = stmt.executeUpdate();
-                if (res > 0) {
-                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            usuario.setUserId(generatedKeys.getInt(1));
-                            logger.info("✅ Usuário registrado com sucesso! ID: " + usuario.getUserId());
-                        } else {
-                            logger.error("❌ Falha ao registrar usuário, nenhum ID gerado obtido após INSERT.");
-                            throw new SQLException("Falha ao criar usuário no BD, nenhum ID obtido.");
+                    int res = MetricasRepositorio.executar("usuario", "registrar", stmt);
+                    if (res > 0) {
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                usuario.setUserId(generatedKeys.getInt(1));
+                            } else {
+                                logger.error("❌ Falha ao registrar usuário, nenhum ID gerado obtido após INSERT.");
+                                throw new SQLException("Falha ao criar usuário no BD, nenhum ID obtido.");
+                            }
                         }
+                    } else {
+                        logger.error("❌ Nenhuma linha afetada ao registrar Usuário no BD.");
+                        throw new SQLException("Falha ao registrar usuário, nenhuma linha afetada.");
                     }
-                } else {
-                    logger.error("❌ Nenhuma linha afetada ao registrar Usuário no BD.");
-                    throw new SQLException("Falha ao registrar usuário, nenhuma linha afetada.");
+                    ALERTAS.gravar(conn, "registrarAlertas", usuario.getUserId(), usuario.getSubscribedAlerts());
+                    conn.commit();
+                    logger.infof("✅ Usuário registrado com sucesso! ID: %s", usuario.getUserId());
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
                 }
             } catch (SQLException e) {
-                logger.error("❌ Erro de SQL ao registrar usuário: " + e.getMessage(), e);
+                logger.errorf(e, "❌ Erro de SQL ao registrar usuário: %s", e.getMessage());
                 throw new RuntimeException("Erro de banco de dados ao registrar usuário.", e);
             }
         }
@@ -75,34 +79,17 @@ public class UsuarioRepository {
         */
 
     public Usuario buscarPorEmail(String email) {
-        String sql = "SELECT ID_USUARIO, NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, SUBSCRIBED_ALERTS, ROLE, CREATED_AT FROM " + TABLE_NAME + " WHERE EMAIL = ?";
+        String sql = "SELECT " + COLUMNS + ", PASSWORD_HASH FROM " + TABLE_NAME + " WHERE EMAIL = ?";
         Usuario usuario = null;
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, email.toLowerCase());
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    usuario = new Usuario();
-                    usuario.setUserId(rs.getInt("ID_USUARIO"));
-                    usuario.setNomeCompleto(rs.getString("NOME_COMPLETO"));
-                    usuario.setEmail(rs.getString("EMAIL"));
-                    usuario.setPasswordHash(rs.getString("PASSWORD_HASH"));
-                    usuario.setLocationPreference(rs.getString("LOCATION_PREFERENCE"));
-                    String alertsDb = rs.getString("SUBSCRIBED_ALERTS");
-                    if (alertsDb != null && !alertsDb.isEmpty()) {
-                        usuario.setSubscribedAlerts(alertsDb.split(SUBSCRIBED_ALERTS_DELIMITER));
-                    } else {
-                        usuario.setSubscribedAlerts(new String[0]);
-                    }
-                    usuario.setRole(rs.getString("ROLE"));
-                    Timestamp ts = rs.getTimestamp("CREATED_AT");
-                    if (ts != null) {
-                        usuario.setCreatedAt(ts.toLocalDateTime());
-                    }
-                }
+            usuario = MetricasRepositorio.buscarUm("usuario", "buscarPorEmail", stmt, rs -> mapear(rs, true));
+            if (usuario != null) {
+                usuario.setSubscribedAlerts(ALERTAS.carregar(conn, "buscarPorEmailAlertas", usuario.getUserId()));
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar usuário por email: " + email, e);
+            logger.errorf(e, "❌ Erro ao buscar usuário por email: %s", email);
             throw new RuntimeException("Erro de banco de dados ao buscar usuário.", e);
         }
         return usuario;
@@ -116,34 +103,17 @@ public class UsuarioRepository {
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
     public Usuario buscarPorId(int userId) { // Parâmetro e tipo de retorno ajustados para int
-        String sql = "SELECT ID_USUARIO, NOME_COMPLETO, EMAIL, PASSWORD_HASH, LOCATION_PREFERENCE, SUBSCRIBED_ALERTS, ROLE, CREATED_AT FROM " + TABLE_NAME + " WHERE ID_USUARIO = ?";
+        String sql = "SELECT " + COLUMNS + ", PASSWORD_HASH FROM " + TABLE_NAME + " WHERE ID_USUARIO = ?";
         Usuario usuario = null;
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    usuario = new Usuario();
-                    usuario.setUserId(rs.getInt("ID_USUARIO"));
-                    usuario.setNomeCompleto(rs.getString("NOME_COMPLETO"));
-                    usuario.setEmail(rs.getString("EMAIL"));
-                    usuario.setPasswordHash(rs.getString("PASSWORD_HASH"));
-                    usuario.setLocationPreference(rs.getString("LOCATION_PREFERENCE"));
-                    String alertsDb = rs.getString("SUBSCRIBED_ALERTS");
-                    if (alertsDb != null && !alertsDb.isEmpty()) {
-                        usuario.setSubscribedAlerts(alertsDb.split(SUBSCRIBED_ALERTS_DELIMITER));
-                    } else {
-                        usuario.setSubscribedAlerts(new String[0]);
-                    }
-                    usuario.setRole(rs.getString("ROLE"));
-                    Timestamp ts = rs.getTimestamp("CREATED_AT");
-                    if (ts != null) {
-                        usuario.setCreatedAt(ts.toLocalDateTime());
-                    }
-                }
+            usuario = MetricasRepositorio.buscarUm("usuario", "buscarPorId", stmt, rs -> mapear(rs, true));
+            if (usuario != null) {
+                usuario.setSubscribedAlerts(ALERTAS.carregar(conn, "buscarPorIdAlertas", userId));
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao buscar usuário por ID: " + userId, e);
+            logger.errorf(e, "❌ Erro ao buscar usuário por ID: %s", userId);
             throw new RuntimeException("Erro de banco de dados ao buscar usuário por ID.", e);
         }
         return usuario;
@@ -157,29 +127,11 @@ public class UsuarioRepository {
      */
     public List<Usuario> listarTodos() {
         List<Usuario> lista = new ArrayList<>();
-        String sql = "SELECT ID_USUARIO, NOME_COMPLETO, EMAIL, LOCATION_PREFERENCE, SUBSCRIBED_ALERTS, ROLE, CREATED_AT FROM " + TABLE_NAME + " ORDER BY NOME_COMPLETO"; // Removido PASSWORD_HASH da listagem geral
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " ORDER BY NOME_COMPLETO"; // Removido PASSWORD_HASH da listagem geral
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Usuario usuario = new Usuario();
-                usuario.setUserId(rs.getInt("ID_USUARIO"));
-                usuario.setNomeCompleto(rs.getString("NOME_COMPLETO"));
-                usuario.setEmail(rs.getString("EMAIL"));
-                usuario.setLocationPreference(rs.getString("LOCATION_PREFERENCE"));
-                String alertsDb = rs.getString("SUBSCRIBED_ALERTS");
-                if (alertsDb != null && !alertsDb.isEmpty()) {
-                    usuario.setSubscribedAlerts(alertsDb.split(SUBSCRIBED_ALERTS_DELIMITER));
-                } else {
-                    usuario.setSubscribedAlerts(new String[0]);
-                }
-                usuario.setRole(rs.getString("ROLE"));
-                Timestamp ts = rs.getTimestamp("CREATED_AT");
-                if (ts != null) {
-                    usuario.setCreatedAt(ts.toLocalDateTime());
-                }
-                lista.add(usuario);
-            }
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            lista = MetricasRepositorio.listar("usuario", "listarTodos", stmt, rs -> mapear(rs, false));
+            preencherAlertas(lista, ALERTAS.carregar(conn, "listarTodosAlertas", null));
         } catch (SQLException e) {
             logger.error("❌ Erro ao listar todos os usuários", e);
             throw new RuntimeException("Erro de banco de dados ao listar usuários.", e);
@@ -188,35 +140,89 @@ public class UsuarioRepository {
     }
 
     /**
-     * Atualiza os dados de um usuário no banco de dados.
+     * Lista os usuários inscritos num tipo de alerta, filtrando no banco pelo índice de ER_USUARIO_ALERTAS.
      *
-     * @param usuario O objeto Usuario com os dados atualizados.
+     * @param tipoAlerta O tipo de alerta, exatamente como foi gravado (ex.: "enchente").
+     * @return Os usuários inscritos, ordenados por nome.
      * @throws RuntimeException Se ocorrer um erro de banco de dados.
      */
-    public void atualizar(Usuario usuario) {
-        String sql = "UPDATE " + TABLE_NAME + " SET NOME_COMPLETO = ?, EMAIL = ?, LOCATION_PREFERENCE = ?, SUBSCRIBED_ALERTS = ?, ROLE = ? WHERE ID_USUARIO = ?";
+    public List<Usuario> listarInscritos(String tipoAlerta) {
+        List<Usuario> lista = new ArrayList<>();
+        String filtro = ALERTAS.idsComValor();
+        String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE ID_USUARIO IN (" + filtro + ") ORDER BY NOME_COMPLETO";
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usuario.getNomeCompleto());
-            stmt.setString(2, usuario.getEmail().toLowerCase());
-            stmt.setString(3, usuario.getLocationPreference());
-            if (usuario.getSubscribedAlerts() != null && usuario.getSubscribedAlerts().length > 0) {
-                stmt.setString(4, String.join(SUBSCRIBED_ALERTS_DELIMITER, usuario.getSubscribedAlerts()));
-            } else {
-                stmt.setNull(4, Types.VARCHAR);
+            stmt.setString(1, tipoAlerta);
+            lista = MetricasRepositorio.listar("usuario", "listarInscritos", stmt, rs -> mapear(rs, false));
+            preencherAlertas(lista, ALERTAS.carregar(conn, "listarInscritosAlertas", filtro, tipoAlerta));
+        } catch (SQLException e) {
+            logger.errorf(e, "❌ Erro ao listar usuários inscritos em %s", tipoAlerta);
+            throw new RuntimeException("Erro de banco de dados ao listar usuários inscritos.", e);
+        }
+        return lista;
+    }
+
+    /**
+     * Percorre as preferências (localização e alertas inscritos) de todos os usuários, linha a linha,
+     * sem montar a lista inteira em memória. Usado para carregar o índice de assinaturas.
+     *
+     * @param consumidor Recebe um Usuario parcial (apenas ID, localização e alertas inscritos) por linha.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void percorrerPreferencias(Consumer<Usuario> consumidor) {
+        // As duas leituras vêm ordenadas por ID_USUARIO (pelas chaves primárias) e são casadas linha a linha
+        String sql = "SELECT ID_USUARIO, LOCATION_PREFERENCE FROM " + TABLE_NAME + " ORDER BY ID_USUARIO";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             TabelaFilha.Cursor alertas = ALERTAS.percorrer(conn, 1000)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Usuario usuario = new Usuario();
+                    usuario.setUserId(rs.getInt("ID_USUARIO"));
+                    usuario.setLocationPreference(rs.getString("LOCATION_PREFERENCE"));
+                    usuario.setSubscribedAlerts(alertas.valoresDe(usuario.getUserId()));
+                    consumidor.accept(usuario);
+                }
             }
-            stmt.setString(5, usuario.getRole());
-            stmt.setInt(6, usuario.getUserId());
+        } catch (SQLException e) {
+            logger.error("❌ Erro ao percorrer preferências dos usuários", e);
+            throw new RuntimeException("Erro de banco de dados ao carregar preferências dos usuários.", e);
+        }
+    }
 
-            int res = stmt.executeUpdate();
-            if (res > 0) {
-                logger.info("✅ Usuário atualizado com sucesso! ID: " + usuario.getUserId());
-            } else {
-                logger.warn("⚠️ Usuário com ID " + usuario.getUserId() + " não encontrado para atualização.");
-                // Considerar lançar NotFoundException se res == 0
+    /**
+     * Atualiza os dados de um usuário no banco de dados.
+     *
+     * @param usuario O objeto Usuario com os dados atualizados.
+     * @throws RuntimeException Se ocorrer um erro de banco de dados.
+     */
+    public void atualizar(Usuario usuario) {
+        String sql = "UPDATE " + TABLE_NAME + " SET NOME_COMPLETO = ?, EMAIL = ?, LOCATION_PREFERENCE = ?, ROLE = ? WHERE ID_USUARIO = ?";
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false); // Usuário e alertas inscritos na mesma transação
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, usuario.getNomeCompleto());
+                stmt.setString(2, usuario.getEmail().toLowerCase());
+                stmt.setString(3, usuario.getLocationPreference());
+                stmt.setString(4, usuario.getRole());
+                stmt.setInt(5, usuario.getUserId());
+
+                int res = MetricasRepositorio.executar("usuario", "atualizar", stmt);
+                if (res > 0) {
+                    ALERTAS.gravar(conn, "atualizarAlertas", usuario.getUserId(), usuario.getSubscribedAlerts());
+                    logger.infof("✅ Usuário atualizado com sucesso! ID: %s", usuario.getUserId());
+                } else {
+                    logger.warnf("⚠️ Usuário com ID %s não encontrado para atualização.", usuario.getUserId());
+                    // Considerar lançar NotFoundException se res == 0
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar usuário ID: " + usuario.getUserId(), e);
+            logger.errorf(e, "❌ Erro ao atualizar usuário ID: %s", usuario.getUserId());
             throw new RuntimeException("Erro de banco de dados ao atualizar usuário.", e);
         }
     }
@@ -235,10 +241,10 @@ public class UsuarioRepository {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, novoPasswordHash);
             stmt.setInt(2, userId);
-            stmt.executeUpdate();
-            logger.info("✅ Hash de senha atualizado para o usuário ID: " + userId);
+            MetricasRepositorio.executar("usuario", "atualizarPasswordHash", stmt);
+            logger.infof("✅ Hash de senha atualizado para o usuário ID: %s", userId);
         } catch (SQLException e) {
-            logger.error("❌ Erro ao atualizar hash de senha do usuário ID: " + userId, e);
+            logger.errorf(e, "❌ Erro ao atualizar hash de senha do usuário ID: %s", userId);
             throw new RuntimeException("Erro de banco de dados ao atualizar senha.", e);
         }
     }
@@ -254,16 +260,48 @@ public class UsuarioRepository {
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            int res = stmt.executeUpdate();
+            int res = MetricasRepositorio.executar("usuario", "deletar", stmt);
             if (res > 0) {
-                logger.info("✅ Usuário deletado com sucesso! ID: " + userId);
+                logger.infof("✅ Usuário deletado com sucesso! ID: %s", userId);
             } else {
-                logger.warn("⚠️ Usuário com ID " + userId + " não encontrado para exclusão.");
+                logger.warnf("⚠️ Usuário com ID %s não encontrado para exclusão.", userId);
                 // Considerar lançar NotFoundException se res == 0
             }
         } catch (SQLException e) {
-            logger.error("❌ Erro ao deletar usuário ID: " + userId, e);
+            logger.errorf(e, "❌ Erro ao deletar usuário ID: %s", userId);
             throw new RuntimeException("Erro de banco de dados ao deletar usuário.", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Converte a linha atual do ResultSet em um Usuario.
+     *
+     * @param incluirSenha true se a consulta trouxe a coluna PASSWORD_HASH.
+     */
+    static Usuario mapear(ResultSet rs, boolean incluirSenha) throws SQLException {
+        Usuario usuario = new Usuario();
+        usuario.setUserId(rs.getInt("ID_USUARIO"));
+        usuario.setNomeCompleto(rs.getString("NOME_COMPLETO"));
+        usuario.setEmail(rs.getString("EMAIL"));
+        if (incluirSenha) {
+            usuario.setPasswordHash(rs.getString("PASSWORD_HASH"));
+        }
+        usuario.setLocationPreference(rs.getString("LOCATION_PREFERENCE"));
+        usuario.setSubscribedAlerts(new String[0]); // Preenchido pelo chamador a partir de ER_USUARIO_ALERTAS
+        usuario.setRole(rs.getString("ROLE"));
+        Timestamp ts = rs.getTimestamp("CREATED_AT");
+        if (ts != null) {
+            usuario.setCreatedAt(ts.toLocalDateTime());
+        }
+        return usuario;
+    }
+
+    private static void preencherAlertas(List<Usuario> usuarios, Map<Integer, String[]> alertas) {
+        for (Usuario usuario : usuarios) {
+            String[] inscritos = alertas.get(usuario.getUserId());
+            if (inscritos != null) {
+                usuario.setSubscribedAlerts(inscritos);
+            }
+        }
+    }
+}
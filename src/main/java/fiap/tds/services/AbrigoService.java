@@ -1,21 +1,46 @@
 package fiap.tds.services;
 
+import fiap.tds.dtos.AbrigoProximoDTO;
+import fiap.tds.dtos.OcupacaoAbrigoDTO;
 import fiap.tds.entities.Abrigo;
 import fiap.tds.repositories.AbrigoRepository;
+import fiap.tds.repositories.LeituraReativaRepository;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 
+import io.smallrye.mutiny.Uni;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+@ApplicationScoped
 public class AbrigoService {
 
     private final AbrigoRepository repository = new AbrigoRepository(); // Instancia o repositório
 
+    @Inject
+    LeituraReativaRepository leituraReativa;
+
+    @Inject
+    IndiceAbrigosService indiceAbrigos;
+
+    @Inject
+    GeocodificacaoService geocodificacao;
+
+    @Inject
+    OcupacaoAbrigosService ocupacaoAbrigos;
+
     /**
      * Registra um novo abrigo.
      * @param abrigo O objeto Abrigo a ser registrado.
      * O ID será preenchido pelo método registrar do repositório.
      */
+    @WithSpan
     public void registrar(Abrigo abrigo) {
         // Validações básicas
         if (abrigo == null) {
@@ -33,8 +58,11 @@ public class AbrigoService {
         if (abrigo.getCityState() == null || abrigo.getCityState().trim().isEmpty()) {
             throw new BadRequestException("Cidade/Estado do abrigo é obrigatório.");
         }
-        if (abrigo.getCapacityStatus() == null || abrigo.getCapacityStatus().trim().isEmpty()) {
-            throw new BadRequestException("Status da capacidade do abrigo é obrigatório.");
+        if (abrigo.getCapacity() == null && (abrigo.getCapacityStatus() == null || abrigo.getCapacityStatus().trim().isEmpty())) {
+            throw new BadRequestException("Status da capacidade do abrigo é obrigatório quando a capacidade não é informada.");
+        }
+        if (abrigo.getOccupancy() < 0) {
+            throw new BadRequestException("A lotação do abrigo não pode ser negativa.");
         }
         if (abrigo.getServicesOffered() == null || abrigo.getServicesOffered().length == 0) {
             throw new BadRequestException("Ao menos um serviço oferecido deve ser informado.");
@@ -45,24 +73,146 @@ public class AbrigoService {
         if (abrigo.getOperatingHours() == null || abrigo.getOperatingHours().trim().isEmpty()) {
             throw new BadRequestException("Horário de funcionamento do abrigo é obrigatório.");
         }
+        prepararCoordenadas(abrigo);
+        prepararCapacidade(abrigo);
+        abrigo.setUpdatedAt(LocalDateTime.now());
 
         repository.registrar(abrigo);
+        indiceAbrigos.adicionar(abrigo);
     }
 
     /**
      * Retorna todos os abrigos cadastrados.
      * @return Lista de Abrigos.
      */
+    @WithSpan
     public List<Abrigo> listarTodos() {
         return repository.buscarTodos();
     }
 
+    /**
+     * Versão não bloqueante de listarTodos, para endpoints servidos na thread de I/O.
+     * @return Uni com a lista de Abrigos.
+     */
+    @WithSpan
+    public Uni<List<Abrigo>> listarTodosReativo() {
+        return leituraReativa.buscarAbrigos();
+    }
+
+    /**
+     * Abrigos que oferecem um serviço (ex.: "atendimento médico"), filtrados no banco; versão não bloqueante.
+     * @param servico O serviço, exatamente como cadastrado nos abrigos.
+     * @return Uni com a lista de Abrigos.
+     */
+    @WithSpan
+    public Uni<List<Abrigo>> listarPorServicoReativo(String servico) {
+        return leituraReativa.buscarAbrigosPorServico(servico.trim());
+    }
+
+    /**
+     * Busca abrigos por bairro, cidade/estado, situação de capacidade, serviços e público alvo,
+     * no índice em memória (sem consultar o banco). Filtros vazios são ignorados e a comparação
+     * não diferencia maiúsculas nem acentos.
+     * @param servicesOffered Serviços que o abrigo deve oferecer (todos eles).
+     * @param limite Quantidade máxima de abrigos devolvidos (1 a 1000).
+     * @return Lista de Abrigos, em ordem de ID.
+     */
+    @WithSpan
+    public List<Abrigo> buscar(String neighborhood, String cityState, String capacityStatus,
+                               List<String> servicesOffered, String targetAudience, int limite) {
+        if (limite <= 0 || limite > 1000) {
+            throw new BadRequestException("O limite da busca deve estar entre 1 e 1000.");
+        }
+        return indiceAbrigos.buscar(neighborhood, cityState, capacityStatus, servicesOffered, targetAudience, limite);
+    }
+
+    /**
+     * Os abrigos mais próximos de um ponto, pela árvore k-d do índice em memória (sem consultar o banco).
+     * Abrigos ainda sem coordenadas não entram na busca.
+     * @param k Quantidade de abrigos devolvidos (1 a 50).
+     * @param comVaga true para ignorar os abrigos lotados.
+     * @return Abrigos com a distância em km, do mais perto para o mais longe.
+     */
+    @WithSpan
+    public List<AbrigoProximoDTO> buscarProximos(Double latitude, Double longitude, int k, boolean comVaga) {
+        if (latitude == null || longitude == null) {
+            throw new BadRequestException("Latitude e longitude são obrigatórias.");
+        }
+        validarCoordenadas(latitude, longitude);
+        if (k <= 0 || k > 50) {
+            throw new BadRequestException("A quantidade de abrigos (k) deve estar entre 1 e 50.");
+        }
+        return indiceAbrigos.buscarProximos(latitude, longitude, k, comVaga);
+    }
+
+    /**
+     * Geocodifica, pelas bases offline, os abrigos gravados sem coordenadas (ex.: cadastrados antes da busca por proximidade).
+     * @return Quantos abrigos foram geocodificados e quantos não casaram com nenhuma base.
+     */
+    @WithSpan
+    public Map<String, Integer> geocodificarPendentes() {
+        int geocodificados = 0;
+        int semCorrespondencia = 0;
+        for (Abrigo abrigo : repository.buscarSemCoordenadas()) {
+            var coordenadas = geocodificacao.localizar(abrigo);
+            if (coordenadas.isEmpty()) {
+                semCorrespondencia++;
+                continue;
+            }
+            double[] ponto = coordenadas.get();
+            if (repository.atualizarCoordenadas(abrigo.getId(), ponto[0], ponto[1])) {
+                abrigo.setLatitude(ponto[0]);
+                abrigo.setLongitude(ponto[1]);
+                indiceAbrigos.atualizar(abrigo);
+                geocodificados++;
+            }
+        }
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        resultado.put("geocodificados", geocodificados);
+        resultado.put("semCorrespondencia", semCorrespondencia);
+        return resultado;
+    }
+
+    /**
+     * Registra a entrada de pessoas no abrigo. A lotação é atualizada na hora e gravada no banco em lote, logo depois.
+     * @param quantidade Pessoas que entraram (1 a 1000).
+     * @return A lotação atual do abrigo.
+     */
+    @WithSpan
+    public OcupacaoAbrigoDTO registrarEntradas(int id, int quantidade) {
+        validarMovimentacao(id, quantidade);
+        return ocupacaoAbrigos.somar(id, quantidade);
+    }
+
+    /**
+     * Registra a saída de pessoas do abrigo; a lotação não fica abaixo de zero.
+     * @param quantidade Pessoas que saíram (1 a 1000).
+     * @return A lotação atual do abrigo.
+     */
+    @WithSpan
+    public OcupacaoAbrigoDTO registrarSaidas(int id, int quantidade) {
+        validarMovimentacao(id, quantidade);
+        return ocupacaoAbrigos.somar(id, -quantidade);
+    }
+
+    /**
+     * Lotação atual do abrigo, incluindo entradas e saídas ainda não gravadas no banco.
+     */
+    @WithSpan
+    public OcupacaoAbrigoDTO consultarOcupacao(int id) {
+        if (id <= 0) {
+            throw new BadRequestException("ID do abrigo deve ser um número positivo.");
+        }
+        return ocupacaoAbrigos.consultar(id);
+    }
+
     /**
      * Busca um abrigo pelo seu ID.
      * @param id O ID do abrigo a ser buscado.
      * @return O objeto Abrigo encontrado.
      * @throws NotFoundException se nenhum abrigo com o ID fornecido for encontrado.
      */
+    @WithSpan
     public Abrigo buscarPorId(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do abrigo deve ser um número positivo.");
@@ -81,6 +231,7 @@ public class AbrigoService {
      * @throws NotFoundException se nenhum abrigo com o ID fornecido for encontrada.
      * @throws BadRequestException se os dados fornecidos para atualização forem inválidos.
      */
+    @WithSpan
     public void atualizar(int id, Abrigo abrigo) {
         if (id <= 0) {
             throw new BadRequestException("ID do abrigo para atualização deve ser um número positivo.");
@@ -103,9 +254,15 @@ public class AbrigoService {
 
         // Garante que o ID do objeto a ser atualizado é o mesmo do parâmetro
         abrigo.setId(id);
-        // abrigo.setUpdatedAt(LocalDateTime.now());
+        prepararCoordenadas(abrigo);
+        // A lotação só muda por entradas/saídas; o valor do corpo da requisição é ignorado
+        abrigo.setOccupancy(ocupacaoAbrigos.ocupacaoAtual(id, existente.getOccupancy()));
+        prepararCapacidade(abrigo);
+        abrigo.setUpdatedAt(LocalDateTime.now());
 
         repository.atualizar(abrigo);
+        ocupacaoAbrigos.redefinir(abrigo);
+        indiceAbrigos.atualizar(abrigo);
     }
 
     /**
@@ -113,6 +270,7 @@ public class AbrigoService {
      * @param id O ID do abrigo a ser deletado.
      * @throws NotFoundException se nenhum abrigo com o ID fornecido for encontrado.
      */
+    @WithSpan
     public void deletar(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do abrigo para exclusão deve ser um número positivo.");
@@ -124,5 +282,48 @@ public class AbrigoService {
         }
 
         repository.deletar(id);
+        ocupacaoAbrigos.remover(id);
+        indiceAbrigos.remover(id);
+    }
+
+    // Coordenadas informadas são validadas; sem elas, tenta a geocodificação offline pelo CEP ou bairro
+    private void prepararCoordenadas(Abrigo abrigo) {
+        if (abrigo.getLatitude() != null || abrigo.getLongitude() != null) {
+            if (abrigo.getLatitude() == null || abrigo.getLongitude() == null) {
+                throw new BadRequestException("Latitude e longitude devem ser informadas juntas.");
+            }
+            validarCoordenadas(abrigo.getLatitude(), abrigo.getLongitude());
+            return;
+        }
+        geocodificacao.localizar(abrigo).ifPresent(ponto -> {
+            abrigo.setLatitude(ponto[0]);
+            abrigo.setLongitude(ponto[1]);
+        });
+    }
+
+    // Com a capacidade informada, a situação deixa de ser texto livre e passa a seguir a lotação
+    private static void prepararCapacidade(Abrigo abrigo) {
+        if (abrigo.getCapacity() == null) {
+            return;
+        }
+        if (abrigo.getCapacity() < 0) {
+            throw new BadRequestException("A capacidade do abrigo não pode ser negativa.");
+        }
+        abrigo.setCapacityStatus(Abrigo.situacao(abrigo.getOccupancy(), abrigo.getCapacity()));
+    }
+
+    private static void validarMovimentacao(int id, int quantidade) {
+        if (id <= 0) {
+            throw new BadRequestException("ID do abrigo deve ser um número positivo.");
+        }
+        if (quantidade <= 0 || quantidade > 1000) {
+            throw new BadRequestException("A quantidade de pessoas deve estar entre 1 e 1000.");
+        }
+    }
+
+    private static void validarCoordenadas(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) { // Também recusa NaN
+            throw new BadRequestException("Coordenadas inválidas: latitude deve estar entre -90 e 90 e longitude entre -180 e 180.");
+        }
     }
 }
\ No newline at end of file
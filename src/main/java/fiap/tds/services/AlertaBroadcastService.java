@@ -0,0 +1,32 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.AlertaEventoDTO;
+import fiap.tds.entities.Alerta;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Canal de push dos alertas para os clientes conectados via SSE.
+ */
+@ApplicationScoped
+public class AlertaBroadcastService extends CanalSse<AlertaEventoDTO> {
+
+    @ConfigProperty(name = "alertas.stream.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    public AlertaBroadcastService() {
+        super("alertas");
+    }
+
+    @Override
+    protected int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Publica um evento de alerta para todos os clientes conectados.
+     */
+    public void publicar(String tipo, Alerta alerta) {
+        publicar(new AlertaEventoDTO(tipo, alerta));
+    }
+}
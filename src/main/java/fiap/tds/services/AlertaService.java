@@ -1,22 +1,58 @@
 package fiap.tds.services;
 
+import fiap.tds.dtos.AlertaEventoDTO;
 import fiap.tds.entities.Alerta;
 import fiap.tds.repositories.AlertaRepository;
+import fiap.tds.repositories.LeituraReativaRepository;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 
+import io.smallrye.mutiny.Uni;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
+@ApplicationScoped
 public class AlertaService {
 
+    private static final Logger logger = Logger.getLogger(AlertaService.class);
+
+    // Cadastro e edição aceitam os mesmos valores: um rascunho gerado com "médio" precisa poder ser revisado.
+    // "medio" sem acento continua valendo para os clientes que já o enviavam na edição.
+    private static final Set<String> SEVERIDADES = Set.of("alto", "médio", "medio", "baixo", "informativo");
+
+    @Inject
+    AlertaBroadcastService broadcastService;
+
+    @Inject
+    DistribuicaoAlertaService distribuicaoService;
+
+    @Inject
+    AlertasAtivosService alertasAtivos;
+
+    @ConfigProperty(name = "alertas.validade-horas", defaultValue = "72")
+    int validadeHoras;
+
     private final AlertaRepository repository = new AlertaRepository();
 
+    @Inject
+    LeituraReativaRepository leituraReativa;
+
     /**
      * Registra um novo alerta.
      * @param alerta O objeto Alerta a ser registrado. O ID deve ser 0 se for autoincrementado.
-     * O ID será preenchido pelo método registrar do repositório.
+     * O ID será preenchido pelo método registrar do repositório. Sem status, o alerta é publicado;
+     * um rascunho é só gravado, sem ir ao SSE, até ser publicado. Sem expiresAt, vale alertas.validade-horas.
+     * @throws RuntimeException se o banco recusar a gravação (o índice de ativos e o SSE não são tocados).
      */
+    @WithSpan
     public void registrar(Alerta alerta) {
         if (alerta == null) {
             throw new BadRequestException("Dados do alerta não podem ser nulos.");
@@ -31,36 +67,127 @@ public class AlertaService {
             throw new BadRequestException("Nível de severidade do alerta é obrigatório.");
         }
         // Validação para os valores permitidos de severidade (exemplo)
-        String severity = alerta.getSeverity().toLowerCase();
-        if (!severity.equals("alto") && !severity.equals("médio") && !severity.equals("baixo") && !severity.equals("informativo")) {
+        if (!SEVERIDADES.contains(alerta.getSeverity().toLowerCase())) {
             throw new BadRequestException("Nível de severidade inválido. Use 'alto', 'médio', 'baixo' ou 'informativo'.");
         }
         if (alerta.getSource() == null || alerta.getSource().trim().isEmpty()) {
             throw new BadRequestException("Fonte do alerta é obrigatória.");
         }
+        if (alerta.getStatus() == null) {
+            alerta.setStatus(AlertaRepository.PUBLICADO);
+        }
+        if (!alerta.getStatus().equals(AlertaRepository.PUBLICADO) && !alerta.getStatus().equals(AlertaRepository.RASCUNHO)) {
+            throw new BadRequestException("Status do alerta inválido. Use 'publicado' ou 'rascunho'.");
+        }
 
         // Define a data de publicação para agora se não for fornecida
         if (alerta.getPublishedAt() == null) {
             alerta.setPublishedAt(LocalDateTime.now());
         }
+        if (alerta.getExpiresAt() == null) {
+            alerta.setExpiresAt(alerta.getPublishedAt().plusHours(validadeHoras));
+        }
+        validarExpiracao(alerta);
+        alerta.setUpdatedAt(LocalDateTime.now());
 
         repository.registrar(alerta);
+        if (alerta.getId() > 0) { // O repositório só preenche o ID se o INSERT deu certo
+            alertasAtivos.atualizar(alerta);
+            if (AlertaRepository.PUBLICADO.equals(alerta.getStatus())) {
+                divulgar(alerta);
+            }
+        }
+    }
+
+    /**
+     * Publica um rascunho: a data de publicação passa a ser agora e o alerta vai ao SSE e às listagens.
+     * @return O alerta publicado.
+     * @throws NotFoundException se nenhum alerta com o ID fornecido for encontrado.
+     * @throws BadRequestException se o alerta já estiver publicado.
+     */
+    @WithSpan
+    public Alerta publicar(int id) {
+        Alerta alerta = buscarPorId(id);
+        if (!AlertaRepository.RASCUNHO.equals(alerta.getStatus())) {
+            throw new BadRequestException("Alerta com ID " + id + " já está publicado.");
+        }
+        alerta.setStatus(AlertaRepository.PUBLICADO);
+        alerta.setPublishedAt(LocalDateTime.now());
+        alerta.setUpdatedAt(alerta.getPublishedAt());
+        if (alerta.getExpiresAt() == null || !alerta.getExpiresAt().isAfter(alerta.getPublishedAt())) {
+            alerta.setExpiresAt(alerta.getPublishedAt().plusHours(validadeHoras)); // Rascunho revisado depois de vencer
+        }
+        alerta.setActive(true);
+        // Só depois da gravação confirmada o rascunho vai aos ativos e ao SSE
+        if (!repository.atualizar(alerta)) {
+            throw new NotFoundException("Alerta com ID " + id + " não encontrado para publicação.");
+        }
+        alertasAtivos.atualizar(alerta);
+        divulgar(alerta);
+        return alerta;
+    }
+
+    /**
+     * Rascunhos aguardando revisão (ex.: os gerados pela detecção de picos de reportes).
+     */
+    @WithSpan
+    public List<Alerta> listarRascunhos() {
+        return repository.buscarRascunhos();
+    }
+
+    /**
+     * Alertas publicados e ainda válidos, do mais recente para o mais antigo, direto da memória.
+     * @param limite Quantidade máxima de alertas.
+     */
+    @WithSpan
+    public List<Alerta> listarAtivos(int limite) {
+        if (limite <= 0) {
+            throw new BadRequestException("O limite de alertas deve ser um número positivo.");
+        }
+        return alertasAtivos.listar(limite);
+    }
+
+    // Expiração depois da publicação; active segue a expiração (vencido nunca é gravado como ativo)
+    private static void validarExpiracao(Alerta alerta) {
+        if (alerta.getExpiresAt() != null && alerta.getPublishedAt() != null && !alerta.getExpiresAt().isAfter(alerta.getPublishedAt())) {
+            throw new BadRequestException("A expiração do alerta deve ser posterior à publicação.");
+        }
+        alerta.setActive(alerta.getExpiresAt() == null || alerta.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    private void divulgar(Alerta alerta) {
+        broadcastService.publicar(AlertaEventoDTO.CRIADO, alerta);
+        // Resolver os destinatários monta o bitmap inteiro; só vale a pena para o log de depuração
+        if (logger.isDebugEnabled()) {
+            logger.debugf("Alerta ID %s destinado a %s usuário(s) inscrito(s).", alerta.getId(), distribuicaoService.resolverDestinatarios(alerta).getCardinality());
+        }
     }
 
     /**
      * Retorna todos os alertas cadastrados.
      * @return Lista de Alertas.
      */
+    @WithSpan
     public List<Alerta> listarTodos() {
         return repository.buscarTodos();
     }
 
+    /**
+     * Versão não bloqueante de listarTodos, para endpoints servidos na thread de I/O.
+     * @return Uni com a lista de Alertas.
+     */
+    @WithSpan
+    public Uni<List<Alerta>> listarTodosReativo() {
+        return leituraReativa.buscarAlertas();
+    }
+
     /**
      * Busca um alerta pelo seu ID.
      * @param id O ID do alerta a ser buscado.
      * @return O objeto Alerta encontrado.
      * @throws NotFoundException se nenhum alerta com o ID fornecido for encontrado.
      */
+    @WithSpan
     public Alerta buscarPorId(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do alerta deve ser um número positivo.");
@@ -72,6 +199,17 @@ public class AlertaService {
         return alerta;
     }
 
+    /**
+     * Resolve os usuários que devem receber um alerta, conforme tipos inscritos e localização preferida.
+     * @param id O ID do alerta.
+     * @return Bitmap com os IDs dos usuários destinatários.
+     * @throws NotFoundException se nenhum alerta com o ID fornecido for encontrado.
+     */
+    @WithSpan
+    public RoaringBitmap buscarDestinatarios(int id) {
+        return distribuicaoService.resolverDestinatarios(buscarPorId(id));
+    }
+
     /**
      * Atualiza um alerta existente.
      * @param id O ID do alerta a ser atualizado.
@@ -79,6 +217,7 @@ public class AlertaService {
      * @throws NotFoundException se nenhum alerta com o ID fornecido for encontrado.
      * @throws BadRequestException se os dados fornecidos para atualização forem inválidos.
      */
+    @WithSpan
     public void atualizar(int id, Alerta alerta) {
         if (id <= 0) {
             throw new BadRequestException("ID do alerta para atualização deve ser um número positivo.");
@@ -96,9 +235,8 @@ public class AlertaService {
         if (alerta.getSeverity() == null || alerta.getSeverity().trim().isEmpty()) {
             throw new BadRequestException("Nível de severidade é obrigatório para atualização.");
         }
-        String severity = alerta.getSeverity().toLowerCase();
-        if (!severity.equals("alto") && !severity.equals("medio") && !severity.equals("baixo") && !severity.equals("informativo")) {
-            throw new BadRequestException("Nível de severidade inválido para atualização. Use 'alto', 'medio', 'baixo' ou 'informativo'.");
+        if (!SEVERIDADES.contains(alerta.getSeverity().toLowerCase())) {
+            throw new BadRequestException("Nível de severidade inválido para atualização. Use 'alto', 'médio', 'baixo' ou 'informativo'.");
         }
         if (alerta.getSource() == null || alerta.getSource().trim().isEmpty()) {
             throw new BadRequestException("Fonte do alerta é obrigatória para atualização.");
@@ -110,12 +248,23 @@ public class AlertaService {
         }
 
         alerta.setId(id); // Garante que o ID correto está sendo usado para nossa atualização.
+        alerta.setStatus(existente.getStatus()); // Rascunho só vira publicado por publicar()
         if (alerta.getPublishedAt() == null) {
             alerta.setPublishedAt(existente.getPublishedAt()); // Mantém o original se não fornecido
         }
+        if (alerta.getExpiresAt() == null) {
+            alerta.setExpiresAt(existente.getExpiresAt());
+        }
+        validarExpiracao(alerta); // Prorrogar a expiração de um alerta vencido o reativa
+        alerta.setUpdatedAt(LocalDateTime.now());
 
-
-        repository.atualizar(alerta);
+        if (!repository.atualizar(alerta)) {
+            throw new NotFoundException("Alerta com ID " + id + " não encontrado para atualização.");
+        }
+        alertasAtivos.atualizar(alerta);
+        if (AlertaRepository.PUBLICADO.equals(alerta.getStatus())) {
+            broadcastService.publicar(AlertaEventoDTO.ATUALIZADO, alerta);
+        }
     }
 
     /**
@@ -123,6 +272,7 @@ public class AlertaService {
      * @param id O ID do alerta a ser deletado.
      * @throws NotFoundException se nenhum alerta com o ID fornecido for encontrado.
      */
+    @WithSpan
     public void deletar(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do alerta para exclusão deve ser um número positivo.");
@@ -134,5 +284,13 @@ public class AlertaService {
         }
 
         repository.deletar(id);
+        alertasAtivos.remover(id);
+        if (!AlertaRepository.PUBLICADO.equals(existente.getStatus())) {
+            return; // Rascunho nunca foi ao SSE
+        }
+
+        Alerta removido = new Alerta();
+        removido.setId(id);
+        broadcastService.publicar(AlertaEventoDTO.REMOVIDO, removido);
     }
 }
\ No newline at end of file
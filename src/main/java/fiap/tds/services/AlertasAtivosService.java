@@ -0,0 +1,167 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.AlertaEventoDTO;
+import fiap.tds.entities.Alerta;
+import fiap.tds.repositories.AlertaRepository;
+import fiap.tds.repositories.ExclusaoRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alertas publicados e ainda válidos, em memória, do mais recente para o mais antigo (skip list por publicação),
+ * para GET /alertas/ativos e a tela inicial: a leitura percorre só os ativos, por maior que seja o histórico.
+ * A cada alertas.expiracao.intervalo-segundos uma rodada retira no banco os alertas vencidos (active = 0, com
+ * registro em ER_EXCLUSOES para a sincronização), os tira daqui e avisa o SSE, e em seguida aplica as gravações
+ * feitas por outras instâncias desde a rodada anterior. Entre rodadas, um alerta vencido já some da leitura.
+ * Atualizado pelo AlertaService a cada gravação; cada instância da API mantém o seu.
+ */
+@ApplicationScoped
+public class AlertasAtivosService {
+
+    private static final Logger logger = Logger.getLogger(AlertasAtivosService.class);
+
+    // Mais recente primeiro; o ID desempata publicações no mesmo instante
+    private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::publicadoEm, Comparator.reverseOrder())
+            .thenComparing(Chave::id, Comparator.reverseOrder());
+
+    @ConfigProperty(name = "alertas.expiracao.intervalo-segundos", defaultValue = "60")
+    long intervaloSegundos;
+
+    @ConfigProperty(name = "sync.margem-ms", defaultValue = "5000")
+    long margemMs;
+
+    @Inject
+    AlertaBroadcastService broadcastService;
+
+    private record Chave(LocalDateTime publicadoEm, int id) {
+    }
+
+    private final AlertaRepository repository = new AlertaRepository();
+    private final ExclusaoRepository exclusaoRepository = new ExclusaoRepository();
+    private final ConcurrentSkipListMap<Chave, Alerta> ativos = new ConcurrentSkipListMap<>(ORDEM);
+    private final Map<Integer, Chave> chaves = new ConcurrentHashMap<>(); // ID -> posição na skip list
+    private volatile LocalDateTime sincronizadoAte;
+    private ScheduledExecutorService expiracao;
+
+    void carregar(@Observes StartupEvent event) {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime agora = LocalDateTime.now(); // Antes da consulta: o que for gravado durante ela volta na primeira rodada
+        try {
+            repository.buscarAtivos().forEach(this::atualizar);
+            sincronizadoAte = agora;
+            logger.infof("Alertas ativos carregados em %s ms (%s alertas).", System.currentTimeMillis() - inicio, ativos.size());
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar os alertas ativos; só os gravados a partir de agora vão aparecer até a próxima subida.", e);
+            sincronizadoAte = agora;
+        }
+        expiracao = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("expiracao-alertas").daemon().factory());
+        expiracao.scheduleWithFixedDelay(this::rodar, 0, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (expiracao != null) {
+            expiracao.shutdownNow();
+        }
+    }
+
+    /**
+     * Alertas ativos, do mais recente para o mais antigo; os que venceram desde a última rodada ficam de fora.
+     * @param limite Quantidade máxima de alertas.
+     */
+    public List<Alerta> listar(int limite) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Alerta> lista = new ArrayList<>(Math.min(limite, ativos.size()));
+        for (Alerta alerta : ativos.values()) {
+            if (lista.size() >= limite) {
+                break;
+            }
+            if (alerta.getExpiresAt() == null || alerta.getExpiresAt().isAfter(agora)) {
+                lista.add(alerta);
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Põe, move ou tira o alerta do índice conforme o estado gravado: só entra publicado e ativo.
+     * Uma versão mais antiga que a do índice (ex.: lida por uma rodada antes da gravação local) é ignorada.
+     */
+    public void atualizar(Alerta alerta) {
+        boolean entra = AlertaRepository.PUBLICADO.equals(alerta.getStatus()) && alerta.isActive() && alerta.getPublishedAt() != null;
+        chaves.compute(alerta.getId(), (id, anterior) -> {
+            if (anterior != null) {
+                Alerta atual = ativos.get(anterior);
+                if (atual != null && maisNovo(atual, alerta)) {
+                    return anterior;
+                }
+                ativos.remove(anterior);
+            }
+            if (!entra) {
+                return null;
+            }
+            Chave chave = new Chave(alerta.getPublishedAt(), id);
+            ativos.put(chave, alerta);
+            return chave;
+        });
+    }
+
+    /**
+     * Tira o alerta do índice (exclusão ou expiração).
+     */
+    public void remover(int id) {
+        chaves.computeIfPresent(id, (k, chave) -> {
+            ativos.remove(chave);
+            return null;
+        });
+    }
+
+    public int tamanho() {
+        return ativos.size();
+    }
+
+    // Retira os vencidos no banco e aplica as gravações das outras instâncias; falhas ficam para a próxima rodada
+    private void rodar() {
+        LocalDateTime agora = LocalDateTime.now();
+        try {
+            List<Integer> retirados = repository.retirarExpirados(agora);
+            for (int id : retirados) {
+                remover(id);
+                Alerta removido = new Alerta();
+                removido.setId(id);
+                broadcastService.publicar(AlertaEventoDTO.REMOVIDO, removido);
+            }
+            if (!retirados.isEmpty()) {
+                logger.infof("%s alerta(s) expirado(s) retirado(s).", retirados.size());
+            }
+
+            // Exclusões antes das alterações: um alerta expirado e depois prorrogado tem as duas, e vale a alteração
+            LocalDateTime desde = sincronizadoAte.minusNanos(margemMs * 1_000_000);
+            exclusaoRepository.buscarIdsExcluidosDesde(ExclusaoRepository.ALERTAS, desde).forEach(this::remover);
+            repository.buscarAlteradosDesde(desde).forEach(this::atualizar);
+            sincronizadoAte = agora;
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Erro na rodada de expiração dos alertas: %s", e.getMessage());
+        }
+    }
+
+    private static boolean maisNovo(Alerta atual, Alerta recebido) {
+        return atual.getUpdatedAt() != null && recebido.getUpdatedAt() != null && atual.getUpdatedAt().isAfter(recebido.getUpdatedAt());
+    }
+}
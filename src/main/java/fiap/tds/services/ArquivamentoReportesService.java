@@ -0,0 +1,109 @@
+package fiap.tds.services;
+
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.repositories.ReporteRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém ER_REPORTES pequena: a cada reportes.arquivamento.intervalo-horas move para ER_REPORTES_ARQUIVO, em lotes
+ * de reportes.arquivamento.lote (uma transação por lote), os reportes encerrados criados há mais de
+ * reportes.arquivamento.idade-dias. Listagens, incidentes, busca e sincronização ficam só com a tabela quente;
+ * a busca por ID e as estatísticas também enxergam o arquivo. Um reporte arquivado pode ser lido e excluído, não editado.
+ * Com várias instâncias da API, duas rodadas simultâneas disputam as mesmas linhas: a segunda espera a primeira e
+ * não acha mais o que arquivar.
+ */
+@ApplicationScoped
+public class ArquivamentoReportesService {
+
+    private static final Logger logger = Logger.getLogger(ArquivamentoReportesService.class);
+
+    // Listagem de incidentes aceita até 720 horas: abaixo disso um incidente recente perderia reportes
+    private static final int IDADE_MINIMA_DIAS = 30;
+
+    @ConfigProperty(name = "reportes.arquivamento.idade-dias", defaultValue = "180")
+    int idadeDias;
+
+    @ConfigProperty(name = "reportes.arquivamento.status", defaultValue = "resolvido,falso_positivo")
+    List<String> status;
+
+    @ConfigProperty(name = "reportes.arquivamento.lote", defaultValue = "1000")
+    int lote;
+
+    @ConfigProperty(name = "reportes.arquivamento.intervalo-horas", defaultValue = "24")
+    long intervaloHoras;
+
+    @Inject
+    IndiceReportesService indiceReportes;
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private final ReentrantLock rodando = new ReentrantLock();
+    private ScheduledExecutorService arquivamento;
+
+    void iniciar(@Observes StartupEvent event) {
+        if (idadeDias < IDADE_MINIMA_DIAS) {
+            logger.warnf("reportes.arquivamento.idade-dias=%s abaixo de %s; usando %s.", idadeDias, IDADE_MINIMA_DIAS, IDADE_MINIMA_DIAS);
+            idadeDias = IDADE_MINIMA_DIAS;
+        }
+        // Alguns minutos depois da subida, para não disputar o banco com a carga dos índices
+        arquivamento = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("arquivamento-reportes").daemon().factory());
+        arquivamento.scheduleWithFixedDelay(this::rodar, TimeUnit.MINUTES.toSeconds(5), TimeUnit.HOURS.toSeconds(intervaloHoras), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (arquivamento != null) {
+            arquivamento.shutdownNow();
+        }
+    }
+
+    /**
+     * Arquiva, lote a lote, todos os reportes encerrados mais antigos que a idade configurada, e os tira do índice de busca.
+     * @return A quantidade de reportes arquivados.
+     * @throws BadRequestException se já houver um arquivamento em andamento nesta instância.
+     */
+    public int arquivar() {
+        if (!rodando.tryLock()) {
+            throw new BadRequestException("Já existe um arquivamento em andamento.");
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            LocalDateTime antesDe = LocalDateTime.now().minusDays(idadeDias);
+            int total = 0;
+            List<Integer> arquivados;
+            do {
+                arquivados = repository.arquivar(status, antesDe, lote);
+                arquivados.forEach(indiceReportes::remover);
+                total += arquivados.size();
+            } while (arquivados.size() == lote);
+            logger.infof("Arquivamento de reportes concluído em %s ms (%s reportes criados antes de %s).",
+                    System.currentTimeMillis() - inicio, total, antesDe);
+            return total;
+        } finally {
+            rodando.unlock();
+        }
+    }
+
+    // Falhas e rodadas já em andamento (pedidas pelo endpoint) ficam para a próxima
+    private void rodar() {
+        try {
+            arquivar();
+        } catch (BadRequestException e) {
+            logger.info(e.getMessage());
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Erro no arquivamento dos reportes: %s", e.getMessage());
+        }
+    }
+}
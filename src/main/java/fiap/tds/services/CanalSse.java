@@ -0,0 +1,72 @@
+package fiap.tds.services;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Canal de push de eventos para os clientes conectados via SSE, base dos fluxos de alertas e de lotação.
+ * Cada cliente recebe um buffer próprio e limitado; quem não consome a tempo
+ * estoura o buffer e é desconectado, sem atrasar os demais.
+ * @param <T> Tipo do evento publicado.
+ */
+public abstract class CanalSse<T> {
+
+    private static final Logger logger = Logger.getLogger(CanalSse.class);
+
+    private final String descricao;
+    private final BroadcastProcessor<T> processor = BroadcastProcessor.create();
+    private final ReentrantLock lock = new ReentrantLock(); // onNext precisa ser serializado
+    private final AtomicInteger clientesConectados = new AtomicInteger();
+
+    /**
+     * @param descricao Nome do fluxo nos logs, como em "fluxo de alertas".
+     */
+    protected CanalSse(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Tamanho do buffer de cada cliente, lido da configuração de cada canal.
+     */
+    protected abstract int bufferSize();
+
+    /**
+     * Abre a assinatura de um novo cliente no fluxo.
+     * @return Fluxo de eventos com buffer limitado para este cliente.
+     */
+    public Multi<T> assinar() {
+        int tamanho = bufferSize();
+        return processor
+                .onOverflow().buffer(tamanho)
+                .onSubscription().invoke(() -> clientesConectados.incrementAndGet())
+                .onTermination().invoke((falha, cancelado) -> {
+                    clientesConectados.decrementAndGet();
+                    if (falha instanceof BackPressureFailure) {
+                        logger.warnf("Cliente lento removido do fluxo de %s (buffer de %s eventos esgotado).", descricao, tamanho);
+                    }
+                })
+                .onFailure(BackPressureFailure.class).recoverWithCompletion();
+    }
+
+    /**
+     * Publica um evento para todos os clientes conectados.
+     * Nunca bloqueia esperando clientes: cada um tem seu próprio buffer.
+     */
+    public void publicar(T evento) {
+        lock.lock();
+        try {
+            processor.onNext(evento);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getClientesConectados() {
+        return clientesConectados.get();
+    }
+}
@@ -0,0 +1,299 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Alerta;
+import fiap.tds.entities.Reporte;
+import fiap.tds.repositories.AlertaRepository;
+import fiap.tds.repositories.ReporteRepository;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Detecção de picos de reportes: cada reporte registrado com coordenadas conta na sua região (célula de
+ * reportes.picos.regiao-graus de lado) e no seu tipo de evento. Cada região e tipo tem um anel fixo de baldes de
+ * reportes.picos.balde-minutos, contados com CAS (sem lock), e uma linha de base aprendida: média e variância móveis
+ * (exponenciais) dos reportes por balde, atualizadas quando um balde fecha. Se os reportes dos últimos
+ * reportes.picos.baldes-recentes baldes passam da média esperada mais reportes.picos.desvios desvios (e de
+ * reportes.picos.minimo-reportes), é gerado um rascunho de alerta para a Defesa Civil revisar; a mesma região e tipo
+ * só gera outro depois de reportes.picos.intervalo-alertas-minutos. A memória por região é constante (o anel e a base);
+ * regiões sem reportes há reportes.picos.aprendizado-horas são descartadas, e esse mesmo período do banco ensina as
+ * linhas de base na subida. Cada instância da API mantém as suas e só vê os reportes que ela registra.
+ */
+@ApplicationScoped
+public class DeteccaoPicosService {
+
+    private static final Logger logger = Logger.getLogger(DeteccaoPicosService.class);
+
+    private static final int BALDES = 16; // Tamanho do anel; comporta até 15 baldes recentes mais o que está fechando
+    private static final int BITS_CONTAGEM = 24;
+    private static final long MASCARA_CONTAGEM = (1L << BITS_CONTAGEM) - 1;
+    private static final int LIMITE_APRENDIZADO = 1000; // Baldes vazios seguidos além disso não mudam mais a base
+    private static final String FONTE = "Detecção automática de picos";
+
+    @ConfigProperty(name = "reportes.picos.regiao-graus", defaultValue = "0.02")
+    double regiaoGraus;
+
+    @ConfigProperty(name = "reportes.picos.balde-minutos", defaultValue = "5")
+    int baldeMinutos;
+
+    @ConfigProperty(name = "reportes.picos.baldes-recentes", defaultValue = "3")
+    int baldesRecentes;
+
+    @ConfigProperty(name = "reportes.picos.suavizacao", defaultValue = "0.02")
+    double suavizacao;
+
+    @ConfigProperty(name = "reportes.picos.desvios", defaultValue = "4")
+    double desvios;
+
+    @ConfigProperty(name = "reportes.picos.minimo-reportes", defaultValue = "10")
+    int minimoReportes;
+
+    @ConfigProperty(name = "reportes.picos.intervalo-alertas-minutos", defaultValue = "60")
+    int intervaloAlertasMinutos;
+
+    @ConfigProperty(name = "reportes.picos.aprendizado-horas", defaultValue = "24")
+    int aprendizadoHoras;
+
+    @Inject
+    AlertaService alertaService;
+
+    /**
+     * Um pico detectado: a região (centro da célula), o tipo e a comparação que disparou.
+     */
+    public record Pico(double latitude, double longitude, String tipo, int reportes, double esperado, double limite) {
+    }
+
+    private record Regiao(int linha, int coluna, String tipo) {
+    }
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private final Map<Regiao, Janela> janelas = new ConcurrentHashMap<>();
+    private ScheduledExecutorService limpeza;
+
+    void carregar(@Observes StartupEvent event) {
+        if (baldesRecentes < 1 || baldesRecentes >= BALDES) {
+            logger.warnf("reportes.picos.baldes-recentes=%s fora de 1 a %s; usando %s.", baldesRecentes, BALDES - 1, BALDES - 1);
+            baldesRecentes = Math.max(1, Math.min(BALDES - 1, baldesRecentes));
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            AtomicInteger lidos = new AtomicInteger();
+            repository.percorrerPontosDesde(LocalDateTime.now().minusHours(aprendizadoHoras), ponto -> {
+                long balde = balde(ponto.criado());
+                Janela janela = janela(ponto.latitude(), ponto.longitude(), ponto.eventType(), balde);
+                janela.aprender(balde, suavizacao);
+                janela.contar(balde);
+                lidos.incrementAndGet();
+            });
+            logger.infof("Linhas de base da detecção de picos aprendidas em %s ms (%s reportes, %s regiões).",
+                    System.currentTimeMillis() - inicio, lidos.get(), janelas.size());
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível aprender as linhas de base dos picos; todas as regiões começam do zero.", e);
+        }
+        limpeza = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("deteccao-picos").daemon().factory());
+        limpeza.scheduleWithFixedDelay(this::descartarInativas, baldeMinutos, baldeMinutos, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (limpeza != null) {
+            limpeza.shutdownNow();
+        }
+    }
+
+    /**
+     * Conta um reporte recém-registrado e, se ele completar um pico na sua região, gera o rascunho de alerta.
+     * Reportes sem coordenadas não são contados. Falhas ao gravar o rascunho só são registradas no log.
+     */
+    public void registrar(Reporte reporte) {
+        if (reporte.getLatitude() == null || reporte.getLongitude() == null || reporte.getCreatedAt() == null) {
+            return;
+        }
+        Pico pico = observar(reporte.getLatitude(), reporte.getLongitude(), reporte.getEventType(), balde(reporte.getCreatedAt()));
+        if (pico == null) {
+            return;
+        }
+        try {
+            alertaService.registrar(rascunho(pico, reporte));
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Não foi possível gerar o rascunho de alerta do pico de %s em %s, %s.", pico.tipo(), pico.latitude(), pico.longitude());
+        }
+    }
+
+    /**
+     * Conta um reporte no balde informado e compara os baldes recentes com a linha de base da região.
+     * @param balde Número do balde (epoch em segundos / duração do balde).
+     * @return O pico, se este reporte passou do limite e a região não gerou alerta no intervalo; senão null.
+     */
+    public Pico observar(double latitude, double longitude, String tipo, long balde) {
+        Janela janela = janela(latitude, longitude, tipo, balde);
+        janela.aprender(balde, suavizacao);
+        janela.contar(balde);
+
+        int reportes = janela.somar(balde, baldesRecentes);
+        Base base = janela.base.get();
+        double esperado = base.media() * baldesRecentes;
+        // Sem variância aprendida (ex.: chegadas muito regulares), usa a de uma distribuição de Poisson com a mesma média
+        double desvio = Math.sqrt(baldesRecentes * Math.max(base.variancia(), base.media()));
+        double limite = Math.max(minimoReportes, esperado + desvios * desvio);
+        if (reportes < limite || !janela.reservarAlerta(balde, intervaloAlertasMinutos / baldeMinutos)) {
+            return null;
+        }
+        Regiao regiao = regiao(latitude, longitude, tipo);
+        return new Pico((regiao.linha() + 0.5) * regiaoGraus, (regiao.coluna() + 0.5) * regiaoGraus, regiao.tipo(), reportes, esperado, limite);
+    }
+
+    /**
+     * Quantidade de regiões (com tipo) acompanhadas agora.
+     */
+    public int regioesMonitoradas() {
+        return janelas.size();
+    }
+
+    private Janela janela(double latitude, double longitude, String tipo, long balde) {
+        return janelas.computeIfAbsent(regiao(latitude, longitude, tipo), r -> new Janela(balde));
+    }
+
+    private Regiao regiao(double latitude, double longitude, String tipo) {
+        String chave = TextoUtil.normalizar(tipo);
+        return new Regiao((int) Math.floor(latitude / regiaoGraus), (int) Math.floor(longitude / regiaoGraus), chave != null ? chave : "indefinido");
+    }
+
+    private Alerta rascunho(Pico pico, Reporte reporte) {
+        Alerta alerta = new Alerta();
+        alerta.setTitle(limitar("Pico de reportes de " + reporte.getEventType() + " perto de " + reporte.getLocation(), 200));
+        alerta.setDescription(String.format(Locale.ROOT,
+                "%d reportes de %s nos últimos %d minutos na região de %.4f, %.4f (esperado: %.1f; limite: %.0f). "
+                        + "Rascunho gerado automaticamente: confira os reportes antes de publicar.",
+                pico.reportes(), reporte.getEventType(), baldesRecentes * baldeMinutos, pico.latitude(), pico.longitude(),
+                pico.esperado(), pico.limite()));
+        alerta.setSeverity(pico.reportes() >= 2 * pico.limite() ? "alto" : "médio");
+        alerta.setSource(FONTE);
+        alerta.setEventType(reporte.getEventType());
+        alerta.setLocation(limitar(reporte.getLocation(), 150));
+        alerta.setStatus(AlertaRepository.RASCUNHO);
+        return alerta;
+    }
+
+    private void descartarInativas() {
+        long limite = balde(LocalDateTime.now()) - aprendizadoHoras * 60L / baldeMinutos;
+        int antes = janelas.size();
+        janelas.values().removeIf(janela -> janela.aprendidoAte.get() < limite);
+        if (janelas.size() < antes) {
+            logger.debugf("Detecção de picos: %s regiões inativas descartadas.", antes - janelas.size());
+        }
+    }
+
+    // LocalDateTime não tem fuso; UTC aqui só serve para numerar os baldes
+    private long balde(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC) / (baldeMinutos * 60L);
+    }
+
+    private static String limitar(String texto, int tamanho) {
+        return texto.length() <= tamanho ? texto : texto.substring(0, tamanho);
+    }
+
+    /**
+     * Média e variância móveis dos reportes por balde fechado.
+     */
+    private record Base(double media, double variancia) {
+
+        Base somar(double reportes, double suavizacao) {
+            double diferenca = reportes - media;
+            double incremento = suavizacao * diferenca;
+            return new Base(media + incremento, (1 - suavizacao) * (variancia + diferenca * incremento));
+        }
+    }
+
+    /**
+     * Anel de baldes de uma região e tipo. Cada posição guarda o número do balde e a contagem num único long,
+     * então contar e virar o balde são um CAS só.
+     */
+    private static final class Janela {
+        final AtomicLongArray baldes = new AtomicLongArray(BALDES); // (número do balde << 24) | contagem
+        final AtomicLong aprendidoAte; // Último balde fechado já somado à base
+        final AtomicReference<Base> base = new AtomicReference<>(new Base(0, 0));
+        final AtomicLong ultimoAlerta = new AtomicLong(Long.MIN_VALUE / 2); // Balde do último pico alertado
+
+        Janela(long balde) {
+            aprendidoAte = new AtomicLong(balde - 1);
+        }
+
+        void contar(long balde) {
+            int posicao = (int) (balde & (BALDES - 1));
+            while (true) {
+                long atual = baldes.get(posicao);
+                long marcado = atual >>> BITS_CONTAGEM;
+                if (marcado > balde) {
+                    return; // Reporte atrasado: a posição já é de um balde mais novo
+                }
+                long novo = marcado == balde ? atual + 1 : balde << BITS_CONTAGEM | 1;
+                if ((novo & MASCARA_CONTAGEM) == 0 || baldes.compareAndSet(posicao, atual, novo)) {
+                    return; // Contagem cheia (16 milhões no balde) fica como está
+                }
+            }
+        }
+
+        int contagem(long balde) {
+            long valor = baldes.get((int) (balde & (BALDES - 1)));
+            return valor >>> BITS_CONTAGEM == balde ? (int) (valor & MASCARA_CONTAGEM) : 0;
+        }
+
+        // Reportes do balde atual e dos anteriores, quantidade baldes no total
+        int somar(long balde, int quantidade) {
+            int total = 0;
+            for (int i = 0; i < quantidade; i++) {
+                total += contagem(balde - i);
+            }
+            return total;
+        }
+
+        // Soma à base os baldes fechados desde a última vez; só quem vira o marcador faz isso
+        void aprender(long balde, double suavizacao) {
+            long anterior = aprendidoAte.get();
+            long ate = balde - 1;
+            if (anterior >= ate || !aprendidoAte.compareAndSet(anterior, ate)) {
+                return;
+            }
+            long primeiro = Math.max(anterior + 1, ate - BALDES + 2); // Os mais antigos que isso já saíram do anel (vazios)
+            long vazios = Math.min(primeiro - (anterior + 1), LIMITE_APRENDIZADO);
+            int[] contagens = new int[(int) (ate - primeiro + 1)];
+            for (int i = 0; i < contagens.length; i++) {
+                contagens[i] = contagem(primeiro + i);
+            }
+            base.updateAndGet(atual -> {
+                Base nova = atual;
+                for (long i = 0; i < vazios; i++) {
+                    nova = nova.somar(0, suavizacao);
+                }
+                for (int reportes : contagens) {
+                    nova = nova.somar(reportes, suavizacao);
+                }
+                return nova;
+            });
+        }
+
+        boolean reservarAlerta(long balde, long intervaloBaldes) {
+            long ultimo = ultimoAlerta.get();
+            return balde - ultimo >= Math.max(1, intervaloBaldes) && ultimoAlerta.compareAndSet(ultimo, balde);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Alerta;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Resolve quais usuários devem receber um alerta a partir dos tipos inscritos
+ * e da localização preferida de cada um (via IndiceAssinaturasService).
+ */
+@ApplicationScoped
+public class DistribuicaoAlertaService {
+
+    @Inject
+    IndiceAssinaturasService indice;
+
+    /**
+     * Calcula o conjunto de destinatários de um alerta.
+     * @param alerta O alerta publicado; eventType e location restringem o público quando preenchidos.
+     * @return Bitmap com os IDs dos usuários destinatários.
+     */
+    public RoaringBitmap resolverDestinatarios(Alerta alerta) {
+        return indice.buscarDestinatarios(alerta.getEventType(), alerta.getLocation());
+    }
+
+    /**
+     * Verifica se o alerta interessa a um usuário específico (usado para filtrar o fluxo SSE por usuário).
+     */
+    public boolean isDestinatario(Alerta alerta, int userId) {
+        return indice.isDestinatario(userId, alerta.getEventType(), alerta.getLocation());
+    }
+}
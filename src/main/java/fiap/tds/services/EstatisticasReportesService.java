@@ -0,0 +1,232 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.ContagemHoraDTO;
+import fiap.tds.dtos.EstatisticasReportesDTO;
+import fiap.tds.entities.Reporte;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.repositories.ReporteRepository;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contagens de reportes por hora de criação, status, severidade e tipo, para o painel administrativo.
+ * Montadas na subida com um único GROUP BY no banco e mantidas a cada gravação do ReporteService
+ * (registro, edição, mudança de status e exclusão), então a consulta percorre só as horas do período pedido,
+ * sem ler reportes. Os contadores são LongAdder: gravações concorrentes não disputam lock.
+ * Cada instância da API mantém as suas. Gravações feitas durante uma reconstrução contam nas horas atuais e ficam
+ * guardadas para serem reaplicadas nas novas antes da troca; só uma gravação cujo commit caia entre o início da
+ * reconstrução e a leitura do banco pode ser contada duas vezes.
+ */
+@ApplicationScoped
+public class EstatisticasReportesService {
+
+    private static final Logger logger = Logger.getLogger(EstatisticasReportesService.class);
+    private static final String INDEFINIDO = "indefinido";
+
+    /**
+     * Onde um reporte é contado: a hora de criação e os valores normalizados de cada dimensão.
+     */
+    public record Marca(long hora, String status, String severidade, String tipo) {
+    }
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private record Variacao(Marca marca, long quantidade) {
+    }
+
+    private final ReentrantLock reconstrucao = new ReentrantLock();
+    // Gravações pegam a leitura (várias ao mesmo tempo); a reconstrução pega a escrita para começar a guardar e para trocar
+    private final ReentrantReadWriteLock troca = new ReentrantReadWriteLock();
+    private volatile ConcurrentSkipListMap<Long, Hora> horas = new ConcurrentSkipListMap<>(); // Hora (epoch / 3600) -> contagens
+    private Queue<Variacao> gravadosNaReconstrucao; // Não nulo só durante uma reconstrução; protegido por troca
+
+    void carregar(@Observes StartupEvent event) {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar as estatísticas de reportes; só os reportes gravados a partir de agora serão contados.", e);
+        }
+    }
+
+    /**
+     * Refaz as contagens a partir do banco e troca as atuais de uma vez.
+     * @return A quantidade de grupos (hora, status, severidade, tipo) lidos.
+     * @throws BadRequestException se já houver uma reconstrução em andamento.
+     */
+    public int reconstruir() {
+        if (!reconstrucao.tryLock()) {
+            throw new BadRequestException("Já existe uma reconstrução das estatísticas em andamento.");
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            ConcurrentSkipListMap<Long, Hora> novas = new ConcurrentSkipListMap<>();
+            AtomicInteger grupos = new AtomicInteger();
+            definirGravados(new ConcurrentLinkedQueue<>()); // Antes da leitura: o que for gravado depois dela é reaplicado
+            int reaplicados;
+            try {
+                repository.contarPorHora(contagem -> {
+                    Marca marca = new Marca(hora(contagem.hora()), chave(contagem.status()), chave(contagem.severity()), chave(contagem.eventType()));
+                    somar(novas, marca, contagem.quantidade());
+                    grupos.incrementAndGet();
+                });
+                troca.writeLock().lock();
+                try {
+                    reaplicados = gravadosNaReconstrucao.size();
+                    gravadosNaReconstrucao.forEach(variacao -> somar(novas, variacao.marca(), variacao.quantidade()));
+                    horas = novas;
+                } finally {
+                    troca.writeLock().unlock();
+                }
+            } finally {
+                definirGravados(null);
+            }
+            logger.infof("Estatísticas de reportes carregadas em %s ms (%s grupos em %s horas, %s gravações reaplicadas).",
+                    System.currentTimeMillis() - inicio, grupos.get(), novas.size(), reaplicados);
+            return grupos.get();
+        } finally {
+            reconstrucao.unlock();
+        }
+    }
+
+    private void definirGravados(Queue<Variacao> fila) {
+        troca.writeLock().lock();
+        try {
+            gravadosNaReconstrucao = fila;
+        } finally {
+            troca.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marca de um reporte, para desfazer a contagem antiga depois de uma edição.
+     * @return A marca, ou null se o reporte não tem data de criação (não é contado).
+     */
+    public Marca marcar(Reporte reporte) {
+        if (reporte.getCreatedAt() == null) {
+            return null;
+        }
+        return new Marca(hora(reporte.getCreatedAt()), chave(reporte.getStatus()), chave(reporte.getSeverity()), chave(reporte.getEventType()));
+    }
+
+    public void adicionar(Reporte reporte) {
+        gravar(marcar(reporte), 1);
+    }
+
+    public void remover(Reporte reporte) {
+        gravar(marcar(reporte), -1);
+    }
+
+    /**
+     * Move um reporte editado da contagem antiga para a nova (ex.: de "novo" para "verificado").
+     * @param anterior Marca tirada antes da edição.
+     */
+    public void trocar(Marca anterior, Reporte atual) {
+        Marca nova = marcar(atual);
+        if (anterior != null && anterior.equals(nova)) {
+            return;
+        }
+        gravar(anterior, -1);
+        gravar(nova, 1);
+    }
+
+    /**
+     * Soma as contagens das horas entre desde e ate (inclusive as horas parciais das pontas).
+     */
+    public EstatisticasReportesDTO consultar(LocalDateTime desde, LocalDateTime ate) {
+        Map<String, Long> porStatus = new TreeMap<>();
+        Map<String, Long> porSeveridade = new TreeMap<>();
+        Map<String, Long> porTipo = new TreeMap<>();
+        List<ContagemHoraDTO> porHora = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Long, Hora> entrada : horas.subMap(hora(desde), true, hora(ate), true).entrySet()) {
+            Hora hora = entrada.getValue();
+            long totalHora = hora.total.sum();
+            if (totalHora <= 0) {
+                continue;
+            }
+            ContagemHoraDTO contagem = new ContagemHoraDTO(dataHora(entrada.getKey()), totalHora,
+                    somar(hora.status, porStatus), somar(hora.severidade, porSeveridade), somar(hora.tipo, porTipo));
+            porHora.add(contagem);
+            total += totalHora;
+        }
+        return new EstatisticasReportesDTO(desde, ate, total, porStatus, porSeveridade, porTipo, porHora);
+    }
+
+    // Copia as contagens positivas da hora e as acumula no total do período
+    private static Map<String, Long> somar(Map<String, LongAdder> contadores, Map<String, Long> acumulado) {
+        Map<String, Long> copia = new TreeMap<>();
+        contadores.forEach((valor, contador) -> {
+            long quantidade = contador.sum();
+            if (quantidade > 0) {
+                copia.put(valor, quantidade);
+                acumulado.merge(valor, quantidade, Long::sum);
+            }
+        });
+        return copia;
+    }
+
+    // Conta nas horas atuais e, durante uma reconstrução, guarda para reaplicar nas novas
+    private void gravar(Marca marca, long quantidade) {
+        if (marca == null) {
+            return;
+        }
+        troca.readLock().lock();
+        try {
+            somar(horas, marca, quantidade);
+            if (gravadosNaReconstrucao != null) {
+                gravadosNaReconstrucao.add(new Variacao(marca, quantidade));
+            }
+        } finally {
+            troca.readLock().unlock();
+        }
+    }
+
+    private static void somar(ConcurrentSkipListMap<Long, Hora> horas, Marca marca, long quantidade) {
+        if (marca == null) {
+            return;
+        }
+        Hora hora = horas.computeIfAbsent(marca.hora(), h -> new Hora());
+        hora.total.add(quantidade);
+        hora.status.computeIfAbsent(marca.status(), v -> new LongAdder()).add(quantidade);
+        hora.severidade.computeIfAbsent(marca.severidade(), v -> new LongAdder()).add(quantidade);
+        hora.tipo.computeIfAbsent(marca.tipo(), v -> new LongAdder()).add(quantidade);
+    }
+
+    private static String chave(String valor) {
+        String chave = TextoUtil.normalizar(valor);
+        return chave != null ? chave : INDEFINIDO;
+    }
+
+    // LocalDateTime não tem fuso; UTC aqui só serve para numerar as horas
+    private static long hora(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime dataHora(long hora) {
+        return LocalDateTime.ofEpochSecond(hora * 3600, 0, ZoneOffset.UTC);
+    }
+
+    private static final class Hora {
+        final LongAdder total = new LongAdder();
+        final Map<String, LongAdder> status = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> severidade = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> tipo = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,203 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Abrigo;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Geocodificação offline de abrigos e reportes, a partir de bases locais em CSV (sem chamar serviços externos):
+ *   tipo;chave;latitude;longitude
+ *   cep;01310100;-23.561414;-46.655881
+ *   bairro;Mooca|São Paulo - SP;-23.5586;-46.5992
+ * A base de bairros de São Paulo vem no classpath (geocodificacao/bairros-sp.csv); bases de CEP maiores
+ * entram por geocodificacao.arquivos. A ordem de tentativa é CEP exato, centro do setor do CEP
+ * (5 primeiros dígitos) e centro do bairro. As bases são carregadas na subida, para o primeiro POST /reportes ou
+ * /abrigos não pagar a leitura; se ela falhar, a carga é tentada de novo no primeiro uso.
+ * Endereços de reportes são texto livre ("Rua 12, Mooca, São Paulo - SP"): vale um CEP escrito no texto ou,
+ * na falta dele, o primeiro par de trechos consecutivos (entre vírgulas) que forme bairro e cidade conhecidos.
+ */
+@ApplicationScoped
+public class GeocodificacaoService {
+
+    private static final Logger logger = Logger.getLogger(GeocodificacaoService.class);
+
+    private static final String BASE_PADRAO = "geocodificacao/bairros-sp.csv";
+    private static final Pattern CEP = Pattern.compile("\\b(\\d{5})-?(\\d{3})\\b");
+
+    @ConfigProperty(name = "geocodificacao.arquivos")
+    Optional<List<String>> arquivos;
+
+    private final ReentrantLock carga = new ReentrantLock(); // Lock e não synchronized: a leitura dos CSVs roda em virtual threads
+    private volatile Bases bases;
+
+    /**
+     * Coordenadas do abrigo pelo CEP ou, na falta dele na base, pelo bairro e cidade.
+     * @return [latitude, longitude], ou vazio se nada casou.
+     */
+    public Optional<double[]> localizar(Abrigo abrigo) {
+        Bases atuais = carregar();
+        String cep = abrigo.getZipCode() != null ? abrigo.getZipCode().replaceAll("\\D", "") : "";
+        if (cep.length() == 8) {
+            double[] exato = atuais.porCep.get(cep);
+            if (exato != null) {
+                return Optional.of(exato);
+            }
+            Media setor = atuais.porSetor.get(cep.substring(0, 5));
+            if (setor != null) {
+                return Optional.of(setor.coordenadas());
+            }
+        }
+        double[] bairro = atuais.porBairro.get(chaveBairro(abrigo.getNeighborhood(), abrigo.getCityState()));
+        return Optional.ofNullable(bairro);
+    }
+
+    /**
+     * Coordenadas de um endereço em texto livre, como o informado nos reportes.
+     * @return [latitude, longitude], ou vazio se nada casou.
+     */
+    public Optional<double[]> localizar(String endereco) {
+        if (endereco == null || endereco.isBlank()) {
+            return Optional.empty();
+        }
+        Bases atuais = carregar();
+        Matcher cep = CEP.matcher(endereco);
+        if (cep.find()) {
+            double[] exato = atuais.porCep.get(cep.group(1) + cep.group(2));
+            if (exato != null) {
+                return Optional.of(exato);
+            }
+            Media setor = atuais.porSetor.get(cep.group(1));
+            if (setor != null) {
+                return Optional.of(setor.coordenadas());
+            }
+        }
+        String[] trechos = endereco.split(",");
+        for (int i = 0; i + 1 < trechos.length; i++) {
+            double[] bairro = atuais.porBairro.get(chaveBairro(trechos[i], trechos[i + 1]));
+            if (bairro != null) {
+                return Optional.of(bairro);
+            }
+        }
+        return Optional.empty();
+    }
+
+    void carregar(@Observes StartupEvent event) {
+        try {
+            carregar();
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar as bases de geocodificação na subida; a carga será tentada no primeiro uso.", e);
+        }
+    }
+
+    private Bases carregar() {
+        Bases atuais = bases;
+        if (atuais == null) {
+            carga.lock();
+            try {
+                if (bases == null) {
+                    bases = lerBases();
+                }
+                atuais = bases;
+            } finally {
+                carga.unlock();
+            }
+        }
+        return atuais;
+    }
+
+    private Bases lerBases() {
+        long inicio = System.currentTimeMillis();
+        Bases novas = new Bases();
+        try (InputStream padrao = Thread.currentThread().getContextClassLoader().getResourceAsStream(BASE_PADRAO)) {
+            if (padrao != null) {
+                ler(novas, padrao, BASE_PADRAO);
+            }
+            for (String arquivo : arquivos.orElse(List.of())) {
+                try (InputStream entrada = Files.newInputStream(Path.of(arquivo))) {
+                    ler(novas, entrada, arquivo);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler a base de geocodificação.", e);
+        }
+        logger.infof("Bases de geocodificação carregadas em %s ms: %s CEPs, %s bairros.",
+                System.currentTimeMillis() - inicio, novas.porCep.size(), novas.porBairro.size());
+        return novas;
+    }
+
+    private static void ler(Bases bases, InputStream entrada, String origem) throws IOException {
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String linha;
+        int numero = 0;
+        while ((linha = leitor.readLine()) != null) {
+            numero++;
+            if (linha.isBlank() || linha.startsWith("#") || linha.startsWith("tipo;")) {
+                continue;
+            }
+            String[] campos = linha.split(";");
+            try {
+                double[] coordenadas = {Double.parseDouble(campos[2].trim()), Double.parseDouble(campos[3].trim())};
+                switch (campos[0].trim()) {
+                    case "cep" -> {
+                        String cep = campos[1].replaceAll("\\D", "");
+                        bases.porCep.put(cep, coordenadas);
+                        bases.porSetor.computeIfAbsent(cep.substring(0, 5), k -> new Media()).somar(coordenadas);
+                    }
+                    case "bairro" -> {
+                        String[] bairroCidade = campos[1].split("\\|", 2);
+                        bases.porBairro.put(chaveBairro(bairroCidade[0], bairroCidade.length > 1 ? bairroCidade[1] : null), coordenadas);
+                    }
+                    default -> logger.warnf("Linha %s de %s ignorada: tipo desconhecido %s", numero, origem, campos[0]);
+                }
+            } catch (RuntimeException e) {
+                logger.warnf("Linha %s de %s ignorada: %s", numero, origem, e.getMessage());
+            }
+        }
+    }
+
+    private static String chaveBairro(String bairro, String cidade) {
+        return TextoUtil.normalizar(bairro) + "|" + TextoUtil.normalizar(cidade);
+    }
+
+    private static final class Bases {
+        final Map<String, double[]> porCep = new HashMap<>();
+        final Map<String, Media> porSetor = new HashMap<>();
+        final Map<String, double[]> porBairro = new HashMap<>();
+    }
+
+    private static final class Media {
+        double latitude;
+        double longitude;
+        int quantidade;
+
+        void somar(double[] coordenadas) {
+            latitude += coordenadas[0];
+            longitude += coordenadas[1];
+            quantidade++;
+        }
+
+        double[] coordenadas() {
+            return new double[]{latitude / quantidade, longitude / quantidade};
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.AbrigoProximoDTO;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.repositories.AbrigoRepository;
+import fiap.tds.utils.ArvoreKd;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido, em memória, dos abrigos por bairro, cidade/estado, situação de capacidade,
+ * serviço oferecido e público alvo. Cada valor (normalizado, como no índice de assinaturas) aponta
+ * para o bitmap dos IDs que o têm, e a busca com vários filtros é a interseção desses bitmaps:
+ * com 50 mil abrigos responde em microssegundos, sem ir ao banco.
+ * Os abrigos com coordenadas também ficam numa árvore k-d (busca dos mais próximos). A árvore é imutável:
+ * cada gravação que mexe em coordenadas monta uma nova (dezenas de ms com 100 mil abrigos) e a troca,
+ * então as buscas nunca esperam pela reconstrução.
+ * Atualizado pelo AbrigoService a cada gravação; cada instância da API mantém o seu.
+ */
+@ApplicationScoped
+public class IndiceAbrigosService {
+
+    private static final Logger logger = Logger.getLogger(IndiceAbrigosService.class);
+
+    private final AbrigoRepository repository = new AbrigoRepository();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Abrigo> abrigos = new HashMap<>();
+    private final RoaringBitmap todos = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> porBairro = new HashMap<>();
+    private final Map<String, RoaringBitmap> porCidade = new HashMap<>();
+    private final Map<String, RoaringBitmap> porCapacidade = new HashMap<>();
+    private final Map<String, RoaringBitmap> porServico = new HashMap<>();
+    private final Map<String, RoaringBitmap> porPublico = new HashMap<>();
+
+    private final Object reconstrucao = new Object();
+    private volatile ArvoreKd arvore = ArvoreKd.vazia();
+    private boolean arvoreDesatualizada; // Protegido pelo write lock
+
+    void carregar(@Observes StartupEvent event) {
+        long inicio = System.currentTimeMillis();
+        try {
+            List<Abrigo> lista = repository.buscarTodos();
+            lock.writeLock().lock();
+            try {
+                lista.forEach(this::indexar);
+                otimizar();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            reconstruirArvore();
+            logger.infof("Índice de abrigos carregado em %s ms (%s abrigos).", System.currentTimeMillis() - inicio, lista.size());
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar o índice de abrigos; ele será preenchido conforme os abrigos forem gravados.", e);
+        }
+    }
+
+    /**
+     * Indexa um abrigo recém-registrado.
+     */
+    public void adicionar(Abrigo abrigo) {
+        lock.writeLock().lock();
+        try {
+            indexar(abrigo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reconstruirArvore();
+    }
+
+    /**
+     * Reindexa um abrigo cujos dados podem ter mudado.
+     */
+    public void atualizar(Abrigo abrigo) {
+        lock.writeLock().lock();
+        try {
+            desindexar(abrigo.getId());
+            indexar(abrigo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reconstruirArvore();
+    }
+
+    /**
+     * Remove um abrigo de todas as entradas do índice.
+     */
+    public void remover(int id) {
+        lock.writeLock().lock();
+        try {
+            desindexar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reconstruirArvore();
+    }
+
+    /**
+     * Atualiza a lotação e a situação de capacidade de um abrigo indexado, sem reindexar os demais campos.
+     * Chamado pelo OcupacaoAbrigosService a cada rodada de gravação.
+     */
+    public void atualizarOcupacao(int id, int ocupacao, String capacityStatus) {
+        lock.writeLock().lock();
+        try {
+            Abrigo abrigo = abrigos.get(id);
+            if (abrigo == null) {
+                return;
+            }
+            if (!Objects.equals(TextoUtil.normalizar(abrigo.getCapacityStatus()), TextoUtil.normalizar(capacityStatus))) {
+                remover(porCapacidade, abrigo.getCapacityStatus(), id);
+                adicionar(porCapacidade, capacityStatus, id);
+            }
+            abrigo.setCapacityStatus(capacityStatus);
+            abrigo.setOccupancy(ocupacao);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os abrigos que atendem a todos os filtros informados; filtros nulos ou vazios são ignorados.
+     * Vários serviços exigem que o abrigo ofereça todos eles.
+     * @param limite Quantidade máxima de abrigos devolvidos, em ordem de ID.
+     */
+    public List<Abrigo> buscar(String neighborhood, String cityState, String capacityStatus,
+                               Collection<String> servicesOffered, String targetAudience, int limite) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap resultado = todos.clone();
+            filtrar(resultado, porBairro, neighborhood);
+            filtrar(resultado, porCidade, cityState);
+            filtrar(resultado, porCapacidade, capacityStatus);
+            filtrar(resultado, porPublico, targetAudience);
+            if (servicesOffered != null) {
+                for (String servico : servicesOffered) {
+                    filtrar(resultado, porServico, servico);
+                }
+            }
+
+            List<Abrigo> encontrados = new ArrayList<>(Math.min(resultado.getCardinality(), Math.max(0, limite)));
+            PeekableIntIterator ids = resultado.getIntIterator();
+            while (ids.hasNext() && encontrados.size() < limite) {
+                encontrados.add(abrigos.get(ids.next()));
+            }
+            return encontrados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Os k abrigos geocodificados mais próximos de um ponto, do mais perto para o mais longe.
+     * @param comVaga true para ignorar os abrigos lotados.
+     */
+    public List<AbrigoProximoDTO> buscarProximos(double latitude, double longitude, int k, boolean comVaga) {
+        ArvoreKd atual = arvore;
+        lock.readLock().lock();
+        try {
+            RoaringBitmap lotados = comVaga ? porCapacidade.get(Abrigo.LOTADO) : null;
+            List<ArvoreKd.Vizinho> vizinhos = atual.buscar(latitude, longitude, k,
+                    id -> abrigos.containsKey(id) && (lotados == null || !lotados.contains(id)));
+            List<AbrigoProximoDTO> proximos = new ArrayList<>(vizinhos.size());
+            for (ArvoreKd.Vizinho vizinho : vizinhos) {
+                proximos.add(new AbrigoProximoDTO(abrigos.get(vizinho.id()), vizinho.distanciaKm()));
+            }
+            return proximos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Monta a árvore nova fora do write lock; o synchronized só serializa reconstruções concorrentes
+    private void reconstruirArvore() {
+        synchronized (reconstrucao) {
+            int[] ids;
+            double[] latitudes;
+            double[] longitudes;
+            lock.writeLock().lock();
+            try {
+                if (!arvoreDesatualizada) {
+                    return;
+                }
+                arvoreDesatualizada = false;
+                int n = 0;
+                ids = new int[abrigos.size()];
+                latitudes = new double[ids.length];
+                longitudes = new double[ids.length];
+                for (Abrigo abrigo : abrigos.values()) {
+                    if (temCoordenadas(abrigo)) {
+                        ids[n] = abrigo.getId();
+                        latitudes[n] = abrigo.getLatitude();
+                        longitudes[n++] = abrigo.getLongitude();
+                    }
+                }
+                ids = Arrays.copyOf(ids, n);
+                latitudes = Arrays.copyOf(latitudes, n);
+                longitudes = Arrays.copyOf(longitudes, n);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            arvore = ArvoreKd.construir(ids, latitudes, longitudes);
+        }
+    }
+
+    private static boolean temCoordenadas(Abrigo abrigo) {
+        return abrigo.getLatitude() != null && abrigo.getLongitude() != null;
+    }
+
+    private static void filtrar(RoaringBitmap resultado, Map<String, RoaringBitmap> indice, String valor) {
+        String chave = TextoUtil.normalizar(valor);
+        if (chave == null || resultado.isEmpty()) {
+            return;
+        }
+        RoaringBitmap comValor = indice.get(chave);
+        if (comValor == null) {
+            resultado.clear();
+        } else {
+            resultado.and(comValor);
+        }
+    }
+
+    // Chamados sempre com o write lock adquirido
+    private void indexar(Abrigo abrigo) {
+        int id = abrigo.getId();
+        if (id <= 0) {
+            return;
+        }
+        abrigos.put(id, abrigo);
+        todos.add(id);
+        arvoreDesatualizada |= temCoordenadas(abrigo);
+        adicionar(porBairro, abrigo.getNeighborhood(), id);
+        adicionar(porCidade, abrigo.getCityState(), id);
+        adicionar(porCapacidade, abrigo.getCapacityStatus(), id);
+        adicionar(porPublico, abrigo.getTargetAudience(), id);
+        if (abrigo.getServicesOffered() != null) {
+            for (String servico : abrigo.getServicesOffered()) {
+                adicionar(porServico, servico, id);
+            }
+        }
+    }
+
+    private static void adicionar(Map<String, RoaringBitmap> indice, String valor, int id) {
+        String chave = TextoUtil.normalizar(valor);
+        if (chave != null) {
+            indice.computeIfAbsent(chave, k -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void desindexar(int id) {
+        Abrigo anterior = abrigos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        todos.remove(id);
+        arvoreDesatualizada |= temCoordenadas(anterior);
+        // Só as chaves do abrigo anterior, em vez de percorrer todos os bitmaps
+        remover(porBairro, anterior.getNeighborhood(), id);
+        remover(porCidade, anterior.getCityState(), id);
+        remover(porCapacidade, anterior.getCapacityStatus(), id);
+        remover(porPublico, anterior.getTargetAudience(), id);
+        if (anterior.getServicesOffered() != null) {
+            for (String servico : anterior.getServicesOffered()) {
+                remover(porServico, servico, id);
+            }
+        }
+    }
+
+    private static void remover(Map<String, RoaringBitmap> indice, String valor, int id) {
+        String chave = TextoUtil.normalizar(valor);
+        RoaringBitmap comValor = chave != null ? indice.get(chave) : null;
+        if (comValor != null) {
+            comValor.remove(id);
+            if (comValor.isEmpty()) {
+                indice.remove(chave);
+            }
+        }
+    }
+
+    private void otimizar() {
+        todos.runOptimize();
+        for (Map<String, RoaringBitmap> indice : List.of(porBairro, porCidade, porCapacidade, porServico, porPublico)) {
+            indice.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
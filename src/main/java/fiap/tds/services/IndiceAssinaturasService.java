@@ -0,0 +1,174 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Usuario;
+import fiap.tds.repositories.UsuarioRepository;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido, em memória, das preferências dos usuários:
+ * tipo de alerta inscrito -> usuários e localização preferida -> usuários.
+ * Os conjuntos de IDs são bitmaps compactados (RoaringBitmap), então um milhão de usuários
+ * cabe em poucos MB e as interseções/uniões da distribuição de alertas custam milissegundos.
+ */
+@ApplicationScoped
+public class IndiceAssinaturasService {
+
+    private static final Logger logger = Logger.getLogger(IndiceAssinaturasService.class);
+
+    private final UsuarioRepository repository = new UsuarioRepository();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, RoaringBitmap> porTipoAlerta = new HashMap<>();
+    private final Map<String, RoaringBitmap> porLocalizacao = new HashMap<>();
+    private final RoaringBitmap semLocalizacao = new RoaringBitmap(); // Usuários que aceitam alertas de qualquer região
+
+    void carregar(@Observes StartupEvent event) {
+        long inicio = System.currentTimeMillis();
+        try {
+            repository.percorrerPreferencias(this::adicionar);
+            lock.writeLock().lock();
+            try {
+                porTipoAlerta.values().forEach(RoaringBitmap::runOptimize);
+                porLocalizacao.values().forEach(RoaringBitmap::runOptimize);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.infof("Índice de assinaturas carregado em %s ms.", System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar o índice de assinaturas; ele será preenchido conforme os usuários forem gravados.", e);
+        }
+    }
+
+    /**
+     * Indexa as preferências de um usuário recém-registrado.
+     */
+    public void adicionar(Usuario usuario) {
+        lock.writeLock().lock();
+        try {
+            indexar(usuario);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reindexa um usuário cujas preferências podem ter mudado.
+     */
+    public void atualizar(Usuario usuario) {
+        lock.writeLock().lock();
+        try {
+            desindexar(usuario.getUserId());
+            indexar(usuario);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um usuário de todas as entradas do índice.
+     */
+    public void remover(int userId) {
+        lock.writeLock().lock();
+        try {
+            desindexar(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula os usuários que devem receber um alerta com o tipo e a região informados.
+     * Sem tipo, vale para todos os inscritos; sem região, vale para todas as localizações.
+     * @return Um bitmap novo, que o chamador pode alterar livremente.
+     */
+    public RoaringBitmap buscarDestinatarios(String tipoAlerta, String localizacao) {
+        String tipo = TextoUtil.normalizar(tipoAlerta);
+        String local = TextoUtil.normalizar(localizacao);
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidatos;
+            if (tipo == null) {
+                candidatos = RoaringBitmap.or(porTipoAlerta.values().iterator());
+            } else {
+                RoaringBitmap inscritos = porTipoAlerta.get(tipo);
+                candidatos = inscritos != null ? inscritos.clone() : new RoaringBitmap();
+            }
+            if (local == null) {
+                return candidatos;
+            }
+            RoaringBitmap daRegiao = porLocalizacao.get(local);
+            RoaringBitmap aceitos = daRegiao != null ? RoaringBitmap.or(daRegiao, semLocalizacao) : semLocalizacao;
+            candidatos.and(aceitos);
+            return candidatos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica se um usuário específico deve receber um alerta, sem materializar o conjunto inteiro.
+     */
+    public boolean isDestinatario(int userId, String tipoAlerta, String localizacao) {
+        String tipo = TextoUtil.normalizar(tipoAlerta);
+        String local = TextoUtil.normalizar(localizacao);
+
+        lock.readLock().lock();
+        try {
+            boolean inscrito;
+            if (tipo == null) {
+                inscrito = porTipoAlerta.values().stream().anyMatch(b -> b.contains(userId));
+            } else {
+                RoaringBitmap inscritos = porTipoAlerta.get(tipo);
+                inscrito = inscritos != null && inscritos.contains(userId);
+            }
+            if (!inscrito || local == null || semLocalizacao.contains(userId)) {
+                return inscrito;
+            }
+            RoaringBitmap daRegiao = porLocalizacao.get(local);
+            return daRegiao != null && daRegiao.contains(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Chamados sempre com o write lock adquirido
+    private void indexar(Usuario usuario) {
+        int userId = usuario.getUserId();
+        if (userId <= 0) {
+            return;
+        }
+        if (usuario.getSubscribedAlerts() != null) {
+            for (String alerta : usuario.getSubscribedAlerts()) {
+                String tipo = TextoUtil.normalizar(alerta);
+                if (tipo != null) {
+                    porTipoAlerta.computeIfAbsent(tipo, k -> new RoaringBitmap()).add(userId);
+                }
+            }
+        }
+        String local = TextoUtil.normalizar(usuario.getLocationPreference());
+        if (local == null) {
+            semLocalizacao.add(userId);
+        } else {
+            porLocalizacao.computeIfAbsent(local, k -> new RoaringBitmap()).add(userId);
+        }
+    }
+
+    private void desindexar(int userId) {
+        // Percorre só as chaves (dezenas de tipos, centenas de regiões), sem precisar de um mapa reverso por usuário
+        porTipoAlerta.values().forEach(b -> b.remove(userId));
+        porLocalizacao.values().forEach(b -> b.remove(userId));
+        semLocalizacao.remove(userId);
+        porTipoAlerta.values().removeIf(RoaringBitmap::isEmpty);
+        porLocalizacao.values().removeIf(RoaringBitmap::isEmpty);
+    }
+}
@@ -0,0 +1,194 @@
+package fiap.tds.services;
+
+import fiap.tds.entities.Reporte;
+import fiap.tds.repositories.ReporteRepository;
+import fiap.tds.utils.MinHash;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrupa reportes quase duplicados em incidentes no momento do registro. Numa enchente o mesmo ponto é
+ * reportado centenas de vezes com textos e endereços um pouco diferentes; a triagem passa a olhar o incidente.
+ * Dois reportes são do mesmo incidente quando têm o mesmo tipo, foram criados na mesma janela de tempo
+ * (ou na anterior), as descrições são parecidas (MinHash) e os endereços compartilham a maior parte das palavras.
+ * Os candidatos vêm de um índice LSH em memória (bandas da assinatura MinHash), então cada registro compara
+ * com poucos reportes em vez de todos os da janela. Só as duas últimas janelas ficam em memória.
+ * Carregado na subida com os reportes recentes; cada instância da API mantém o seu. Duas duplicatas registradas
+ * ao mesmo tempo, antes de qualquer uma entrar no índice, podem abrir incidentes separados.
+ */
+@ApplicationScoped
+public class IndiceIncidentesService {
+
+    private static final Logger logger = Logger.getLogger(IndiceIncidentesService.class);
+
+    @ConfigProperty(name = "reportes.incidentes.janela-horas", defaultValue = "6")
+    int janelaHoras;
+
+    @ConfigProperty(name = "reportes.incidentes.similaridade-descricao", defaultValue = "0.5")
+    double similaridadeDescricao;
+
+    @ConfigProperty(name = "reportes.incidentes.similaridade-local", defaultValue = "0.5")
+    double similaridadeLocal;
+
+    /**
+     * O que o índice guarda de um reporte para compará-lo com os próximos.
+     */
+    public record Assinatura(String tipo, long janela, long[] descricao, Set<String> local) {
+    }
+
+    private record Entrada(int idIncidente, Assinatura assinatura) {
+    }
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Janela de tempo -> chave (tipo + banda) -> reportes com aquela banda; protegido pelo lock
+    private final TreeMap<Long, Map<Long, List<Entrada>>> janelas = new TreeMap<>();
+
+    void carregar(@Observes StartupEvent event) {
+        long inicio = System.currentTimeMillis();
+        try {
+            long janelaAtual = janela(LocalDateTime.now());
+            List<Reporte> recentes = repository.buscarCriadosDesde(dataHora((janelaAtual - 1) * duracaoMs()));
+            for (Reporte reporte : recentes) {
+                adicionar(assinar(reporte), reporte.getIncidentId() != null ? reporte.getIncidentId() : reporte.getId());
+            }
+            logger.infof("Índice de incidentes carregado em %s ms (%s reportes recentes).", System.currentTimeMillis() - inicio, recentes.size());
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar o índice de incidentes; ele será preenchido conforme os reportes forem registrados.", e);
+        }
+    }
+
+    /**
+     * Calcula a assinatura de um reporte (tipo, janela de criação, descrição e palavras do endereço).
+     */
+    public Assinatura assinar(Reporte reporte) {
+        LocalDateTime criado = reporte.getCreatedAt() != null ? reporte.getCreatedAt() : LocalDateTime.now();
+        String tipo = TextoUtil.normalizar(reporte.getEventType());
+        return new Assinatura(tipo != null ? tipo : "", janela(criado),
+                MinHash.assinatura(reporte.getDescription()), palavras(reporte.getLocation()));
+    }
+
+    /**
+     * Procura o incidente de um reporte ainda não registrado.
+     * @return O ID do incidente mais parecido, ou null se o reporte abre um incidente novo.
+     */
+    public Integer buscarIncidente(Assinatura assinatura) {
+        lock.lock();
+        try {
+            Entrada melhor = null;
+            double melhorSimilaridade = 0;
+            for (long janela = assinatura.janela() - 1; janela <= assinatura.janela(); janela++) {
+                Map<Long, List<Entrada>> porBanda = janelas.get(janela);
+                if (porBanda == null) {
+                    continue;
+                }
+                for (int banda = 0; banda < MinHash.BANDAS; banda++) {
+                    List<Entrada> candidatos = porBanda.get(chave(assinatura, banda));
+                    if (candidatos == null) {
+                        continue;
+                    }
+                    for (Entrada candidato : candidatos) {
+                        double similaridade = similaridade(assinatura, candidato.assinatura());
+                        if (similaridade > melhorSimilaridade) {
+                            melhor = candidato;
+                            melhorSimilaridade = similaridade;
+                        }
+                    }
+                }
+            }
+            return melhor != null ? melhor.idIncidente() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indexa um reporte já registrado, para os próximos reportes o encontrarem.
+     * Numa banda que já aponta para o mesmo incidente o reporte não entra de novo: as listas crescem com
+     * o número de incidentes, não com o número de reportes de cada um.
+     */
+    public void adicionar(Assinatura assinatura, int idIncidente) {
+        lock.lock();
+        try {
+            Map<Long, List<Entrada>> porBanda = janelas.computeIfAbsent(assinatura.janela(), j -> new HashMap<>());
+            Entrada entrada = new Entrada(idIncidente, assinatura);
+            for (int banda = 0; banda < MinHash.BANDAS; banda++) {
+                List<Entrada> lista = porBanda.computeIfAbsent(chave(assinatura, banda), c -> new ArrayList<>(1));
+                if (lista.stream().noneMatch(e -> e.idIncidente() == idIncidente)) {
+                    lista.add(entrada);
+                }
+            }
+            // Descarta as janelas que nenhum reporte novo vai consultar
+            janelas.headMap(janelas.lastKey() - 1).clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Similaridade da descrição, ou 0 se o tipo difere ou os endereços não batem
+    private double similaridade(Assinatura a, Assinatura b) {
+        if (!a.tipo().equals(b.tipo()) || jaccard(a.local(), b.local()) < similaridadeLocal) {
+            return 0;
+        }
+        double similaridade = MinHash.similaridade(a.descricao(), b.descricao());
+        return similaridade >= similaridadeDescricao ? similaridade : 0;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int comuns = 0;
+        for (String palavra : a) {
+            if (b.contains(palavra)) {
+                comuns++;
+            }
+        }
+        return (double) comuns / (a.size() + b.size() - comuns);
+    }
+
+    // Endereços são texto livre ("Rua 12, Mooca, São Paulo - SP"): compara o conjunto de palavras normalizadas
+    private static Set<String> palavras(String texto) {
+        Set<String> palavras = new HashSet<>();
+        String normalizado = TextoUtil.normalizar(texto);
+        if (normalizado != null) {
+            for (String palavra : normalizado.split("[^a-z0-9]+")) {
+                if (!palavra.isEmpty()) {
+                    palavras.add(palavra);
+                }
+            }
+        }
+        return palavras;
+    }
+
+    private static long chave(Assinatura assinatura, int banda) {
+        return MinHash.banda(assinatura.descricao(), banda) * 31 + assinatura.tipo().hashCode();
+    }
+
+    private long janela(LocalDateTime dataHora) {
+        return dataHora.toInstant(ZoneOffset.UTC).toEpochMilli() / duracaoMs();
+    }
+
+    private long duracaoMs() {
+        return janelaHoras * 3_600_000L;
+    }
+
+    private static LocalDateTime dataHora(long milissegundos) {
+        return LocalDateTime.ofEpochSecond(milissegundos / 1000, 0, ZoneOffset.UTC);
+    }
+}
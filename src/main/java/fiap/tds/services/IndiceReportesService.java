@@ -0,0 +1,538 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.BuscaReportesDTO;
+import fiap.tds.entities.Reporte;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.repositories.ReporteRepository;
+import fiap.tds.utils.TextoUtil;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice textual (Lucene, embarcado) dos reportes, para a busca da moderação ("ponte" em "Zona Sul").
+ * Descrição, localização e tipo do evento passam por análise em português: minúsculas, stopwords, radical leve
+ * ("pontes" acha "ponte") e remoção de acentos. Status, tipo e severidade viram filtros exatos (normalizados como
+ * nos índices de abrigos e assinaturas) e a data de criação, filtro por intervalo e desempate da ordenação.
+ * Os campos do reporte ficam guardados no próprio índice, então a busca não vai ao banco.
+ * Atualizado pelo ReporteService a cada gravação; as gravações aparecem na busca em até um segundo (uma thread
+ * reabre o leitor, em vez de cada gravação esperar a reabertura). A reconstrução (na subida e sob demanda, sempre em
+ * segundo plano) monta uma geração nova do índice numa passada única por ER_REPORTES, enquanto a busca continua na
+ * geração atual, completa; a troca acontece só no fim. Cada instância da API mantém o seu.
+ */
+@ApplicationScoped
+public class IndiceReportesService {
+
+    private static final Logger logger = Logger.getLogger(IndiceReportesService.class);
+
+    private static final String ID = "id";
+    private static final String DESCRICAO = "description";
+    private static final String LOCALIZACAO = "location";
+    private static final String TIPO_TEXTO = "eventTypeTexto";
+    private static final String TIPO = "eventType";
+    private static final String STATUS = "status";
+    private static final String SEVERIDADE = "severity";
+    private static final String CRIADO = "createdAt";
+    private static final String ALTERADO = "updatedAt";
+    private static final String AUTOR = "reporterName";
+    private static final String IMAGEM = "imageUrl";
+    private static final String USUARIO = "userId";
+    private static final String NOTAS = "adminNotes";
+    private static final String INCIDENTE = "incidentId";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+
+    // Local pesa mais que a descrição: "zona sul" na localização diz mais que uma menção no texto
+    private static final Map<String, Float> PESOS = Map.of(DESCRICAO, 1.0f, LOCALIZACAO, 1.5f, TIPO_TEXTO, 1.0f);
+    private static final Sort ORDEM = new Sort(SortField.FIELD_SCORE, new SortField(CRIADO, SortField.Type.LONG, true));
+    private static final int JANELA_MAXIMA = 10_000; // pagina * tamanho
+    private static final int LOG_A_CADA = 50_000; // Reconstrução: progresso no log
+    private static final double ATRASO_MAXIMO_S = 1.0; // Uma gravação aparece na busca em até 1 s
+    private static final double ATRASO_MINIMO_S = 0.1;
+    private static final String PREFIXO_GERACAO = "indice-";
+
+    @ConfigProperty(name = "reportes.busca.diretorio")
+    Optional<String> diretorioConfigurado;
+
+    /**
+     * Uma geração do índice: diretório, escritor, leitores e a thread que reabre os leitores após as gravações.
+     * @param caminho Subdiretório em disco, ou nulo com o índice em memória.
+     */
+    private record Geracao(Path caminho, Directory diretorio, IndexWriter escritor, SearcherManager buscadores,
+                           ControlledRealTimeReopenThread<IndexSearcher> reabertura) {
+    }
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private final Analyzer analisador = new AnalisadorPortugues();
+    private final ReentrantLock escrita = new ReentrantLock(); // Lock e não synchronized: as escritas rodam em virtual threads
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+    private final AtomicLong geracoes = new AtomicLong();
+    private volatile Geracao atual; // Troca protegida por escrita; a busca só lê
+    private Geracao nova; // Protegido por escrita; não nula só durante a reconstrução
+    private Set<Integer> gravadosNaReconstrucao; // Protegido por escrita; idem
+
+    void iniciar(@Observes StartupEvent event) {
+        try {
+            if (diretorioConfigurado.isPresent()) {
+                apagarGeracoesAntigas(Path.of(diretorioConfigurado.get()));
+            }
+            atual = abrir();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o índice de busca dos reportes.", e);
+        }
+        // Em segundo plano: com milhões de reportes a passada leva tempo e a API já pode responder
+        reconstruirEmSegundoPlano();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        escrita.lock();
+        try {
+            if (nova != null) {
+                fechar(nova);
+                nova = null;
+            }
+            if (atual != null) {
+                fechar(atual);
+            }
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Indexa um reporte novo ou substitui a versão indexada (também na geração em construção, se houver).
+     * Falhas só são registradas no log: o reporte já está no banco e volta ao índice na próxima reconstrução.
+     */
+    public void indexar(Reporte reporte) {
+        try {
+            Term termo = new Term(ID, String.valueOf(reporte.getId()));
+            Document documento = documento(reporte);
+            escrita.lock();
+            try {
+                atual.escritor().updateDocument(termo, documento);
+                if (nova != null) {
+                    gravadosNaReconstrucao.add(reporte.getId());
+                    nova.escritor().updateDocument(termo, documento);
+                }
+            } finally {
+                escrita.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.errorf(e, "Não foi possível indexar o reporte ID %s para a busca.", reporte.getId());
+        }
+    }
+
+    /**
+     * Remove um reporte do índice (também da geração em construção, se houver).
+     */
+    public void remover(int id) {
+        try {
+            Term termo = new Term(ID, String.valueOf(id));
+            escrita.lock();
+            try {
+                atual.escritor().deleteDocuments(termo);
+                if (nova != null) {
+                    gravadosNaReconstrucao.add(id);
+                    nova.escritor().deleteDocuments(termo);
+                }
+            } finally {
+                escrita.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.errorf(e, "Não foi possível remover o reporte ID %s do índice de busca.", id);
+        }
+    }
+
+    /**
+     * Dispara a reconstrução do índice numa virtual thread e retorna na hora; a busca segue na geração atual até o fim.
+     * @throws BadRequestException se já houver uma reconstrução em andamento.
+     */
+    public void reconstruirEmSegundoPlano() {
+        if (!reconstruindo.compareAndSet(false, true)) {
+            throw new BadRequestException("Já existe uma reconstrução do índice de reportes em andamento.");
+        }
+        Thread.ofVirtual().name("indice-reportes").start(() -> {
+            try {
+                construir();
+            } catch (RuntimeException e) {
+                logger.error("Não foi possível reconstruir o índice de busca dos reportes; a busca continua no índice anterior.", e);
+            } finally {
+                reconstruindo.set(false);
+            }
+        });
+    }
+
+    /**
+     * Indica se há uma reconstrução em andamento.
+     */
+    public boolean isReconstruindo() {
+        return reconstruindo.get();
+    }
+
+    /**
+     * Monta uma geração nova a partir de ER_REPORTES, lendo a tabela uma única vez em streaming, e a coloca no lugar
+     * da atual. Gravações feitas durante a passada vão para as duas gerações e prevalecem sobre a versão lida.
+     * Chamado só por reconstruirEmSegundoPlano, com a flag de reconstrução já tomada.
+     */
+    private void construir() {
+        long inicio = System.currentTimeMillis();
+        int[] indexados = {0};
+        Geracao construida = null;
+        try {
+            construida = abrir();
+            escrita.lock();
+            try {
+                nova = construida;
+                gravadosNaReconstrucao = ConcurrentHashMap.newKeySet();
+            } finally {
+                escrita.unlock();
+            }
+            IndexWriter escritor = construida.escritor();
+            repository.percorrer(reporte -> {
+                try {
+                    escrita.lock();
+                    try {
+                        if (!gravadosNaReconstrucao.contains(reporte.getId())) {
+                            escritor.updateDocument(new Term(ID, String.valueOf(reporte.getId())), documento(reporte));
+                        }
+                    } finally {
+                        escrita.unlock();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++indexados[0] % LOG_A_CADA == 0) {
+                    logger.infof("Índice de reportes: %s reportes indexados.", indexados[0]);
+                }
+            });
+            // O que for gravado depois desta reabertura ainda vai para a geração nova e aparece na próxima
+            construida.buscadores().maybeRefreshBlocking();
+
+            Geracao anterior;
+            escrita.lock();
+            try {
+                anterior = atual;
+                atual = construida;
+                nova = null;
+                gravadosNaReconstrucao = null;
+            } finally {
+                escrita.unlock();
+            }
+            fechar(anterior);
+            logger.infof("Índice de reportes reconstruído em %s ms (%s reportes).", System.currentTimeMillis() - inicio, indexados[0]);
+        } catch (IOException e) {
+            descartar(construida);
+            throw new UncheckedIOException("Erro ao reconstruir o índice de reportes.", e);
+        } catch (RuntimeException e) {
+            descartar(construida);
+            throw e;
+        }
+    }
+
+    // Reconstrução que falhou: as gravações voltam a ir só para a geração atual
+    private void descartar(Geracao construida) {
+        if (construida == null) {
+            return;
+        }
+        escrita.lock();
+        try {
+            if (nova == construida) {
+                nova = null;
+                gravadosNaReconstrucao = null;
+            }
+        } finally {
+            escrita.unlock();
+        }
+        fechar(construida);
+    }
+
+    /**
+     * Busca textual com filtros, ordenada por relevância e, no empate (ou sem texto), do mais novo para o mais antigo.
+     * O texto aceita a sintaxe simples do Lucene: "frase exata", prefixo*, -excluir e termo1 | termo2; por padrão
+     * todos os termos precisam aparecer (em qualquer um dos campos).
+     * @param pagina Página, a partir de 1.
+     * @return A página pedida e o total de reportes encontrados.
+     */
+    public BuscaReportesDTO buscar(String texto, String status, String eventType, String severity,
+                                   LocalDateTime desde, LocalDateTime ate, int pagina, int tamanho) {
+        if ((long) pagina * tamanho > JANELA_MAXIMA) {
+            throw new BadRequestException("A busca só pagina os primeiros " + JANELA_MAXIMA + " resultados; refine os filtros.");
+        }
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        if (texto != null && !texto.isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analisador, PESOS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            consulta.add(parser.parse(texto), BooleanClause.Occur.MUST);
+        } else {
+            consulta.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        filtrar(consulta, STATUS, status);
+        filtrar(consulta, TIPO, eventType);
+        filtrar(consulta, SEVERIDADE, severity);
+        if (desde != null || ate != null) {
+            consulta.add(LongPoint.newRangeQuery(CRIADO,
+                    desde != null ? milissegundos(desde) : Long.MIN_VALUE,
+                    ate != null ? milissegundos(ate) : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        Query query = consulta.build();
+
+        try {
+            SearcherManager buscadores = atual.buscadores();
+            IndexSearcher buscador;
+            try {
+                buscador = buscadores.acquire();
+            } catch (AlreadyClosedException e) {
+                buscadores = atual.buscadores(); // A geração foi trocada entre a leitura de atual e o acquire
+                buscador = buscadores.acquire();
+            }
+            try {
+                int inicio = (pagina - 1) * tamanho;
+                TopFieldDocs encontrados = buscador.search(query, inicio + tamanho, ORDEM, true);
+                StoredFields campos = buscador.storedFields();
+                List<Reporte> reportes = new ArrayList<>(tamanho);
+                for (int i = inicio; i < encontrados.scoreDocs.length; i++) {
+                    reportes.add(reporte(campos.document(encontrados.scoreDocs[i].doc)));
+                }
+                return new BuscaReportesDTO(buscador.count(query), pagina, tamanho, reportes);
+            } finally {
+                buscadores.release(buscador);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao consultar o índice de reportes.", e);
+        }
+    }
+
+    // Em disco, cada geração tem o seu subdiretório, para a nova ser montada sem tocar na que está em uso
+    private Geracao abrir() throws IOException {
+        Path caminho = diretorioConfigurado
+                .map(d -> Path.of(d, PREFIXO_GERACAO + System.currentTimeMillis() + "-" + geracoes.incrementAndGet()))
+                .orElse(null);
+        Directory diretorio = caminho != null ? FSDirectory.open(caminho) : new ByteBuffersDirectory();
+        IndexWriter escritor = new IndexWriter(diretorio, new IndexWriterConfig(analisador).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        SearcherManager buscadores = new SearcherManager(escritor, null);
+        ControlledRealTimeReopenThread<IndexSearcher> reabertura =
+                new ControlledRealTimeReopenThread<>(escritor, buscadores, ATRASO_MAXIMO_S, ATRASO_MINIMO_S);
+        reabertura.setName("indice-reportes-reabertura");
+        reabertura.setDaemon(true);
+        reabertura.start();
+        return new Geracao(caminho, diretorio, escritor, buscadores, reabertura);
+    }
+
+    // Buscas que já pegaram um leitor desta geração terminam normalmente: o leitor só fecha no último release
+    private static void fechar(Geracao geracao) {
+        try {
+            geracao.reabertura().close();
+            geracao.buscadores().close();
+            geracao.escritor().close();
+            geracao.diretorio().close();
+            if (geracao.caminho() != null) {
+                apagar(geracao.caminho());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warnf(e, "Não foi possível fechar uma geração do índice de reportes: %s", e.getMessage());
+        }
+    }
+
+    // Subdiretórios deixados por uma execução anterior (o índice é sempre refeito na subida)
+    private static void apagarGeracoesAntigas(Path base) throws IOException {
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        try (Stream<Path> itens = Files.list(base)) {
+            for (Path item : itens.filter(p -> p.getFileName().toString().startsWith(PREFIXO_GERACAO)).toList()) {
+                apagar(item);
+            }
+        }
+    }
+
+    private static void apagar(Path caminho) throws IOException {
+        try (Stream<Path> itens = Files.walk(caminho)) {
+            for (Path item : itens.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(item);
+            }
+        }
+    }
+
+    private static void filtrar(BooleanQuery.Builder consulta, String campo, String valor) {
+        String chave = TextoUtil.normalizar(valor);
+        if (chave != null) {
+            consulta.add(new TermQuery(new Term(campo, chave)), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private static Document documento(Reporte reporte) {
+        Document documento = new Document();
+        documento.add(new StringField(ID, String.valueOf(reporte.getId()), Field.Store.YES));
+        texto(documento, DESCRICAO, reporte.getDescription());
+        texto(documento, LOCALIZACAO, reporte.getLocation());
+        if (reporte.getEventType() != null) {
+            documento.add(new TextField(TIPO_TEXTO, reporte.getEventType(), Field.Store.NO));
+        }
+        chave(documento, TIPO, reporte.getEventType());
+        chave(documento, STATUS, reporte.getStatus());
+        chave(documento, SEVERIDADE, reporte.getSeverity());
+        if (reporte.getCreatedAt() != null) {
+            long criado = milissegundos(reporte.getCreatedAt());
+            documento.add(new LongPoint(CRIADO, criado));
+            documento.add(new NumericDocValuesField(CRIADO, criado));
+            documento.add(new StoredField(CRIADO, criado));
+        }
+        if (reporte.getUpdatedAt() != null) {
+            documento.add(new StoredField(ALTERADO, milissegundos(reporte.getUpdatedAt())));
+        }
+        if (reporte.getUserId() != null) {
+            documento.add(new StoredField(USUARIO, reporte.getUserId()));
+        }
+        if (reporte.getIncidentId() != null) {
+            documento.add(new StoredField(INCIDENTE, reporte.getIncidentId()));
+        }
+        if (reporte.getLatitude() != null && reporte.getLongitude() != null) {
+            documento.add(new StoredField(LATITUDE, reporte.getLatitude()));
+            documento.add(new StoredField(LONGITUDE, reporte.getLongitude()));
+        }
+        guardar(documento, AUTOR, reporte.getReporterName());
+        guardar(documento, IMAGEM, reporte.getImageUrl());
+        guardar(documento, NOTAS, reporte.getAdminNotes());
+        return documento;
+    }
+
+    private static void texto(Document documento, String campo, String valor) {
+        if (valor != null) {
+            documento.add(new TextField(campo, valor, Field.Store.YES));
+        }
+    }
+
+    // Filtro exato pelo valor normalizado; o valor original fica guardado à parte para montar a resposta
+    private static void chave(Document documento, String campo, String valor) {
+        String chave = TextoUtil.normalizar(valor);
+        if (chave != null) {
+            documento.add(new StringField(campo, chave, Field.Store.NO));
+        }
+        guardar(documento, campo + "Original", valor);
+    }
+
+    private static void guardar(Document documento, String campo, String valor) {
+        if (valor != null) {
+            documento.add(new StoredField(campo, valor));
+        }
+    }
+
+    private static Reporte reporte(Document documento) {
+        Reporte reporte = new Reporte();
+        reporte.setId(Integer.parseInt(documento.get(ID)));
+        reporte.setDescription(documento.get(DESCRICAO));
+        reporte.setLocation(documento.get(LOCALIZACAO));
+        reporte.setEventType(documento.get(TIPO + "Original"));
+        reporte.setStatus(documento.get(STATUS + "Original"));
+        reporte.setSeverity(documento.get(SEVERIDADE + "Original"));
+        reporte.setReporterName(documento.get(AUTOR));
+        reporte.setImageUrl(documento.get(IMAGEM));
+        reporte.setAdminNotes(documento.get(NOTAS));
+        IndexableField usuario = documento.getField(USUARIO);
+        reporte.setUserId(usuario != null ? usuario.numericValue().intValue() : null);
+        IndexableField incidente = documento.getField(INCIDENTE);
+        reporte.setIncidentId(incidente != null ? incidente.numericValue().intValue() : null);
+        IndexableField latitude = documento.getField(LATITUDE);
+        IndexableField longitude = documento.getField(LONGITUDE);
+        if (latitude != null && longitude != null) {
+            reporte.setLatitude(latitude.numericValue().doubleValue());
+            reporte.setLongitude(longitude.numericValue().doubleValue());
+        }
+        IndexableField criado = documento.getField(CRIADO);
+        reporte.setCreatedAt(criado != null ? dataHora(criado.numericValue().longValue()) : null);
+        IndexableField alterado = documento.getField(ALTERADO);
+        reporte.setUpdatedAt(alterado != null ? dataHora(alterado.numericValue().longValue()) : null);
+        return reporte;
+    }
+
+    // LocalDateTime não tem fuso; UTC aqui só serve para virar um número ordenável e voltar igual
+    private static long milissegundos(LocalDateTime dataHora) {
+        return dataHora.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime dataHora(long milissegundos) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(milissegundos), ZoneOffset.UTC);
+    }
+
+    /**
+     * Português do Brasil: tokens do StandardTokenizer, minúsculas, stopwords, radical leve e, por último,
+     * remoção de acentos ("inundação" e "inundacao" casam). O radical vem antes porque as regras contam com os acentos.
+     */
+    private static final class AnalisadorPortugues extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String campo) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream fluxo = new LowerCaseFilter(tokenizer);
+            fluxo = new StopFilter(fluxo, PortugueseAnalyzer.getDefaultStopSet());
+            fluxo = new PortugueseLightStemFilter(fluxo);
+            fluxo = new ASCIIFoldingFilter(fluxo);
+            return new TokenStreamComponents(tokenizer, fluxo);
+        }
+
+        @Override
+        protected TokenStream normalize(String campo, TokenStream entrada) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.InicioDTO;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.entities.Alerta;
+import fiap.tds.entities.Mapa;
+import fiap.tds.entities.Reporte;
+import fiap.tds.exceptions.BadRequestException;
+
+import io.opentelemetry.context.Context;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Monta, em uma única chamada, os dados da tela inicial do app
+ * (alertas, áreas de risco, abrigos e reportes recentes).
+ * As quatro consultas rodam em paralelo, cada uma em uma virtual thread.
+ */
+@ApplicationScoped
+public class InicioService {
+
+    private static final Logger logger = Logger.getLogger(InicioService.class);
+    private static final int LIMITE_MAXIMO_REPORTES = 100; // Acima disso o limite é reduzido, para uma chamada não ler a tabela inteira
+
+    @Inject
+    AlertaService alertaService;
+
+    @Inject
+    MapaService mapaService;
+
+    @Inject
+    AbrigoService abrigoService;
+
+    @Inject
+    ReporteService reporteService;
+
+    @ConfigProperty(name = "inicio.timeout-ms", defaultValue = "5000")
+    long timeoutMs;
+
+    /**
+     * Carrega as fatias da tela inicial em paralelo.
+     * @param limiteReportes Quantidade de reportes recentes a incluir, reduzida a LIMITE_MAXIMO_REPORTES.
+     * @return O DTO com as fatias carregadas; as que falharam ou estouraram o tempo vão em "falhas".
+     * @throws BadRequestException se o limite de reportes for inválido.
+     */
+    public InicioDTO carregar(int limiteReportes) {
+        if (limiteReportes <= 0) {
+            throw new BadRequestException("O limite de reportes deve ser um número positivo.");
+        }
+        int limite = Math.min(limiteReportes, LIMITE_MAXIMO_REPORTES);
+
+        long inicio = System.nanoTime();
+        Map<String, Long> tempos = new ConcurrentHashMap<>();
+        // Sem try-with-resources: close() esperaria até uma consulta travada terminar, ignorando o timeout
+        // taskWrapping leva o contexto do trace para as virtual threads: as consultas viram filhas do span da requisição
+        ExecutorService executor = Context.taskWrapping(Executors.newVirtualThreadPerTaskExecutor());
+        try {
+            Future<List<Alerta>> alertas = executor.submit(cronometrar("alertas", tempos, () -> alertaService.listarAtivos(Integer.MAX_VALUE)));
+            Future<List<Mapa>> mapas = executor.submit(cronometrar("mapas", tempos, mapaService::listarTodos));
+            Future<List<Abrigo>> abrigos = executor.submit(cronometrar("abrigos", tempos, abrigoService::listarTodos));
+            Future<List<Reporte>> reportes = executor.submit(cronometrar("reportes", tempos, () -> reporteService.listarRecentes(limite)));
+
+            long prazo = inicio + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            InicioDTO dto = new InicioDTO();
+            dto.setAlertas(aguardar("alertas", alertas, prazo, dto));
+            dto.setMapas(aguardar("mapas", mapas, prazo, dto));
+            dto.setAbrigos(aguardar("abrigos", abrigos, prazo, dto));
+            dto.setReportes(aguardar("reportes", reportes, prazo, dto));
+
+            for (String fatia : List.of("alertas", "mapas", "abrigos", "reportes")) {
+                if (tempos.containsKey(fatia)) {
+                    dto.getTemposMs().put(fatia, tempos.get(fatia));
+                }
+            }
+            dto.getTemposMs().put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            return dto;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> Callable<T> cronometrar(String fatia, Map<String, Long> tempos, Callable<T> consulta) {
+        return () -> {
+            long inicio = System.nanoTime();
+            try {
+                return consulta.call();
+            } finally {
+                tempos.put(fatia, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            }
+        };
+    }
+
+    private <T> T aguardar(String fatia, Future<T> futuro, long prazoNanos, InicioDTO dto) {
+        try {
+            return futuro.get(Math.max(0, prazoNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warnf("Tela inicial: fatia '%s' excedeu %s ms e foi omitida.", fatia, timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warnf("Tela inicial: espera pela fatia '%s' interrompida.", fatia);
+        } catch (Exception e) {
+            logger.errorf(e, "Tela inicial: erro ao carregar a fatia '%s': %s", fatia, e.getMessage());
+        }
+        futuro.cancel(true);
+        dto.getFalhas().add(fatia);
+        return null;
+    }
+}
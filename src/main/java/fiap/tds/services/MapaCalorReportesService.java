@@ -0,0 +1,230 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.TileMapaCalorDTO;
+import fiap.tds.entities.Reporte;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.repositories.ReporteRepository;
+import fiap.tds.utils.MapaContagens;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapa de calor dos reportes em tiles z/x/y (Web Mercator, como os mapas do app), com 32x32 células por tile.
+ * Cada hora de criação tem um MapaContagens (arrays primitivos, sem objeto por reporte) com a contagem de cada
+ * célula em todos os níveis de zoom: um reporte soma 1 em 18 células, do zoom 0 ao das células do zoom máximo.
+ * Ler um tile é somar as suas 1024 células nas horas do período, pulando as horas sem nenhum reporte no tile.
+ * O resultado fica em cache por tile até um reporte cair nele ou a hora virar.
+ * Só as últimas reportes.mapa-calor.retencao-horas ficam em memória. Cada instância da API mantém o seu;
+ * gravações feitas durante uma reconstrução podem ficar de fora até a próxima.
+ */
+@ApplicationScoped
+public class MapaCalorReportesService {
+
+    private static final Logger logger = Logger.getLogger(MapaCalorReportesService.class);
+
+    public static final int ZOOM_MAXIMO = 12;
+    private static final int BITS_CELULA = 5;
+    public static final int CELULAS_POR_LADO = 1 << BITS_CELULA;
+    private static final int ZOOM_CELULAS = ZOOM_MAXIMO + BITS_CELULA; // Zoom em que uma célula vira um tile
+    private static final int LIMITE_CACHE = 10_000;
+    private static final double LATITUDE_MAXIMA = 85.05112878; // Limite da projeção Web Mercator
+
+    @ConfigProperty(name = "reportes.mapa-calor.retencao-horas", defaultValue = "168")
+    int retencaoHoras;
+
+    private record TileEmCache(long hora, TileMapaCalorDTO tile) {
+    }
+
+    private final ReporteRepository repository = new ReporteRepository();
+    private volatile ConcurrentSkipListMap<Long, MapaContagens> horas = new ConcurrentSkipListMap<>(); // Hora (epoch / 3600) -> células
+    // Tile -> período (horas) -> resultado; a entrada do tile inteira sai quando um reporte cai nele
+    private final Map<Long, Map<Integer, TileEmCache>> cache = new ConcurrentHashMap<>();
+
+    void carregar(@Observes StartupEvent event) {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.error("Não foi possível carregar o mapa de calor; só os reportes gravados a partir de agora vão aparecer.", e);
+        }
+    }
+
+    /**
+     * Refaz as contagens a partir dos reportes geocodificados do período de retenção.
+     * @return A quantidade de reportes contados.
+     */
+    public synchronized int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        ConcurrentSkipListMap<Long, MapaContagens> novas = new ConcurrentSkipListMap<>();
+        AtomicInteger contados = new AtomicInteger();
+        repository.percorrerPontosDesde(dataHora(horaAtual() - retencaoHoras + 1), ponto -> {
+            if (somar(novas, ponto.latitude(), ponto.longitude(), ponto.criado(), 1)) {
+                contados.incrementAndGet();
+            }
+        });
+        horas = novas;
+        cache.clear();
+        logger.infof("Mapa de calor carregado em %s ms (%s reportes em %s horas).",
+                System.currentTimeMillis() - inicio, contados.get(), novas.size());
+        return contados.get();
+    }
+
+    public void adicionar(Reporte reporte) {
+        if (reporte.getLatitude() != null && reporte.getLongitude() != null) {
+            somar(horas, reporte.getLatitude(), reporte.getLongitude(), reporte.getCreatedAt(), 1);
+        }
+    }
+
+    public void remover(Reporte reporte) {
+        if (reporte.getLatitude() != null && reporte.getLongitude() != null) {
+            somar(horas, reporte.getLatitude(), reporte.getLongitude(), reporte.getCreatedAt(), -1);
+        }
+    }
+
+    /**
+     * Move um reporte editado da posição antiga para a atual.
+     * @param latitudeAnterior Posição antes da edição; nula se o reporte não estava no mapa.
+     */
+    public void mover(Double latitudeAnterior, Double longitudeAnterior, Reporte atual) {
+        if (latitudeAnterior != null && longitudeAnterior != null) {
+            somar(horas, latitudeAnterior, longitudeAnterior, atual.getCreatedAt(), -1);
+        }
+        adicionar(atual);
+    }
+
+    /**
+     * Contagens das células de um tile nas últimas horas (a hora atual inclusive).
+     * @param z Zoom, de 0 a ZOOM_MAXIMO.
+     * @param horasPeriodo De 1 ao período de retenção.
+     * @throws BadRequestException se o tile ou o período for inválido.
+     */
+    public TileMapaCalorDTO tile(int z, int x, int y, int horasPeriodo) {
+        if (z < 0 || z > ZOOM_MAXIMO) {
+            throw new BadRequestException("O zoom deve estar entre 0 e " + ZOOM_MAXIMO + ".");
+        }
+        if (x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new BadRequestException("Tile " + z + "/" + x + "/" + y + " fora do mapa.");
+        }
+        if (horasPeriodo <= 0 || horasPeriodo > retencaoHoras) {
+            throw new BadRequestException("O período em horas deve estar entre 1 e " + retencaoHoras + ".");
+        }
+
+        long agora = horaAtual();
+        if (cache.size() > LIMITE_CACHE) {
+            cache.clear();
+        }
+        // Pegar o mapa do tile antes de calcular: se um reporte cair no tile no meio do cálculo, a invalidação
+        // tira este mapa do cache e o resultado (possivelmente desatualizado) é guardado num mapa descartado
+        Map<Integer, TileEmCache> doTile = cache.computeIfAbsent(chave(z, x, y), k -> new ConcurrentHashMap<>());
+        TileEmCache emCache = doTile.get(horasPeriodo);
+        if (emCache != null && emCache.hora() == agora) {
+            return emCache.tile();
+        }
+        TileMapaCalorDTO tile = calcular(z, x, y, horasPeriodo, agora);
+        doTile.put(horasPeriodo, new TileEmCache(agora, tile));
+        return tile;
+    }
+
+    private TileMapaCalorDTO calcular(int z, int x, int y, int horasPeriodo, long agora) {
+        int zoomCelulas = z + BITS_CELULA;
+        int primeiraColuna = x << BITS_CELULA;
+        int primeiraLinha = y << BITS_CELULA;
+        int[] contagens = new int[CELULAS_POR_LADO * CELULAS_POR_LADO];
+        long chaveTile = chave(z, x, y);
+        for (MapaContagens mapa : horas.subMap(agora - horasPeriodo + 1, true, agora, true).values()) {
+            synchronized (mapa) {
+                if (mapa.obter(chaveTile) <= 0) {
+                    continue; // Nenhum reporte no tile nesta hora
+                }
+                for (int linha = 0; linha < CELULAS_POR_LADO; linha++) {
+                    for (int coluna = 0; coluna < CELULAS_POR_LADO; coluna++) {
+                        contagens[linha * CELULAS_POR_LADO + coluna] += mapa.obter(chave(zoomCelulas, primeiraColuna + coluna, primeiraLinha + linha));
+                    }
+                }
+            }
+        }
+
+        List<int[]> celulas = new ArrayList<>();
+        long total = 0;
+        int maximo = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] > 0) {
+                celulas.add(new int[]{i % CELULAS_POR_LADO, i / CELULAS_POR_LADO, contagens[i]});
+                total += contagens[i];
+                maximo = Math.max(maximo, contagens[i]);
+            }
+        }
+        return new TileMapaCalorDTO(z, x, y, horasPeriodo, CELULAS_POR_LADO, total, maximo, celulas);
+    }
+
+    // Soma a quantidade na célula do ponto em todos os zooms; false se a hora já saiu da retenção
+    private boolean somar(ConcurrentSkipListMap<Long, MapaContagens> alvo, double latitude, double longitude,
+                          LocalDateTime criado, int quantidade) {
+        long agora = horaAtual();
+        long hora = criado != null ? hora(criado) : agora;
+        if (hora <= agora - retencaoHoras) {
+            return false;
+        }
+        int coluna = coluna(longitude);
+        int linha = linha(latitude);
+        MapaContagens mapa = alvo.computeIfAbsent(hora, h -> new MapaContagens(1024));
+        synchronized (mapa) {
+            for (int zoom = 0; zoom <= ZOOM_CELULAS; zoom++) {
+                int deslocamento = ZOOM_CELULAS - zoom;
+                mapa.somar(chave(zoom, coluna >> deslocamento, linha >> deslocamento), quantidade);
+            }
+        }
+        // Depois de somar: quem recalcular o tile a partir daqui já vê a contagem nova
+        for (int zoom = 0; zoom <= ZOOM_MAXIMO; zoom++) {
+            int deslocamento = ZOOM_CELULAS - zoom;
+            cache.remove(chave(zoom, coluna >> deslocamento, linha >> deslocamento));
+        }
+        alvo.headMap(agora - retencaoHoras, true).clear();
+        return true;
+    }
+
+    // Coluna e linha da célula no zoom ZOOM_CELULAS (projeção Web Mercator)
+    private static int coluna(double longitude) {
+        double fracao = (Math.max(-180, Math.min(180, longitude)) + 180) / 360;
+        return limitar((int) Math.floor(fracao * (1 << ZOOM_CELULAS)));
+    }
+
+    private static int linha(double latitude) {
+        double radianos = Math.toRadians(Math.max(-LATITUDE_MAXIMA, Math.min(LATITUDE_MAXIMA, latitude)));
+        double fracao = (1 - Math.log(Math.tan(radianos) + 1 / Math.cos(radianos)) / Math.PI) / 2;
+        return limitar((int) Math.floor(fracao * (1 << ZOOM_CELULAS)));
+    }
+
+    private static int limitar(int posicao) {
+        return Math.max(0, Math.min((1 << ZOOM_CELULAS) - 1, posicao));
+    }
+
+    // Zoom, coluna e linha numa chave só; o bit 62 garante que nenhuma chave seja 0 (vaga no MapaContagens)
+    private static long chave(int zoom, int coluna, int linha) {
+        return 1L << 62 | (long) zoom << 48 | (long) coluna << 24 | linha;
+    }
+
+    // LocalDateTime não tem fuso; UTC aqui só serve para numerar as horas
+    private static long hora(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static long horaAtual() {
+        return hora(LocalDateTime.now());
+    }
+
+    private static LocalDateTime dataHora(long hora) {
+        return LocalDateTime.ofEpochSecond(hora * 3600, 0, ZoneOffset.UTC);
+    }
+}
@@ -2,19 +2,30 @@ package fiap.tds.services;
 
 import fiap.tds.entities.Mapa;
 import fiap.tds.repositories.MapaRepository;
+import fiap.tds.repositories.LeituraReativaRepository;
 import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 
+import io.smallrye.mutiny.Uni;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
+@ApplicationScoped
 public class MapaService {
 
     private final MapaRepository repository = new MapaRepository(); // Instancia o repositório
 
+    @Inject
+    LeituraReativaRepository leituraReativa;
+
     /**
      * Valida e registra uma nova área de risco (Mapa).
      */
+    @WithSpan
     public void registrar(Mapa mapa) {
         if (mapa == null) {
             throw new BadRequestException("Dados da área de risco (mapa) não podem ser nulos.");
@@ -46,16 +57,27 @@ public class MapaService {
      * Retorna todas as áreas de risco (Mapas) cadastradas.
      * @return Lista de Mapas.
      */
+    @WithSpan
     public List<Mapa> listarTodos() {
         return repository.buscarTodos();
     }
 
+    /**
+     * Versão não bloqueante de listarTodos, para endpoints servidos na thread de I/O.
+     * @return Uni com a lista de Mapas.
+     */
+    @WithSpan
+    public Uni<List<Mapa>> listarTodosReativo() {
+        return leituraReativa.buscarMapas();
+    }
+
     /**
      * Busca uma área de risco (Mapa) pelo seu ID.
      * @param id O ID da área de risco a ser buscada.
      * @return O objeto Mapa encontrado.
      * @throws NotFoundException se nenhuma área de risco com o ID fornecido for encontrada.
      */
+    @WithSpan
     public Mapa buscarPorId(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID da área de risco deve ser um número positivo.");
@@ -74,6 +96,7 @@ public class MapaService {
      * @throws NotFoundException se nenhuma área de risco com o ID fornecido for encontrada.
      * @throws BadRequestException se os dados fornecidos para atualização forem inválidos.
      */
+    @WithSpan
     public void atualizar(int id, Mapa mapa) {
         if (id <= 0) {
             throw new BadRequestException("ID da área de risco para atualização deve ser um número positivo.");
@@ -117,6 +140,7 @@ public class MapaService {
      * @param id O ID da área de risco a ser deletada.
      * @throws NotFoundException se nenhuma área de risco com o ID fornecido for encontrada.
      */
+    @WithSpan
     public void deletar(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID da área de risco para exclusão deve ser um número positivo.");
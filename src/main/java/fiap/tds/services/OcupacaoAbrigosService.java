@@ -0,0 +1,271 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.OcupacaoAbrigoDTO;
+import fiap.tds.entities.Abrigo;
+import fiap.tds.exceptions.NotFoundException;
+import fiap.tds.repositories.AbrigoRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lotação dos abrigos em tempo real. Cada entrada/saída só mexe no contador atômico do abrigo (CAS, sem lock),
+ * então abrigos diferentes nunca disputam entre si e o mesmo abrigo aguenta muitas atualizações concorrentes.
+ * A cada abrigos.ocupacao.intervalo-ms as variações acumuladas vão ao banco num único lote (uma linha por abrigo,
+ * por mais entradas e saídas que tenha havido) e a lotação dos abrigos alterados é publicada no SSE.
+ * O banco recebe a variação, não o total: cada instância da API mantém seus contadores e todas somam no mesmo abrigo.
+ * Depois de cada gravação a lotação de todos os abrigos é relida do banco, então o que as outras instâncias somaram
+ * aparece aqui (contadores, índice e SSE) com no máximo uma rodada de atraso.
+ */
+@ApplicationScoped
+public class OcupacaoAbrigosService {
+
+    private static final Logger logger = Logger.getLogger(OcupacaoAbrigosService.class);
+
+    @ConfigProperty(name = "abrigos.ocupacao.intervalo-ms", defaultValue = "1000")
+    long intervaloMs;
+
+    @Inject
+    IndiceAbrigosService indiceAbrigos;
+
+    @Inject
+    OcupacaoBroadcastService broadcast;
+
+    private final AbrigoRepository repository = new AbrigoRepository();
+    private final Map<Integer, Contador> contadores = new ConcurrentHashMap<>();
+    private final Set<Integer> alterados = ConcurrentHashMap.newKeySet();
+    private Map<Integer, OcupacaoAbrigoDTO> ultimaLeitura = Map.of(); // Abrigos sem contador aqui; só na thread agendada
+    private ScheduledExecutorService gravacao;
+
+    void iniciar(@Observes StartupEvent event) {
+        gravacao = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("ocupacao-abrigos").daemon().factory());
+        gravacao.scheduleWithFixedDelay(this::gravar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        if (gravacao != null) {
+            gravacao.shutdown();
+            gravacao.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        gravar(); // O que chegou depois da última rodada
+    }
+
+    /**
+     * Soma pessoas à lotação do abrigo (entradas, positivo) ou subtrai (saídas, negativo).
+     * A lotação nunca fica negativa; acima da capacidade é permitida e o abrigo aparece como lotado.
+     * @return A lotação logo após a atualização, ainda não gravada no banco.
+     * @throws NotFoundException se o abrigo não existe.
+     */
+    public OcupacaoAbrigoDTO somar(int idAbrigo, int variacao) {
+        Contador contador = contador(idAbrigo);
+        contador.somar(variacao);
+        alterados.add(idAbrigo); // Depois de somar: a gravação remove o ID antes de ler o pendente
+        return contador.retrato(idAbrigo);
+    }
+
+    /**
+     * Lotação atual do abrigo, incluindo o que ainda não foi gravado.
+     * @throws NotFoundException se o abrigo não existe.
+     */
+    public OcupacaoAbrigoDTO consultar(int idAbrigo) {
+        return contador(idAbrigo).retrato(idAbrigo);
+    }
+
+    /**
+     * Lotação que este processo conhece para o abrigo, para uma gravação completa (PUT) não sobrescrevê-la.
+     * @param gravada Lotação lida do banco, usada se o abrigo ainda não teve entradas/saídas aqui.
+     */
+    public int ocupacaoAtual(int idAbrigo, int gravada) {
+        Contador contador = contadores.get(idAbrigo);
+        return contador != null ? contador.ocupacao.get() : gravada;
+    }
+
+    /**
+     * Acompanha a capacidade e a situação gravadas por um PUT.
+     */
+    public void redefinir(Abrigo abrigo) {
+        Contador contador = contadores.get(abrigo.getId());
+        if (contador != null) {
+            contador.capacidade = abrigo.getCapacity();
+            contador.situacaoInformada = abrigo.getCapacityStatus();
+        }
+    }
+
+    /**
+     * Descarta o contador de um abrigo excluído (variações pendentes incluídas).
+     */
+    public void remover(int idAbrigo) {
+        contadores.remove(idAbrigo);
+        alterados.remove(idAbrigo);
+    }
+
+    private Contador contador(int idAbrigo) {
+        Contador contador = contadores.get(idAbrigo);
+        if (contador != null) {
+            return contador;
+        }
+        // Primeiro acesso ao abrigo neste processo: lê do banco fora do computeIfAbsent, que não deve bloquear
+        Abrigo abrigo = repository.buscarPorId(idAbrigo);
+        if (abrigo == null) {
+            throw new NotFoundException("Abrigo com ID " + idAbrigo + " não encontrado.");
+        }
+        return contadores.computeIfAbsent(idAbrigo, id -> new Contador(abrigo));
+    }
+
+    // Roda na thread agendada: nunca deixa escapar exceção, que cancelaria as próximas execuções
+    private void gravar() {
+        try {
+            Map<Integer, Integer> variacoes = new HashMap<>();
+            Set<Integer> publicar = new HashSet<>();
+            for (Iterator<Integer> ids = alterados.iterator(); ids.hasNext(); ) {
+                int id = ids.next();
+                ids.remove();
+                Contador contador = contadores.get(id);
+                if (contador == null) {
+                    continue;
+                }
+                int pendente = contador.pendente.getAndSet(0);
+                if (pendente != 0) {
+                    variacoes.put(id, pendente);
+                }
+                publicar.add(id);
+            }
+
+            if (!variacoes.isEmpty()) {
+                try {
+                    repository.somarOcupacoes(variacoes);
+                    logger.debugf("Lotação de %s abrigos gravada.", variacoes.size());
+                } catch (RuntimeException e) {
+                    // Devolve as variações para a próxima rodada; somadas ao que chegar até lá
+                    variacoes.forEach((id, pendente) -> {
+                        Contador contador = contadores.get(id);
+                        if (contador != null) {
+                            contador.pendente.addAndGet(pendente);
+                            alterados.add(id);
+                        }
+                    });
+                    logger.warnf("Lotação de %s abrigos não gravada; nova tentativa em %s ms.", variacoes.size(), intervaloMs);
+                }
+            }
+            reler(publicar);
+            for (int id : publicar) {
+                Contador contador = contadores.get(id);
+                if (contador != null) {
+                    publicar(contador.retrato(id));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Erro ao gravar a lotação dos abrigos: %s", e.getMessage());
+        }
+    }
+
+    // Traz o que as outras instâncias gravaram: cada contador passa a ser o total do banco mais o que ainda não foi
+    // gravado daqui. Os abrigos cuja lotação mudou entram em publicar; os que não têm contador aqui vão direto ao índice.
+    private void reler(Set<Integer> publicar) {
+        List<Abrigo> lidos;
+        try {
+            lidos = repository.buscarOcupacoes();
+        } catch (RuntimeException e) {
+            logger.warnf("Lotação dos abrigos não relida do banco; nova tentativa em %s ms.", intervaloMs);
+            return;
+        }
+        Map<Integer, OcupacaoAbrigoDTO> anterior = ultimaLeitura;
+        Map<Integer, OcupacaoAbrigoDTO> leitura = new HashMap<>();
+        for (Abrigo lido : lidos) {
+            int id = lido.getId();
+            Contador contador = contadores.get(id);
+            if (contador != null) {
+                if (contador.sincronizar(lido)) {
+                    publicar.add(id);
+                }
+                continue;
+            }
+            OcupacaoAbrigoDTO gravada = new Contador(lido).retrato(id);
+            leitura.put(id, gravada);
+            OcupacaoAbrigoDTO antes = anterior.get(id);
+            if (antes == null || antes.getOcupacao() != gravada.getOcupacao()
+                    || !Objects.equals(antes.getCapacityStatus(), gravada.getCapacityStatus())) {
+                indiceAbrigos.atualizarOcupacao(id, gravada.getOcupacao(), gravada.getCapacityStatus());
+                if (antes != null) {
+                    broadcast.publicar(gravada);
+                }
+            }
+        }
+        ultimaLeitura = leitura;
+    }
+
+    private void publicar(OcupacaoAbrigoDTO evento) {
+        indiceAbrigos.atualizarOcupacao(evento.getIdAbrigo(), evento.getOcupacao(), evento.getCapacityStatus());
+        broadcast.publicar(evento);
+    }
+
+    private static final class Contador {
+        final AtomicInteger ocupacao;
+        final AtomicInteger pendente = new AtomicInteger(); // Variação ainda não gravada no banco
+        volatile Integer capacidade;
+        volatile String situacaoInformada; // Texto livre do cadastro, usado quando não há capacidade
+
+        Contador(Abrigo abrigo) {
+            ocupacao = new AtomicInteger(abrigo.getOccupancy());
+            capacidade = abrigo.getCapacity();
+            situacaoInformada = abrigo.getCapacityStatus();
+        }
+
+        void somar(int variacao) {
+            int atual;
+            int nova;
+            do {
+                atual = ocupacao.get();
+                nova = Math.max(0, atual + variacao);
+            } while (!ocupacao.compareAndSet(atual, nova));
+            // Só o que de fato mudou: uma saída com o abrigo vazio não deve descontar no banco
+            pendente.addAndGet(nova - atual);
+        }
+
+        /**
+         * Passa a valer o total lido do banco mais o que este processo ainda não gravou.
+         * @return Se a lotação ou a capacidade mudaram.
+         */
+        boolean sincronizar(Abrigo lido) {
+            boolean mudou = !Objects.equals(capacidade, lido.getCapacity());
+            capacidade = lido.getCapacity();
+            situacaoInformada = lido.getCapacityStatus();
+            while (true) {
+                int pendenteLido = pendente.get();
+                int atual = ocupacao.get();
+                int nova = Math.max(0, lido.getOccupancy() + pendenteLido);
+                // Um somar entre as duas leituras muda ocupacao ou pendente: lê tudo de novo
+                if (ocupacao.compareAndSet(atual, nova)) {
+                    mudou = mudou || nova != atual;
+                    if (pendente.get() == pendenteLido) {
+                        return mudou;
+                    }
+                }
+            }
+        }
+
+        OcupacaoAbrigoDTO retrato(int idAbrigo) {
+            int atual = ocupacao.get();
+            Integer total = capacidade;
+            return new OcupacaoAbrigoDTO(idAbrigo, atual, total, total != null ? Abrigo.situacao(atual, total) : situacaoInformada);
+        }
+    }
+}
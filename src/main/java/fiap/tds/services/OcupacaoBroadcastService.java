@@ -0,0 +1,25 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.OcupacaoAbrigoDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Canal de push da lotação dos abrigos para os clientes conectados via SSE.
+ * Os eventos já chegam agrupados pelo OcupacaoAbrigosService (no máximo um por abrigo a cada intervalo).
+ */
+@ApplicationScoped
+public class OcupacaoBroadcastService extends CanalSse<OcupacaoAbrigoDTO> {
+
+    @ConfigProperty(name = "abrigos.ocupacao.stream.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    public OcupacaoBroadcastService() {
+        super("lotação");
+    }
+
+    @Override
+    protected int bufferSize() {
+        return bufferSize;
+    }
+}
@@ -1,27 +1,64 @@
 package fiap.tds.services;
 
+import fiap.tds.dtos.BuscaReportesDTO;
+import fiap.tds.dtos.EstatisticasReportesDTO;
+import fiap.tds.dtos.IncidenteDTO;
 import fiap.tds.dtos.ReporteComImagemDTO;
+import fiap.tds.dtos.TileMapaCalorDTO;
 import fiap.tds.entities.Reporte;
 import fiap.tds.repositories.ReporteRepository;
 import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.exceptions.ConflictException;
 import fiap.tds.exceptions.NotFoundException;
 import fiap.tds.utils.FileUploadUtil;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class ReporteService {
+    private static final Logger logger = Logger.getLogger(ReporteService.class);
 
     @Inject
     FileUploadUtil fileUploadUtil;
 
+    @Inject
+    IndiceReportesService indiceReportes;
+
+    @Inject
+    IndiceIncidentesService indiceIncidentes;
+
+    @Inject
+    EstatisticasReportesService estatisticas;
+
+    @Inject
+    MapaCalorReportesService mapaCalor;
+
+    @Inject
+    GeocodificacaoService geocodificacao;
+
+    @Inject
+    DeteccaoPicosService deteccaoPicos;
+
+    @Inject
+    ArquivamentoReportesService arquivamento;
+
+    private static final int LOTE_GEOCODIFICACAO = 1000;
+
     private final ReporteRepository repository = new ReporteRepository();
 
+    @WithSpan
     public Reporte registrar(ReporteComImagemDTO reporteDTO) {
         if (reporteDTO == null) {
             throw new BadRequestException("Dados do formulário de reporte não podem ser nulos.");
@@ -42,7 +79,11 @@ public class ReporteService {
         novoReporte.setDescription(reporteDTO.getDescription());
         novoReporte.setLocation(reporteDTO.getLocation());
         novoReporte.setUserId(reporteDTO.getUserId());
+        novoReporte.setLatitude(reporteDTO.getLatitude());
+        novoReporte.setLongitude(reporteDTO.getLongitude());
+        prepararCoordenadas(novoReporte);
         novoReporte.setCreatedAt(LocalDateTime.now()); // Define o momento da criação
+        novoReporte.setUpdatedAt(novoReporte.getCreatedAt());
 
         novoReporte.setStatus("novo");
         novoReporte.setSeverity("nao_definida");
@@ -53,19 +94,207 @@ public class ReporteService {
                 String imageUrl = fileUploadUtil.salvarImagem(reporteDTO.getImageFile());
                 novoReporte.setImageUrl(imageUrl);
             } catch (IOException e) {
-                System.err.println("Falha ao salvar imagem durante o registro do reporte: " + e.getMessage());
+                logger.warnf("Falha ao salvar imagem durante o registro do reporte: %s", e.getMessage());
                 throw new BadRequestException("Erro ao processar o upload da imagem: " + e.getMessage());
             }
         }
 
+        // Quase duplicata de um reporte recente entra no incidente dele; senão o reporte abre um incidente novo
+        IndiceIncidentesService.Assinatura assinatura = indiceIncidentes.assinar(novoReporte);
+        novoReporte.setIncidentId(indiceIncidentes.buscarIncidente(assinatura));
+
         repository.registrar(novoReporte);
+        indiceIncidentes.adicionar(assinatura, novoReporte.getIncidentId());
+        indiceReportes.indexar(novoReporte);
+        estatisticas.adicionar(novoReporte);
+        mapaCalor.adicionar(novoReporte);
+        deteccaoPicos.registrar(novoReporte);
         return novoReporte;
     }
 
+    @WithSpan
     public List<Reporte> listarTodos() {
         return repository.buscarTodos();
     }
 
+    @WithSpan
+    public List<Reporte> listarRecentes(int limite) {
+        if (limite <= 0) {
+            throw new BadRequestException("O limite de reportes deve ser um número positivo.");
+        }
+        return repository.buscarRecentes(limite);
+    }
+
+    @WithSpan
+    public List<Reporte> listarPorStatus(String status, int limite) {
+        if (status == null || status.trim().isEmpty()) {
+            throw new BadRequestException("O status não pode ser nulo ou vazio.");
+        }
+        if (limite <= 0) {
+            throw new BadRequestException("O limite de reportes deve ser um número positivo.");
+        }
+        return repository.buscarPorStatus(status.trim(), limite);
+    }
+
+    /**
+     * Incidentes (grupos de reportes quase duplicados) com reportes recentes, dos maiores para os menores.
+     * @param status Só conta os reportes neste status (ex.: "novo" para a triagem); nulo ou vazio conta todos.
+     * @param horas Considera os reportes criados nas últimas horas (1 a 720).
+     * @param limite Quantidade máxima de incidentes.
+     */
+    @WithSpan
+    public List<IncidenteDTO> listarIncidentes(String status, int horas, int limite) {
+        if (horas <= 0 || horas > 720) {
+            throw new BadRequestException("O período em horas deve estar entre 1 e 720.");
+        }
+        if (limite <= 0) {
+            throw new BadRequestException("O limite de incidentes deve ser um número positivo.");
+        }
+        return repository.buscarIncidentes(status == null || status.isBlank() ? null : status.trim(),
+                LocalDateTime.now().minusHours(horas), limite);
+    }
+
+    @WithSpan
+    public List<Reporte> listarReportesDoIncidente(int idIncidente) {
+        if (idIncidente <= 0) {
+            throw new BadRequestException("ID do incidente deve ser um número positivo.");
+        }
+        List<Reporte> reportes = repository.buscarPorIncidente(idIncidente);
+        if (reportes.isEmpty()) {
+            throw new NotFoundException("Incidente com ID " + idIncidente + " não encontrado.");
+        }
+        return reportes;
+    }
+
+    /**
+     * Aplica o mesmo status a todos os reportes de um incidente (ex.: marcar as centenas de duplicatas como verificadas).
+     * @return Os reportes do incidente, já com o novo status.
+     */
+    @WithSpan
+    public List<Reporte> atualizarStatusDoIncidente(int idIncidente, String novoStatus) {
+        if (idIncidente <= 0) {
+            throw new BadRequestException("ID do incidente deve ser um número positivo.");
+        }
+        if (novoStatus == null || novoStatus.trim().isEmpty()) {
+            throw new BadRequestException("O novo status não pode ser nulo ou vazio.");
+        }
+        List<Reporte> reportes = listarReportesDoIncidente(idIncidente);
+        List<EstatisticasReportesService.Marca> anteriores = reportes.stream().map(estatisticas::marcar).toList();
+
+        LocalDateTime agora = LocalDateTime.now();
+        repository.atualizarStatusDoIncidente(idIncidente, novoStatus, agora);
+        for (int i = 0; i < reportes.size(); i++) {
+            Reporte reporte = reportes.get(i);
+            reporte.setStatus(novoStatus);
+            reporte.setUpdatedAt(agora);
+            indiceReportes.indexar(reporte);
+            estatisticas.trocar(anteriores.get(i), reporte);
+        }
+        return reportes;
+    }
+
+    /**
+     * Busca textual nos reportes (descrição, localização e tipo), no índice em memória, com filtros e paginação.
+     * @param texto Termos da busca; vazio lista os reportes filtrados, do mais novo para o mais antigo.
+     * @param desde Data inicial de criação (AAAA-MM-DD), inclusiva.
+     * @param ate Data final de criação (AAAA-MM-DD), inclusiva.
+     * @param pagina Página, a partir de 1.
+     * @param tamanho Reportes por página (1 a 100).
+     */
+    @WithSpan
+    public BuscaReportesDTO buscar(String texto, String status, String eventType, String severity,
+                                   String desde, String ate, int pagina, int tamanho) {
+        if (pagina <= 0) {
+            throw new BadRequestException("A página deve ser um número positivo.");
+        }
+        if (tamanho <= 0 || tamanho > 100) {
+            throw new BadRequestException("O tamanho da página deve estar entre 1 e 100.");
+        }
+        LocalDate inicio = data(desde, "desde");
+        LocalDate fim = data(ate, "ate");
+        return indiceReportes.buscar(texto, status, eventType, severity,
+                inicio != null ? inicio.atStartOfDay() : null,
+                fim != null ? fim.plusDays(1).atStartOfDay().minusNanos(1_000_000) : null,
+                pagina, tamanho);
+    }
+
+    /**
+     * Dispara, em segundo plano, a reconstrução do índice de busca a partir do banco, numa única passada.
+     * A busca continua respondendo com o índice atual até a troca.
+     */
+    @WithSpan
+    public void reconstruirIndice() {
+        indiceReportes.reconstruirEmSegundoPlano();
+    }
+
+    /**
+     * Contagens de reportes criados nas últimas horas, no total e hora a hora, por status, severidade e tipo.
+     * @param horas Tamanho do período, de 1 a 8760 (um ano).
+     */
+    @WithSpan
+    public EstatisticasReportesDTO estatisticas(int horas) {
+        if (horas <= 0 || horas > 8760) {
+            throw new BadRequestException("O período em horas deve estar entre 1 e 8760.");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        return estatisticas.consultar(agora.minusHours(horas), agora);
+    }
+
+    /**
+     * Refaz as estatísticas do painel a partir do banco.
+     * @return A quantidade de grupos lidos.
+     */
+    @WithSpan
+    public int reconstruirEstatisticas() {
+        return estatisticas.reconstruir();
+    }
+
+    /**
+     * Tile z/x/y do mapa de calor, com a contagem de reportes de cada célula nas últimas horas.
+     */
+    @WithSpan
+    public TileMapaCalorDTO mapaCalor(int z, int x, int y, int horas) {
+        return mapaCalor.tile(z, x, y, horas);
+    }
+
+    /**
+     * Move para o arquivo os reportes encerrados mais antigos que a idade configurada, sem esperar a próxima rodada agendada.
+     * @return A quantidade de reportes arquivados.
+     */
+    @WithSpan
+    public int arquivar() {
+        return arquivamento.arquivar();
+    }
+
+    /**
+     * Geocodifica pelo endereço os reportes gravados sem coordenadas, gravando em lotes de 1000.
+     * @return Quantos foram geocodificados e quantos não casaram com nenhuma base.
+     */
+    @WithSpan
+    public Map<String, Integer> geocodificarPendentes() {
+        int[] contagens = new int[2]; // geocodificados, sem correspondência
+        List<Reporte> lote = new ArrayList<>(LOTE_GEOCODIFICACAO);
+        repository.percorrerSemCoordenadas(reporte -> {
+            var coordenadas = geocodificacao.localizar(reporte.getLocation());
+            if (coordenadas.isEmpty()) {
+                contagens[1]++;
+                return;
+            }
+            reporte.setLatitude(coordenadas.get()[0]);
+            reporte.setLongitude(coordenadas.get()[1]);
+            lote.add(reporte);
+            if (lote.size() == LOTE_GEOCODIFICACAO) {
+                contagens[0] += gravarCoordenadas(lote);
+            }
+        });
+        contagens[0] += gravarCoordenadas(lote);
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        resultado.put("geocodificados", contagens[0]);
+        resultado.put("semCorrespondencia", contagens[1]);
+        return resultado;
+    }
+
+    @WithSpan
     public Reporte buscarPorId(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do reporte deve ser um número positivo.");
@@ -77,6 +306,7 @@ public class ReporteService {
         return reporte;
     }
 
+    @WithSpan
     public Reporte atualizar(int id, Reporte reporteComNovosDados) {
         if (id <= 0 || reporteComNovosDados == null) {
             throw new BadRequestException("ID e dados do reporte para atualização são obrigatórios.");
@@ -96,6 +326,11 @@ public class ReporteService {
 
 
         Reporte existente = buscarPorId(id);
+        validarEditavel(existente);
+        EstatisticasReportesService.Marca anterior = estatisticas.marcar(existente);
+        Double latitudeAnterior = existente.getLatitude();
+        Double longitudeAnterior = existente.getLongitude();
+        boolean mudouEndereco = !reporteComNovosDados.getLocation().equals(existente.getLocation());
 
         existente.setEventType(reporteComNovosDados.getEventType());
         existente.setDescription(reporteComNovosDados.getDescription());
@@ -118,7 +353,7 @@ public class ReporteService {
                 try {
                     fileUploadUtil.deletarImagem(existente.getImageUrl());
                 } catch (Exception e) {
-                    System.err.println("Falha ao tentar deletar imagem antiga durante atualização do reporte " + id + ": " + e.getMessage());
+                    logger.warnf("Falha ao tentar deletar imagem antiga durante atualização do reporte %s: %s", id, e.getMessage());
                 }
             }
             existente.setImageUrl(reporteComNovosDados.getImageUrl().trim().isEmpty() ? null : reporteComNovosDados.getImageUrl());
@@ -127,17 +362,27 @@ public class ReporteService {
                 try {
                     fileUploadUtil.deletarImagem(existente.getImageUrl());
                 } catch (Exception e) {
-                    System.err.println("Falha ao tentar deletar imagem antiga (URL nula) durante atualização do reporte " + id + ": " + e.getMessage());
+                    logger.warnf("Falha ao tentar deletar imagem antiga (URL nula) durante atualização do reporte %s: %s", id, e.getMessage());
                 }
             }
             existente.setImageUrl(null);
         }
+        // Coordenadas no corpo substituem as atuais; sem elas, um endereço novo é geocodificado de novo
+        if (reporteComNovosDados.getLatitude() != null || reporteComNovosDados.getLongitude() != null || mudouEndereco) {
+            existente.setLatitude(reporteComNovosDados.getLatitude());
+            existente.setLongitude(reporteComNovosDados.getLongitude());
+            prepararCoordenadas(existente);
+        }
+        existente.setUpdatedAt(LocalDateTime.now());
 
-
-        repository.atualizar(existente);
+        gravarEdicao(existente);
+        indiceReportes.indexar(existente);
+        estatisticas.trocar(anterior, existente);
+        mapaCalor.mover(latitudeAnterior, longitudeAnterior, existente);
         return existente;
     }
 
+    @WithSpan
     public void deletar(int id) {
         if (id <= 0) {
             throw new BadRequestException("ID do reporte para exclusão deve ser um número positivo.");
@@ -148,12 +393,16 @@ public class ReporteService {
             try {
                 fileUploadUtil.deletarImagem(existente.getImageUrl());
             } catch (Exception e) {
-                System.err.println("Falha ao tentar deletar arquivo de imagem associado ao reporte " + id + ": " + e.getMessage());
+                logger.warnf("Falha ao tentar deletar arquivo de imagem associado ao reporte %s: %s", id, e.getMessage());
             }
         }
         repository.deletar(id);
+        indiceReportes.remover(id);
+        estatisticas.remover(existente);
+        mapaCalor.remover(existente);
     }
 
+    @WithSpan
     public Reporte atualizarStatusDoReporte(int id, String novoStatus) {
         if (id <= 0) {
             throw new BadRequestException("ID do reporte deve ser um número positivo.");
@@ -163,9 +412,76 @@ public class ReporteService {
         }
 
         Reporte existente = buscarPorId(id);
+        validarEditavel(existente);
+        EstatisticasReportesService.Marca anterior = estatisticas.marcar(existente);
         existente.setStatus(novoStatus);
+        existente.setUpdatedAt(LocalDateTime.now());
 
-        repository.atualizar(existente);
+        gravarEdicao(existente);
+        indiceReportes.indexar(existente);
+        estatisticas.trocar(anterior, existente);
         return existente;
     }
+
+    // Reportes arquivados só são lidos (e excluídos): o UPDATE vai para ER_REPORTES, onde eles não estão mais
+    private static void validarEditavel(Reporte reporte) {
+        if (reporte.isArchived()) {
+            throw new ConflictException("O reporte com ID " + reporte.getId() + " está arquivado e não pode ser alterado.");
+        }
+    }
+
+    // O arquivamento pode levar a linha entre validarEditavel e o UPDATE: aí nada foi gravado e os índices ficam como estão
+    private void gravarEdicao(Reporte reporte) {
+        if (!repository.atualizar(reporte)) {
+            throw new ConflictException("O reporte com ID " + reporte.getId() + " foi arquivado durante a edição e não pode ser alterado.");
+        }
+    }
+
+    // Grava e aplica nos índices um lote de reportes recém-geocodificados, e esvazia o lote
+    private int gravarCoordenadas(List<Reporte> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, double[]> coordenadas = new LinkedHashMap<>();
+        for (Reporte reporte : lote) {
+            coordenadas.put(reporte.getId(), new double[]{reporte.getLatitude(), reporte.getLongitude()});
+        }
+        int gravados = repository.atualizarCoordenadas(coordenadas);
+        for (Reporte reporte : lote) {
+            indiceReportes.indexar(reporte);
+            mapaCalor.adicionar(reporte);
+        }
+        lote.clear();
+        return gravados;
+    }
+
+    // Coordenadas informadas valem se vierem juntas e válidas; sem elas, tenta o endereço
+    private void prepararCoordenadas(Reporte reporte) {
+        if (reporte.getLatitude() != null || reporte.getLongitude() != null) {
+            if (reporte.getLatitude() == null || reporte.getLongitude() == null) {
+                throw new BadRequestException("Latitude e longitude devem ser informadas juntas.");
+            }
+            double latitude = reporte.getLatitude();
+            double longitude = reporte.getLongitude();
+            if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) { // Também recusa NaN
+                throw new BadRequestException("Coordenadas inválidas: latitude entre -90 e 90, longitude entre -180 e 180.");
+            }
+            return;
+        }
+        geocodificacao.localizar(reporte.getLocation()).ifPresent(ponto -> {
+            reporte.setLatitude(ponto[0]);
+            reporte.setLongitude(ponto[1]);
+        });
+    }
+
+    private static LocalDate data(String valor, String parametro) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valor.trim());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("O parâmetro '" + parametro + "' deve ser uma data no formato AAAA-MM-DD.");
+        }
+    }
 }
\ No newline at end of file
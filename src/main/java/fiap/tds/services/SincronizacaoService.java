@@ -0,0 +1,116 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.SincronizacaoDTO;
+import fiap.tds.exceptions.BadRequestException;
+import fiap.tds.repositories.AbrigoRepository;
+import fiap.tds.repositories.AlertaRepository;
+import fiap.tds.repositories.ExclusaoRepository;
+import fiap.tds.repositories.MapaRepository;
+import fiap.tds.repositories.ReporteRepository;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sincronização incremental para clientes offline-first. Os registros de exclusão (ER_EXCLUSOES) só são guardados
+ * por sync.janela-maxima-dias: uma vez por dia os mais antigos que isso são apagados, e um cliente cujo watermark
+ * é mais velho que a janela recebe um snapshot completo, já que as exclusões que ele perdeu podem não existir mais.
+ */
+@ApplicationScoped
+public class SincronizacaoService {
+
+    private static final Logger logger = Logger.getLogger(SincronizacaoService.class);
+
+    @ConfigProperty(name = "sync.margem-ms", defaultValue = "5000")
+    long margemMs;
+
+    @ConfigProperty(name = "sync.janela-maxima-dias", defaultValue = "30")
+    int janelaMaximaDias;
+
+    private final AlertaRepository alertaRepository = new AlertaRepository();
+    private final AbrigoRepository abrigoRepository = new AbrigoRepository();
+    private final MapaRepository mapaRepository = new MapaRepository();
+    private final ReporteRepository reporteRepository = new ReporteRepository();
+    private final ExclusaoRepository exclusaoRepository = new ExclusaoRepository();
+    private ScheduledExecutorService limpeza;
+
+    void iniciar(@Observes StartupEvent event) {
+        limpeza = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("limpeza-exclusoes").daemon().factory());
+        limpeza.scheduleWithFixedDelay(this::limparExclusoes, TimeUnit.MINUTES.toSeconds(10), TimeUnit.DAYS.toSeconds(1), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (limpeza != null) {
+            limpeza.shutdownNow();
+        }
+    }
+
+    /**
+     * Monta o pacote de sincronização para um cliente offline-first.
+     * @param desde Watermark (epoch millis) devolvido na sincronização anterior; null, ou mais antigo que
+     *              sync.janela-maxima-dias, para um snapshot completo.
+     * @return Entidades criadas/alteradas e IDs removidos desde o watermark, mais o novo watermark.
+     * @throws BadRequestException se o watermark for inválido.
+     */
+    public SincronizacaoDTO sincronizar(Long desde) {
+        if (desde != null && desde < 0) {
+            throw new BadRequestException("O parâmetro 'desde' deve ser um epoch em milissegundos não negativo.");
+        }
+
+        // O watermark é capturado antes das consultas: o que for gravado durante elas volta na próxima rodada
+        LocalDateTime agora = LocalDateTime.now();
+        SincronizacaoDTO dto = new SincronizacaoDTO();
+        dto.setWatermark(agora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        if (desde == null || desde < agora.minusDays(janelaMaximaDias).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()) {
+            dto.setCompleto(true);
+            dto.setAlertas(alertaRepository.buscarAtivos()); // Expirados não entram; nas incrementais chegam como removidos
+            dto.setAbrigos(abrigoRepository.buscarTodos());
+            dto.setMapas(mapaRepository.buscarTodos());
+            dto.setReportes(reporteRepository.buscarTodos());
+            return dto;
+        }
+
+        // A margem cobre gravações que pegaram o timestamp antes do watermark anterior mas commitaram depois dele.
+        // Reenviar um registro já sincronizado é inofensivo (o cliente faz upsert); perdê-lo não é.
+        LocalDateTime limite = LocalDateTime.ofInstant(Instant.ofEpochMilli(desde - margemMs), ZoneId.systemDefault());
+        dto.setAlertas(alertaRepository.buscarAlteradosDesde(limite));
+        dto.setAbrigos(abrigoRepository.buscarAlteradosDesde(limite));
+        dto.setMapas(mapaRepository.buscarAlteradosDesde(limite));
+        dto.setReportes(reporteRepository.buscarAlteradosDesde(limite));
+        dto.setAlertasRemovidos(exclusaoRepository.buscarIdsExcluidosDesde(ExclusaoRepository.ALERTAS, limite));
+        dto.setAbrigosRemovidos(exclusaoRepository.buscarIdsExcluidosDesde(ExclusaoRepository.ABRIGOS, limite));
+        dto.setMapasRemovidos(exclusaoRepository.buscarIdsExcluidosDesde(ExclusaoRepository.MAPAS, limite));
+        dto.setReportesRemovidos(exclusaoRepository.buscarIdsExcluidosDesde(ExclusaoRepository.REPORTES, limite));
+        return dto;
+    }
+
+    /**
+     * Apaga as exclusões que nenhum cliente dentro da janela ainda pode pedir (a margem do watermark incluída).
+     * @return A quantidade de registros apagados.
+     */
+    public int limparExclusoes() {
+        LocalDateTime antesDe = LocalDateTime.now().minusDays(janelaMaximaDias).minusNanos(TimeUnit.MILLISECONDS.toNanos(margemMs));
+        try {
+            int removidos = exclusaoRepository.removerAnteriores(antesDe);
+            logger.infof("Limpeza de exclusões concluída (%s registros anteriores a %s).", removidos, antesDe);
+            return removidos;
+        } catch (RuntimeException e) {
+            // Roda na thread agendada: a exceção cancelaria as próximas execuções
+            logger.errorf(e, "Erro na limpeza das exclusões: %s", e.getMessage());
+            return 0;
+        }
+    }
+}
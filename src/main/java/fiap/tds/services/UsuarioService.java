@@ -8,7 +8,9 @@ import fiap.tds.exceptions.BadRequestException;
 import fiap.tds.exceptions.NotFoundException;
 import fiap.tds.utils.PasswordUtil;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,10 +18,14 @@ import java.util.List;
 @ApplicationScoped
 public class UsuarioService {
 
+    @Inject
+    IndiceAssinaturasService indiceAssinaturas;
+
     private final UsuarioRepository repository = new UsuarioRepository();
     private final PasswordUtil passwordUtil = new PasswordUtil(); // Instanciação direta
 
     // Método registrar agora recebe o DTO
+    @WithSpan
     public Usuario registrar(UsuarioRegistroDTO registroDTO) {
         if (registroDTO == null ||
                 registroDTO.getNomeCompleto() == null || registroDTO.getNomeCompleto().trim().isEmpty() ||
@@ -56,10 +62,12 @@ public class UsuarioService {
         novoUsuario.setCreatedAt(LocalDateTime.now());
 
         repository.registrar(novoUsuario); // O repositório irá preencher o ID no objeto novoUsuario
+        indiceAssinaturas.adicionar(novoUsuario);
         novoUsuario.setPasswordHash(null); // Nunca retornar o hash
         return novoUsuario;
     }
 
+    @WithSpan
     public Usuario login(UsuarioLoginDTO loginDTO) {
         if (loginDTO == null || loginDTO.getEmail() == null || loginDTO.getEmail().trim().isEmpty() ||
                 loginDTO.getPassword() == null || loginDTO.getPassword().isEmpty()) {
@@ -84,12 +92,25 @@ public class UsuarioService {
         return email.matches(emailRegex);
     }
 
+    @WithSpan
     public List<Usuario> listarTodos() {
         List<Usuario> usuarios = repository.listarTodos();
         usuarios.forEach(u -> u.setPasswordHash(null)); // Remove hash da lista
         return usuarios;
     }
 
+    /**
+     * Usuários inscritos num tipo de alerta, filtrados no banco.
+     * @param tipoAlerta O tipo de alerta, exatamente como foi inscrito (ex.: "enchente").
+     */
+    @WithSpan
+    public List<Usuario> listarInscritos(String tipoAlerta) {
+        List<Usuario> usuarios = repository.listarInscritos(tipoAlerta.trim());
+        usuarios.forEach(u -> u.setPasswordHash(null));
+        return usuarios;
+    }
+
+    @WithSpan
     public Usuario buscarPorId(int userId) { // Parâmetro e tipo de retorno ajustados para int
         if (userId <= 0) {
             throw new BadRequestException("ID do usuário deve ser um número positivo.");
@@ -102,6 +123,7 @@ public class UsuarioService {
         return usuario;
     }
 
+    @WithSpan
     public Usuario atualizar(int userId, Usuario usuarioComNovosDados) {
         if (userId <= 0 || usuarioComNovosDados == null) {
             throw new BadRequestException("ID e dados do usuário são obrigatórios para atualização.");
@@ -131,18 +153,22 @@ public class UsuarioService {
         existente.setRole(usuarioComNovosDados.getRole() != null ? usuarioComNovosDados.getRole() : "user");
 
         repository.atualizar(existente);
+        indiceAssinaturas.atualizar(existente);
         existente.setPasswordHash(null);
         return existente;
     }
 
+    @WithSpan
     public void deletar(int userId) { // Parâmetro ajustado para int
         if (userId <= 0) {
             throw new BadRequestException("ID do usuário não pode ser nulo ou vazio para exclusão.");
         }
         buscarPorId(userId); // Verifica se existe
         repository.deletar(userId);
+        indiceAssinaturas.remover(userId);
     }
 
+    @WithSpan
     public void mudarSenha(int userId, String senhaAntiga, String senhaNova) {
         if (userId <= 0 || senhaAntiga == null || senhaNova == null || senhaNova.trim().isEmpty()) {
             throw new BadRequestException("ID do usuário, senha antiga e nova senha são obrigatórios.");
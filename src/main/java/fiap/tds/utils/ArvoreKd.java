@@ -0,0 +1,234 @@
+package fiap.tds.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Árvore k-d imutável de pontos geográficos para buscas de vizinhos mais próximos.
+ * Cada latitude/longitude vira um ponto na esfera unitária (x, y, z): a distância euclidiana entre
+ * dois pontos cresce junto com a distância sobre a superfície, então a poda da árvore vale em qualquer
+ * latitude, sem as distorções de tratar graus como plano.
+ * A árvore fica em vetores paralelos (sem um objeto por nó): o nó de [inicio, fim) é o elemento do meio,
+ * e a busca por 5 vizinhos entre 100 mil pontos visita poucas dezenas de nós.
+ */
+public final class ArvoreKd {
+
+    private static final double RAIO_TERRA_KM = 6371.0088;
+
+    private final int[] ids;
+    private final double[][] coordenadas; // [eixo][posição]: x, y e z reordenados na construção
+
+    public record Vizinho(int id, double distanciaKm) {
+    }
+
+    private ArvoreKd(int[] ids, double[][] coordenadas) {
+        this.ids = ids;
+        this.coordenadas = coordenadas;
+    }
+
+    public static ArvoreKd vazia() {
+        return new ArvoreKd(new int[0], new double[3][0]);
+    }
+
+    /**
+     * Monta a árvore em O(n log n). Os vetores recebidos não são alterados.
+     */
+    public static ArvoreKd construir(int[] ids, double[] latitudes, double[] longitudes) {
+        int n = ids.length;
+        int[] copiaIds = ids.clone();
+        double[][] coordenadas = new double[3][n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            coordenadas[0][i] = Math.cos(lat) * Math.cos(lon);
+            coordenadas[1][i] = Math.cos(lat) * Math.sin(lon);
+            coordenadas[2][i] = Math.sin(lat);
+        }
+        ArvoreKd arvore = new ArvoreKd(copiaIds, coordenadas);
+        arvore.ordenar(0, n, 0);
+        return arvore;
+    }
+
+    public int tamanho() {
+        return ids.length;
+    }
+
+    /**
+     * Busca os k pontos mais próximos aceitos pelo filtro, do mais perto para o mais longe.
+     * @param aceito Recebe o ID de cada candidato; pontos recusados não contam para o k.
+     */
+    public List<Vizinho> buscar(double latitude, double longitude, int k, IntPredicate aceito) {
+        if (k <= 0 || ids.length == 0) {
+            return List.of();
+        }
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double[] alvo = {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+
+        Melhores melhores = new Melhores(Math.min(k, ids.length));
+        buscar(0, ids.length, 0, alvo, aceito, melhores);
+
+        List<Vizinho> vizinhos = new ArrayList<>(melhores.tamanho);
+        for (int i = 0; i < melhores.tamanho; i++) {
+            vizinhos.add(new Vizinho(ids[melhores.posicoes[i]], paraKm(melhores.distancias[i])));
+        }
+        vizinhos.sort(Comparator.comparingDouble(Vizinho::distanciaKm));
+        return vizinhos;
+    }
+
+    private void buscar(int inicio, int fim, int eixo, double[] alvo, IntPredicate aceito, Melhores melhores) {
+        if (inicio >= fim) {
+            return;
+        }
+        int meio = (inicio + fim) >>> 1;
+        double dx = coordenadas[0][meio] - alvo[0];
+        double dy = coordenadas[1][meio] - alvo[1];
+        double dz = coordenadas[2][meio] - alvo[2];
+        double distancia = dx * dx + dy * dy + dz * dz;
+        if (distancia < melhores.pior() && aceito.test(ids[meio])) {
+            melhores.oferecer(meio, distancia);
+        }
+
+        double diferenca = alvo[eixo] - coordenadas[eixo][meio];
+        int proximoEixo = eixo == 2 ? 0 : eixo + 1;
+        if (diferenca < 0) {
+            buscar(inicio, meio, proximoEixo, alvo, aceito, melhores);
+            if (diferenca * diferenca < melhores.pior()) {
+                buscar(meio + 1, fim, proximoEixo, alvo, aceito, melhores);
+            }
+        } else {
+            buscar(meio + 1, fim, proximoEixo, alvo, aceito, melhores);
+            if (diferenca * diferenca < melhores.pior()) {
+                buscar(inicio, meio, proximoEixo, alvo, aceito, melhores);
+            }
+        }
+    }
+
+    // Coloca a mediana do eixo no meio de [inicio, fim), menores à esquerda e maiores à direita, e repete nas metades
+    private void ordenar(int inicio, int fim, int eixo) {
+        if (fim - inicio <= 1) {
+            return;
+        }
+        int meio = (inicio + fim) >>> 1;
+        selecionar(inicio, fim - 1, meio, coordenadas[eixo]);
+        int proximoEixo = eixo == 2 ? 0 : eixo + 1;
+        ordenar(inicio, meio, proximoEixo);
+        ordenar(meio + 1, fim, proximoEixo);
+    }
+
+    // Quickselect (Hoare), trocando os quatro vetores juntos
+    private void selecionar(int esquerda, int direita, int alvo, double[] valores) {
+        while (esquerda < direita) {
+            double pivo = valores[(esquerda + direita) >>> 1];
+            int i = esquerda;
+            int j = direita;
+            while (i <= j) {
+                while (valores[i] < pivo) {
+                    i++;
+                }
+                while (valores[j] > pivo) {
+                    j--;
+                }
+                if (i <= j) {
+                    trocar(i++, j--);
+                }
+            }
+            if (alvo <= j) {
+                direita = j;
+            } else if (alvo >= i) {
+                esquerda = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void trocar(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        for (double[] eixo : coordenadas) {
+            double valor = eixo[a];
+            eixo[a] = eixo[b];
+            eixo[b] = valor;
+        }
+    }
+
+    // Distância euclidiana ao quadrado (corda na esfera unitária) -> arco em km
+    private static double paraKm(double distanciaAoQuadrado) {
+        double corda = Math.sqrt(distanciaAoQuadrado);
+        return 2 * Math.asin(Math.min(1, corda / 2)) * RAIO_TERRA_KM;
+    }
+
+    /**
+     * Os k melhores candidatos até agora, num heap de máximo: a raiz é o pior, descartado quando chega um melhor.
+     */
+    private static final class Melhores {
+        final int[] posicoes;
+        final double[] distancias;
+        int tamanho;
+
+        Melhores(int k) {
+            posicoes = new int[k];
+            distancias = new double[k];
+        }
+
+        double pior() {
+            return tamanho < posicoes.length ? Double.POSITIVE_INFINITY : distancias[0];
+        }
+
+        void oferecer(int posicao, double distancia) {
+            if (tamanho < posicoes.length) {
+                int i = tamanho++;
+                posicoes[i] = posicao;
+                distancias[i] = distancia;
+                subir(i);
+            } else {
+                posicoes[0] = posicao;
+                distancias[0] = distancia;
+                descer(0);
+            }
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (distancias[pai] >= distancias[i]) {
+                    return;
+                }
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int maior = i;
+                int esquerdo = 2 * i + 1;
+                int direito = esquerdo + 1;
+                if (esquerdo < tamanho && distancias[esquerdo] > distancias[maior]) {
+                    maior = esquerdo;
+                }
+                if (direito < tamanho && distancias[direito] > distancias[maior]) {
+                    maior = direito;
+                }
+                if (maior == i) {
+                    return;
+                }
+                trocar(i, maior);
+                i = maior;
+            }
+        }
+
+        private void trocar(int a, int b) {
+            int posicao = posicoes[a];
+            posicoes[a] = posicoes[b];
+            posicoes[b] = posicao;
+            double distancia = distancias[a];
+            distancias[a] = distancias[b];
+            distancias[b] = distancia;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 // src/main/java/fiap/tds/utils/FileUploadUtil.java
 package fiap.tds.utils;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -14,14 +19,28 @@ import java.util.UUID;
 
 @ApplicationScoped
 public class FileUploadUtil {
+    private static final Logger logger = Logger.getLogger(FileUploadUtil.class);
 
     @ConfigProperty(name = "image.base-url", defaultValue = "/uploads/report-images")
     String imageBaseUrl; // Mantém: /uploads/report-images
 
     // ALTERADO: Salva na pasta 'file-uploads/report-images' na raiz do projeto.
-    private final Path rootLocation = Paths.get("src/main/resources/META-INF/resources/uploads/report-images");
+    private final Path rootLocation;
+
+    private final DistributionSummary bytesRecebidos = DistributionSummary.builder("echoreport.upload.bytes")
+            .description("Tamanho das imagens de reporte gravadas")
+            .baseUnit("bytes")
+            .register(Metrics.globalRegistry);
 
     public FileUploadUtil() {
+        this(Paths.get("src/main/resources/META-INF/resources/uploads/report-images"));
+    }
+
+    /**
+     * @param rootLocation Diretório onde as imagens são gravadas (os benchmarks usam um diretório temporário).
+     */
+    FileUploadUtil(Path rootLocation) {
+        this.rootLocation = rootLocation;
         try {
             Files.createDirectories(rootLocation); // Cria 'file-uploads/report-images' se não existir
         } catch (IOException e) {
@@ -29,6 +48,7 @@ public class FileUploadUtil {
         }
     }
 
+    @WithSpan("upload.salvarImagem")
     public String salvarImagem(FileUpload fileUpload) throws IOException {
         if (fileUpload == null || fileUpload.size() == 0) {
             return null;
@@ -50,13 +70,16 @@ public class FileUploadUtil {
         }
 
         Files.copy(fileUpload.uploadedFile(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        bytesRecebidos.record(fileUpload.size());
+        Span.current().setAttribute("upload.bytes", fileUpload.size());
         // A URL retornada continua correta porque o imageBaseUrl já inclui /report-images
         return imageBaseUrl + "/" + newFileName;
     }
 
+    @WithSpan("upload.deletarImagem")
     public void deletarImagem(String imageUrl) {
         if (imageUrl == null || imageUrl.trim().isEmpty() || !imageUrl.startsWith(imageBaseUrl)) {
-            System.err.println("Caminho da imagem inválido ou não gerenciado: " + imageUrl);
+            logger.warnf("Caminho da imagem inválido ou não gerenciado: %s", imageUrl);
             return;
         }
         try {
@@ -65,12 +88,12 @@ public class FileUploadUtil {
 
             if (Files.exists(fileToDelete) && !Files.isDirectory(fileToDelete)) {
                 Files.delete(fileToDelete);
-                System.out.println("Arquivo de imagem deletado: " + fileToDelete);
+                logger.infof("Arquivo de imagem deletado: %s", fileToDelete);
             } else {
-                System.err.println("Arquivo de imagem não encontrado para deleção: " + fileToDelete + " (path completo no sistema de arquivos)");
+                logger.warnf("Arquivo de imagem não encontrado para deleção: %s (path completo no sistema de arquivos)", fileToDelete);
             }
         } catch (IOException e) {
-            System.err.println("Erro ao tentar deletar arquivo de imagem: " + imageUrl + " - " + e.getMessage());
+            logger.warnf("Erro ao tentar deletar arquivo de imagem: %s - %s", imageUrl, e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package fiap.tds.utils;
+
+/**
+ * Mapa de contagens com chave long e valor int, em dois arrays primitivos (endereçamento aberto, sondagem linear).
+ * Com milhões de células não há um objeto por entrada: cada uma custa 12 bytes mais a folga da tabela.
+ * A chave 0 é reservada para posição vazia. Não é thread-safe; quem usa sincroniza.
+ */
+public class MapaContagens {
+
+    private long[] chaves;
+    private int[] valores;
+    private int tamanho;
+
+    public MapaContagens() {
+        this(64);
+    }
+
+    public MapaContagens(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeInicial) * 2 - 1);
+        chaves = new long[capacidade];
+        valores = new int[capacidade];
+    }
+
+    /**
+     * Soma ao valor da chave (que começa em 0).
+     * @param chave Diferente de 0.
+     */
+    public void somar(long chave, int quantidade) {
+        int posicao = posicao(chaves, chave);
+        if (chaves[posicao] == 0) {
+            chaves[posicao] = chave;
+            if (++tamanho * 4 > chaves.length * 3) { // Carga acima de 75%: dobra
+                valores[posicao] = quantidade;
+                crescer();
+                return;
+            }
+        }
+        valores[posicao] += quantidade;
+    }
+
+    /**
+     * Valor da chave, ou 0 se ela nunca foi somada.
+     */
+    public int obter(long chave) {
+        int posicao = posicao(chaves, chave);
+        return chaves[posicao] == 0 ? 0 : valores[posicao];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void crescer() {
+        long[] antigasChaves = chaves;
+        int[] antigosValores = valores;
+        chaves = new long[antigasChaves.length * 2];
+        valores = new int[chaves.length];
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != 0) {
+                int posicao = posicao(chaves, antigasChaves[i]);
+                chaves[posicao] = antigasChaves[i];
+                valores[posicao] = antigosValores[i];
+            }
+        }
+    }
+
+    // Posição da chave ou da primeira vaga no caminho da sondagem
+    private static int posicao(long[] chaves, long chave) {
+        int mascara = chaves.length - 1;
+        int posicao = (int) espalhar(chave) & mascara;
+        while (chaves[posicao] != 0 && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private static long espalhar(long chave) {
+        long z = chave * 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 32);
+    }
+}
@@ -0,0 +1,95 @@
+package fiap.tds.utils;
+
+import java.util.Arrays;
+
+/**
+ * Assinatura MinHash de um texto curto: para cada uma das funções de hash, o menor hash entre os trechos de
+ * 4 caracteres (shingles) do texto normalizado. A fração de posições iguais em duas assinaturas estima a
+ * similaridade de Jaccard dos dois textos, então "alagamento na rua 12" e "rua 12 alagada" ficam próximos
+ * mesmo sem nenhuma palavra na mesma ordem.
+ * As bandas (grupos de linhas consecutivas da assinatura) servem de chave de LSH: textos parecidos
+ * coincidem em pelo menos uma banda com alta probabilidade, e textos diferentes quase nunca.
+ */
+public class MinHash {
+
+    public static final int FUNCOES = 64;
+    public static final int LINHAS_POR_BANDA = 4;
+    public static final int BANDAS = FUNCOES / LINHAS_POR_BANDA;
+
+    private static final int TAMANHO_SHINGLE = 4;
+    private static final long[] SEMENTES = new long[FUNCOES];
+
+    static {
+        long semente = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < FUNCOES; i++) {
+            semente = misturar(semente + 0x9E3779B97F4A7C15L);
+            SEMENTES[i] = semente;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Calcula a assinatura do texto (maiúsculas, acentos e pontuação são ignorados).
+     * @return As FUNCOES posições da assinatura; texto vazio gera uma assinatura que não se parece com nenhuma.
+     */
+    public static long[] assinatura(String texto) {
+        long[] assinatura = new long[FUNCOES];
+        Arrays.fill(assinatura, Long.MAX_VALUE);
+        String normalizado = TextoUtil.normalizar(texto);
+        if (normalizado == null) {
+            return assinatura;
+        }
+        String limpo = normalizado.replaceAll("[^a-z0-9]+", " ").trim();
+        if (limpo.length() < TAMANHO_SHINGLE) {
+            limpo = (limpo + "    ").substring(0, TAMANHO_SHINGLE);
+        }
+        for (int inicio = 0; inicio + TAMANHO_SHINGLE <= limpo.length(); inicio++) {
+            long shingle = 0;
+            for (int i = inicio; i < inicio + TAMANHO_SHINGLE; i++) {
+                shingle = (shingle << 16) | limpo.charAt(i);
+            }
+            for (int f = 0; f < FUNCOES; f++) {
+                long hash = misturar(shingle ^ SEMENTES[f]);
+                if (hash < assinatura[f]) {
+                    assinatura[f] = hash;
+                }
+            }
+        }
+        return assinatura;
+    }
+
+    /**
+     * Estimativa da similaridade de Jaccard entre dois textos, de 0 a 1.
+     */
+    public static double similaridade(long[] a, long[] b) {
+        int iguais = 0;
+        for (int i = 0; i < FUNCOES; i++) {
+            if (a[i] == b[i] && a[i] != Long.MAX_VALUE) {
+                iguais++;
+            }
+        }
+        return (double) iguais / FUNCOES;
+    }
+
+    /**
+     * Hash das linhas de uma banda da assinatura, usado como chave no índice LSH.
+     * @param banda De 0 a BANDAS - 1.
+     */
+    public static long banda(long[] assinatura, int banda) {
+        long hash = banda;
+        for (int i = banda * LINHAS_POR_BANDA; i < (banda + 1) * LINHAS_POR_BANDA; i++) {
+            hash = misturar(hash * 31 + assinatura[i]);
+        }
+        return hash;
+    }
+
+    // Finalizador do SplitMix64: espalha bem os bits, barato e sem alocar
+    private static long misturar(long valor) {
+        long z = valor;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,14 +1,27 @@
 package fiap.tds.utils;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.jboss.logging.Logger;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class PasswordUtil {
+    private static final Logger logger = Logger.getLogger(PasswordUtil.class);
+    // BCrypt custa caro de propósito (log_rounds 12); o timer mostra quanto do login e do cadastro vai nele
+    private static final Timer tempoHash = Timer.builder("echoreport.bcrypt")
+            .description("Duração das operações BCrypt")
+            .tag("operacao", "hash")
+            .register(Metrics.globalRegistry);
+    private static final Timer tempoVerificacao = Timer.builder("echoreport.bcrypt")
+            .description("Duração das operações BCrypt")
+            .tag("operacao", "verificacao")
+            .register(Metrics.globalRegistry);
 
     public String hashPassword(String plainTextPassword) {
         if (plainTextPassword == null || plainTextPassword.isEmpty()) {
             throw new IllegalArgumentException("Senha não pode ser nula ou vazia para hashing.");
         }
-        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(12)); // O 12 é o log_rounds
+        return tempoHash.record(() -> BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(12))); // O 12 é o log_rounds
     }
 
     public boolean checkPassword(String plainPassword, String hashedPassword) {
@@ -16,10 +29,10 @@ public class PasswordUtil {
             return false;
         }
         try {
-            return BCrypt.checkpw(plainPassword, hashedPassword);
+            return tempoVerificacao.record(() -> BCrypt.checkpw(plainPassword, hashedPassword));
         } catch (IllegalArgumentException e) {
             // Acontece se o hash não for um hash BCrypt válido
-            System.err.println("Erro ao verificar senha (formato de hash inválido?): " + e.getMessage());
+            logger.warnf("Erro ao verificar senha (formato de hash inválido?): %s", e.getMessage());
             return false;
         }
     }
@@ -0,0 +1,27 @@
+package fiap.tds.utils;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+public class TextoUtil {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private TextoUtil() {
+    }
+
+    /**
+     * Normaliza um texto livre para uso como chave de índice:
+     * minúsculas, sem acentos e com espaços colapsados ("Zona  Sul" e "zona sul" viram a mesma chave).
+     * @return O texto normalizado, ou null se vier nulo/vazio.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)).replaceAll("");
+        String resultado = ESPACOS.matcher(semAcentos.toLowerCase()).replaceAll(" ");
+        return resultado.isEmpty() ? null : resultado;
+    }
+}
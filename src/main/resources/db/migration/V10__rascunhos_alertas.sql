@@ -0,0 +1,6 @@
+-- Rascunhos de alertas: gerados automaticamente (DeteccaoPicosService) e revisados pelo painel antes de ir ao público.
+-- Só os alertas 'publicado' aparecem nas listagens, na sincronização e no SSE.
+ALTER TABLE ER_ALERTAS ADD STATUS VARCHAR2(20) DEFAULT 'publicado' NOT NULL;
+
+-- Rascunhos pendentes de revisão (AlertaRepository.buscarRascunhos)
+CREATE INDEX IX_ALERTAS_STATUS ON ER_ALERTAS (STATUS, PUBLISHED_AT DESC);
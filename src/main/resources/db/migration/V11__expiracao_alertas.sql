@@ -0,0 +1,11 @@
+-- Expiração de alertas: a partir de EXPIRES_AT a rodada de expiração (AlertasAtivosService) marca ACTIVE = 0,
+-- tira o alerta de GET /alertas/ativos e registra a saída em ER_EXCLUSOES para os clientes offline.
+ALTER TABLE ER_ALERTAS ADD EXPIRES_AT TIMESTAMP;
+ALTER TABLE ER_ALERTAS ADD ACTIVE NUMBER(1) DEFAULT 1 NOT NULL;
+
+-- Alertas anteriores à expiração valem 72 horas a partir da publicação (o padrão de alertas.validade-horas);
+-- os que já passaram disso saem na primeira rodada
+UPDATE ER_ALERTAS SET EXPIRES_AT = PUBLISHED_AT + INTERVAL '72' HOUR WHERE EXPIRES_AT IS NULL AND PUBLISHED_AT IS NOT NULL;
+
+-- Rodada de expiração: WHERE ACTIVE = 1 AND EXPIRES_AT <= ?
+CREATE INDEX IX_ALERTAS_EXPIRACAO ON ER_ALERTAS (ACTIVE, EXPIRES_AT);
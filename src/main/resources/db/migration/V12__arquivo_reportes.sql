@@ -0,0 +1,23 @@
+-- Arquivo dos reportes antigos e encerrados (ArquivamentoReportesService): as mesmas colunas de ER_REPORTES,
+-- sem identidade (o ID vem da tabela quente), e o momento do arquivamento. ER_REPORTES fica só com os reportes vivos.
+CREATE TABLE ER_REPORTES_ARQUIVO (
+    ID             NUMBER PRIMARY KEY,
+    REPORTER_NAME  VARCHAR2(150),
+    EVENT_TYPE     VARCHAR2(50) NOT NULL,
+    DESCRIPTION    VARCHAR2(2000) NOT NULL,
+    LOCATION       VARCHAR2(255) NOT NULL,
+    IMAGE_URL      VARCHAR2(255),
+    ID_USUARIO     NUMBER,
+    CREATED_AT     TIMESTAMP,
+    STATUS         VARCHAR2(30),
+    SEVERITY       VARCHAR2(20),
+    ADMIN_NOTES    VARCHAR2(1000),
+    UPDATED_AT     TIMESTAMP,
+    INCIDENT_ID    NUMBER,
+    LATITUDE       NUMBER(9, 6),
+    LONGITUDE      NUMBER(9, 6),
+    ARCHIVED_AT    TIMESTAMP NOT NULL
+);
+
+-- A seleção de cada lote (WHERE STATUS = ? AND CREATED_AT < ? ORDER BY CREATED_AT) já usa IX_REPORTES_STATUS_CREATED_AT;
+-- no arquivo, buscarPorId usa a chave primária
@@ -0,0 +1,15 @@
+-- Colunas e tabela que não existiam no esquema criado à mão (V1) e que a API passou a usar:
+-- tipo e local dos alertas (público das notificações), a marca de alteração da sincronização incremental
+-- e o registro das exclusões. Roda também nos bancos marcados com baseline na versão 1, antes dos índices da V2.
+
+ALTER TABLE ER_ALERTAS ADD EVENT_TYPE VARCHAR2(50);
+ALTER TABLE ER_ALERTAS ADD LOCATION VARCHAR2(150);
+ALTER TABLE ER_ALERTAS ADD UPDATED_AT TIMESTAMP;
+ALTER TABLE ER_ABRIGOS ADD UPDATED_AT TIMESTAMP;
+ALTER TABLE ER_REPORTES ADD UPDATED_AT TIMESTAMP;
+
+CREATE TABLE ER_EXCLUSOES (
+    ENTIDADE    VARCHAR2(30) NOT NULL,
+    ENTIDADE_ID NUMBER NOT NULL,
+    EXCLUIDO_EM TIMESTAMP NOT NULL
+);
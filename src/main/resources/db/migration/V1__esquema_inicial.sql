@@ -0,0 +1,68 @@
+-- Esquema inicial do EchoReport: as tabelas como eram antes das migrações versionadas (criadas à mão no Oracle).
+-- Compatível com Oracle e com o H2 em modo Oracle dos perfis local e test.
+-- Bancos que já tinham as tabelas entram no Flyway com baseline na versão 1 e pulam este script, então ele precisa
+-- ficar igual ao esquema antigo: colunas e tabelas novas entram nas migrações seguintes (a partir da V1.1).
+
+CREATE TABLE ER_USUARIOS (
+    ID_USUARIO          NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NOME_COMPLETO       VARCHAR2(150) NOT NULL,
+    EMAIL               VARCHAR2(150) NOT NULL,
+    PASSWORD_HASH       VARCHAR2(100),
+    LOCATION_PREFERENCE VARCHAR2(150),
+    SUBSCRIBED_ALERTS   VARCHAR2(500),
+    ROLE                VARCHAR2(20) DEFAULT 'user',
+    CREATED_AT          TIMESTAMP
+);
+
+CREATE TABLE ER_ALERTAS (
+    ID           NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    TITLE        VARCHAR2(200) NOT NULL,
+    SEVERITY     VARCHAR2(20) NOT NULL,
+    SOURCE       VARCHAR2(100) NOT NULL,
+    DESCRIPTION  VARCHAR2(2000) NOT NULL,
+    PUBLISHED_AT TIMESTAMP
+);
+
+CREATE TABLE ER_ABRIGOS (
+    ID               NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME             VARCHAR2(200) NOT NULL,
+    IMAGE_URL        VARCHAR2(255),
+    ADDRESS          VARCHAR2(255) NOT NULL,
+    NEIGHBORHOOD     VARCHAR2(100) NOT NULL,
+    CITY_STATE       VARCHAR2(100) NOT NULL,
+    ZIP_CODE         VARCHAR2(10),
+    CONTACT_PHONE    VARCHAR2(20),
+    CONTACT_EMAIL    VARCHAR2(150),
+    CAPACITY_STATUS  VARCHAR2(50) NOT NULL,
+    SERVICES_OFFERED VARCHAR2(1000) NOT NULL,
+    TARGET_AUDIENCE  VARCHAR2(150) NOT NULL,
+    OPERATING_HOURS  VARCHAR2(100) NOT NULL,
+    OBSERVATIONS     VARCHAR2(1000),
+    MAPS_URL         VARCHAR2(500)
+);
+
+CREATE TABLE ER_REPORTES (
+    ID             NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    REPORTER_NAME  VARCHAR2(150),
+    EVENT_TYPE     VARCHAR2(50) NOT NULL,
+    DESCRIPTION    VARCHAR2(2000) NOT NULL,
+    LOCATION       VARCHAR2(255) NOT NULL,
+    IMAGE_URL      VARCHAR2(255),
+    ID_USUARIO     NUMBER,
+    CREATED_AT     TIMESTAMP,
+    STATUS         VARCHAR2(30),
+    SEVERITY       VARCHAR2(20),
+    ADMIN_NOTES    VARCHAR2(1000)
+);
+
+CREATE TABLE ER_RISK_AREAS (
+    ID                     NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    LATITUDE               NUMBER(9, 6) NOT NULL,
+    LONGITUDE              NUMBER(9, 6) NOT NULL,
+    RADIUS                 NUMBER NOT NULL,
+    RISK_LEVEL             VARCHAR2(20) NOT NULL,
+    TITLE                  VARCHAR2(200) NOT NULL,
+    DESCRIPTION            VARCHAR2(2000),
+    REASON                 VARCHAR2(500),
+    LAST_UPDATED_TIMESTAMP TIMESTAMP
+);
@@ -0,0 +1,25 @@
+-- Índices das consultas quentes dos repositórios.
+
+-- Login (UsuarioRepository.buscarPorEmail): o índice único de EMAIL fica na V2_1, que confere antes se o banco já tem um
+
+-- Listagens de reportes: ORDER BY CREATED_AT DESC (buscarTodos, buscarRecentes) sem ordenar a tabela inteira
+CREATE INDEX IX_REPORTES_CREATED_AT ON ER_REPORTES (CREATED_AT DESC);
+
+-- Fila de moderação: WHERE STATUS = ? ORDER BY CREATED_AT DESC (buscarPorStatus)
+CREATE INDEX IX_REPORTES_STATUS_CREATED_AT ON ER_REPORTES (STATUS, CREATED_AT DESC);
+
+-- Reportes de um usuário
+CREATE INDEX IX_REPORTES_USUARIO ON ER_REPORTES (ID_USUARIO);
+
+-- Alertas mais recentes primeiro (AlertaRepository.buscarTodos)
+CREATE INDEX IX_ALERTAS_PUBLISHED_AT ON ER_ALERTAS (PUBLISHED_AT DESC);
+
+-- Áreas de risco por região (faixa de latitude/longitude no mapa)
+CREATE INDEX IX_RISK_AREAS_LAT_LON ON ER_RISK_AREAS (LATITUDE, LONGITUDE);
+
+-- Sincronização incremental (buscarAlteradosDesde): WHERE <marca d'água> > ?
+CREATE INDEX IX_REPORTES_UPDATED_AT ON ER_REPORTES (UPDATED_AT);
+CREATE INDEX IX_ALERTAS_UPDATED_AT ON ER_ALERTAS (UPDATED_AT);
+CREATE INDEX IX_ABRIGOS_UPDATED_AT ON ER_ABRIGOS (UPDATED_AT);
+CREATE INDEX IX_RISK_AREAS_UPDATED ON ER_RISK_AREAS (LAST_UPDATED_TIMESTAMP);
+CREATE INDEX IX_EXCLUSOES_ENTIDADE ON ER_EXCLUSOES (ENTIDADE, EXCLUIDO_EM);
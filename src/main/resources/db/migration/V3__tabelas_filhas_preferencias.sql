@@ -0,0 +1,24 @@
+-- Alertas inscritos dos usuários e serviços dos abrigos, antes guardados como texto delimitado
+-- (SUBSCRIBED_ALERTS com "," e SERVICES_OFFERED com ";"), passam a ter uma linha por valor.
+-- A chave primária atende a leitura por usuário/abrigo; o índice invertido atende "quem tem o valor X".
+-- Os valores têm a largura das colunas de origem (500 e 1000): um item sozinho pode ocupar a coluna inteira.
+
+CREATE TABLE ER_USUARIO_ALERTAS (
+    ID_USUARIO  NUMBER        NOT NULL,
+    TIPO_ALERTA VARCHAR2(500) NOT NULL,
+    CONSTRAINT PK_USUARIO_ALERTAS PRIMARY KEY (ID_USUARIO, TIPO_ALERTA),
+    CONSTRAINT FK_USUARIO_ALERTAS_USUARIO FOREIGN KEY (ID_USUARIO) REFERENCES ER_USUARIOS (ID_USUARIO) ON DELETE CASCADE
+);
+
+-- Inscritos num tipo de alerta (UsuarioRepository.listarInscritos): WHERE TIPO_ALERTA = ?, só pelo índice
+CREATE INDEX IX_USUARIO_ALERTAS_TIPO ON ER_USUARIO_ALERTAS (TIPO_ALERTA, ID_USUARIO);
+
+CREATE TABLE ER_ABRIGO_SERVICOS (
+    ID_ABRIGO NUMBER        NOT NULL,
+    SERVICO   VARCHAR2(1000) NOT NULL,
+    CONSTRAINT PK_ABRIGO_SERVICOS PRIMARY KEY (ID_ABRIGO, SERVICO),
+    CONSTRAINT FK_ABRIGO_SERVICOS_ABRIGO FOREIGN KEY (ID_ABRIGO) REFERENCES ER_ABRIGOS (ID) ON DELETE CASCADE
+);
+
+-- Abrigos que oferecem um serviço (AbrigoRepository.buscarPorServico)
+CREATE INDEX IX_ABRIGO_SERVICOS_SERVICO ON ER_ABRIGO_SERVICOS (SERVICO, ID_ABRIGO);
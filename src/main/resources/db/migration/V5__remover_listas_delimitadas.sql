@@ -0,0 +1,3 @@
+-- Os valores já foram copiados para ER_USUARIO_ALERTAS e ER_ABRIGO_SERVICOS (V4); as colunas delimitadas saem.
+ALTER TABLE ER_USUARIOS DROP COLUMN SUBSCRIBED_ALERTS;
+ALTER TABLE ER_ABRIGOS DROP COLUMN SERVICES_OFFERED;
@@ -0,0 +1,4 @@
+-- Coordenadas dos abrigos, para a busca dos mais próximos (GET /abrigos/proximos).
+-- Ficam nulas até o abrigo ser geocodificado (POST /abrigos/geocodificacao ou na gravação).
+ALTER TABLE ER_ABRIGOS ADD LATITUDE NUMBER(9, 6);
+ALTER TABLE ER_ABRIGOS ADD LONGITUDE NUMBER(9, 6);
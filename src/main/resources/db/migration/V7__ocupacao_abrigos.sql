@@ -0,0 +1,4 @@
+-- Lotação numérica dos abrigos, atualizada por entradas/saídas (POST /abrigos/{id}/entradas e /saidas).
+-- CAPACITY nula: o abrigo não informou a capacidade e o CAPACITY_STATUS continua sendo o texto livre cadastrado.
+ALTER TABLE ER_ABRIGOS ADD CAPACITY NUMBER(10);
+ALTER TABLE ER_ABRIGOS ADD OCCUPANCY NUMBER(10) DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- Agrupamento de reportes quase duplicados em incidentes (IndiceIncidentesService).
+-- INCIDENT_ID é o ID do primeiro reporte do incidente; um reporte sem duplicatas é o seu próprio incidente.
+ALTER TABLE ER_REPORTES ADD INCIDENT_ID NUMBER;
+
+-- Reportes anteriores ao agrupamento: cada um vira um incidente
+UPDATE ER_REPORTES SET INCIDENT_ID = ID WHERE INCIDENT_ID IS NULL;
+
+-- Reportes de um incidente (buscarPorIncidente, atualizarStatusDoIncidente) e contagem por incidente
+CREATE INDEX IX_REPORTES_INCIDENTE ON ER_REPORTES (INCIDENT_ID, CREATED_AT);
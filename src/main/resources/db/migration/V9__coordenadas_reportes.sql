@@ -0,0 +1,4 @@
+-- Coordenadas dos reportes, para o mapa de calor (GET /reportes/mapa-calor/{z}/{x}/{y}).
+-- Vêm do app (GPS) ou da geocodificação do endereço; ficam nulas quando nenhuma das duas existe.
+ALTER TABLE ER_REPORTES ADD LATITUDE NUMBER(9, 6);
+ALTER TABLE ER_REPORTES ADD LONGITUDE NUMBER(9, 6);
@@ -0,0 +1,114 @@
+package fiap.tds;
+
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Apoio dos testes: chaves de API do perfil de testes e cadastros mínimos pela própria API.
+ * Todos os testes dividem o mesmo H2 em memória, então cada cadastro usa nomes únicos e nenhum teste conta linhas da tabela toda.
+ */
+public final class ApiTeste {
+
+    public static final String CHAVE_ADMIN = "1234";
+    public static final String CHAVE_APP = "123456";
+
+    private ApiTeste() {
+    }
+
+    public static RequestSpecification admin() {
+        return given().header("X-API-Key", CHAVE_ADMIN);
+    }
+
+    public static RequestSpecification app() {
+        return given().header("X-API-Key", CHAVE_APP);
+    }
+
+    /**
+     * Texto único, para achar nos resultados o que o próprio teste cadastrou.
+     */
+    public static String unico(String prefixo) {
+        return prefixo + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+    /**
+     * Espera, por até 5 segundos, o que a aplicação faz em segundo plano (gravações em lote, índices).
+     * @return Se a condição foi atendida dentro do prazo.
+     */
+    public static boolean aguardar(BooleanSupplier condicao) {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicao.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) {
+                return false;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int criarAlerta(Map<String, Object> campos) {
+        Map<String, Object> alerta = new HashMap<>(Map.of(
+                "title", unico("Alerta "),
+                "description", "Chuva forte nas próximas horas",
+                "severity", "alto",
+                "source", "Defesa Civil"));
+        alerta.putAll(campos);
+        return admin().contentType(ContentType.JSON).body(alerta)
+                .when().post("/alertas")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    public static int criarAbrigo(Map<String, Object> campos) {
+        Map<String, Object> abrigo = new HashMap<>(Map.of(
+                "name", unico("Abrigo "),
+                "address", "Rua das Flores, 100",
+                "neighborhood", "Centro",
+                "cityState", "São Paulo/SP",
+                "capacity", 100,
+                "servicesOffered", List.of("alimentação", "banho"),
+                "targetAudience", "Famílias",
+                "operatingHours", "24h"));
+        abrigo.putAll(campos);
+        return admin().contentType(ContentType.JSON).body(abrigo)
+                .when().post("/abrigos")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    public static int criarReporte(String eventType, String description, String location) {
+        return admin().multiPart("eventType", eventType)
+                .multiPart("description", description)
+                .multiPart("location", location)
+                .when().post("/reportes")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    public static int criarUsuario(String locationPreference, List<String> subscribedAlerts) {
+        Map<String, Object> usuario = new HashMap<>(Map.of(
+                "nomeCompleto", "Usuária de Teste",
+                "email", unico("teste") + "@echoreport.com.br",
+                "password", "senha-forte",
+                "subscribedAlerts", subscribedAlerts));
+        if (locationPreference != null) {
+            usuario.put("locationPreference", locationPreference);
+        }
+        return admin().contentType(ContentType.JSON).body(usuario)
+                .when().post("/usuarios/registrar")
+                .then().statusCode(201)
+                .extract().path("userId");
+    }
+}
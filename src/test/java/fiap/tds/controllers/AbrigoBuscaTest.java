@@ -0,0 +1,65 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static fiap.tds.ApiTeste.unico;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+@QuarkusTest
+class AbrigoBuscaTest {
+
+    @Test
+    void filtraPeloBairroSemDiferenciarMaiusculasNemAcentos() {
+        String bairro = unico("Jardim São ");
+        int abrigo = criarAbrigo(Map.of("neighborhood", bairro));
+        criarAbrigo(Map.of("neighborhood", unico("Jardim São ")));
+
+        admin().queryParam("neighborhood", bairro.toLowerCase().replace("ã", "a"))
+                .when().get("/abrigos/busca")
+                .then().statusCode(200)
+                .body("id", contains(abrigo));
+    }
+
+    @Test
+    void exigeTodosOsServicosPedidos() {
+        String bairro = unico("Vila ");
+        String banho = unico("banho");
+        String vacina = unico("vacina");
+        int completo = criarAbrigo(Map.of("neighborhood", bairro, "servicesOffered", List.of(banho, vacina)));
+        criarAbrigo(Map.of("neighborhood", bairro, "servicesOffered", List.of(banho)));
+
+        admin().queryParam("neighborhood", bairro)
+                .queryParam("servicesOffered", banho, vacina)
+                .when().get("/abrigos/busca")
+                .then().statusCode(200)
+                .body("id", contains(completo));
+    }
+
+    @Test
+    void abrigoExcluidoSaiDaBusca() {
+        String bairro = unico("Vila ");
+        int abrigo = criarAbrigo(Map.of("neighborhood", bairro));
+
+        admin().when().delete("/abrigos/{id}", abrigo)
+                .then().statusCode(200);
+
+        admin().queryParam("neighborhood", bairro)
+                .when().get("/abrigos/busca")
+                .then().statusCode(200)
+                .body("$", empty());
+    }
+
+    @Test
+    void limiteForaDaFaixaResponde400() {
+        admin().queryParam("limite", 0)
+                .when().get("/abrigos/busca")
+                .then().statusCode(400);
+    }
+}
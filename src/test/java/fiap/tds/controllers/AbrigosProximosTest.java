@@ -0,0 +1,60 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThan;
+
+@QuarkusTest
+class AbrigosProximosTest {
+
+    // Cada teste usa um ponto no meio do oceano, longe dos abrigos geocodificados dos outros testes
+    @Test
+    void devolveOsMaisProximosEmOrdemDeDistancia() {
+        double latitude = -55.0;
+        double longitude = -20.0;
+        int longe = criarAbrigo(Map.of("latitude", latitude + 0.05, "longitude", longitude));
+        int perto = criarAbrigo(Map.of("latitude", latitude + 0.01, "longitude", longitude));
+        int meio = criarAbrigo(Map.of("latitude", latitude + 0.02, "longitude", longitude));
+
+        admin().queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("k", 3)
+                .when().get("/abrigos/proximos")
+                .then().statusCode(200)
+                .body("abrigo.id", contains(perto, meio, longe))
+                .body("[0].distanciaKm", lessThan(1.2f)); // 0,01 grau de latitude: 1,11 km
+    }
+
+    @Test
+    void comVagaIgnoraOsLotados() {
+        double latitude = -50.0;
+        double longitude = -15.0;
+        criarAbrigo(Map.of("latitude", latitude + 0.01, "longitude", longitude, "capacity", 0)); // Sem vagas: lotado
+        int disponivel = criarAbrigo(Map.of("latitude", latitude + 0.02, "longitude", longitude, "capacity", 50));
+
+        admin().queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("k", 1)
+                .queryParam("comVaga", true)
+                .when().get("/abrigos/proximos")
+                .then().statusCode(200)
+                .body("abrigo.id", contains(disponivel));
+    }
+
+    @Test
+    void coordenadasInvalidasRespondem400() {
+        admin().queryParam("latitude", 91)
+                .queryParam("longitude", 0)
+                .when().get("/abrigos/proximos")
+                .then().statusCode(400);
+        admin().queryParam("longitude", 0)
+                .when().get("/abrigos/proximos")
+                .then().statusCode(400);
+    }
+}
@@ -0,0 +1,43 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAlerta;
+import static fiap.tds.ApiTeste.criarUsuario;
+import static fiap.tds.ApiTeste.unico;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+@QuarkusTest
+class AlertaDestinatariosTest {
+
+    @Test
+    void destinatariosSaoOsInscritosNoTipoDaRegiaoDoAlerta() {
+        String regiao = unico("Bairro ");
+        int inscrito = criarUsuario(regiao, List.of("enchente"));
+        int outroTipo = criarUsuario(regiao, List.of("incendio"));
+        int outraRegiao = criarUsuario(unico("Bairro "), List.of("enchente"));
+        int semRegiao = criarUsuario(null, List.of("Enchente")); // Sem localização preferida recebe de todas
+
+        int alerta = criarAlerta(Map.of("eventType", "enchente", "location", regiao));
+
+        admin().queryParam("limite", 1_000_000)
+                .when().get("/alertas/{id}/destinatarios", alerta)
+                .then().statusCode(200)
+                .body("usuarios", hasItem(inscrito))
+                .body("usuarios", hasItem(semRegiao))
+                .body("usuarios", not(hasItem(outroTipo)))
+                .body("usuarios", not(hasItem(outraRegiao)));
+    }
+
+    @Test
+    void alertaInexistenteResponde404() {
+        admin().when().get("/alertas/{id}/destinatarios", Integer.MAX_VALUE)
+                .then().statusCode(404);
+    }
+}
@@ -0,0 +1,94 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.app;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+@QuarkusTest
+class ArquivamentoReportesTest {
+
+    @Inject
+    DataSource banco;
+
+    @Test
+    void soOsEncerradosAntigosVaoParaOArquivo() throws SQLException {
+        int antigoResolvido = inserirReporte("resolvido", 200);
+        int antigoAberto = inserirReporte("novo", 200);
+        int recenteResolvido = inserirReporte("resolvido", 1);
+
+        admin().when().post("/reportes/arquivamento")
+                .then().statusCode(200)
+                .body("arquivados", greaterThanOrEqualTo(1));
+
+        admin().when().get("/reportes/{id}", antigoResolvido)
+                .then().statusCode(200)
+                .body("archived", is(true));
+        admin().when().get("/reportes/{id}", antigoAberto)
+                .then().statusCode(200)
+                .body("archived", is(false));
+        admin().when().get("/reportes/{id}", recenteResolvido)
+                .then().statusCode(200)
+                .body("archived", is(false));
+    }
+
+    @Test
+    void arquivadoPodeSerLidoEExcluidoMasNaoEditado() throws SQLException {
+        int reporte = inserirReporte("falso_positivo", 365);
+        admin().when().post("/reportes/arquivamento")
+                .then().statusCode(200);
+
+        admin().contentType(ContentType.JSON)
+                .body(Map.of("eventType", "alagamento", "description", "Editado", "location", "Rua do Arquivo, 1",
+                        "status", "verificado", "severity", "alto"))
+                .when().put("/reportes/{id}", reporte)
+                .then().statusCode(409);
+        admin().contentType(ContentType.JSON)
+                .body(Map.of("status", "verificado"))
+                .when().patch("/reportes/{id}/status", reporte)
+                .then().statusCode(409);
+
+        admin().when().delete("/reportes/{id}", reporte)
+                .then().statusCode(200);
+        admin().when().get("/reportes/{id}", reporte)
+                .then().statusCode(404);
+    }
+
+    @Test
+    void arquivamentoSomenteParaAdmin() {
+        app().when().post("/reportes/arquivamento")
+                .then().statusCode(403);
+    }
+
+    // Direto no banco: a API sempre grava reportes com a data de agora
+    private int inserirReporte(String status, int diasAtras) throws SQLException {
+        String sql = "INSERT INTO ER_REPORTES (EVENT_TYPE, DESCRIPTION, LOCATION, CREATED_AT, UPDATED_AT, STATUS) VALUES ('alagamento', ?, 'Rua do Arquivo, 1', ?, ?, ?)";
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"ID"})) {
+            Timestamp criado = Timestamp.valueOf(LocalDateTime.now().minusDays(diasAtras));
+            stmt.setString(1, "Reporte " + status + " de " + diasAtras + " dias atrás");
+            stmt.setTimestamp(2, criado);
+            stmt.setTimestamp(3, criado);
+            stmt.setString(4, status);
+            stmt.executeUpdate();
+            try (ResultSet chaves = stmt.getGeneratedKeys()) {
+                chaves.next();
+                return chaves.getInt(1);
+            }
+        }
+    }
+}
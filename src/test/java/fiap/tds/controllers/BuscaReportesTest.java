@@ -0,0 +1,62 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.aguardar;
+import static fiap.tds.ApiTeste.criarReporte;
+import static fiap.tds.ApiTeste.unico;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class BuscaReportesTest {
+
+    @Test
+    void achaOReportePeloTextoSemDiferenciarAcentos() {
+        String termo = unico("termo");
+        int reporte = criarReporte("alagamento", "Inundação na rua " + termo, "Rua do Teste, 1");
+
+        assertTrue(aguardar(() -> encontrados("inundacao " + termo).equals(List.of(reporte))), "Reporte não encontrado na busca");
+    }
+
+    @Test
+    void reporteExcluidoSaiDaBusca() {
+        String termo = unico("termo");
+        int reporte = criarReporte("alagamento", "Rua alagada " + termo, "Rua do Teste, 2");
+        assertTrue(aguardar(() -> encontrados(termo).equals(List.of(reporte))), "Reporte não encontrado na busca");
+
+        admin().when().delete("/reportes/{id}", reporte)
+                .then().statusCode(200);
+
+        assertTrue(aguardar(() -> encontrados(termo).isEmpty()), "Reporte excluído continua na busca");
+    }
+
+    @Test
+    void reconstrucaoMantemOsReportesNaBusca() {
+        String termo = unico("termo");
+        int reporte = criarReporte("alagamento", "Bueiro entupido " + termo, "Rua do Teste, 3");
+
+        admin().when().post("/reportes/busca/reconstrucao")
+                .then().statusCode(202);
+
+        assertTrue(aguardar(() -> encontrados(termo).equals(List.of(reporte))), "Reporte sumiu da busca depois da reconstrução");
+    }
+
+    @Test
+    void paginaAlemDaJanelaResponde400() {
+        admin().queryParam("q", "rua")
+                .queryParam("pagina", 1_000_000)
+                .when().get("/reportes/busca")
+                .then().statusCode(400);
+    }
+
+    private static List<Integer> encontrados(String texto) {
+        return admin().queryParam("q", texto)
+                .when().get("/reportes/busca")
+                .then().statusCode(200)
+                .extract().path("reportes.id");
+    }
+}
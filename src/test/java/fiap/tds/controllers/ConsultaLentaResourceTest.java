@@ -0,0 +1,60 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.app;
+import static fiap.tds.ApiTeste.unico;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+@TestProfile(ConsultaLentaResourceTest.TodaConsultaELenta.class)
+class ConsultaLentaResourceTest {
+
+    // Limite zero: toda execução entra no relatório, sem depender da velocidade do H2
+    public static class TodaConsultaELenta implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("sql.lenta.limite-ms", "0");
+        }
+    }
+
+    @Test
+    void relatorioTrazOsTiposDosParametrosSemOsValores() {
+        String email = unico("lenta") + "@echoreport.com.br";
+        admin().contentType(ContentType.JSON)
+                .body(Map.of("nomeCompleto", "Usuária Lenta", "email", email, "password", "senha-forte", "subscribedAlerts", List.of()))
+                .when().post("/usuarios/registrar")
+                .then().statusCode(201);
+
+        admin().queryParam("top", 1_000)
+                .when().get("/consultas-lentas")
+                .then().statusCode(200)
+                .body("find { it.sql.startsWith('INSERT INTO ER_USUARIOS') }.parametros", allOf(notNullValue(), containsString("2:String")))
+                .body(not(containsString(email)));
+    }
+
+    @Test
+    void somenteAdminConsultaORelatorio() {
+        app().when().get("/consultas-lentas")
+                .then().statusCode(403);
+    }
+
+    @Test
+    void topNaoPositivoResponde400() {
+        admin().queryParam("top", 0)
+                .when().get("/consultas-lentas")
+                .then().statusCode(400)
+                .body("error", notNullValue());
+    }
+}
@@ -0,0 +1,83 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.app;
+import static fiap.tds.ApiTeste.criarReporte;
+import static fiap.tds.ApiTeste.unico;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class EstatisticasReportesTest {
+
+    @Inject
+    DataSource banco;
+
+    // Tipo único por teste: a contagem por tipo não sofre com os reportes dos outros testes
+    @Test
+    void registroEExclusaoAtualizamAsContagens() {
+        String tipo = unico("tipo");
+        int reporte = criarReporte(tipo, "Poste caído na calçada", "Rua do Teste, 10");
+        criarReporte(tipo, "Fiação exposta depois da chuva", "Rua do Teste, 11");
+        assertEquals(2L, contagem(tipo));
+
+        admin().when().delete("/reportes/{id}", reporte)
+                .then().statusCode(200);
+        assertEquals(1L, contagem(tipo));
+    }
+
+    @Test
+    void reconstrucaoContaOQueFoiGravadoDiretoNoBanco() throws SQLException {
+        String tipo = unico("tipo");
+        criarReporte(tipo, "Semáforo apagado no cruzamento", "Rua do Teste, 12");
+        inserirReporte(tipo); // Gravado por outra instância: esta não contou
+        assertEquals(1L, contagem(tipo));
+
+        admin().when().post("/reportes/estatisticas/reconstrucao")
+                .then().statusCode(200);
+        assertEquals(2L, contagem(tipo));
+    }
+
+    @Test
+    void reconstrucaoSomenteParaAdmin() {
+        app().when().post("/reportes/estatisticas/reconstrucao")
+                .then().statusCode(403);
+    }
+
+    @Test
+    void periodoForaDaFaixaResponde400() {
+        admin().queryParam("horas", 0)
+                .when().get("/reportes/estatisticas")
+                .then().statusCode(400);
+    }
+
+    private static long contagem(String tipo) {
+        Number quantidade = admin().queryParam("horas", 1)
+                .when().get("/reportes/estatisticas")
+                .then().statusCode(200)
+                .extract().path("porTipo." + tipo);
+        return quantidade != null ? quantidade.longValue() : 0;
+    }
+
+    private void inserirReporte(String tipo) throws SQLException {
+        String sql = "INSERT INTO ER_REPORTES (EVENT_TYPE, DESCRIPTION, LOCATION, CREATED_AT, UPDATED_AT, STATUS) VALUES (?, 'Reporte de outra instância', 'Rua do Teste, 13', ?, ?, 'novo')";
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            stmt.setString(1, tipo);
+            stmt.setTimestamp(2, agora);
+            stmt.setTimestamp(3, agora);
+            stmt.executeUpdate();
+        }
+    }
+}
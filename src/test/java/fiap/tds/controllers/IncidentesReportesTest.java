@@ -0,0 +1,65 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarReporte;
+import static fiap.tds.ApiTeste.unico;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class IncidentesReportesTest {
+
+    // Tipo único por teste: os reportes dos outros testes nunca são candidatos
+    @Test
+    void quaseDuplicatasEntramNoMesmoIncidente() {
+        String tipo = unico("tipo");
+        String rua = unico("Rua ");
+        int primeiro = criarReporte(tipo, "Rua inteira alagada em frente à escola municipal, água na altura do joelho", rua + ", 100");
+        int duplicata = criarReporte(tipo, "Rua inteira alagada em frente à escola municipal, água na altura do joelho!", rua + ", 100 - Centro");
+        int outro = criarReporte(tipo, "Árvore caída bloqueando a passagem de carros e pedestres", rua + ", 100");
+
+        assertEquals(primeiro, incidente(primeiro));
+        assertEquals(primeiro, incidente(duplicata));
+        assertEquals(outro, incidente(outro)); // Mesmo endereço, outro acontecimento
+
+        admin().when().get("/reportes/incidentes/{id}", primeiro)
+                .then().statusCode(200)
+                .body("id", containsInAnyOrder(primeiro, duplicata));
+    }
+
+    @Test
+    void statusDoIncidenteValeParaTodosOsReportes() {
+        String tipo = unico("tipo");
+        String rua = unico("Rua ");
+        int primeiro = criarReporte(tipo, "Deslizamento de terra atingiu duas casas na encosta do morro", rua + ", 20");
+        criarReporte(tipo, "Deslizamento de terra atingiu duas casas na encosta do morro.", rua + ", 20");
+
+        admin().contentType(ContentType.JSON).body(Map.of("status", "verificado"))
+                .when().patch("/reportes/incidentes/{id}/status", primeiro)
+                .then().statusCode(200);
+
+        admin().when().get("/reportes/incidentes/{id}", primeiro)
+                .then().statusCode(200)
+                .body("status", everyItem(equalTo("verificado")));
+    }
+
+    @Test
+    void incidenteInexistenteResponde404() {
+        admin().when().get("/reportes/incidentes/{id}", Integer.MAX_VALUE)
+                .then().statusCode(404);
+    }
+
+    private static int incidente(int reporte) {
+        return admin().when().get("/reportes/{id}", reporte)
+                .then().statusCode(200)
+                .extract().path("incidentId");
+    }
+}
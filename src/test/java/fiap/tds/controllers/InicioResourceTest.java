@@ -0,0 +1,67 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static fiap.tds.ApiTeste.admin;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+class InicioResourceTest {
+
+    @Inject
+    DataSource banco;
+
+    @Test
+    void carregaAsFatiasComOTempoDeCadaUma() {
+        admin().when().get("/inicio")
+                .then().statusCode(200)
+                .header("Server-Timing", containsString("reportes;dur="));
+    }
+
+    @Test
+    void limiteDeReportesAcimaDoMaximoEReduzido() throws SQLException {
+        inserirReportes(101);
+
+        admin().queryParam("reportes", 1_000)
+                .when().get("/inicio")
+                .then().statusCode(200)
+                .body("reportes", hasSize(100));
+    }
+
+    @Test
+    void limiteDeReportesNaoPositivoResponde400() {
+        admin().queryParam("reportes", 0)
+                .when().get("/inicio")
+                .then().statusCode(400)
+                .body("error", notNullValue());
+    }
+
+    // Direto no banco: só a listagem dos recentes interessa aqui
+    private void inserirReportes(int quantidade) throws SQLException {
+        String sql = "INSERT INTO ER_REPORTES (EVENT_TYPE, DESCRIPTION, LOCATION, CREATED_AT, UPDATED_AT, STATUS) VALUES (?, ?, ?, ?, ?, 'novo')";
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            for (int i = 0; i < quantidade; i++) {
+                stmt.setString(1, "alagamento");
+                stmt.setString(2, "Rua alagada " + i);
+                stmt.setString(3, "Rua do Teste, " + i);
+                stmt.setTimestamp(4, agora);
+                stmt.setTimestamp(5, agora);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static fiap.tds.ApiTeste.criarAlerta;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class ListagemReativaTest {
+
+    private static final Logger logger = Logger.getLogger(ListagemReativaTest.class);
+
+    @Test
+    void listagensReativasTrazemOsCadastrados() {
+        int alerta = criarAlerta(Map.of());
+        int abrigo = criarAbrigo(Map.of());
+        int mapa = admin().contentType(ContentType.JSON)
+                .body(Map.of("title", "Encosta", "description", "Risco de deslizamento", "latitude", -23.55,
+                        "longitude", -46.63, "radius", 300, "riskLevel", "alto"))
+                .when().post("/mapas")
+                .then().statusCode(201)
+                .extract().path("id");
+
+        admin().when().get("/alertas").then().statusCode(200).body("id", hasItem(alerta));
+        admin().when().get("/abrigos").then().statusCode(200).body("id", hasItem(abrigo));
+        admin().when().get("/mapas").then().statusCode(200).body("id", hasItem(mapa));
+    }
+
+    @Test
+    void poolDeLeituraSaturadoResponde503() {
+        Response resposta = RespostaReativa.listagem(Uni.createFrom().failure(new RejectedExecutionException()), logger, "alertas")
+                .await().indefinitely();
+
+        assertEquals(503, resposta.getStatus());
+    }
+
+    @Test
+    void falhaNaLeituraResponde500() {
+        Response resposta = RespostaReativa.listagem(Uni.createFrom().<List<String>>failure(new IllegalStateException("banco fora")), logger, "alertas")
+                .await().indefinitely();
+
+        assertEquals(500, resposta.getStatus());
+        assertEquals("Ocorreu um erro ao buscar a lista de alertas.", resposta.getEntity());
+    }
+}
@@ -0,0 +1,65 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static fiap.tds.ApiTeste.admin;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class MapaCalorReportesTest {
+
+    private static final int ZOOM = 12;
+    // No meio do oceano: nenhum outro teste registra reportes neste tile
+    private static final double LATITUDE = -52.5;
+    private static final double LONGITUDE = -25.5;
+
+    @Test
+    void reporteComCoordenadasEntraNoTile() {
+        int x = coluna(LONGITUDE);
+        int y = linha(LATITUDE);
+        int antes = total(x, y);
+
+        admin().multiPart("eventType", "alagamento")
+                .multiPart("description", "Reporte enviado com a posição do aparelho")
+                .multiPart("location", "Ponto de teste do mapa de calor")
+                .multiPart("latitude", String.valueOf(LATITUDE))
+                .multiPart("longitude", String.valueOf(LONGITUDE))
+                .when().post("/reportes")
+                .then().statusCode(201);
+
+        assertEquals(antes + 1, total(x, y));
+        admin().when().get("/reportes/mapa-calor/{z}/{x}/{y}", ZOOM, x, y)
+                .then().statusCode(200)
+                .body("tamanho", equalTo(32))
+                .body("maximo", equalTo(antes + 1));
+    }
+
+    @Test
+    void zoomOuTileForaDoMapaRespondem400() {
+        admin().when().get("/reportes/mapa-calor/{z}/{x}/{y}", ZOOM + 1, 0, 0)
+                .then().statusCode(400);
+        admin().when().get("/reportes/mapa-calor/{z}/{x}/{y}", 2, 4, 0)
+                .then().statusCode(400);
+        admin().queryParam("horas", 0)
+                .when().get("/reportes/mapa-calor/{z}/{x}/{y}", 0, 0, 0)
+                .then().statusCode(400);
+    }
+
+    private static int total(int x, int y) {
+        return admin().when().get("/reportes/mapa-calor/{z}/{x}/{y}", ZOOM, x, y)
+                .then().statusCode(200)
+                .extract().path("total");
+    }
+
+    // Web Mercator, como os clientes de mapa numeram os tiles
+    private static int coluna(double longitude) {
+        return (int) Math.floor((longitude + 180) / 360 * (1 << ZOOM));
+    }
+
+    private static int linha(double latitude) {
+        double radianos = Math.toRadians(latitude);
+        return (int) Math.floor((1 - Math.log(Math.tan(radianos) + 1 / Math.cos(radianos)) / Math.PI) / 2 * (1 << ZOOM));
+    }
+}
@@ -0,0 +1,47 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static fiap.tds.ApiTeste.criarUsuario;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+@QuarkusTest
+class MetricasTest {
+
+    @Test
+    void expoeAsMetricasDaAplicacao() {
+        criarAbrigo(Map.of());
+        criarUsuario(null, List.of());
+
+        given().when().get("/q/metrics")
+                .then().statusCode(200)
+                .body(allOf(
+                        containsString("echoreport_banco_conexao_aquisicao_seconds_count"),
+                        containsString("echoreport_repositorio_tempo_seconds_count"),
+                        containsString("repositorio=\"abrigo\""),
+                        containsString("echoreport_bcrypt_seconds_count"),
+                        containsString("operacao=\"hash\""),
+                        containsString("agroal_")));
+    }
+
+    @Test
+    void requisicoesHttpSaoAgrupadasPeloTemplateDaUri() {
+        int id = criarAbrigo(Map.of());
+        admin().when().get("/abrigos/" + id).then().statusCode(200);
+
+        given().when().get("/q/metrics")
+                .then().statusCode(200)
+                .body(allOf(
+                        containsString("uri=\"/abrigos/{id}\""),
+                        not(containsString("uri=\"/abrigos/" + id + "\""))));
+    }
+}
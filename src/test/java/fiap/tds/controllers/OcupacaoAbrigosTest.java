@@ -0,0 +1,111 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.aguardar;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class OcupacaoAbrigosTest {
+
+    @Inject
+    DataSource banco;
+
+    @Test
+    void entradasESaidasAtualizamALotacaoNaHoraENoBancoEmSeguida() {
+        int abrigo = criarAbrigo(Map.of("capacity", 10));
+
+        admin().queryParam("quantidade", 3)
+                .when().post("/abrigos/{id}/entradas", abrigo)
+                .then().statusCode(200)
+                .body("ocupacao", equalTo(3));
+        admin().when().post("/abrigos/{id}/saidas", abrigo)
+                .then().statusCode(200)
+                .body("ocupacao", equalTo(2));
+
+        admin().when().get("/abrigos/{id}/ocupacao", abrigo)
+                .then().statusCode(200)
+                .body("ocupacao", equalTo(2))
+                .body("capacidade", equalTo(10));
+        assertTrue(aguardar(() -> ocupacaoGravada(abrigo) == 2), "Lotação não gravada no banco");
+    }
+
+    @Test
+    void lotacaoNaoFicaNegativa() {
+        int abrigo = criarAbrigo(Map.of("capacity", 10));
+        admin().queryParam("quantidade", 1)
+                .when().post("/abrigos/{id}/entradas", abrigo)
+                .then().statusCode(200);
+
+        admin().queryParam("quantidade", 5)
+                .when().post("/abrigos/{id}/saidas", abrigo)
+                .then().statusCode(200)
+                .body("ocupacao", equalTo(0));
+        assertTrue(aguardar(() -> ocupacaoGravada(abrigo) == 0), "Lotação não gravada no banco");
+    }
+
+    @Test
+    void situacaoAcompanhaACapacidade() {
+        int abrigo = criarAbrigo(Map.of("capacity", 2));
+
+        admin().queryParam("quantidade", 2)
+                .when().post("/abrigos/{id}/entradas", abrigo)
+                .then().statusCode(200)
+                .body("capacityStatus", equalTo("lotado"));
+    }
+
+    @Test
+    void lotacaoGravadaPorOutraInstanciaEAbsorvidaNaProximaGravacao() throws SQLException {
+        int abrigo = criarAbrigo(Map.of("capacity", 100));
+        admin().queryParam("quantidade", 4)
+                .when().post("/abrigos/{id}/entradas", abrigo)
+                .then().statusCode(200);
+        assertTrue(aguardar(() -> ocupacaoGravada(abrigo) == 4), "Lotação não gravada no banco");
+
+        // Outra instância da API grava 5 entradas no mesmo abrigo
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE ER_ABRIGOS SET OCCUPANCY = OCCUPANCY + 5 WHERE ID = ?")) {
+            stmt.setInt(1, abrigo);
+            stmt.executeUpdate();
+        }
+
+        assertTrue(aguardar(() -> admin().when().get("/abrigos/{id}/ocupacao", abrigo)
+                .then().statusCode(200)
+                .extract().<Integer>path("ocupacao") == 9), "Lotação gravada por outra instância não foi relida");
+    }
+
+    @Test
+    void quantidadeForaDaFaixaResponde400EAbrigoInexistente404() {
+        int abrigo = criarAbrigo(Map.of());
+        admin().queryParam("quantidade", 0)
+                .when().post("/abrigos/{id}/entradas", abrigo)
+                .then().statusCode(400);
+        admin().when().post("/abrigos/{id}/entradas", Integer.MAX_VALUE)
+                .then().statusCode(404);
+    }
+
+    private int ocupacaoGravada(int abrigo) {
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT OCCUPANCY FROM ER_ABRIGOS WHERE ID = ?")) {
+            stmt.setInt(1, abrigo);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package fiap.tds.controllers;
+
+import fiap.tds.services.SincronizacaoService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class SincronizacaoResourceTest {
+
+    @Inject
+    SincronizacaoService sincronizacaoService;
+
+    @Inject
+    DataSource banco;
+
+    @Test
+    void semWatermarkDevolveSnapshotCompleto() {
+        admin().when().get("/sync")
+                .then().statusCode(200)
+                .body("completo", is(true));
+    }
+
+    @Test
+    void incrementalTrazAlteradosEExcluidosDesdeOWatermark() {
+        long watermark = admin().when().get("/sync")
+                .then().statusCode(200)
+                .extract().jsonPath().getLong("watermark");
+        int alterado = criarAbrigo(Map.of());
+        int excluido = criarAbrigo(Map.of());
+        admin().when().delete("/abrigos/{id}", excluido).then().statusCode(200);
+
+        admin().queryParam("desde", watermark)
+                .when().get("/sync")
+                .then().statusCode(200)
+                .body("completo", is(false))
+                .body("abrigos.id", hasItem(alterado))
+                .body("abrigosRemovidos", hasItem(excluido));
+    }
+
+    @Test
+    void watermarkForaDaJanelaDevolveSnapshotCompleto() {
+        admin().queryParam("desde", 1L)
+                .when().get("/sync")
+                .then().statusCode(200)
+                .body("completo", is(true));
+    }
+
+    @Test
+    void watermarkNegativoResponde400() {
+        admin().queryParam("desde", -1L)
+                .when().get("/sync")
+                .then().statusCode(400);
+    }
+
+    @Test
+    void limpezaApagaSoAsExclusoesForaDaJanela() throws SQLException {
+        int antiga = registrarExclusao(LocalDateTime.now().minusDays(31));
+        int recente = registrarExclusao(LocalDateTime.now().minusDays(1));
+
+        sincronizacaoService.limparExclusoes();
+
+        assertEquals(0, contarExclusoes(antiga));
+        assertEquals(1, contarExclusoes(recente));
+    }
+
+    private int registrarExclusao(LocalDateTime excluidoEm) throws SQLException {
+        int id = (int) (System.nanoTime() & 0x3fffffff);
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO ER_EXCLUSOES (ENTIDADE, ENTIDADE_ID, EXCLUIDO_EM) VALUES ('mapas', ?, ?)")) {
+            stmt.setInt(1, id);
+            stmt.setTimestamp(2, Timestamp.valueOf(excluidoEm));
+            stmt.executeUpdate();
+        }
+        return id;
+    }
+
+    private int contarExclusoes(int id) throws SQLException {
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM ER_EXCLUSOES WHERE ENTIDADE = 'mapas' AND ENTIDADE_ID = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
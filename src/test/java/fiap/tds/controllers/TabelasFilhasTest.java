@@ -0,0 +1,73 @@
+package fiap.tds.controllers;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.criarAbrigo;
+import static fiap.tds.ApiTeste.criarUsuario;
+import static fiap.tds.ApiTeste.unico;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+@QuarkusTest
+class TabelasFilhasTest {
+
+    @Test
+    void alertasInscritosVoltamIntactosEAchamOUsuario() {
+        String tipo = unico("tipo");
+        int usuario = criarUsuario(null, List.of(tipo, "deslizamento"));
+
+        admin().when().get("/usuarios/{id}", usuario)
+                .then().statusCode(200)
+                .body("subscribedAlerts", containsInAnyOrder(tipo, "deslizamento"));
+
+        admin().queryParam("alerta", tipo)
+                .when().get("/usuarios")
+                .then().statusCode(200)
+                .body("userId", hasItem(usuario));
+    }
+
+    @Test
+    void atualizarTrocaOsAlertasInscritos() {
+        String antigo = unico("antigo");
+        String novo = unico("novo");
+        int usuario = criarUsuario(null, List.of(antigo));
+
+        admin().contentType(ContentType.JSON)
+                .body(Map.of("nomeCompleto", "Usuária de Teste", "email", unico("troca") + "@echoreport.com.br", "subscribedAlerts", List.of(novo)))
+                .when().put("/usuarios/{id}", usuario)
+                .then().statusCode(200);
+
+        admin().queryParam("alerta", antigo)
+                .when().get("/usuarios")
+                .then().statusCode(200)
+                .body("userId", not(hasItem(usuario)));
+        admin().queryParam("alerta", novo)
+                .when().get("/usuarios")
+                .then().statusCode(200)
+                .body("userId", hasItem(usuario));
+    }
+
+    @Test
+    void servicosDoAbrigoVoltamIntactosEAchamOAbrigo() {
+        String servico = unico("servico");
+        // Um item sozinho pode ocupar a largura inteira da antiga coluna SERVICES_OFFERED
+        String longo = "x".repeat(1_000);
+        int abrigo = criarAbrigo(Map.of("servicesOffered", List.of(servico, longo)));
+
+        admin().when().get("/abrigos/{id}", abrigo)
+                .then().statusCode(200)
+                .body("servicesOffered", containsInAnyOrder(servico, longo));
+
+        admin().queryParam("servico", servico)
+                .when().get("/abrigos")
+                .then().statusCode(200)
+                .body("id", hasItem(abrigo));
+    }
+}
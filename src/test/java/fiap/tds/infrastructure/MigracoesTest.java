@@ -0,0 +1,58 @@
+package fiap.tds.infrastructure;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static fiap.tds.ApiTeste.unico;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class MigracoesTest {
+
+    @Inject
+    DataSource banco;
+
+    @Test
+    void todasAsMigracoesForamAplicadas() throws SQLException {
+        List<String> versoes = new ArrayList<>();
+        int falhas = 0;
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT \"version\", \"success\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                versoes.add(rs.getString(1));
+                if (!rs.getBoolean(2)) {
+                    falhas++;
+                }
+            }
+        }
+
+        assertEquals(0, falhas);
+        // As migrações em Java (db.migration) também entram no histórico
+        assertTrue(versoes.containsAll(List.of("1", "1.1", "2", "2.1", "4", "5")), "Versões aplicadas: " + versoes);
+    }
+
+    @Test
+    void emailRepetidoERecusadoPeloIndiceUnico() throws SQLException {
+        String email = unico("repetido") + "@echoreport.com.br";
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO ER_USUARIOS (NOME_COMPLETO, EMAIL) VALUES ('Usuária Repetida', ?)")) {
+            stmt.setString(1, email);
+            stmt.executeUpdate();
+
+            assertThrows(SQLIntegrityConstraintViolationException.class, stmt::executeUpdate);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package fiap.tds.services;
+
+import fiap.tds.dtos.AlertaEventoDTO;
+import fiap.tds.entities.Alerta;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.criarAlerta;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class AlertaBroadcastServiceTest {
+
+    @Inject
+    AlertaBroadcastService broadcast;
+
+    @Test
+    void alertaPublicadoChegaAosClientesConectados() {
+        AssertSubscriber<AlertaEventoDTO> cliente = broadcast.assinar().subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        int id = criarAlerta(Map.of());
+
+        cliente.awaitItems(1, Duration.ofSeconds(5));
+        assertTrue(cliente.getItems().stream().anyMatch(evento ->
+                AlertaEventoDTO.CRIADO.equals(evento.getTipo()) && evento.getAlerta().getId() == id));
+        cliente.cancel();
+    }
+
+    @Test
+    void rascunhoNaoVaiAoFluxo() {
+        AssertSubscriber<AlertaEventoDTO> cliente = broadcast.assinar().subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        int id = criarAlerta(Map.of("status", "rascunho"));
+
+        assertFalse(cliente.getItems().stream().anyMatch(evento -> evento.getAlerta().getId() == id));
+        cliente.cancel();
+    }
+
+    @Test
+    void clienteLentoEDesconectadoQuandoOBufferEsgota() {
+        AssertSubscriber<AlertaEventoDTO> lento = broadcast.assinar().subscribe().withSubscriber(AssertSubscriber.create(0));
+        int conectados = broadcast.getClientesConectados();
+        Alerta alerta = new Alerta();
+        alerta.setId(-1);
+
+        for (int i = 0; i < 1_000; i++) { // Bem acima de alertas.stream.buffer-size (256)
+            broadcast.publicar(AlertaEventoDTO.ATUALIZADO, alerta);
+        }
+
+        lento.awaitCompletion(Duration.ofSeconds(5));
+        assertEquals(conectados - 1, broadcast.getClientesConectados());
+    }
+}
@@ -0,0 +1,121 @@
+package fiap.tds.services;
+
+import fiap.tds.repositories.AlertaRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.aguardar;
+import static fiap.tds.ApiTeste.criarAlerta;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class AlertasAtivosServiceTest {
+
+    @Inject
+    DataSource banco;
+
+    private final AlertaRepository repository = new AlertaRepository();
+
+    @Test
+    void alertaPublicadoEntraNosAtivos() {
+        int alerta = criarAlerta(Map.of());
+
+        admin().queryParam("limite", 1_000)
+                .when().get("/alertas/ativos")
+                .then().statusCode(200)
+                .body("id", hasItem(alerta));
+    }
+
+    @Test
+    void alertaVencidoSaiDosAtivosEERetiradoNoBanco() throws SQLException {
+        int alerta = criarAlerta(Map.of("expiresAt", daquiASegundos(2)));
+        assertTrue(aguardar(() -> !ativos().contains(alerta)), "Alerta vencido continua nos ativos");
+
+        repository.retirarExpirados(LocalDateTime.now()); // Se a rodada agendada já retirou, não acha mais nada
+
+        assertEquals(0, ativoNoBanco(alerta));
+        assertEquals(1, exclusoes(alerta)); // A sincronização avisa os clientes que o alerta saiu
+    }
+
+    @Test
+    void rascunhoVencidoNaoERetiradoNemListado() throws SQLException {
+        int rascunho = criarAlerta(Map.of("status", "rascunho", "expiresAt", daquiASegundos(1)));
+        assertFalse(ativos().contains(rascunho));
+        assertTrue(aguardar(() -> vencido(rascunho)), "Rascunho não venceu");
+
+        List<Integer> retirados = repository.retirarExpirados(LocalDateTime.now());
+
+        assertFalse(retirados.contains(rascunho));
+        assertEquals(0, exclusoes(rascunho));
+        admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .body("id", hasItem(rascunho));
+    }
+
+    @Test
+    void limiteNaoPositivoResponde400() {
+        admin().queryParam("limite", 0)
+                .when().get("/alertas/ativos")
+                .then().statusCode(400);
+    }
+
+    private static String daquiASegundos(int segundos) {
+        return LocalDateTime.now().plusSeconds(segundos).withNano(0).toString();
+    }
+
+    private static List<Integer> ativos() {
+        return admin().queryParam("limite", 1_000)
+                .when().get("/alertas/ativos")
+                .then().statusCode(200)
+                .extract().path("id");
+    }
+
+    private boolean vencido(int alerta) {
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM ER_ALERTAS WHERE ID = ? AND EXPIRES_AT <= LOCALTIMESTAMP")) {
+            stmt.setInt(1, alerta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) == 1;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int ativoNoBanco(int alerta) throws SQLException {
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT ACTIVE FROM ER_ALERTAS WHERE ID = ?")) {
+            stmt.setInt(1, alerta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private int exclusoes(int alerta) throws SQLException {
+        try (Connection conn = banco.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM ER_EXCLUSOES WHERE ENTIDADE = 'alertas' AND ENTIDADE_ID = ?")) {
+            stmt.setInt(1, alerta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
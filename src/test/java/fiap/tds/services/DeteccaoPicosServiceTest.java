@@ -0,0 +1,139 @@
+package fiap.tds.services;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static fiap.tds.ApiTeste.admin;
+import static fiap.tds.ApiTeste.app;
+import static fiap.tds.ApiTeste.unico;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class DeteccaoPicosServiceTest {
+
+    @Inject
+    DeteccaoPicosService deteccao;
+
+    // Tipo único por teste: cada um começa numa região sem linha de base
+    @Test
+    void regiaoNovaDisparaNoMinimoDeReportesEUmaVezSoPorIntervalo() {
+        String tipo = unico("tipo");
+        long balde = 1_000_000;
+        for (int i = 1; i < 10; i++) {
+            assertNull(deteccao.observar(-30.0, -40.0, tipo, balde), "Pico antes do mínimo de reportes");
+        }
+
+        DeteccaoPicosService.Pico pico = deteccao.observar(-30.0, -40.0, tipo, balde);
+        assertNotNull(pico);
+        assertEquals(10, pico.reportes());
+        assertEquals(tipo, pico.tipo());
+
+        assertNull(deteccao.observar(-30.0, -40.0, tipo, balde + 1), "Segundo alerta dentro do intervalo");
+    }
+
+    @Test
+    void linhaDeBaseAprendidaSobeOLimite() {
+        String tipo = unico("tipo");
+        long balde = 2_000_000;
+        // Movimento constante de 3 reportes por balde: abaixo do mínimo, ensina a média da região
+        for (int b = 0; b < 300; b++) {
+            for (int i = 0; i < 3; i++) {
+                assertNull(deteccao.observar(-30.0, -40.0, tipo, balde + b), "Pico no balde " + b);
+            }
+        }
+
+        // Com a base aprendida, 10 reportes a mais num balde ainda são o esperado para a região
+        long atual = balde + 300;
+        for (int i = 0; i < 10; i++) {
+            assertNull(deteccao.observar(-30.0, -40.0, tipo, atual), "Pico dentro da variação esperada");
+        }
+        DeteccaoPicosService.Pico pico = null;
+        for (int i = 0; i < 20 && pico == null; i++) {
+            pico = deteccao.observar(-30.0, -40.0, tipo, atual);
+        }
+        assertNotNull(pico, "Surto muito acima da base não gerou pico");
+        assertTrue(pico.esperado() > 8, "Esperado sem a base aprendida: " + pico.esperado());
+    }
+
+    @Test
+    void picoDeReportesRegistradosViraRascunhoParaOAdmin() {
+        String tipo = unico("tipo");
+        for (int i = 0; i < 10; i++) {
+            admin().multiPart("eventType", tipo)
+                    .multiPart("description", "Reporte " + i + " do pico")
+                    .multiPart("location", "Ponto de teste da detecção de picos")
+                    .multiPart("latitude", "-31.0")
+                    .multiPart("longitude", "-41.0")
+                    .when().post("/reportes")
+                    .then().statusCode(201);
+        }
+
+        List<String> tipos = admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .extract().path("eventType");
+        assertTrue(tipos.contains(tipo), "Rascunho do pico não gerado");
+        List<Integer> ids = admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .extract().path("findAll { it.eventType == '" + tipo + "' }.id");
+
+        admin().when().post("/alertas/{id}/publicacao", ids.get(0))
+                .then().statusCode(200);
+        List<String> restantes = admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .extract().path("eventType");
+        assertFalse(restantes.contains(tipo), "Rascunho publicado continua na revisão");
+        admin().when().post("/alertas/{id}/publicacao", ids.get(0))
+                .then().statusCode(400);
+    }
+
+    @Test
+    void rascunhoGeradoPodeSerEditadoPeloAdmin() {
+        String tipo = unico("tipo");
+        for (int i = 0; i < 10; i++) {
+            admin().multiPart("eventType", tipo)
+                    .multiPart("description", "Reporte " + i + " do pico")
+                    .multiPart("location", "Ponto de teste da edição de rascunhos")
+                    .multiPart("latitude", "-32.0")
+                    .multiPart("longitude", "-42.0")
+                    .when().post("/reportes")
+                    .then().statusCode(201);
+        }
+        Map<String, Object> rascunho = admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .extract().path("find { it.eventType == '" + tipo + "' }");
+        assertNotNull(rascunho, "Rascunho do pico não gerado");
+
+        // Mesma severidade que a detecção grava, acentuada ou não
+        for (String severidade : List.of((String) rascunho.get("severity"), "médio")) {
+            admin().contentType(ContentType.JSON)
+                    .body(Map.of("title", rascunho.get("title"),
+                            "description", "Revisado pela Defesa Civil",
+                            "severity", severidade,
+                            "source", rascunho.get("source"),
+                            "eventType", tipo,
+                            "location", rascunho.get("location")))
+                    .when().put("/alertas/{id}", rascunho.get("id"))
+                    .then().statusCode(200);
+        }
+
+        List<String> descricoes = admin().when().get("/alertas/rascunhos")
+                .then().statusCode(200)
+                .extract().path("findAll { it.eventType == '" + tipo + "' }.description");
+        assertTrue(descricoes.contains("Revisado pela Defesa Civil"), "Rascunho editado saiu da revisão");
+    }
+
+    @Test
+    void rascunhosSomenteParaAdmin() {
+        app().when().get("/alertas/rascunhos")
+                .then().statusCode(403);
+    }
+}